@@ -0,0 +1,55 @@
+package com.whs.trading.benchmark;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.whs.trading.gemini.backtest.BacktestConfig;
+import com.whs.trading.gemini.backtest.BacktestEngine;
+import com.whs.trading.gemini.backtest.BacktestResult;
+import com.whs.trading.gemini.dto.CandleSeries;
+
+/**
+ * Backtest com os cinco indicadores; 5.259.600 velas = 10 anos de 1m.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class BacktestBenchmark {
+
+    @Param({"100000", "5259600"})
+    public int size;
+
+    private BacktestEngine engine;
+    private CandleSeries series;
+    private BacktestConfig config;
+
+    @Setup
+    public void setUp() {
+        engine = new BacktestEngine(List.of(BenchmarkData.indicator("SMA"), BenchmarkData.indicator("RSI"),
+                BenchmarkData.indicator("MACD"), BenchmarkData.indicator("BOLLINGER"), BenchmarkData.indicator("SR")));
+        series = BenchmarkData.series(size);
+        config = new BacktestConfig();
+        config.setEquitySampleInterval(1_440); // Uma amostra por dia
+    }
+
+    @Benchmark
+    public BacktestResult allIndicators() {
+        return engine.run(series, List.of(), Map.of(), config);
+    }
+}
@@ -0,0 +1,138 @@
+package com.whs.trading.benchmark;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+import com.whs.trading.gemini.dto.ArrayCandleSeries;
+import com.whs.trading.gemini.dto.CandleSeries;
+import com.whs.trading.gemini.dto.CandlestickData;
+import com.whs.trading.gemini.indicator.BollingerBandsIndicator;
+import com.whs.trading.gemini.indicator.CandleIndicator;
+import com.whs.trading.gemini.indicator.MacdIndicator;
+import com.whs.trading.gemini.indicator.RsiIndicator;
+import com.whs.trading.gemini.indicator.SmaIndicator;
+import com.whs.trading.gemini.indicator.SupportResistanceIndicator;
+
+/**
+ * Dados determinísticos para os benchmarks (passeio aleatório com semente fixa) e carga de payloads gravados.
+ */
+final class BenchmarkData {
+
+    /**
+     * Caminho de um payload JSON de klines gravado da API (ex: resposta de /api/v3/klines?limit=1000).
+     * Sem a propriedade, um payload sintético no mesmo formato é gerado.
+     */
+    static final String PAYLOAD_PROPERTY = "klines.payload";
+
+    private static final long ONE_MINUTE = 60_000L;
+    private static final long START = 1_700_000_000_000L;
+
+    private BenchmarkData() {
+    }
+
+    static CandleIndicator indicator(String name) {
+        return switch (name) {
+            case "SMA" -> new SmaIndicator();
+            case "RSI" -> new RsiIndicator();
+            case "MACD" -> new MacdIndicator();
+            case "BOLLINGER" -> new BollingerBandsIndicator();
+            case "SR" -> new SupportResistanceIndicator();
+            default -> throw new IllegalArgumentException("Indicador desconhecido: " + name);
+        };
+    }
+
+    /**
+     * Conjuntos de parâmetros: "default" (padrões dos beans), "fast" (períodos curtos) e "slow" (períodos longos).
+     */
+    static Map<String, String> params(String paramSet) {
+        return switch (paramSet) {
+            case "default" -> Map.of();
+            case "fast" -> Map.of("smaPeriod", "9", "rsiPeriod", "7", "macdShortPeriod", "5", "macdLongPeriod", "13",
+                    "macdSignalPeriod", "4", "bbPeriod", "10", "bbStdDevMult", "1.5", "srLookbackPeriod", "10");
+            case "slow" -> Map.of("smaPeriod", "200", "rsiPeriod", "28", "macdShortPeriod", "24", "macdLongPeriod", "52",
+                    "macdSignalPeriod", "18", "bbPeriod", "100", "bbStdDevMult", "2.5", "srLookbackPeriod", "200");
+            default -> throw new IllegalArgumentException("Conjunto de parâmetros desconhecido: " + paramSet);
+        };
+    }
+
+    static CandleSeries series(int size) {
+        Random random = new Random(size);
+        ArrayCandleSeries.Builder builder = CandleSeries.builder(size);
+        double price = 30_000;
+        for (int i = 0; i < size; i++) {
+            double open = price;
+            price = Math.max(1, price * (1 + random.nextGaussian() * 0.001));
+            double high = Math.max(open, price) * (1 + random.nextDouble() * 0.0005);
+            double low = Math.min(open, price) * (1 - random.nextDouble() * 0.0005);
+            double volume = 5 + random.nextDouble() * 50;
+            long openTime = START + i * ONE_MINUTE;
+            builder.add(openTime, open, high, low, price, volume, openTime + ONE_MINUTE - 1,
+                    volume * price, 100 + random.nextInt(900), volume / 2, volume * price / 2);
+        }
+        return builder.build();
+    }
+
+    static List<CandlestickData> candlesticks(int size) {
+        CandleSeries series = series(size);
+        List<CandlestickData> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            list.add(new CandlestickData(Instant.ofEpochMilli(series.openTime(i)), price(series.open(i)),
+                    price(series.high(i)), price(series.low(i)), price(series.close(i)), price(series.volume(i)),
+                    Instant.ofEpochMilli(series.closeTime(i))));
+        }
+        return list;
+    }
+
+    private static BigDecimal price(double value) {
+        return BigDecimal.valueOf(value).setScale(8, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Payload JSON no formato da Binance (array de arrays, preços como string com 8 casas).
+     */
+    static byte[] klinePayload(int klines) {
+        String recorded = System.getProperty(PAYLOAD_PROPERTY);
+        if (recorded != null) {
+            try {
+                return Files.readAllBytes(Path.of(recorded));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        CandleSeries series = series(klines);
+        StringBuilder json = new StringBuilder(klines * 200).append('[');
+        for (int i = 0; i < klines; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append('[').append(series.openTime(i))
+                    .append(",\"").append(decimal(series.open(i)))
+                    .append("\",\"").append(decimal(series.high(i)))
+                    .append("\",\"").append(decimal(series.low(i)))
+                    .append("\",\"").append(decimal(series.close(i)))
+                    .append("\",\"").append(decimal(series.volume(i)))
+                    .append("\",").append(series.closeTime(i))
+                    .append(",\"").append(decimal(series.quoteVolume(i)))
+                    .append("\",").append(series.tradeCount(i))
+                    .append(",\"").append(decimal(series.takerBuyBaseVolume(i)))
+                    .append("\",\"").append(decimal(series.takerBuyQuoteVolume(i)))
+                    .append("\",\"0\"]");
+        }
+        return json.append(']').toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String decimal(double value) {
+        return String.format(Locale.ROOT, "%.8f", value);
+    }
+}
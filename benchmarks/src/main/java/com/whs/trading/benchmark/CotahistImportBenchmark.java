@@ -0,0 +1,139 @@
+package com.whs.trading.benchmark;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.whs.trading.gemini.b3.B3HistoryService;
+import com.whs.trading.gemini.b3.CotahistImporter;
+import com.whs.trading.gemini.dto.CandleSeries;
+import com.whs.trading.gemini.service.IndicatorResultCache;
+import com.whs.trading.gemini.store.CandleStore;
+
+/**
+ * Decodificação de um arquivo COTAHIST inteiro em velas diárias por papel, sem gravar: ~1 milhão de registros
+ * (um ano de todos os mercados, ~250 MB), um quarto deles no mercado à vista. Para um arquivo real:
+ * {@code -jvmArgsAppend -Dcotahist.file=COTAHIST_A2023.TXT}. Dez arquivos em menos de um minuto pedem algo
+ * abaixo de 6 s por operação.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class CotahistImportBenchmark {
+
+    static final String FILE_PROPERTY = "cotahist.file";
+    private static final int TRADING_DAYS = 250;
+
+    @Param({"1000000"})
+    public int records;
+
+    @Param({"0"})
+    public int parallelism;
+
+    private Path directory;
+    private Path file;
+    private CotahistImporter importer;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("cotahist-benchmark");
+        String recorded = System.getProperty(FILE_PROPERTY);
+        file = recorded != null ? Paths.get(recorded) : write(directory.resolve("COTAHIST_A2023.TXT"), records);
+        B3HistoryService history = new B3HistoryService(new CandleStore(directory.resolve("store")), List.of(),
+                new IndicatorResultCache(16));
+        importer = new CotahistImporter(history, directory.toString(), List.of(10), parallelism);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        importer.shutdown();
+        Files.deleteIfExists(directory.resolve("COTAHIST_A2023.TXT"));
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public Map<String, CandleSeries> readSeries() throws IOException, InterruptedException {
+        return importer.readSeries(file);
+    }
+
+    private static Path write(Path path, int records) throws IOException {
+        Random random = new Random(42);
+        int perDay = Math.max(1, records / TRADING_DAYS);
+        try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.US_ASCII)) {
+            char[] header = blank();
+            put(header, 0, "00COTAHIST.2023BOVESPA 20240102");
+            writer.write(header);
+            writer.write("\r\n");
+            for (int r = 0; r < records; r++) {
+                int day = r / perDay;
+                int date = 20230100 + day / 28 * 100 + day % 28 + 1;
+                int slot = r % perDay;
+                // Um quarto à vista (010), o resto em opções (070) com mais códigos
+                boolean spot = slot % 4 == 0;
+                String ticker = spot ? "PAP" + (slot / 4) + "3" : "OPC" + slot;
+                long close = 500 + random.nextInt(10_000);
+                char[] line = blank();
+                put(line, 0, "01");
+                put(line, 2, 8, date);
+                put(line, 10, 2, 2);
+                put(line, 12, ticker);
+                put(line, 24, 3, spot ? 10 : 70);
+                put(line, 56, 13, close - random.nextInt(50));
+                put(line, 69, 13, close + random.nextInt(100));
+                put(line, 82, 13, close - 50 - random.nextInt(100));
+                put(line, 108, 13, close);
+                put(line, 147, 5, random.nextInt(99_999));
+                put(line, 152, 18, random.nextInt(10_000_000));
+                put(line, 170, 18, (long) random.nextInt(10_000_000) * close);
+                put(line, 210, 7, 1);
+                writer.write(line);
+                writer.write("\r\n");
+            }
+            char[] trailer = blank();
+            put(trailer, 0, "99COTAHIST.2023BOVESPA 20240102");
+            writer.write(trailer);
+            writer.write("\r\n");
+        }
+        return path;
+    }
+
+    private static char[] blank() {
+        char[] line = new char[245];
+        Arrays.fill(line, ' ');
+        return line;
+    }
+
+    private static void put(char[] line, int position, String text) {
+        text.getChars(0, text.length(), line, position);
+    }
+
+    private static void put(char[] line, int position, int length, long value) {
+        String digits = Long.toString(value);
+        Arrays.fill(line, position, position + length - digits.length(), '0');
+        put(line, position + length - digits.length(), digits);
+    }
+}
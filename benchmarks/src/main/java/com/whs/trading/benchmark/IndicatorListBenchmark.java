@@ -0,0 +1,59 @@
+package com.whs.trading.benchmark;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.whs.trading.gemini.dto.CandlestickData;
+import com.whs.trading.gemini.dto.IndicatorResult;
+import com.whs.trading.gemini.indicator.TechnicalIndicator;
+
+/**
+ * Caminho legado (List&lt;CandlestickData&gt; + BigDecimal). Limitado a 1M velas: acima disso o heap
+ * do próprio conjunto de dados domina a medição.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class IndicatorListBenchmark {
+
+    @Param({"SMA", "RSI", "MACD", "BOLLINGER", "SR"})
+    public String indicator;
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int size;
+
+    @Param({"default", "fast", "slow"})
+    public String paramSet;
+
+    private TechnicalIndicator technicalIndicator;
+    private Map<String, String> params;
+    private List<CandlestickData> candles;
+
+    @Setup
+    public void setUp() {
+        technicalIndicator = BenchmarkData.indicator(indicator);
+        params = BenchmarkData.params(paramSet);
+        candles = BenchmarkData.candlesticks(size);
+    }
+
+    @Benchmark
+    public IndicatorResult analyze() {
+        return technicalIndicator.analyze(candles, params);
+    }
+}
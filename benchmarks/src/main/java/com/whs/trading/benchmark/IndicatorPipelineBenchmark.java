@@ -0,0 +1,80 @@
+package com.whs.trading.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.whs.trading.gemini.dto.CandleSeries;
+import com.whs.trading.gemini.dto.IndicatorResult;
+import com.whs.trading.gemini.dto.IndicatorSeries;
+import com.whs.trading.gemini.indicator.CandleIndicator;
+import com.whs.trading.gemini.indicator.IndicatorPipeline;
+
+/**
+ * Os cinco indicadores sobre a mesma série: um a um (uma passada por indicador) contra o
+ * {@link IndicatorPipeline} (uma passada, nós compartilhados).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class IndicatorPipelineBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private List<CandleIndicator> indicators;
+    private IndicatorPipeline pipeline;
+    private CandleSeries series;
+
+    @Setup
+    public void setUp() {
+        indicators = List.of(BenchmarkData.indicator("SMA"), BenchmarkData.indicator("RSI"),
+                BenchmarkData.indicator("MACD"), BenchmarkData.indicator("BOLLINGER"), BenchmarkData.indicator("SR"));
+        pipeline = IndicatorPipeline.of(indicators, Map.of());
+        series = BenchmarkData.series(size);
+    }
+
+    @Benchmark
+    public List<IndicatorSeries> separateSeries() {
+        List<IndicatorSeries> results = new ArrayList<>(indicators.size());
+        for (CandleIndicator indicator : indicators) {
+            results.add(indicator.analyzeSeries(series, Map.of()));
+        }
+        return results;
+    }
+
+    @Benchmark
+    public List<IndicatorSeries> pipelineSeries() {
+        return pipeline.analyzeSeries(series);
+    }
+
+    @Benchmark
+    public List<IndicatorResult> separateAnalyze() {
+        List<IndicatorResult> results = new ArrayList<>(indicators.size());
+        for (CandleIndicator indicator : indicators) {
+            results.add(indicator.analyze(series, Map.of()));
+        }
+        return results;
+    }
+
+    @Benchmark
+    public List<IndicatorResult> pipelineAnalyze() {
+        return pipeline.analyze(series);
+    }
+}
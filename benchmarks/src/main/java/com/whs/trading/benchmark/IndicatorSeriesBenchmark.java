@@ -0,0 +1,63 @@
+package com.whs.trading.benchmark;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.whs.trading.gemini.dto.CandleSeries;
+import com.whs.trading.gemini.dto.IndicatorResult;
+import com.whs.trading.gemini.dto.IndicatorSeries;
+import com.whs.trading.gemini.indicator.CandleIndicator;
+
+/**
+ * Caminho colunar (double) de cada indicador, de 1k a 10M velas.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class IndicatorSeriesBenchmark {
+
+    @Param({"SMA", "RSI", "MACD", "BOLLINGER", "SR"})
+    public String indicator;
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int size;
+
+    @Param({"default", "fast", "slow"})
+    public String paramSet;
+
+    private CandleIndicator technicalIndicator;
+    private Map<String, String> params;
+    private CandleSeries series;
+
+    @Setup
+    public void setUp() {
+        technicalIndicator = BenchmarkData.indicator(indicator);
+        params = BenchmarkData.params(paramSet);
+        series = BenchmarkData.series(size);
+    }
+
+    @Benchmark
+    public IndicatorResult analyze() {
+        return technicalIndicator.analyze(series, params);
+    }
+
+    @Benchmark
+    public IndicatorSeries analyzeSeries() {
+        return technicalIndicator.analyzeSeries(series, params);
+    }
+}
@@ -0,0 +1,71 @@
+package com.whs.trading.benchmark;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.whs.trading.gemini.dto.CandleSeries;
+import com.whs.trading.gemini.dto.CandlestickData;
+import com.whs.trading.gemini.service.KlineJsonParser;
+
+/**
+ * Custo de ler a resposta de /api/v3/klines: a conversão anterior (Object[][] via Jackson databind, linha
+ * de base em {@link LegacyKlineConversion}) contra o {@link KlineJsonParser} em streaming usado pelo serviço. Para usar uma resposta gravada: {@code -jvmArgsAppend -Dklines.payload=arquivo.json}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class KlineParsingBenchmark {
+
+    @Param({"100", "1000"})
+    public int klines;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private byte[] payload;
+
+    @Setup
+    public void setUp() {
+        payload = BenchmarkData.klinePayload(klines);
+    }
+
+    @Benchmark
+    public Object[][] deserializeOnly() throws IOException {
+        return objectMapper.readValue(payload, Object[][].class);
+    }
+
+    @Benchmark
+    public List<CandlestickData> toCandlesticks() throws IOException {
+        return LegacyKlineConversion.toCandlesticks(objectMapper.readValue(payload, Object[][].class));
+    }
+
+    @Benchmark
+    public CandleSeries toCandleSeries() throws IOException {
+        return LegacyKlineConversion.toCandleSeries(objectMapper.readValue(payload, Object[][].class));
+    }
+
+    @Benchmark
+    public CandleSeries streamingSeries() throws IOException {
+        return KlineJsonParser.parseSeries(payload);
+    }
+
+    @Benchmark
+    public List<CandlestickData> streamingCandlesticks() throws IOException {
+        return KlineJsonParser.parseCandlesticks(payload);
+    }
+}
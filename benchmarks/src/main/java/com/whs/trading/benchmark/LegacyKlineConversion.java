@@ -0,0 +1,68 @@
+package com.whs.trading.benchmark;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.whs.trading.gemini.dto.ArrayCandleSeries;
+import com.whs.trading.gemini.dto.CandleSeries;
+import com.whs.trading.gemini.dto.CandlestickData;
+
+/**
+ * Conversão anterior ao parser em streaming (Object[][] desserializado pelo Jackson), mantida aqui apenas
+ * como linha de base para o {@link KlineParsingBenchmark}.
+ */
+final class LegacyKlineConversion {
+
+    private LegacyKlineConversion() {
+    }
+
+    static List<CandlestickData> toCandlesticks(Object[][] klines) {
+        List<CandlestickData> candlestickDataList = new ArrayList<>();
+        for (Object[] kline : klines) {
+            if (kline.length < 7) {
+                continue;
+            }
+            try {
+                candlestickDataList.add(new CandlestickData(
+                        Instant.ofEpochMilli((Long) kline[0]),
+                        new BigDecimal((String) kline[1]),
+                        new BigDecimal((String) kline[2]),
+                        new BigDecimal((String) kline[3]),
+                        new BigDecimal((String) kline[4]),
+                        new BigDecimal((String) kline[5]),
+                        Instant.ofEpochMilli((Long) kline[6])));
+            } catch (ClassCastException | NumberFormatException e) {
+                // linha ignorada, como no serviço
+            }
+        }
+        return candlestickDataList;
+    }
+
+    static CandleSeries toCandleSeries(Object[][] klines) {
+        ArrayCandleSeries.Builder builder = CandleSeries.builder(klines.length);
+        for (Object[] kline : klines) {
+            if (kline.length < 7) {
+                continue;
+            }
+            try {
+                builder.add(
+                        (Long) kline[0],
+                        Double.parseDouble((String) kline[1]),
+                        Double.parseDouble((String) kline[2]),
+                        Double.parseDouble((String) kline[3]),
+                        Double.parseDouble((String) kline[4]),
+                        Double.parseDouble((String) kline[5]),
+                        (Long) kline[6],
+                        kline.length > 7 ? Double.parseDouble((String) kline[7]) : 0d,
+                        kline.length > 8 ? ((Number) kline[8]).longValue() : 0L,
+                        kline.length > 9 ? Double.parseDouble((String) kline[9]) : 0d,
+                        kline.length > 10 ? Double.parseDouble((String) kline[10]) : 0d);
+            } catch (ClassCastException | NumberFormatException e) {
+                // linha ignorada, como no serviço
+            }
+        }
+        return builder.build();
+    }
+}
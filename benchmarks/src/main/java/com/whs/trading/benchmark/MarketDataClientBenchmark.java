@@ -0,0 +1,169 @@
+package com.whs.trading.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.web.client.RestTemplate;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.whs.trading.gemini.dto.CandleSeries;
+import com.whs.trading.gemini.service.AsyncBinanceMarketDataService;
+import com.whs.trading.gemini.service.BinanceMarketDataService;
+import com.whs.trading.gemini.service.RequestWeightLimiter;
+
+/**
+ * {@code fetches} buscas de klines de símbolos diferentes contra um servidor local que imita /api/v3/klines com
+ * {@code latencyMillis} de atraso por resposta (gzip quando pedido): o {@link BinanceMarketDataService} bloqueante
+ * ({@link RestTemplate}) atendido por {@code threads} threads contra o {@link AsyncBinanceMarketDataService} com o
+ * mesmo número de threads. No bloqueante o tempo fica perto de {@code fetches * latencyMillis / threads}; no
+ * assíncrono, de uma latência mais o custo de parse.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class MarketDataClientBenchmark {
+
+    private static final long MINUTE = 60_000L;
+    private static final long T0 = 1_600_000_000_000L - 1_600_000_000_000L % MINUTE;
+
+    @Param({"1000"})
+    public int fetches;
+
+    @Param({"4"})
+    public int threads;
+
+    @Param({"20"})
+    public int latencyMillis;
+
+    @Param({"500"})
+    public int candles;
+
+    private HttpServer server;
+    private byte[] body;
+    private byte[] gzippedBody;
+    private ExecutorService blockingPool;
+    private BinanceMarketDataService blocking;
+    private AsyncBinanceMarketDataService async;
+
+    @Setup
+    public void setUp() throws IOException {
+        body = klines(candles);
+        gzippedBody = gzip(body);
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 4096);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/api/v3/klines", this::respond);
+        server.start();
+
+        String baseUrl = "http://localhost:" + server.getAddress().getPort();
+        RequestWeightLimiter limiter = new RequestWeightLimiter(Long.MAX_VALUE / 2, 60_000L);
+        blockingPool = Executors.newFixedThreadPool(threads);
+        blocking = new BinanceMarketDataService(new RestTemplate(), limiter, baseUrl);
+        async = new AsyncBinanceMarketDataService(limiter, baseUrl, threads, 5, 10);
+    }
+
+    @TearDown
+    public void tearDown() {
+        blockingPool.shutdownNow();
+        async.shutdown();
+        server.stop(0);
+    }
+
+    @Benchmark
+    public int blockingRestTemplate() throws Exception {
+        List<Future<CandleSeries>> futures = new ArrayList<>(fetches);
+        for (int i = 0; i < fetches; i++) {
+            String symbol = "SYM" + i;
+            futures.add(blockingPool.submit(() -> blocking.getCandleSeries(symbol, "1m", candles, T0, null)));
+        }
+        int total = 0;
+        for (Future<CandleSeries> future : futures) {
+            total += future.get().size();
+        }
+        return total;
+    }
+
+    @Benchmark
+    public int asyncHttpClient() {
+        List<CompletableFuture<CandleSeries>> futures = new ArrayList<>(fetches);
+        for (int i = 0; i < fetches; i++) {
+            futures.add(async.getCandleSeriesAsync("SYM" + i, "1m", candles, T0, null));
+        }
+        int total = 0;
+        for (CompletableFuture<CandleSeries> future : futures) {
+            total += future.join().size();
+        }
+        return total;
+    }
+
+    private void respond(HttpExchange exchange) throws IOException {
+        try {
+            Thread.sleep(latencyMillis);
+            String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+            byte[] response = body;
+            if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+                exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+                response = gzippedBody;
+            }
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, response.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(response);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static byte[] klines(int count) {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < count; i++) {
+            long t = T0 + i * MINUTE;
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append(String.format(Locale.ROOT,
+                    "[%d,\"%.8f\",\"%.8f\",\"%.8f\",\"%.8f\",\"%.8f\",%d,\"%.8f\",%d,\"%.8f\",\"%.8f\",\"0\"]",
+                    t, 100 + i * 0.01, 101 + i * 0.01, 99 + i * 0.01, 100.5 + i * 0.01, 12.5 + i % 7, t + MINUTE - 1,
+                    1250.0 + i, 40 + i % 11, 6.25, 625.0));
+        }
+        return json.append(']').toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (OutputStream out = new GZIPOutputStream(buffer)) {
+            out.write(bytes);
+        }
+        return buffer.toByteArray();
+    }
+}
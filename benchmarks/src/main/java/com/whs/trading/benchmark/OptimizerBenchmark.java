@@ -0,0 +1,69 @@
+package com.whs.trading.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.whs.trading.gemini.dto.CandleSeries;
+import com.whs.trading.gemini.indicator.BollingerBandsIndicator;
+import com.whs.trading.gemini.indicator.MacdIndicator;
+import com.whs.trading.gemini.indicator.RsiIndicator;
+import com.whs.trading.gemini.optimizer.OptimizationRequest;
+import com.whs.trading.gemini.optimizer.OptimizationResult;
+import com.whs.trading.gemini.optimizer.ParameterOptimizer;
+import com.whs.trading.gemini.optimizer.ParameterRange;
+
+/**
+ * Grade de 5.040 combinações (RSI x MACD x Bollinger) sobre ~5 anos de 1h, com 4 folds de walk-forward.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class OptimizerBenchmark {
+
+    @Param({"43800"})
+    public int size;
+
+    private ParameterOptimizer optimizer;
+    private CandleSeries series;
+    private OptimizationRequest request;
+
+    @Setup
+    public void setUp() {
+        optimizer = new ParameterOptimizer(new RsiIndicator(), new MacdIndicator(), new BollingerBandsIndicator(), 0, 10_000);
+        series = BenchmarkData.series(size);
+        request = new OptimizationRequest()
+                .range("rsiPeriod", new ParameterRange(7, 28, 3))               // 8
+                .range("macdShortPeriod", ParameterRange.of(8, 10, 12))          // 3
+                .range("macdLongPeriod", ParameterRange.of(21, 26, 30))          // 3
+                .range("macdSignalPeriod", ParameterRange.of(7, 9))              // 2
+                .range("bbPeriod", new ParameterRange(10, 40, 5))                // 7
+                .range("bbStdDevMult", ParameterRange.of(1.5, 2, 2.5, 3, 3.5));  // 5
+        request.setIndicators(List.of("RSI", "MACD", "BOLLINGER"));
+    }
+
+    @TearDown
+    public void tearDown() {
+        optimizer.shutdown();
+    }
+
+    @Benchmark
+    public OptimizationResult grid() {
+        return optimizer.optimize(series, request);
+    }
+}
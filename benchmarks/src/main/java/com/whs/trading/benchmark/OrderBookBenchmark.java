@@ -0,0 +1,162 @@
+package com.whs.trading.benchmark;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.whs.trading.gemini.depth.BookSide;
+import com.whs.trading.gemini.depth.DepthJsonParser;
+import com.whs.trading.gemini.depth.DepthUpdate;
+
+/**
+ * Vazão do consumidor do stream de profundidade: cada operação decodifica uma mensagem {@code depthUpdate}
+ * (streams combinados, símbolos em rodízio) e aplica os níveis ao livro do símbolo. Compara o
+ * {@link DepthJsonParser} com {@link BookSide} (arrays primitivos) contra a árvore JSON do Jackson com
+ * {@code TreeMap<BigDecimal, BigDecimal>} por lado. ops/s é mensagens por segundo em uma thread, a comparar com
+ * a taxa do stream: {@code symbols} x 10 mensagens/s a 100 ms.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderBookBenchmark {
+
+    private static final int MESSAGES = 1 << 14;
+    private static final int BOOK_LEVELS = 1000;
+
+    @Param({"300"})
+    public int symbols;
+
+    @Param({"5", "25"})
+    public int levelsPerUpdate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final DepthUpdate update = new DepthUpdate(64);
+    private String[] messages;
+    private Map<String, BookSide[]> books;
+    private Map<String, TreeMap<BigDecimal, BigDecimal>[]> treeBooks;
+    private int next;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        Random random = new Random(42);
+        books = new HashMap<>();
+        treeBooks = new HashMap<>();
+        String[] names = new String[symbols];
+        for (int s = 0; s < symbols; s++) {
+            names[s] = "SYM" + s + "USDT";
+            BookSide bids = new BookSide(true, BOOK_LEVELS);
+            BookSide asks = new BookSide(false, BOOK_LEVELS);
+            TreeMap<BigDecimal, BigDecimal> treeBids = new TreeMap<>(Collections.reverseOrder());
+            TreeMap<BigDecimal, BigDecimal> treeAsks = new TreeMap<>();
+            for (int level = 0; level < BOOK_LEVELS; level++) {
+                BigDecimal quantity = BigDecimal.valueOf(1 + random.nextInt(100_000), 4);
+                bids.set(price(true, level).doubleValue(), quantity.doubleValue());
+                asks.set(price(false, level).doubleValue(), quantity.doubleValue());
+                treeBids.put(price(true, level), quantity);
+                treeAsks.put(price(false, level), quantity);
+            }
+            books.put(names[s], new BookSide[] {bids, asks});
+            treeBooks.put(names[s], new TreeMap[] {treeBids, treeAsks});
+        }
+        messages = new String[MESSAGES];
+        long[] updateIds = new long[symbols];
+        for (int m = 0; m < MESSAGES; m++) {
+            int s = m % symbols;
+            long first = ++updateIds[s];
+            StringBuilder json = new StringBuilder(64 + levelsPerUpdate * 60)
+                    .append("{\"stream\":\"").append(names[s].toLowerCase(Locale.ROOT))
+                    .append("@depth@100ms\",\"data\":{\"e\":\"depthUpdate\",\"E\":").append(1_700_000_000_000L + m)
+                    .append(",\"s\":\"").append(names[s]).append("\",\"U\":").append(first).append(",\"u\":")
+                    .append(first).append(",\"b\":");
+            levels(json, random, true);
+            json.append(",\"a\":");
+            levels(json, random, false);
+            messages[m] = json.append("}}").toString();
+        }
+    }
+
+    /**
+     * Níveis concentrados perto do topo (onde o stream real atualiza), 1 em 4 removido.
+     */
+    private void levels(StringBuilder json, Random random, boolean bid) {
+        json.append('[');
+        for (int i = 0; i < levelsPerUpdate; i++) {
+            int level = random.nextInt(10) < 8 ? random.nextInt(20) : random.nextInt(BOOK_LEVELS);
+            BigDecimal quantity = random.nextInt(4) == 0 ? new BigDecimal("0.00000000")
+                    : BigDecimal.valueOf(1 + random.nextInt(100_000), 4);
+            json.append(i == 0 ? "[\"" : ",[\"").append(price(bid, level).toPlainString()).append("\",\"")
+                    .append(quantity.toPlainString()).append("\"]");
+        }
+        json.append(']');
+    }
+
+    private static BigDecimal price(boolean bid, int level) {
+        return BigDecimal.valueOf(bid ? 3_000_000 - level : 3_000_001 + level, 2);
+    }
+
+    private String nextMessage() {
+        String message = messages[next];
+        next = (next + 1) & (MESSAGES - 1);
+        return message;
+    }
+
+    @Benchmark
+    public double primitiveBook() throws IOException {
+        DepthJsonParser.parse(nextMessage(), update);
+        BookSide[] book = books.get(update.symbol());
+        BookSide bids = book[0];
+        BookSide asks = book[1];
+        for (int i = 0; i < update.bidCount(); i++) {
+            bids.set(update.bidPrice(i), update.bidQuantity(i));
+        }
+        for (int i = 0; i < update.askCount(); i++) {
+            asks.set(update.askPrice(i), update.askQuantity(i));
+        }
+        return bids.bestPrice();
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimalTreeBook() throws IOException {
+        JsonNode data = objectMapper.readTree(nextMessage()).get("data");
+        TreeMap<BigDecimal, BigDecimal>[] book = treeBooks.get(data.get("s").asText());
+        apply(book[0], data.get("b"));
+        apply(book[1], data.get("a"));
+        return book[0].isEmpty() ? null : book[0].firstKey();
+    }
+
+    private static void apply(TreeMap<BigDecimal, BigDecimal> side, JsonNode levels) {
+        for (JsonNode level : levels) {
+            BigDecimal price = new BigDecimal(level.get(0).asText());
+            BigDecimal quantity = new BigDecimal(level.get(1).asText());
+            if (quantity.signum() == 0) {
+                side.remove(price);
+            } else {
+                side.put(price, quantity);
+            }
+        }
+    }
+}
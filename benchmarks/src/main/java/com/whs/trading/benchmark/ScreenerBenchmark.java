@@ -0,0 +1,69 @@
+package com.whs.trading.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.whs.trading.gemini.dto.ArrayCandleSeries;
+import com.whs.trading.gemini.dto.CandleSeries;
+import com.whs.trading.gemini.screener.CloseBlock;
+import com.whs.trading.gemini.screener.ScreenerColumns;
+import com.whs.trading.gemini.screener.ScreenerKernel;
+import com.whs.trading.gemini.screener.ScreenerRules;
+
+/**
+ * Regras do screener (MMS-5/10/20, RSI-14, Bollinger 20/2) sobre um bloco com os últimos fechamentos de milhares
+ * de papéis (passeios aleatórios): kernel escalar contra o da Vector API. Só a avaliação; a montagem do bloco fica
+ * no {@code @Setup}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g", "--add-modules=jdk.incubator.vector"})
+@State(Scope.Benchmark)
+public class ScreenerBenchmark {
+
+    @Param({"500", "5000", "50000"})
+    public int tickers;
+
+    @Param({"scalar", "vector"})
+    public String kernel;
+
+    private CloseBlock block;
+    private ScreenerKernel screener;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        int window = ScreenerRules.DEFAULT.window();
+        CloseBlock.Builder builder = CloseBlock.builder(window);
+        for (int t = 0; t < tickers; t++) {
+            ArrayCandleSeries.Builder series = CandleSeries.builder(window);
+            double close = 5 + random.nextDouble() * 100;
+            for (int i = 0; i < window; i++) {
+                close *= 1 + random.nextGaussian() * 0.02;
+                series.add(i * 86_400_000L, close, close, close, close, 1, (i + 1) * 86_400_000L - 1, close, 1, 0, 0);
+            }
+            builder.add("T" + t, series.build());
+        }
+        block = builder.build();
+        screener = "vector".equals(kernel) ? ScreenerKernel.vector() : ScreenerKernel.scalar();
+    }
+
+    @Benchmark
+    public ScreenerColumns evaluate() {
+        return screener.evaluate(block, ScreenerRules.DEFAULT);
+    }
+}
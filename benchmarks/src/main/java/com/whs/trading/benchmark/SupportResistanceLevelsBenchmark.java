@@ -0,0 +1,48 @@
+package com.whs.trading.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.whs.trading.gemini.dto.CandleSeries;
+import com.whs.trading.gemini.indicator.SupportResistanceLevels;
+
+/**
+ * Níveis de S/R agrupados sobre a série inteira; 2.000.000 velas equivalem a ~4 anos em 1m.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class SupportResistanceLevelsBenchmark {
+
+    @Param({"100000", "2000000"})
+    public int size;
+
+    @Param({"5", "30"})
+    public int swingWindow;
+
+    private CandleSeries series;
+
+    @Setup
+    public void setUp() {
+        series = BenchmarkData.series(size);
+    }
+
+    @Benchmark
+    public SupportResistanceLevels.Levels levels() {
+        return SupportResistanceLevels.find(series, swingWindow, SupportResistanceLevels.DEFAULT_TOLERANCE);
+    }
+}
@@ -0,0 +1,230 @@
+package com.whs.trading.gemini.alert;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Distribui os {@link AlertEvent} a muitos assinantes (ex: conexões SSE) sem que um cliente lento atrase os
+ * demais ou o {@link AlertEngine}.
+ * <p>
+ * Cada assinante tem uma fila limitada e uma thread virtual que a esvazia no {@link AlertSink}; {@link #publish}
+ * só enfileira, em O(assinantes) e sem bloquear. Fila cheia aplica a {@link DropPolicy}. Sem eventos por
+ * {@code heartbeatSeconds}, o assinante recebe um heartbeat, que também detecta clientes desconectados.
+ */
+@Component
+public class AlertBroadcaster implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(AlertBroadcaster.class);
+
+    /**
+     * O que fazer com um evento quando a fila do assinante está cheia.
+     */
+    public enum DropPolicy {
+        /** Descarta o evento mais antigo da fila para abrir espaço (o cliente recebe os mais recentes). */
+        DROP_OLDEST,
+        /** Descarta o evento novo. */
+        DROP_NEWEST,
+        /** Encerra a assinatura; o cliente reconecta e volta a receber a partir dali. */
+        DISCONNECT
+    }
+
+    /**
+     * Destino dos eventos de um assinante; chamado apenas pela thread do assinante.
+     */
+    public interface AlertSink {
+        void send(AlertEvent event) throws IOException;
+
+        void heartbeat() throws IOException;
+
+        /**
+         * Fim da assinatura (cancelada, desconexão por fila cheia ou erro de envio).
+         */
+        default void close() {
+        }
+    }
+
+    private final int bufferSize;
+    private final DropPolicy dropPolicy;
+    private final long heartbeatSeconds;
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+    private final LongAdder published = new LongAdder();
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    @Autowired
+    public AlertBroadcaster(@Value("${alerts.subscriber.buffer-size:256}") int bufferSize,
+                            @Value("${alerts.subscriber.drop-policy:DROP_OLDEST}") DropPolicy dropPolicy,
+                            @Value("${alerts.subscriber.heartbeat-seconds:30}") long heartbeatSeconds) {
+        if (bufferSize <= 0 || heartbeatSeconds <= 0) {
+            throw new IllegalArgumentException("buffer-size e heartbeat-seconds devem ser positivos");
+        }
+        this.bufferSize = bufferSize;
+        this.dropPolicy = dropPolicy;
+        this.heartbeatSeconds = heartbeatSeconds;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("alerts.subscribers", subscriptions, Set::size).register(registry);
+        FunctionCounter.builder("alerts.published", published, LongAdder::sum).register(registry);
+        FunctionCounter.builder("alerts.deliveries", delivered, LongAdder::sum).tag("result", "sent").register(registry);
+        FunctionCounter.builder("alerts.deliveries", dropped, LongAdder::sum).tag("result", "dropped").register(registry);
+    }
+
+    /**
+     * Assina os eventos das regras e símbolos dados (vazios: todos), com a fila e a política padrão.
+     */
+    public Subscription subscribe(Set<String> ruleIds, Set<String> symbols, AlertSink sink) {
+        return subscribe(ruleIds, symbols, sink, bufferSize, dropPolicy);
+    }
+
+    /**
+     * @param bufferSize Capacidade da fila, limitada a {@code alerts.subscriber.buffer-size}.
+     */
+    public Subscription subscribe(Set<String> ruleIds, Set<String> symbols, AlertSink sink, int bufferSize,
+                                  DropPolicy dropPolicy) {
+        Subscription subscription = new Subscription(Set.copyOf(ruleIds), Set.copyOf(symbols), sink,
+                Math.max(1, Math.min(bufferSize, this.bufferSize)), dropPolicy);
+        subscriptions.add(subscription);
+        subscription.start();
+        return subscription;
+    }
+
+    public void publish(AlertEvent event) {
+        published.increment();
+        for (Subscription subscription : subscriptions) {
+            if (subscription.accepts(event)) {
+                subscription.offer(event);
+            }
+        }
+    }
+
+    public DropPolicy getDropPolicy() {
+        return dropPolicy;
+    }
+
+    public int getSubscriberCount() {
+        return subscriptions.size();
+    }
+
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (Subscription subscription : subscriptions) {
+            subscription.close();
+        }
+    }
+
+    /**
+     * Assinatura com fila própria; {@link #close()} é idempotente.
+     */
+    public final class Subscription {
+        private final Set<String> ruleIds;
+        private final Set<String> symbols;
+        private final AlertSink sink;
+        private final ArrayBlockingQueue<AlertEvent> queue;
+        private final DropPolicy dropPolicy;
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private volatile Thread consumer;
+
+        private Subscription(Set<String> ruleIds, Set<String> symbols, AlertSink sink, int capacity,
+                             DropPolicy dropPolicy) {
+            this.ruleIds = ruleIds;
+            this.symbols = symbols;
+            this.sink = sink;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+            this.dropPolicy = dropPolicy;
+        }
+
+        private void start() {
+            consumer = Thread.ofVirtual().name("alert-subscriber").start(this::drain);
+        }
+
+        private boolean accepts(AlertEvent event) {
+            return (ruleIds.isEmpty() || ruleIds.contains(event.ruleId()))
+                    && (symbols.isEmpty() || symbols.contains(event.symbol()));
+        }
+
+        private void offer(AlertEvent event) {
+            if (queue.offer(event)) {
+                return;
+            }
+            switch (dropPolicy) {
+                case DROP_NEWEST -> dropped.increment();
+                case DROP_OLDEST -> {
+                    // publish pode correr em paralelo e tomar a vaga aberta: repete até caber, contando cada
+                    // evento tirado da fila (se o consumidor a esvaziou antes, nada é descartado)
+                    do {
+                        if (queue.poll() != null) {
+                            dropped.increment();
+                        }
+                    } while (!queue.offer(event));
+                }
+                case DISCONNECT -> {
+                    dropped.increment();
+                    close();
+                }
+            }
+        }
+
+        private void drain() {
+            try {
+                while (!closed.get()) {
+                    AlertEvent event = queue.poll(heartbeatSeconds, TimeUnit.SECONDS);
+                    if (event == null) {
+                        sink.heartbeat();
+                    } else {
+                        sink.send(event);
+                        delivered.increment();
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException | RuntimeException e) {
+                logger.debug("Alert subscriber dropped: {}", e.getMessage());
+            } finally {
+                close();
+            }
+        }
+
+        public int queued() {
+            return queue.size();
+        }
+
+        public boolean isClosed() {
+            return closed.get();
+        }
+
+        public void close() {
+            if (!closed.compareAndSet(false, true)) {
+                return;
+            }
+            subscriptions.remove(this);
+            Thread thread = consumer;
+            if (thread != null && thread != Thread.currentThread()) {
+                thread.interrupt();
+            }
+            sink.close();
+        }
+    }
+}
@@ -0,0 +1,455 @@
+package com.whs.trading.gemini.alert;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+import java.util.function.DoubleSupplier;
+
+import com.whs.trading.gemini.indicator.streaming.RollingExtremum;
+import com.whs.trading.gemini.indicator.streaming.StreamingBollingerBands;
+import com.whs.trading.gemini.indicator.streaming.StreamingMacd;
+import com.whs.trading.gemini.indicator.streaming.StreamingRsi;
+import com.whs.trading.gemini.indicator.streaming.StreamingSma;
+
+/**
+ * Condição de alerta, ex: {@code rsi(14) < 30 and close < bb_lower(20, 2)}.
+ * <p>
+ * Gramática: comparações {@code <, <=, >, >=} entre operandos, combinadas com {@code and}, {@code or},
+ * {@code not} e parênteses. Operandos: números, {@code close}, {@code high}, {@code low} (da última vela
+ * fechada) e os indicadores {@code sma(20)}, {@code ema(20)}, {@code rsi(14)}, {@code bb_upper/bb_middle/
+ * bb_lower/bb_percent_b(20, 2)}, {@code macd/macd_signal/macd_hist(12, 26, 9)}, {@code lowest(20)} e
+ * {@code highest(20)}; sem parênteses, valem os parâmetros padrão dos indicadores.
+ * <p>
+ * O texto é analisado uma única vez em {@link #parse}; {@link #compile} liga a árvore aos nós de um
+ * {@link AlertContext} e devolve uma composição de lambdas, então avaliar a cada vela não interpreta nada.
+ * Enquanto algum operando não tiver valor (aquecimento dos indicadores), a condição inteira é falsa, inclusive
+ * sob {@code not}. Imutável.
+ */
+public final class AlertCondition {
+
+    private final String expression;
+    private final Node root;
+    private final List<Operand> operands;
+
+    private AlertCondition(String expression, Node root, List<Operand> operands) {
+        this.expression = expression;
+        this.root = root;
+        this.operands = operands;
+    }
+
+    /**
+     * @throws IllegalArgumentException se a expressão for inválida (a mensagem indica a posição).
+     */
+    public static AlertCondition parse(String expression) {
+        if (expression == null || expression.isBlank()) {
+            throw new IllegalArgumentException("Condição vazia");
+        }
+        Parser parser = new Parser(expression);
+        Node root = parser.parse();
+        return new AlertCondition(expression.trim(), root, List.copyOf(parser.operands.values()));
+    }
+
+    public String getExpression() {
+        return expression;
+    }
+
+    /**
+     * Nomes canônicos dos operandos não constantes (ex: {@code rsi(14)}), na ordem em que aparecem.
+     */
+    public List<String> getOperands() {
+        return operands.stream().map(Operand::canonical).toList();
+    }
+
+    /**
+     * Liga a condição ao contexto; deve ser chamado antes de o contexto receber velas.
+     */
+    public Compiled compile(AlertContext context) {
+        BooleanSupplier expression = root.compile(context);
+        Map<String, DoubleSupplier> values = new LinkedHashMap<>();
+        for (Operand operand : operands) {
+            values.put(operand.canonical(), operand.supplier(context));
+        }
+        DoubleSupplier[] suppliers = values.values().toArray(new DoubleSupplier[0]);
+        BooleanSupplier test = () -> {
+            for (DoubleSupplier supplier : suppliers) {
+                if (Double.isNaN(supplier.getAsDouble())) {
+                    return false;
+                }
+            }
+            return expression.getAsBoolean();
+        };
+        return new Compiled(test, values);
+    }
+
+    @Override
+    public String toString() {
+        return expression;
+    }
+
+    /**
+     * Condição ligada a um contexto; usada pela mesma thread que alimenta o contexto.
+     */
+    public static final class Compiled {
+        private final BooleanSupplier test;
+        private final Map<String, DoubleSupplier> values;
+
+        private Compiled(BooleanSupplier test, Map<String, DoubleSupplier> values) {
+            this.test = test;
+            this.values = values;
+        }
+
+        public boolean test() {
+            return test.getAsBoolean();
+        }
+
+        /**
+         * Valor atual de cada operando (montado só quando o alerta dispara).
+         */
+        public Map<String, Double> values() {
+            Map<String, Double> snapshot = new LinkedHashMap<>();
+            values.forEach((name, value) -> snapshot.put(name, value.getAsDouble()));
+            return Collections.unmodifiableMap(snapshot);
+        }
+    }
+
+    private sealed interface Node {
+        BooleanSupplier compile(AlertContext context);
+    }
+
+    private record And(Node left, Node right) implements Node {
+        @Override
+        public BooleanSupplier compile(AlertContext context) {
+            BooleanSupplier l = left.compile(context);
+            BooleanSupplier r = right.compile(context);
+            return () -> l.getAsBoolean() && r.getAsBoolean();
+        }
+    }
+
+    private record Or(Node left, Node right) implements Node {
+        @Override
+        public BooleanSupplier compile(AlertContext context) {
+            BooleanSupplier l = left.compile(context);
+            BooleanSupplier r = right.compile(context);
+            return () -> l.getAsBoolean() || r.getAsBoolean();
+        }
+    }
+
+    private record Not(Node operand) implements Node {
+        @Override
+        public BooleanSupplier compile(AlertContext context) {
+            BooleanSupplier o = operand.compile(context);
+            return () -> !o.getAsBoolean();
+        }
+    }
+
+    private record Comparison(Operand left, String operator, Operand right) implements Node {
+        @Override
+        public BooleanSupplier compile(AlertContext context) {
+            DoubleSupplier l = left.supplier(context);
+            DoubleSupplier r = right.supplier(context);
+            return switch (operator) {
+                case "<" -> () -> l.getAsDouble() < r.getAsDouble();
+                case "<=" -> () -> l.getAsDouble() <= r.getAsDouble();
+                case ">" -> () -> l.getAsDouble() > r.getAsDouble();
+                case ">=" -> () -> l.getAsDouble() >= r.getAsDouble();
+                default -> throw new IllegalStateException(operator);
+            };
+        }
+    }
+
+    /**
+     * Tipos de operando, com os parâmetros padrão (os mesmos dos indicadores).
+     */
+    private enum Kind {
+        CONSTANT(), CLOSE(), HIGH(), LOW(),
+        SMA(20), EMA(20), RSI(14),
+        BB_UPPER(20, 2), BB_MIDDLE(20, 2), BB_LOWER(20, 2), BB_PERCENT_B(20, 2),
+        MACD(12, 26, 9), MACD_SIGNAL(12, 26, 9), MACD_HIST(12, 26, 9),
+        LOWEST(20), HIGHEST(20);
+
+        private final double[] defaults;
+
+        Kind(double... defaults) {
+            this.defaults = defaults;
+        }
+    }
+
+    private record Operand(Kind kind, double[] args, String canonical) {
+
+        static Operand constant(double value) {
+            return new Operand(Kind.CONSTANT, new double[] {value}, Double.toString(value));
+        }
+
+        static Operand of(Kind kind, double[] args) {
+            StringBuilder canonical = new StringBuilder(kind.name().toLowerCase(Locale.ROOT));
+            if (args.length > 0) {
+                canonical.append('(');
+                for (int i = 0; i < args.length; i++) {
+                    if (i > 0) {
+                        canonical.append(',');
+                    }
+                    canonical.append(args[i] == Math.rint(args[i]) ? Long.toString((long) args[i]) : Double.toString(args[i]));
+                }
+                canonical.append(')');
+            }
+            return new Operand(kind, args, canonical.toString());
+        }
+
+        DoubleSupplier supplier(AlertContext context) {
+            if (kind == Kind.CONSTANT) {
+                double value = args[0];
+                return () -> value;
+            }
+            return context.operand(canonical, () -> bind(context));
+        }
+
+        /**
+         * Cria o nó (compartilhado pelo grafo do contexto) e a leitura do valor.
+         */
+        DoubleSupplier bind(AlertContext context) {
+            return switch (kind) {
+                case CONSTANT -> {
+                    double value = args[0];
+                    yield () -> value;
+                }
+                case CLOSE -> context::close;
+                case HIGH -> context::high;
+                case LOW -> context::low;
+                case SMA -> context.stream(canonical, () -> StreamingSma.on(context.graph(), period(0)))::value;
+                case EMA -> {
+                    var ema = context.graph().closeEma(period(0));
+                    yield () -> ema.isReady() ? ema.value() : Double.NaN;
+                }
+                case RSI -> context.stream(canonical, () -> StreamingRsi.on(context.graph(), period(0)))::value;
+                case BB_UPPER -> bands(context)::upperBand;
+                case BB_MIDDLE -> bands(context)::middleBand;
+                case BB_LOWER -> bands(context)::lowerBand;
+                case BB_PERCENT_B -> bands(context)::percentB;
+                case MACD -> {
+                    StreamingMacd macd = macd(context);
+                    yield () -> macd.isReady() ? macd.macdLine() : Double.NaN;
+                }
+                case MACD_SIGNAL -> {
+                    StreamingMacd macd = macd(context);
+                    yield () -> macd.isReady() ? macd.signalLine() : Double.NaN;
+                }
+                case MACD_HIST -> {
+                    StreamingMacd macd = macd(context);
+                    yield () -> macd.isReady() ? macd.histogram() : Double.NaN;
+                }
+                case LOWEST -> extremum(context.graph().lowestLow(period(0)));
+                case HIGHEST -> extremum(context.graph().highestHigh(period(0)));
+            };
+        }
+
+        private StreamingBollingerBands bands(AlertContext context) {
+            return context.stream("bb(" + period(0) + "," + args[1] + ")",
+                    () -> StreamingBollingerBands.on(context.graph(), period(0), args[1]));
+        }
+
+        private StreamingMacd macd(AlertContext context) {
+            return context.stream("macd(" + period(0) + "," + period(1) + "," + period(2) + ")",
+                    () -> StreamingMacd.on(context.graph(), period(0), period(1), period(2)));
+        }
+
+        private static DoubleSupplier extremum(RollingExtremum extremum) {
+            return () -> extremum.isFull() ? extremum.value() : Double.NaN;
+        }
+
+        private int period(int index) {
+            return (int) args[index];
+        }
+    }
+
+    /**
+     * Descida recursiva; operandos iguais (mesmo nome canônico) são um único {@link Operand}.
+     */
+    private static final class Parser {
+        private final String text;
+        private final Map<String, Operand> operands = new LinkedHashMap<>();
+        private int pos;
+
+        Parser(String text) {
+            this.text = text;
+        }
+
+        Node parse() {
+            Node node = or();
+            skipSpaces();
+            if (pos < text.length()) {
+                throw error("fim da expressão esperado");
+            }
+            return node;
+        }
+
+        private Node or() {
+            Node node = and();
+            while (keyword("or")) {
+                node = new Or(node, and());
+            }
+            return node;
+        }
+
+        private Node and() {
+            Node node = unary();
+            while (keyword("and")) {
+                node = new And(node, unary());
+            }
+            return node;
+        }
+
+        private Node unary() {
+            if (keyword("not")) {
+                return new Not(unary());
+            }
+            skipSpaces();
+            if (peek() == '(') {
+                pos++;
+                Node node = or();
+                expect(')');
+                return node;
+            }
+            Operand left = operand();
+            String operator = operator();
+            return new Comparison(left, operator, operand());
+        }
+
+        private String operator() {
+            skipSpaces();
+            for (String candidate : new String[] {"<=", ">=", "<", ">"}) {
+                if (text.startsWith(candidate, pos)) {
+                    pos += candidate.length();
+                    return candidate;
+                }
+            }
+            throw error("operador de comparação esperado (<, <=, >, >=)");
+        }
+
+        private Operand operand() {
+            skipSpaces();
+            char c = peek();
+            if (Character.isDigit(c) || c == '-' || c == '.') {
+                return Operand.constant(number());
+            }
+            int start = pos;
+            String name = identifier();
+            Kind kind;
+            try {
+                kind = Kind.valueOf(name.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                kind = null;
+            }
+            if (kind == null || kind == Kind.CONSTANT) {
+                pos = start;
+                throw error("operando desconhecido '" + name + "'");
+            }
+            double[] args = kind.defaults.clone();
+            skipSpaces();
+            if (peek() == '(') {
+                pos++;
+                List<Double> values = new ArrayList<>();
+                skipSpaces();
+                if (peek() != ')') {
+                    do {
+                        values.add(number());
+                        skipSpaces();
+                    } while (consume(','));
+                }
+                expect(')');
+                if (values.size() > args.length) {
+                    pos = start;
+                    throw error(name + " aceita no máximo " + args.length + " parâmetro(s)");
+                }
+                for (int i = 0; i < values.size(); i++) {
+                    args[i] = values.get(i);
+                }
+            }
+            for (int i = 0; i < args.length; i++) {
+                // Períodos inteiros e positivos; o multiplicador das bandas (2º de bb_*) pode ser fracionário
+                boolean multiplier = kind.name().startsWith("BB_") && i == 1;
+                if (args[i] <= 0 || (!multiplier && args[i] != Math.rint(args[i]))) {
+                    pos = start;
+                    throw error("parâmetros inválidos para " + name);
+                }
+            }
+            if (kind.name().startsWith("MACD") && args[0] > args[1]) {
+                pos = start;
+                throw error("período curto maior que o longo em " + name);
+            }
+            Operand operand = Operand.of(kind, args);
+            return operands.computeIfAbsent(operand.canonical(), k -> operand);
+        }
+
+        private double number() {
+            skipSpaces();
+            int start = pos;
+            if (peek() == '-') {
+                pos++;
+            }
+            while (pos < text.length() && (Character.isDigit(text.charAt(pos)) || text.charAt(pos) == '.')) {
+                pos++;
+            }
+            try {
+                return Double.parseDouble(text.substring(start, pos));
+            } catch (NumberFormatException e) {
+                pos = start;
+                throw error("número esperado");
+            }
+        }
+
+        private String identifier() {
+            int start = pos;
+            while (pos < text.length() && (Character.isLetterOrDigit(text.charAt(pos)) || text.charAt(pos) == '_')) {
+                pos++;
+            }
+            if (start == pos) {
+                throw error("operando esperado");
+            }
+            return text.substring(start, pos);
+        }
+
+        private boolean keyword(String keyword) {
+            skipSpaces();
+            int end = pos + keyword.length();
+            if (text.regionMatches(true, pos, keyword, 0, keyword.length())
+                    && (end == text.length() || !Character.isLetterOrDigit(text.charAt(end)))) {
+                pos = end;
+                return true;
+            }
+            return false;
+        }
+
+        private boolean consume(char c) {
+            skipSpaces();
+            if (peek() == c) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        private void expect(char c) {
+            if (!consume(c)) {
+                throw error("'" + c + "' esperado");
+            }
+        }
+
+        private char peek() {
+            return pos < text.length() ? text.charAt(pos) : '\0';
+        }
+
+        private void skipSpaces() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException("Condição inválida na posição " + pos + ": " + message + " em '" + text + "'");
+        }
+    }
+}
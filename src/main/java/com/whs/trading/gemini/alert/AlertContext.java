@@ -0,0 +1,135 @@
+package com.whs.trading.gemini.alert;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
+
+import com.whs.trading.gemini.dto.CandleSeries;
+import com.whs.trading.gemini.indicator.streaming.IndicatorGraph;
+import com.whs.trading.gemini.indicator.streaming.StreamingIndicator;
+import com.whs.trading.gemini.indicator.streaming.StreamingState;
+
+/**
+ * Estado incremental de um símbolo/intervalo para as condições de alerta: um {@link IndicatorGraph} com os nós
+ * de todas as condições ligadas (a {@code rsi(14)} de duas regras é um único nó) e a última vela fechada.
+ * <p>
+ * As condições são ligadas com {@link AlertCondition#compile} antes da primeira vela; depois cada vela é
+ * aplicada uma única vez por {@link #update}. Não é thread-safe. O estado pode ser retomado com
+ * {@link #readState} num contexto em que as mesmas condições foram ligadas na mesma ordem.
+ */
+public final class AlertContext implements StreamingState {
+
+    private final IndicatorGraph graph = new IndicatorGraph();
+    private final List<StreamingIndicator> streams = new ArrayList<>();
+    private final Map<String, Object> shared = new HashMap<>();
+    private double high = Double.NaN;
+    private double low = Double.NaN;
+    private double close = Double.NaN;
+    private int candleCount;
+
+    /**
+     * Aplica a próxima vela fechada: primeiro o grafo, depois os indicadores que leem os nós dele.
+     */
+    public void update(double high, double low, double close) {
+        graph.update(high, low, close);
+        for (int i = 0; i < streams.size(); i++) {
+            streams.get(i).update(high, low, close);
+        }
+        this.high = high;
+        this.low = low;
+        this.close = close;
+        candleCount++;
+    }
+
+    public void update(CandleSeries series, int index) {
+        update(series.high(index), series.low(index), series.close(index));
+    }
+
+    public double high() {
+        return high;
+    }
+
+    public double low() {
+        return low;
+    }
+
+    public double close() {
+        return close;
+    }
+
+    public int candleCount() {
+        return candleCount;
+    }
+
+    @Override
+    public void writeState(DataOutput out) throws IOException {
+        graph.writeState(out);
+        out.writeInt(streams.size());
+        for (StreamingIndicator stream : streams) {
+            out.writeUTF(stream.getName());
+            stream.writeState(out);
+        }
+        out.writeDouble(high);
+        out.writeDouble(low);
+        out.writeDouble(close);
+        out.writeInt(candleCount);
+    }
+
+    @Override
+    public void readState(DataInput in) throws IOException {
+        graph.readState(in);
+        int count = in.readInt();
+        if (count != streams.size()) {
+            throw new IOException("Estado do contexto com " + count + " indicadores, esperados " + streams.size());
+        }
+        for (StreamingIndicator stream : streams) {
+            String name = in.readUTF();
+            if (!name.equals(stream.getName())) {
+                throw new IOException("Estado do contexto com " + name + " no lugar de " + stream.getName());
+            }
+            stream.readState(in);
+        }
+        high = in.readDouble();
+        low = in.readDouble();
+        close = in.readDouble();
+        candleCount = in.readInt();
+    }
+
+    IndicatorGraph graph() {
+        return graph;
+    }
+
+    /**
+     * Leitura de um operando, criada uma única vez por nome canônico.
+     */
+    DoubleSupplier operand(String canonical, Supplier<DoubleSupplier> factory) {
+        return shared(canonical, factory);
+    }
+
+    /**
+     * Indicador sobre o grafo, criado uma única vez por chave e alimentado em {@link #update}.
+     */
+    <T extends StreamingIndicator> T stream(String key, Supplier<T> factory) {
+        return shared("stream:" + key, () -> {
+            T stream = factory.get();
+            streams.add(stream);
+            return stream;
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T shared(String key, Supplier<T> factory) {
+        Object existing = shared.get(key);
+        if (existing == null) {
+            existing = factory.get();
+            shared.put(key, existing);
+        }
+        return (T) existing;
+    }
+}
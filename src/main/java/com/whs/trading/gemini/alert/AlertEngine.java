@@ -0,0 +1,453 @@
+package com.whs.trading.gemini.alert;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.whs.trading.gemini.dto.CandleSeries;
+import com.whs.trading.gemini.dto.KlineInterval;
+import com.whs.trading.gemini.service.BinanceKlineStreamService;
+import com.whs.trading.gemini.service.KlineStreamListener;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Avalia as {@link AlertRule regras} a cada vela fechada do {@link BinanceKlineStreamService}.
+ * <p>
+ * Cada condição é analisada uma única vez ao cadastrar a regra. Por símbolo/intervalo há um {@link AlertContext}
+ * com as condições de todas as regras aplicáveis já compiladas sobre o mesmo grafo, então cada vela avança os
+ * nós uma vez e avalia só lambdas. Uma regra dispara na transição de falsa para verdadeira (não a cada vela em
+ * que continua verdadeira). Mudanças nas regras trocam um conjunto imutável; o contexto de cada símbolo é
+ * remontado com a cauda em memória na vela seguinte, recalculando o estado anterior de cada regra sem disparar.
+ * Os disparos vão para o {@link AlertBroadcaster}, que não bloqueia quem avalia.
+ * <p>
+ * Regras e estados podem ser gravados e retomados ({@link #writeState}/{@link #readState}): um estado retomado
+ * substitui a remontagem pela cauda e só aplica as velas posteriores à última que ele viu.
+ */
+@Service
+public class AlertEngine implements KlineStreamListener, MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(AlertEngine.class);
+
+    private final BinanceKlineStreamService streamService; // null: regras não assinam o stream (testes)
+    private final Consumer<AlertEvent> sink;
+    private final LongSupplier clock;
+    private final ReentrantLock rulesLock = new ReentrantLock();
+    private final AtomicLong nextId = new AtomicLong();
+    private final Map<String, SymbolState> states = new ConcurrentHashMap<>();
+    // Estados lidos de um snapshot, consumidos na primeira vela de cada símbolo/intervalo
+    private final Map<String, SavedState> savedStates = new ConcurrentHashMap<>();
+    private final LongAdder fired = new LongAdder();
+    private final LongAdder restoredStates = new LongAdder();
+    private volatile RuleSet ruleSet = RuleSet.of(Map.of(), 0);
+    private volatile Timer evaluationTimer;
+
+    @Autowired
+    public AlertEngine(BinanceKlineStreamService streamService, AlertBroadcaster broadcaster) {
+        this(streamService, broadcaster::publish, System::currentTimeMillis);
+    }
+
+    AlertEngine(BinanceKlineStreamService streamService, Consumer<AlertEvent> sink, LongSupplier clock) {
+        this.streamService = streamService;
+        this.sink = sink;
+        this.clock = clock;
+    }
+
+    @PostConstruct
+    public void register() {
+        if (streamService != null) {
+            streamService.addListener(this);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("alerts.rules", this, engine -> engine.ruleSet.rules().size()).register(registry);
+        FunctionCounter.builder("alerts.fired", fired, LongAdder::sum).register(registry);
+        evaluationTimer = Timer.builder("alerts.evaluation")
+                .description("Avaliação das regras de um símbolo/intervalo em uma vela fechada")
+                .register(registry);
+    }
+
+    /**
+     * Valida, normaliza e cadastra a regra; se ela nomeia um símbolo, assina o stream dele no intervalo.
+     *
+     * @throws IllegalArgumentException se o intervalo ou a condição forem inválidos.
+     */
+    public AlertRule addRule(AlertRule rule) {
+        if (rule.interval() == null) {
+            throw new IllegalArgumentException("Intervalo obrigatório");
+        }
+        String interval = rule.interval().trim();
+        KlineInterval.fromCode(interval);
+        AlertCondition condition = AlertCondition.parse(rule.condition());
+        String id = rule.id() == null || rule.id().isBlank() ? "rule-" + nextId.incrementAndGet() : rule.id().trim();
+        String symbol = rule.symbol() == null || rule.symbol().isBlank() ? null : rule.symbol().trim().toUpperCase(Locale.ROOT);
+        AlertRule normalized = new AlertRule(id, symbol, interval, condition.getExpression());
+
+        rulesLock.lock();
+        try {
+            Map<String, CompiledRule> rules = new LinkedHashMap<>(ruleSet.rules());
+            rules.put(id, new CompiledRule(normalized, condition));
+            ruleSet = RuleSet.of(rules, ruleSet.version() + 1);
+        } finally {
+            rulesLock.unlock();
+        }
+        logger.info("Alert rule {} registered: {} {} {}", id, symbol == null ? "*" : symbol, interval, condition);
+        if (streamService != null && symbol != null) {
+            streamService.subscribe(List.of(symbol), List.of(interval));
+        }
+        return normalized;
+    }
+
+    /**
+     * Remove a regra; se era a última do seu símbolo/intervalo, cancela o stream que {@link #addRule} assinou
+     * (os intervalos das demais regras do símbolo continuam assinados).
+     */
+    public boolean removeRule(String id) {
+        AlertRule removed;
+        Set<String> stillWatched = new HashSet<>();
+        rulesLock.lock();
+        try {
+            if (!ruleSet.rules().containsKey(id)) {
+                return false;
+            }
+            Map<String, CompiledRule> rules = new LinkedHashMap<>(ruleSet.rules());
+            removed = rules.remove(id).rule();
+            ruleSet = RuleSet.of(rules, ruleSet.version() + 1);
+            for (CompiledRule compiled : rules.values()) {
+                if (removed.symbol() != null && removed.symbol().equals(compiled.rule().symbol())) {
+                    stillWatched.add(compiled.rule().interval());
+                }
+            }
+        } finally {
+            rulesLock.unlock();
+        }
+        if (streamService != null && removed.symbol() != null && !stillWatched.contains(removed.interval())) {
+            streamService.unsubscribe(removed.symbol(), removed.interval(), stillWatched);
+        }
+        return true;
+    }
+
+    public List<AlertRule> getRules() {
+        return ruleSet.rules().values().stream().map(CompiledRule::rule).toList();
+    }
+
+    public long getFiredCount() {
+        return fired.sum();
+    }
+
+    /**
+     * Símbolos/intervalos retomados de um snapshot em vez de remontados pela cauda.
+     */
+    public long getRestoredStateCount() {
+        return restoredStates.sum();
+    }
+
+    /**
+     * Grava as regras e, por símbolo/intervalo, o contexto, o último resultado de cada regra e a última vela
+     * aplicada. Cada estado é copiado sob o próprio monitor (uma avaliação em andamento termina antes), então
+     * só o símbolo copiado espera, e por alguns microssegundos.
+     */
+    public void writeState(DataOutput out) throws IOException {
+        RuleSet current = ruleSet;
+        out.writeLong(nextId.get());
+        out.writeInt(current.rules().size());
+        for (CompiledRule compiled : current.rules().values()) {
+            AlertRule rule = compiled.rule();
+            out.writeUTF(rule.id());
+            out.writeUTF(rule.symbol() == null ? "" : rule.symbol());
+            out.writeUTF(rule.interval());
+            out.writeUTF(rule.condition());
+        }
+        Map<String, byte[]> copies = new HashMap<>();
+        for (Map.Entry<String, SymbolState> entry : states.entrySet()) {
+            SymbolState state = entry.getValue();
+            if (state.version == current.version()) {
+                copies.put(entry.getKey(), state.copyState());
+            }
+        }
+        out.writeInt(copies.size());
+        for (Map.Entry<String, byte[]> copy : copies.entrySet()) {
+            out.writeUTF(copy.getKey());
+            out.writeInt(copy.getValue().length);
+            out.write(copy.getValue());
+        }
+    }
+
+    /**
+     * Cadastra as regras gravadas (as de id já existente são mantidas) e guarda os estados para a primeira vela
+     * de cada símbolo/intervalo. Um estado só é usado se as regras aplicáveis forem as mesmas e a cauda ainda
+     * contiver a última vela que ele viu; senão o contexto é remontado pela cauda, como sem snapshot.
+     */
+    public void readState(DataInput in) throws IOException {
+        long savedNextId = in.readLong();
+        nextId.accumulateAndGet(savedNextId, Math::max);
+        int ruleCount = in.readInt();
+        List<AlertRule> rules = new ArrayList<>(ruleCount);
+        for (int r = 0; r < ruleCount; r++) {
+            rules.add(new AlertRule(in.readUTF(), in.readUTF(), in.readUTF(), in.readUTF()));
+        }
+        int stateCount = in.readInt();
+        for (int s = 0; s < stateCount; s++) {
+            String key = in.readUTF();
+            byte[] state = new byte[in.readInt()];
+            in.readFully(state);
+            savedStates.put(key, SavedState.read(state));
+        }
+        for (AlertRule rule : rules) {
+            if (ruleSet.rules().containsKey(rule.id())) {
+                continue;
+            }
+            try {
+                addRule(rule);
+            } catch (IllegalArgumentException e) {
+                logger.warn("Discarding saved alert rule {}: {}", rule.id(), e.getMessage());
+            }
+        }
+        logger.info("Restored {} alert rule(s) and {} saved state(s)", rules.size(), stateCount);
+    }
+
+    @Override
+    public void onCandleClosed(String symbol, String interval, CandleSeries closedTail) {
+        RuleSet current = ruleSet;
+        String key = symbol + '|' + interval;
+        List<CompiledRule> candidates = current.byInterval().get(interval);
+        if (candidates == null || closedTail == null || closedTail.isEmpty()) {
+            states.remove(key);
+            return;
+        }
+        long start = System.nanoTime();
+        SymbolState state = states.get(key);
+        if (state == null || state.version != current.version()) {
+            List<CompiledRule> matching = new ArrayList<>();
+            for (CompiledRule rule : candidates) {
+                if (rule.rule().symbol() == null || rule.rule().symbol().equals(symbol)) {
+                    matching.add(rule);
+                }
+            }
+            if (matching.isEmpty()) {
+                states.remove(key);
+                return;
+            }
+            state = restore(key, current.version(), matching, closedTail);
+            if (state == null) {
+                state = new SymbolState(current.version(), matching);
+                state.replay(closedTail);
+            }
+            states.put(key, state);
+        }
+        state.advance(symbol, interval, closedTail);
+        Timer timer = evaluationTimer;
+        if (timer != null) {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Contexto gravado para o símbolo/intervalo, se houver e ainda servir; null para remontar pela cauda.
+     */
+    private SymbolState restore(String key, long version, List<CompiledRule> matching, CandleSeries closedTail) {
+        SavedState saved = savedStates.remove(key);
+        if (saved == null) {
+            return null;
+        }
+        List<CompiledRule> ordered = saved.order(matching);
+        if (ordered == null || saved.lastOpenTime < closedTail.openTime(0)) {
+            logger.info("Saved alert state for {} no longer matches its rules or tail, rebuilding", key);
+            return null;
+        }
+        // Mesmas condições na ordem gravada: o contexto liga os mesmos nós na mesma ordem
+        SymbolState state = new SymbolState(version, ordered);
+        try {
+            state.context.readState(new DataInputStream(new ByteArrayInputStream(saved.context)));
+        } catch (IOException e) {
+            logger.warn("Could not restore alert state for {}, rebuilding: {}", key, e.getMessage());
+            return null;
+        }
+        System.arraycopy(saved.matched, 0, state.matched, 0, state.matched.length);
+        state.lastOpenTime = saved.lastOpenTime;
+        restoredStates.increment();
+        return state;
+    }
+
+    private static String signature(AlertRule rule) {
+        return rule.id() + '|' + rule.symbol() + '|' + rule.interval() + '|' + rule.condition();
+    }
+
+    private record CompiledRule(AlertRule rule, AlertCondition condition) {
+    }
+
+    /**
+     * Estado lido de um snapshot: as regras na ordem em que foram ligadas ao contexto, o último resultado de
+     * cada uma, a última vela aplicada e o contexto serializado.
+     */
+    private record SavedState(List<String> signatures, boolean[] matched, long lastOpenTime, byte[] context) {
+
+        static SavedState read(byte[] bytes) throws IOException {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+            int count = in.readInt();
+            List<String> signatures = new ArrayList<>(count);
+            boolean[] matched = new boolean[count];
+            for (int r = 0; r < count; r++) {
+                signatures.add(in.readUTF());
+                matched[r] = in.readBoolean();
+            }
+            long lastOpenTime = in.readLong();
+            return new SavedState(signatures, matched, lastOpenTime, in.readAllBytes());
+        }
+
+        /**
+         * As regras aplicáveis na ordem gravada, ou null se não forem as mesmas.
+         */
+        List<CompiledRule> order(List<CompiledRule> matching) {
+            if (matching.size() != signatures.size()) {
+                return null;
+            }
+            Map<String, CompiledRule> bySignature = new HashMap<>();
+            for (CompiledRule rule : matching) {
+                bySignature.put(signature(rule.rule()), rule);
+            }
+            List<CompiledRule> ordered = new ArrayList<>(signatures.size());
+            for (String signature : signatures) {
+                CompiledRule rule = bySignature.get(signature);
+                if (rule == null) {
+                    return null;
+                }
+                ordered.add(rule);
+            }
+            return ordered;
+        }
+    }
+
+    /**
+     * Regras vigentes (imutável) e seu índice por intervalo; {@code version} muda a cada alteração.
+     */
+    private record RuleSet(Map<String, CompiledRule> rules, Map<String, List<CompiledRule>> byInterval, long version) {
+
+        static RuleSet of(Map<String, CompiledRule> rules, long version) {
+            Map<String, List<CompiledRule>> byInterval = new ConcurrentHashMap<>();
+            for (CompiledRule rule : rules.values()) {
+                byInterval.computeIfAbsent(rule.rule().interval(), interval -> new ArrayList<>()).add(rule);
+            }
+            return new RuleSet(Map.copyOf(rules), byInterval, version);
+        }
+    }
+
+    /**
+     * Contexto de um símbolo/intervalo com as condições aplicáveis e o último resultado de cada uma.
+     */
+    private final class SymbolState {
+        final long version;
+        final AlertContext context = new AlertContext();
+        final CompiledRule[] rules;
+        final AlertCondition.Compiled[] conditions;
+        final boolean[] matched;
+        long lastOpenTime = Long.MIN_VALUE;
+
+        SymbolState(long version, List<CompiledRule> rules) {
+            this.version = version;
+            this.rules = rules.toArray(new CompiledRule[0]);
+            this.conditions = new AlertCondition.Compiled[this.rules.length];
+            this.matched = new boolean[this.rules.length];
+            for (int r = 0; r < this.rules.length; r++) {
+                conditions[r] = this.rules[r].condition().compile(context);
+            }
+        }
+
+        /**
+         * Histórico até a penúltima vela: o estado de cada regra antes da vela nova, sem disparar.
+         */
+        void replay(CandleSeries closedTail) {
+            int last = closedTail.size() - 1;
+            for (int i = 0; i < last; i++) {
+                context.update(closedTail, i);
+            }
+            if (last > 0) {
+                lastOpenTime = closedTail.openTime(last - 1);
+                for (int r = 0; r < matched.length; r++) {
+                    matched[r] = conditions[r].test();
+                }
+            }
+        }
+
+        /**
+         * Formato de {@link SavedState}.
+         */
+        synchronized byte[] copyState() {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(1024);
+            DataOutputStream out = new DataOutputStream(bytes);
+            try {
+                out.writeInt(rules.length);
+                for (int r = 0; r < rules.length; r++) {
+                    out.writeUTF(signature(rules[r].rule()));
+                    out.writeBoolean(matched[r]);
+                }
+                out.writeLong(lastOpenTime);
+                context.writeState(out);
+            } catch (IOException e) {
+                throw new IllegalStateException(e); // ByteArrayOutputStream não lança IOException
+            }
+            return bytes.toByteArray();
+        }
+
+        /**
+         * Aplica as velas ainda não vistas (mais de uma após lacunas preenchidas) e avalia na última.
+         */
+        synchronized void advance(String symbol, String interval, CandleSeries closedTail) {
+            int size = closedTail.size();
+            int from = size;
+            while (from > 0 && closedTail.openTime(from - 1) > lastOpenTime) {
+                from--;
+            }
+            if (from == size) {
+                return;
+            }
+            for (int i = from; i < size; i++) {
+                context.update(closedTail, i);
+            }
+            int last = size - 1;
+            lastOpenTime = closedTail.openTime(last);
+            for (int r = 0; r < conditions.length; r++) {
+                boolean now = conditions[r].test();
+                if (now && !matched[r]) {
+                    AlertRule rule = rules[r].rule();
+                    fired.increment();
+                    sink.accept(new AlertEvent(rule.id(), symbol, interval, rule.condition(), closedTail.openTime(last),
+                            closedTail.closeTime(last), closedTail.close(last), conditions[r].values(),
+                            clock.getAsLong()));
+                }
+                matched[r] = now;
+            }
+        }
+    }
+}
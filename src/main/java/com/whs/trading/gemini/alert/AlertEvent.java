@@ -0,0 +1,12 @@
+package com.whs.trading.gemini.alert;
+
+import java.util.Map;
+
+/**
+ * Disparo de uma regra no fechamento de uma vela.
+ *
+ * @param values Valor de cada operando da condição na vela (ex: {@code rsi(14) -> 27.4}).
+ */
+public record AlertEvent(String ruleId, String symbol, String interval, String condition, long openTime,
+                         long closeTime, double close, Map<String, Double> values, long firedAt) {
+}
@@ -0,0 +1,12 @@
+package com.whs.trading.gemini.alert;
+
+/**
+ * Regra de alerta: dispara quando {@code condition} passa de falsa a verdadeira no fechamento de uma vela.
+ *
+ * @param id        Atribuído pelo {@link AlertEngine} se vier vazio; um id existente substitui a regra.
+ * @param symbol    Símbolo observado, ou vazio para todos os símbolos do stream no intervalo.
+ * @param interval  Intervalo das velas (ex: "1m", "1h").
+ * @param condition Expressão de {@link AlertCondition}, ex: {@code rsi(14) < 30 and close < bb_lower(20, 2)}.
+ */
+public record AlertRule(String id, String symbol, String interval, String condition) {
+}
@@ -0,0 +1,138 @@
+package com.whs.trading.gemini.b3;
+
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.whs.trading.gemini.dto.CandleSeries;
+import com.whs.trading.gemini.dto.KlineInterval;
+import com.whs.trading.gemini.dto.ScanResult;
+import com.whs.trading.gemini.indicator.CandleIndicator;
+import com.whs.trading.gemini.service.IndicatorResultCache;
+import com.whs.trading.gemini.store.CandleStore;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Histórico diário de ações da B3 importado pelo {@link CotahistImporter}, num {@link CandleStore} próprio
+ * ({@code b3.store.directory}), separado dos símbolos da Binance.
+ * <p>
+ * As séries são visões sem cópia sobre os arquivos mapeados, no mesmo formato das velas da Binance, então os
+ * indicadores rodam sobre elas sem conversão (pelo {@link IndicatorResultCache}: como o histórico é fechado,
+ * os resultados não expiram).
+ */
+@Service
+public class B3HistoryService {
+
+    private static final String SOURCE = "b3";
+
+    private final CandleStore store;
+    private final List<CandleIndicator> indicators;
+    private final IndicatorResultCache resultCache;
+
+    @Autowired
+    public B3HistoryService(@Value("${b3.store.directory:data/b3}") String directory,
+                            List<CandleIndicator> indicators,
+                            IndicatorResultCache resultCache) {
+        this(new CandleStore(Paths.get(directory)), indicators, resultCache);
+    }
+
+    public B3HistoryService(CandleStore store, List<CandleIndicator> indicators, IndicatorResultCache resultCache) {
+        this.store = store;
+        // Só indicadores calculados das velas: os que leem estado ao vivo da Binance (ex: livro de ofertas) não se aplicam
+        this.indicators = List.copyOf(indicators);
+        this.resultCache = resultCache;
+    }
+
+    CandleStore getStore() {
+        return store;
+    }
+
+    public List<String> getTickers() {
+        return store.symbols(KlineInterval.ONE_DAY);
+    }
+
+    public List<String> getIndicatorNames() {
+        return indicators.stream().map(CandleIndicator::getName).toList();
+    }
+
+    public boolean contains(String ticker) {
+        return store.contains(ticker, KlineInterval.ONE_DAY);
+    }
+
+    /**
+     * Velas diárias do papel (vazia se não importado).
+     */
+    public CandleSeries getSeries(String ticker) {
+        return contains(ticker) ? store.file(ticker, KlineInterval.ONE_DAY).series() : CandleSeries.empty();
+    }
+
+    /**
+     * Velas diárias do papel com abertura em [startTime, endTime] (vazia se não importado).
+     */
+    public CandleSeries getSeries(String ticker, long startTime, long endTime) {
+        return contains(ticker) ? store.file(ticker, KlineInterval.ONE_DAY).range(startTime, endTime)
+                : CandleSeries.empty();
+    }
+
+    /**
+     * Roda os indicadores sobre o histórico do papel, como um símbolo do scanner.
+     *
+     * @param indicatorNames Indicadores pelo nome (null ou vazio: todos).
+     * @param params         Parâmetros repassados aos indicadores; "symbol" é preenchido com o papel.
+     */
+    public ScanResult analyze(String ticker, long startTime, long endTime, Collection<String> indicatorNames,
+                              Map<String, String> params) {
+        String upper = ticker.trim().toUpperCase(Locale.ROOT);
+        List<CandleIndicator> selected = select(indicatorNames);
+        ScanResult result = new ScanResult(upper);
+        CandleSeries series = getSeries(upper, startTime, endTime);
+        if (series.isEmpty()) {
+            result.addError(SOURCE, "Nenhuma vela importada para " + upper);
+            return result;
+        }
+        result.setLastOpenTime(series.openTime(series.size() - 1));
+
+        Map<String, String> tickerParams = new HashMap<>(params);
+        tickerParams.put("symbol", upper);
+        for (CandleIndicator indicator : selected) {
+            try {
+                result.addResult(resultCache.analyze(indicator, series, tickerParams));
+            } catch (RuntimeException e) {
+                result.addError(indicator.getName(), e.getClass().getSimpleName() + ": " + e.getMessage());
+            }
+        }
+        return result;
+    }
+
+    @PreDestroy
+    public void close() {
+        store.close();
+    }
+
+    private List<CandleIndicator> select(Collection<String> names) {
+        if (names == null || names.isEmpty()) {
+            return indicators;
+        }
+        Set<String> wanted = new LinkedHashSet<>();
+        for (String name : names) {
+            wanted.add(name.trim().toUpperCase(Locale.ROOT));
+        }
+        List<CandleIndicator> selected = indicators.stream()
+                .filter(indicator -> wanted.contains(indicator.getName().toUpperCase(Locale.ROOT)))
+                .toList();
+        if (selected.size() != wanted.size()) {
+            throw new IllegalArgumentException("Indicadores desconhecidos em " + names + "; disponíveis: " + getIndicatorNames());
+        }
+        return selected;
+    }
+}
@@ -0,0 +1,98 @@
+package com.whs.trading.gemini.b3;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.whs.trading.gemini.dto.ArrayCandleSeries;
+import com.whs.trading.gemini.dto.CandleSeries;
+
+/**
+ * Velas diárias decodificadas de um trecho de registros de um arquivo COTAHIST, por código de negociação.
+ * <p>
+ * Tabela de endereçamento aberto com as chaves de {@link CotahistParser#tickerKey}, para não criar Long nem
+ * String por registro. Usado por uma única thread.
+ */
+final class CotahistChunk {
+
+    private static final int INITIAL_SERIES_CAPACITY = 16;
+
+    long records;
+    long quotes;
+    long malformed;
+
+    private long[] keys = new long[256]; // 0 = posição livre (chaves válidas são positivas)
+    private ArrayCandleSeries.Builder[] builders = new ArrayCandleSeries.Builder[256];
+    private int tickers;
+    private int lastDate = -1;
+    private long lastOpenTime;
+
+    ArrayCandleSeries.Builder series(long key) {
+        int mask = keys.length - 1;
+        int slot = slot(key, mask);
+        while (keys[slot] != 0) {
+            if (keys[slot] == key) {
+                return builders[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        ArrayCandleSeries.Builder builder = CandleSeries.builder(INITIAL_SERIES_CAPACITY);
+        keys[slot] = key;
+        builders[slot] = builder;
+        if (++tickers * 2 > keys.length) {
+            grow();
+        }
+        return builder;
+    }
+
+    /**
+     * Abertura (00:00 UTC, como as velas diárias da Binance) do pregão AAAAMMDD, ou
+     * {@link CotahistParser#MALFORMED} se a data for inválida.
+     */
+    long openTime(int date) {
+        if (date != lastDate) {
+            try {
+                lastOpenTime = LocalDate.of(date / 10_000, date / 100 % 100, date % 100).toEpochDay()
+                        * CotahistParser.DAY_MILLIS;
+            } catch (DateTimeException e) {
+                return CotahistParser.MALFORMED;
+            }
+            lastDate = date;
+        }
+        return lastOpenTime;
+    }
+
+    Map<String, CandleSeries> series() {
+        Map<String, CandleSeries> series = new HashMap<>(tickers * 2);
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != 0) {
+                series.put(CotahistParser.tickerName(keys[slot]), builders[slot].build());
+            }
+        }
+        return series;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        ArrayCandleSeries.Builder[] oldBuilders = builders;
+        keys = new long[oldKeys.length * 2];
+        builders = new ArrayCandleSeries.Builder[keys.length];
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int slot = slot(oldKeys[i], mask);
+                while (keys[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                builders[slot] = oldBuilders[i];
+            }
+        }
+    }
+
+    private static int slot(long key, int mask) {
+        long mixed = key * 0x9E3779B97F4A7C15L;
+        return (int) (mixed >>> 32) & mask;
+    }
+}
@@ -0,0 +1,18 @@
+package com.whs.trading.gemini.b3;
+
+import java.util.List;
+
+/**
+ * Resumo de uma importação COTAHIST.
+ *
+ * @param files          Arquivos lidos, em ordem de pregão.
+ * @param records        Registros de cotação lidos (todos os mercados).
+ * @param quotes         Cotações dos mercados importados ({@code b3.cotahist.market-types}).
+ * @param malformed      Registros ignorados por campo inválido.
+ * @param tickers        Papéis com ao menos uma cotação.
+ * @param candlesWritten Velas novas gravadas.
+ * @param candlesSkipped Velas já gravadas ou anteriores à última vela gravada do papel (o histórico só cresce).
+ */
+public record CotahistImportResult(List<String> files, long bytes, long records, long quotes, long malformed,
+                                   int tickers, long candlesWritten, long candlesSkipped, long elapsedMillis) {
+}
@@ -0,0 +1,320 @@
+package com.whs.trading.gemini.b3;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.whs.trading.gemini.dto.ArrayCandleSeries;
+import com.whs.trading.gemini.dto.CandleSeries;
+import com.whs.trading.gemini.dto.KlineInterval;
+import com.whs.trading.gemini.store.CandleStore;
+import com.whs.trading.gemini.store.MappedCandleFile;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Importação dos arquivos de séries históricas da B3 ({@code COTAHIST_A2023.TXT} etc., descompactados) para o
+ * {@link B3HistoryService}, uma série de velas diárias por código de negociação.
+ * <p>
+ * Cada arquivo é mapeado em memória em trechos de {@value #CHUNK_RECORDS} registros, decodificados em paralelo
+ * num {@link ForkJoinPool} pelo {@link CotahistParser} (sem String por registro); as séries dos trechos são
+ * juntadas em ordem e gravadas em paralelo, um papel por tarefa. Os arquivos são processados em ordem de
+ * pregão, um de cada vez, então a memória ocupada é a de um ano de cotações. Como os arquivos de velas só
+ * crescem, cotações anteriores à última vela gravada de um papel são ignoradas (contadas em
+ * {@link CotahistImportResult#candlesSkipped()}): importe os anos mais antigos antes, ou todos de uma vez.
+ */
+@Service
+public class CotahistImporter {
+
+    private static final Logger logger = LoggerFactory.getLogger(CotahistImporter.class);
+
+    static final int CHUNK_RECORDS = 1 << 16; // ~16 MB por trecho
+    private static final String FILE_PREFIX = "COTAHIST_";
+    private static final int MAX_MARKET_TYPE = 999;
+
+    private final B3HistoryService historyService;
+    private final Path directory;
+    private final boolean[] marketTypes = new boolean[MAX_MARKET_TYPE + 1];
+    private final ForkJoinPool pool;
+
+    @Autowired
+    public CotahistImporter(B3HistoryService historyService,
+                            @Value("${b3.cotahist.directory:data/cotahist}") String directory,
+                            @Value("${b3.cotahist.market-types:10}") List<Integer> marketTypes,
+                            @Value("${b3.cotahist.parallelism:0}") int parallelism) {
+        this.historyService = historyService;
+        this.directory = Paths.get(directory);
+        for (int marketType : marketTypes) {
+            if (marketType < 0 || marketType > MAX_MARKET_TYPE) {
+                throw new IllegalArgumentException("Tipo de mercado (TPMERC) inválido: " + marketType);
+            }
+            this.marketTypes[marketType] = true;
+        }
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Nomes dos arquivos COTAHIST no diretório de importação ({@code b3.cotahist.directory}).
+     */
+    public List<String> getAvailableFiles() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        List<String> names = new ArrayList<>();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory, Files::isRegularFile)) {
+            for (Path entry : entries) {
+                String name = entry.getFileName().toString();
+                if (name.toUpperCase(Locale.ROOT).startsWith(FILE_PREFIX)
+                        && !name.toUpperCase(Locale.ROOT).endsWith(".ZIP")) {
+                    names.add(name);
+                }
+            }
+        }
+        names.sort(null);
+        return names;
+    }
+
+    /**
+     * Importa arquivos do diretório de importação pelo nome.
+     *
+     * @param names Nomes dos arquivos (null ou vazio: todos os de {@link #getAvailableFiles()}).
+     * @throws IllegalArgumentException se um nome não for um arquivo do diretório.
+     */
+    public CotahistImportResult importFiles(Collection<String> names) throws IOException, InterruptedException {
+        Path base = directory.toAbsolutePath().normalize();
+        List<Path> files = new ArrayList<>();
+        for (String name : names == null || names.isEmpty() ? getAvailableFiles() : names) {
+            Path file = base.resolve(name.trim()).normalize();
+            if (!base.equals(file.getParent()) || !Files.isRegularFile(file)) {
+                throw new IllegalArgumentException("Arquivo COTAHIST não encontrado em " + directory + ": " + name);
+            }
+            files.add(file);
+        }
+        if (files.isEmpty()) {
+            throw new IllegalArgumentException("Nenhum arquivo COTAHIST em " + directory.toAbsolutePath());
+        }
+        return importPaths(files);
+    }
+
+    public CotahistImportResult importPaths(List<Path> files) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        List<Path> ordered = inTradeDateOrder(files);
+        long bytes = 0;
+        long records = 0;
+        long quotes = 0;
+        long malformed = 0;
+        long written = 0;
+        long skipped = 0;
+        Set<String> tickers = new HashSet<>();
+        for (Path file : ordered) {
+            Contents contents = read(file);
+            long[] appended = write(contents.series());
+            bytes += Files.size(file);
+            records += contents.records();
+            quotes += contents.quotes();
+            malformed += contents.malformed();
+            written += appended[0];
+            skipped += appended[1];
+            tickers.addAll(contents.series().keySet());
+            logger.info("Imported {}: {} quotes of {} records, {} tickers, {} new candles", file.getFileName(),
+                    contents.quotes(), contents.records(), contents.series().size(), appended[0]);
+        }
+        if (skipped > 0) {
+            logger.warn("{} candles were already stored or older than the stored history and were skipped", skipped);
+        }
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        logger.info("Imported {} COTAHIST file(s), {} MB, {} quotes in {} ms", ordered.size(), bytes >> 20, quotes,
+                elapsedMillis);
+        return new CotahistImportResult(ordered.stream().map(file -> file.getFileName().toString()).toList(), bytes,
+                records, quotes, malformed, tickers.size(), written, skipped, elapsedMillis);
+    }
+
+    /**
+     * Decodifica um arquivo, sem gravar: velas diárias por papel, em ordem de abertura.
+     */
+    public Map<String, CandleSeries> readSeries(Path file) throws IOException, InterruptedException {
+        return read(file).series();
+    }
+
+    private Contents read(Path file) throws IOException, InterruptedException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            int recordLength = recordLength(channel, file);
+            // O último registro pode vir sem terminador de linha
+            long recordCount = (size + recordLength - CotahistParser.RECORD_BYTES) / recordLength;
+            List<Callable<CotahistChunk>> tasks = new ArrayList<>();
+            for (long first = 0; first < recordCount; first += CHUNK_RECORDS) {
+                long position = first * recordLength;
+                long length = Math.min((long) CHUNK_RECORDS * recordLength, size - position);
+                tasks.add(() -> {
+                    CotahistChunk chunk = new CotahistChunk();
+                    CotahistParser.parse(channel.map(FileChannel.MapMode.READ_ONLY, position, length), recordLength,
+                            marketTypes, chunk);
+                    return chunk;
+                });
+            }
+
+            Map<String, List<CandleSeries>> parts = new TreeMap<>();
+            long records = 0;
+            long quotes = 0;
+            long malformed = 0;
+            for (Future<CotahistChunk> future : pool.invokeAll(tasks)) {
+                CotahistChunk chunk = await(future, file);
+                records += chunk.records;
+                quotes += chunk.quotes;
+                malformed += chunk.malformed;
+                chunk.series().forEach((ticker, series) ->
+                        parts.computeIfAbsent(ticker, key -> new ArrayList<>()).add(series));
+            }
+            if (malformed > 0) {
+                logger.warn("{}: {} malformed record(s) skipped", file.getFileName(), malformed);
+            }
+            Map<String, CandleSeries> series = new TreeMap<>();
+            parts.forEach((ticker, chunks) -> series.put(ticker, ordered(chunks)));
+            return new Contents(series, records, quotes, malformed);
+        }
+    }
+
+    /**
+     * @return Velas gravadas e ignoradas (já presentes ou anteriores à última gravada).
+     */
+    private long[] write(Map<String, CandleSeries> series) throws IOException, InterruptedException {
+        CandleStore store = historyService.getStore();
+        List<Callable<Integer>> tasks = new ArrayList<>(series.size());
+        series.forEach((ticker, candles) -> tasks.add(() -> {
+            MappedCandleFile file = store.file(ticker, KlineInterval.ONE_DAY);
+            int appended = file.append(candles);
+            if (appended > 0) {
+                // Histórico completo do primeiro ao último pregão do arquivo importado
+                file.markCovered(candles.openTime(0), candles.closeTime(candles.size() - 1));
+            }
+            return appended;
+        }));
+        long written = 0;
+        for (Future<Integer> future : pool.invokeAll(tasks)) {
+            written += await(future, historyService.getStore().getDirectory());
+        }
+        long total = series.values().stream().mapToLong(CandleSeries::size).sum();
+        return new long[] {written, total - written};
+    }
+
+    /**
+     * Junta as séries dos trechos (em ordem de arquivo) numa série em ordem crescente de abertura, com um pregão
+     * por vela. Os arquivos da B3 já vêm ordenados por data; a ordenação é só o caso de reserva.
+     */
+    static CandleSeries ordered(List<CandleSeries> chunks) {
+        int total = 0;
+        boolean ascending = true;
+        long last = Long.MIN_VALUE;
+        for (CandleSeries chunk : chunks) {
+            total += chunk.size();
+            for (int i = 0; i < chunk.size(); i++) {
+                ascending &= chunk.openTime(i) > last;
+                last = chunk.openTime(i);
+            }
+        }
+        if (ascending) {
+            if (chunks.size() == 1) {
+                return chunks.get(0);
+            }
+            ArrayCandleSeries.Builder builder = CandleSeries.builder(total);
+            chunks.forEach(builder::addAll);
+            return builder.build();
+        }
+        CandleSeries[] sources = chunks.toArray(CandleSeries[]::new);
+        int[] offsets = new int[sources.length + 1];
+        for (int c = 0; c < sources.length; c++) {
+            offsets[c + 1] = offsets[c] + sources[c].size();
+        }
+        // Dia do pregão nos 32 bits altos e posição de origem nos baixos: ordenação primitiva e estável
+        long[] order = new long[total];
+        for (int c = 0; c < sources.length; c++) {
+            for (int i = 0; i < sources[c].size(); i++) {
+                order[offsets[c] + i] = sources[c].openTime(i) / CotahistParser.DAY_MILLIS << 32 | (offsets[c] + i);
+            }
+        }
+        Arrays.sort(order);
+        ArrayCandleSeries.Builder builder = CandleSeries.builder(total);
+        for (long key : order) {
+            int position = (int) key;
+            // Trecho de origem (os trechos nunca são vazios, então os offsets são estritamente crescentes)
+            int c = Arrays.binarySearch(offsets, position);
+            c = c >= 0 ? c : -c - 2;
+            int index = position - offsets[c];
+            if (sources[c].openTime(index) > builder.lastOpenTime()) {
+                // Pregão repetido: fica a primeira cotação, como no append do arquivo
+                builder.add(sources[c], index);
+            }
+        }
+        return builder.build();
+    }
+
+    private List<Path> inTradeDateOrder(List<Path> files) throws IOException {
+        Map<Path, Long> firstDates = new TreeMap<>();
+        for (Path file : files) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                int recordLength = recordLength(channel, file);
+                ByteBuffer head = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+                        Math.min(channel.size(), 2L * recordLength));
+                firstDates.put(file, CotahistParser.firstTradeDate(head, recordLength));
+            }
+        }
+        List<Path> ordered = new ArrayList<>(firstDates.keySet());
+        ordered.sort(Comparator.comparing(firstDates::get));
+        return ordered;
+    }
+
+    private static int recordLength(FileChannel channel, Path file) throws IOException {
+        ByteBuffer head = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+                Math.min(channel.size(), CotahistParser.RECORD_BYTES + 2));
+        try {
+            return CotahistParser.recordLength(head);
+        } catch (IOException e) {
+            throw new IOException(e.getMessage() + ": " + file, e);
+        }
+    }
+
+    private static <T> T await(Future<T> future, Path path) throws IOException, InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw new IllegalStateException("Falha ao importar " + path, e.getCause());
+        }
+    }
+
+    private record Contents(Map<String, CandleSeries> series, long records, long quotes, long malformed) {
+    }
+}
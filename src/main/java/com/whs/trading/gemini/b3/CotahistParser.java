@@ -0,0 +1,188 @@
+package com.whs.trading.gemini.b3;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import com.whs.trading.gemini.dto.ArrayCandleSeries;
+
+/**
+ * Decodificação dos arquivos COTAHIST da B3 (layout "Séries Históricas"): registros ASCII de largura fixa de
+ * {@value #RECORD_BYTES} bytes, um por linha, entre um cabeçalho (tipo 00) e um trailer (tipo 99).
+ * <p>
+ * Os campos são lidos direto do buffer (mapeado) por posição: números acumulados dígito a dígito em long, a
+ * data com cache do último pregão (os arquivos vêm ordenados por data) e o código de negociação codificado em
+ * base 37 num long, então nenhum registro cria String ou objeto. Cada código vira String uma única vez por
+ * trecho, em {@link #tickerName(long)}. Preços vêm em centavos por lote de {@code FATCOT} ações e são
+ * convertidos para preço por ação.
+ */
+public final class CotahistParser {
+
+    public static final int RECORD_BYTES = 245;
+
+    // Posições (a partir de 0) e tamanhos dos campos usados
+    static final int RECORD_TYPE = 0;
+    static final int TRADE_DATE = 2;
+    static final int TICKER = 12;
+    static final int TICKER_LENGTH = 12;
+    static final int MARKET_TYPE = 24;
+    static final int OPEN = 56;
+    static final int HIGH = 69;
+    static final int LOW = 82;
+    static final int CLOSE = 108;
+    static final int PRICE_LENGTH = 13;
+    static final int TRADES = 147;
+    static final int QUANTITY = 152;
+    static final int VOLUME = 170;
+    static final int QUOTATION_FACTOR = 210;
+
+    static final long MALFORMED = -1;
+    static final long DAY_MILLIS = 86_400_000L;
+
+    private static final byte[] HEADER = "00COTAHIST".getBytes(StandardCharsets.US_ASCII);
+    private static final int TICKER_RADIX = 37;
+
+    private CotahistParser() {
+    }
+
+    /**
+     * Tamanho de cada registro com o terminador de linha (CRLF, LF ou nenhum), pelo cabeçalho do arquivo.
+     *
+     * @param head Início do arquivo (ao menos o cabeçalho e o terminador).
+     * @throws IOException se o início não for um cabeçalho COTAHIST.
+     */
+    public static int recordLength(ByteBuffer head) throws IOException {
+        if (head.limit() < RECORD_BYTES) {
+            throw new IOException("Arquivo COTAHIST truncado: " + head.limit() + " bytes");
+        }
+        for (int i = 0; i < HEADER.length; i++) {
+            if (head.get(i) != HEADER[i]) {
+                throw new IOException("Cabeçalho COTAHIST não encontrado");
+            }
+        }
+        if (head.limit() > RECORD_BYTES && head.get(RECORD_BYTES) == '\r') {
+            return RECORD_BYTES + 2;
+        }
+        if (head.limit() > RECORD_BYTES && head.get(RECORD_BYTES) == '\n') {
+            return RECORD_BYTES + 1;
+        }
+        return RECORD_BYTES;
+    }
+
+    /**
+     * Data do pregão (AAAAMMDD) do primeiro registro de cotação do trecho, ou {@link #MALFORMED}.
+     */
+    public static long firstTradeDate(ByteBuffer buffer, int recordLength) {
+        for (int position = 0; position + RECORD_BYTES <= buffer.limit(); position += recordLength) {
+            if (isQuote(buffer, position)) {
+                return digits(buffer, position + TRADE_DATE, 8);
+            }
+        }
+        return MALFORMED;
+    }
+
+    /**
+     * Decodifica os registros completos do buffer (a partir da posição 0) nas séries do trecho. Cabeçalho e
+     * trailer são ignorados; cotações de mercados fora de {@code marketTypes} (indexado pelo {@code TPMERC})
+     * só são contadas.
+     */
+    static void parse(ByteBuffer buffer, int recordLength, boolean[] marketTypes, CotahistChunk chunk) {
+        for (int position = 0; position + RECORD_BYTES <= buffer.limit(); position += recordLength) {
+            if (!isQuote(buffer, position)) {
+                continue;
+            }
+            chunk.records++;
+            long marketType = digits(buffer, position + MARKET_TYPE, 3);
+            if (marketType == MALFORMED) {
+                chunk.malformed++;
+                continue;
+            }
+            if (!marketTypes[(int) marketType]) {
+                continue;
+            }
+            long ticker = tickerKey(buffer, position + TICKER);
+            long date = digits(buffer, position + TRADE_DATE, 8);
+            long open = digits(buffer, position + OPEN, PRICE_LENGTH);
+            long high = digits(buffer, position + HIGH, PRICE_LENGTH);
+            long low = digits(buffer, position + LOW, PRICE_LENGTH);
+            long close = digits(buffer, position + CLOSE, PRICE_LENGTH);
+            long trades = digits(buffer, position + TRADES, 5);
+            long quantity = digits(buffer, position + QUANTITY, 18);
+            long volume = digits(buffer, position + VOLUME, 18);
+            long factor = digits(buffer, position + QUOTATION_FACTOR, 7);
+            long openTime = date == MALFORMED ? MALFORMED : chunk.openTime((int) date);
+            if (ticker == MALFORMED || openTime == MALFORMED || open == MALFORMED || high == MALFORMED
+                    || low == MALFORMED || close == MALFORMED || trades == MALFORMED || quantity == MALFORMED
+                    || volume == MALFORMED || factor <= 0) {
+                chunk.malformed++;
+                continue;
+            }
+            // Centavos por lote de 'factor' ações; a divisão por uma potência de 10 exata arredonda corretamente
+            double scale = 100.0 * factor;
+            ArrayCandleSeries.Builder series = chunk.series(ticker);
+            series.add(openTime, open / scale, high / scale, low / scale, close / scale, quantity,
+                    openTime + DAY_MILLIS - 1, volume / 100.0, trades, 0d, 0d);
+            chunk.quotes++;
+        }
+    }
+
+    private static boolean isQuote(ByteBuffer buffer, int position) {
+        return buffer.get(position + RECORD_TYPE) == '0' && buffer.get(position + RECORD_TYPE + 1) == '1';
+    }
+
+    /**
+     * Inteiro sem sinal de {@code length} dígitos, ou {@link #MALFORMED} se houver outro caractere.
+     */
+    static long digits(ByteBuffer buffer, int position, int length) {
+        long value = 0;
+        for (int i = 0; i < length; i++) {
+            int digit = buffer.get(position + i) - '0';
+            if (digit < 0 || digit > 9) {
+                return MALFORMED;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    /**
+     * Código de negociação (A-Z e 0-9, completado com espaços) em base 37: 12 posições cabem em 63 bits e,
+     * sem dígito zero na codificação, códigos diferentes nunca colidem.
+     */
+    static long tickerKey(ByteBuffer buffer, int position) {
+        long key = 0;
+        int length = 0;
+        while (length < TICKER_LENGTH) {
+            int c = buffer.get(position + length);
+            if (c == ' ') {
+                break;
+            }
+            int code;
+            if (c >= 'A' && c <= 'Z') {
+                code = c - 'A' + 1;
+            } else if (c >= '0' && c <= '9') {
+                code = c - '0' + 27;
+            } else {
+                return MALFORMED;
+            }
+            key = key * TICKER_RADIX + code;
+            length++;
+        }
+        for (int i = length; i < TICKER_LENGTH; i++) {
+            if (buffer.get(position + i) != ' ') {
+                return MALFORMED;
+            }
+        }
+        return length == 0 ? MALFORMED : key;
+    }
+
+    static String tickerName(long key) {
+        char[] name = new char[TICKER_LENGTH];
+        int start = TICKER_LENGTH;
+        for (long rest = key; rest > 0; rest /= TICKER_RADIX) {
+            int code = (int) (rest % TICKER_RADIX);
+            name[--start] = code <= 26 ? (char) ('A' + code - 1) : (char) ('0' + code - 27);
+        }
+        return new String(name, start, TICKER_LENGTH - start);
+    }
+}
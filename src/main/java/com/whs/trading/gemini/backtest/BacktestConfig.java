@@ -0,0 +1,60 @@
+package com.whs.trading.gemini.backtest;
+
+/**
+ * Modelo de execução do backtest. Taxas e slippage são frações (0.001 = 0,1%).
+ */
+public class BacktestConfig {
+    private double initialCapital = 10_000;
+    private double feeRate = 0.001; // Taxa padrão spot da Binance
+    private double slippageRate = 0.0005;
+    private double positionFraction = 1.0; // Fração do patrimônio alocada em cada entrada
+    private int signalThreshold = 1; // Placar (compras - vendas) mínimo para entrar; o oposto sai
+    private boolean allowShort = false;
+    private int equitySampleInterval = 1; // Grava o patrimônio a cada N velas (0: não grava a curva)
+
+    // Getters e Setters
+    public double getInitialCapital() { return initialCapital; }
+    public void setInitialCapital(double initialCapital) { this.initialCapital = initialCapital; }
+    public double getFeeRate() { return feeRate; }
+    public void setFeeRate(double feeRate) { this.feeRate = feeRate; }
+    public double getSlippageRate() { return slippageRate; }
+    public void setSlippageRate(double slippageRate) { this.slippageRate = slippageRate; }
+    public double getPositionFraction() { return positionFraction; }
+    public void setPositionFraction(double positionFraction) { this.positionFraction = positionFraction; }
+    public int getSignalThreshold() { return signalThreshold; }
+    public void setSignalThreshold(int signalThreshold) { this.signalThreshold = signalThreshold; }
+    public boolean isAllowShort() { return allowShort; }
+    public void setAllowShort(boolean allowShort) { this.allowShort = allowShort; }
+    public int getEquitySampleInterval() { return equitySampleInterval; }
+    public void setEquitySampleInterval(int equitySampleInterval) { this.equitySampleInterval = equitySampleInterval; }
+
+    public BacktestConfig copy() {
+        BacktestConfig copy = new BacktestConfig();
+        copy.initialCapital = initialCapital;
+        copy.feeRate = feeRate;
+        copy.slippageRate = slippageRate;
+        copy.positionFraction = positionFraction;
+        copy.signalThreshold = signalThreshold;
+        copy.allowShort = allowShort;
+        copy.equitySampleInterval = equitySampleInterval;
+        return copy;
+    }
+
+    void validate() {
+        if (!(initialCapital > 0)) {
+            throw new IllegalArgumentException("initialCapital deve ser positivo: " + initialCapital);
+        }
+        if (feeRate < 0 || slippageRate < 0 || feeRate >= 1 || slippageRate >= 1) {
+            throw new IllegalArgumentException("feeRate e slippageRate devem estar em [0, 1)");
+        }
+        if (!(positionFraction > 0) || positionFraction > 1) {
+            throw new IllegalArgumentException("positionFraction deve estar em (0, 1]: " + positionFraction);
+        }
+        if (signalThreshold <= 0) {
+            throw new IllegalArgumentException("signalThreshold deve ser positivo: " + signalThreshold);
+        }
+        if (equitySampleInterval < 0) {
+            throw new IllegalArgumentException("equitySampleInterval não pode ser negativo: " + equitySampleInterval);
+        }
+    }
+}
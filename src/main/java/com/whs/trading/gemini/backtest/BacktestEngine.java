@@ -0,0 +1,95 @@
+package com.whs.trading.gemini.backtest;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.whs.trading.gemini.dto.CandleSeries;
+import com.whs.trading.gemini.dto.Signal;
+import com.whs.trading.gemini.indicator.CandleIndicator;
+import com.whs.trading.gemini.indicator.streaming.StreamingIndicator;
+
+/**
+ * Backtest em uma única passada: cada vela alimenta o estado incremental dos indicadores
+ * ({@link CandleIndicator#newStream}) e o placar de sinais vai para o {@link PositionSimulator}.
+ * Custo O(velas x indicadores), sem reprocessar prefixos: os sinais coincidem com os de
+ * {@code analyze(CandleSeries, ...)} sobre o histórico até cada vela.
+ */
+@Service
+public class BacktestEngine {
+
+    private final Map<String, CandleIndicator> indicatorsByName = new LinkedHashMap<>();
+
+    @Autowired
+    public BacktestEngine(List<CandleIndicator> indicators) {
+        for (CandleIndicator indicator : indicators) {
+            indicatorsByName.put(indicator.getName().toUpperCase(Locale.ROOT), indicator);
+        }
+    }
+
+    /**
+     * @param indicatorNames Indicadores pelo nome (null ou vazio: todos os registrados calculados das velas).
+     */
+    public BacktestResult run(CandleSeries series, List<String> indicatorNames, Map<String, String> params,
+                              BacktestConfig config) {
+        List<StreamingIndicator> streams = new ArrayList<>();
+        if (indicatorNames == null || indicatorNames.isEmpty()) {
+            for (CandleIndicator indicator : indicatorsByName.values()) {
+                streams.add(indicator.newStream(params));
+            }
+        } else {
+            for (String name : indicatorNames) {
+                CandleIndicator indicator = indicatorsByName.get(name.trim().toUpperCase(Locale.ROOT));
+                if (indicator == null) {
+                    throw new IllegalArgumentException("Indicador desconhecido ou sem estado por vela: " + name + "; disponíveis: "
+                            + indicatorsByName.keySet());
+                }
+                streams.add(indicator.newStream(params));
+            }
+        }
+        return run(series, streams, config);
+    }
+
+    public BacktestResult run(CandleSeries series, List<? extends StreamingIndicator> streams, BacktestConfig config) {
+        PositionSimulator simulator = new PositionSimulator(series, config);
+        StreamingIndicator[] active = streams.toArray(new StreamingIndicator[0]);
+        for (StreamingIndicator stream : active) {
+            stream.reset();
+        }
+        for (int i = 0; i < series.size(); i++) {
+            double high = series.high(i);
+            double low = series.low(i);
+            double close = series.close(i);
+            int score = 0;
+            for (StreamingIndicator stream : active) {
+                stream.update(high, low, close);
+                score += score(stream.signal());
+            }
+            simulator.onBar(i, score);
+        }
+        return simulator.finish();
+    }
+
+    /**
+     * Simula a partir de placares já calculados (um por vela), ex: sinais pré-computados por um otimizador.
+     */
+    public static BacktestResult simulate(CandleSeries series, int[] scores, BacktestConfig config) {
+        if (scores.length != series.size()) {
+            throw new IllegalArgumentException("Um placar por vela: " + scores.length + " != " + series.size());
+        }
+        PositionSimulator simulator = new PositionSimulator(series, config);
+        for (int i = 0; i < scores.length; i++) {
+            simulator.onBar(i, scores[i]);
+        }
+        return simulator.finish();
+    }
+
+    public static int score(Signal signal) {
+        return signal == Signal.BUY ? 1 : signal == Signal.SELL ? -1 : 0;
+    }
+}
@@ -0,0 +1,26 @@
+package com.whs.trading.gemini.backtest;
+
+import java.util.List;
+
+/**
+ * Operações, curva de patrimônio (amostrada a cada {@code equitySampleInterval} velas, no fechamento) e estatísticas.
+ */
+public class BacktestResult {
+    private final List<Trade> trades;
+    private final long[] equityTimes;
+    private final double[] equity;
+    private final BacktestStats stats;
+
+    public BacktestResult(List<Trade> trades, long[] equityTimes, double[] equity, BacktestStats stats) {
+        this.trades = trades;
+        this.equityTimes = equityTimes;
+        this.equity = equity;
+        this.stats = stats;
+    }
+
+    // Getters
+    public List<Trade> getTrades() { return trades; }
+    public long[] getEquityTimes() { return equityTimes; }
+    public double[] getEquity() { return equity; }
+    public BacktestStats getStats() { return stats; }
+}
@@ -0,0 +1,42 @@
+package com.whs.trading.gemini.backtest;
+
+/**
+ * Resumo do backtest. Retornos e drawdown em percentual; Sharpe anualizado a partir dos retornos por vela.
+ */
+public class BacktestStats {
+    private double finalEquity;
+    private double totalReturnPercentage;
+    private double annualizedReturnPercentage;
+    private double maxDrawdownPercentage;
+    private double sharpeRatio;
+    private int tradeCount;
+    private double winRatePercentage;
+    private double profitFactor;
+    private double totalFees;
+    private double exposurePercentage; // Fração das velas com posição aberta
+    private int candleCount;
+
+    // Getters e Setters
+    public double getFinalEquity() { return finalEquity; }
+    public void setFinalEquity(double finalEquity) { this.finalEquity = finalEquity; }
+    public double getTotalReturnPercentage() { return totalReturnPercentage; }
+    public void setTotalReturnPercentage(double totalReturnPercentage) { this.totalReturnPercentage = totalReturnPercentage; }
+    public double getAnnualizedReturnPercentage() { return annualizedReturnPercentage; }
+    public void setAnnualizedReturnPercentage(double annualizedReturnPercentage) { this.annualizedReturnPercentage = annualizedReturnPercentage; }
+    public double getMaxDrawdownPercentage() { return maxDrawdownPercentage; }
+    public void setMaxDrawdownPercentage(double maxDrawdownPercentage) { this.maxDrawdownPercentage = maxDrawdownPercentage; }
+    public double getSharpeRatio() { return sharpeRatio; }
+    public void setSharpeRatio(double sharpeRatio) { this.sharpeRatio = sharpeRatio; }
+    public int getTradeCount() { return tradeCount; }
+    public void setTradeCount(int tradeCount) { this.tradeCount = tradeCount; }
+    public double getWinRatePercentage() { return winRatePercentage; }
+    public void setWinRatePercentage(double winRatePercentage) { this.winRatePercentage = winRatePercentage; }
+    public double getProfitFactor() { return profitFactor; }
+    public void setProfitFactor(double profitFactor) { this.profitFactor = profitFactor; }
+    public double getTotalFees() { return totalFees; }
+    public void setTotalFees(double totalFees) { this.totalFees = totalFees; }
+    public double getExposurePercentage() { return exposurePercentage; }
+    public void setExposurePercentage(double exposurePercentage) { this.exposurePercentage = exposurePercentage; }
+    public int getCandleCount() { return candleCount; }
+    public void setCandleCount(int candleCount) { this.candleCount = candleCount; }
+}
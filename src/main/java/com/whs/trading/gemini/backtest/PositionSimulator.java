@@ -0,0 +1,194 @@
+package com.whs.trading.gemini.backtest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.whs.trading.gemini.dto.CandleSeries;
+
+/**
+ * Simula a carteira vela a vela a partir de um placar de sinais (compras - vendas).
+ * <p>
+ * O placar da vela i (conhecido no fechamento dela) gera a ordem executada na abertura da vela i+1, com
+ * slippage contra a operação e taxa sobre o valor negociado, então não há uso de informação futura. Placar
+ * maior ou igual ao limiar abre (ou mantém) compra; menor ou igual ao oposto encerra a compra (e vende a
+ * descoberto, se permitido); entre os dois a posição é mantida. Uma posição aberta ao final é encerrada no
+ * último fechamento. Estatísticas são acumuladas durante a simulação, sem guardar a curva inteira.
+ */
+public final class PositionSimulator {
+
+    private static final double YEAR_MILLIS = 365.25 * 86_400_000L;
+
+    private final CandleSeries series;
+    private final BacktestConfig config;
+    private final List<Trade> trades = new ArrayList<>();
+
+    private double cash;
+    private double quantity;
+    private int position; // -1 vendido, 0 fora, 1 comprado
+    private int target;
+    private long entryTime;
+    private double entryPrice;
+    private double entryFee;
+    private double totalFees;
+
+    private double previousEquity;
+    private double peakEquity;
+    private double maxDrawdown;
+    private double sumReturns;
+    private double sumSquaredReturns;
+    private int bars;
+    private int barsInMarket;
+
+    private long[] equityTimes;
+    private double[] equity;
+    private int samples;
+
+    public PositionSimulator(CandleSeries series, BacktestConfig config) {
+        config.validate();
+        this.series = series;
+        this.config = config;
+        this.cash = config.getInitialCapital();
+        this.previousEquity = cash;
+        this.peakEquity = cash;
+        int interval = config.getEquitySampleInterval();
+        int capacity = interval == 0 ? 0 : (series.size() + interval - 1) / interval;
+        this.equityTimes = new long[capacity];
+        this.equity = new double[capacity];
+    }
+
+    /**
+     * Processa a vela {@code index} (em ordem): executa a ordem pendente na abertura, marca a carteira no
+     * fechamento e registra o placar para a próxima vela.
+     */
+    public void onBar(int index, int score) {
+        if (target != position) {
+            rebalance(series.openTime(index), series.open(index), target);
+        }
+        if (position != 0) {
+            barsInMarket++;
+        }
+        mark(index, cash + quantity * series.close(index));
+
+        int threshold = config.getSignalThreshold();
+        if (score >= threshold) {
+            target = 1;
+        } else if (score <= -threshold) {
+            target = config.isAllowShort() ? -1 : 0;
+        } else {
+            target = position;
+        }
+    }
+
+    /**
+     * Encerra a posição no último fechamento e consolida o resultado.
+     */
+    public BacktestResult finish() {
+        int last = series.size() - 1;
+        if (position != 0 && last >= 0) {
+            rebalance(series.closeTime(last), series.close(last), 0);
+            // Custos da saída final entram no patrimônio do último fechamento
+            if (samples > 0 && equityTimes[samples - 1] == series.closeTime(last)) {
+                equity[samples - 1] = cash;
+            }
+            if (peakEquity > 0) {
+                maxDrawdown = Math.max(maxDrawdown, (peakEquity - cash) / peakEquity);
+            }
+            previousEquity = cash;
+        }
+        return new BacktestResult(List.copyOf(trades), Arrays.copyOf(equityTimes, samples), Arrays.copyOf(equity, samples),
+                stats());
+    }
+
+    /**
+     * Executa a troca de posição ao preço e no instante do preenchimento: a abertura da vela para ordens
+     * sinalizadas, o último fechamento para o encerramento final.
+     */
+    private void rebalance(long time, double price, int newPosition) {
+        double slippage = config.getSlippageRate();
+        double feeRate = config.getFeeRate();
+        if (position != 0) {
+            // Venda fecha compra abaixo do preço; compra fecha venda acima
+            double exitPrice = position > 0 ? price * (1 - slippage) : price * (1 + slippage);
+            double exitFee = Math.abs(quantity) * exitPrice * feeRate;
+            cash += quantity * exitPrice - exitFee;
+            totalFees += exitFee;
+            double profit = quantity * (exitPrice - entryPrice) - entryFee - exitFee;
+            trades.add(new Trade(entryTime, entryPrice, time, exitPrice, quantity, entryFee + exitFee, profit));
+            quantity = 0;
+            position = 0;
+        }
+        if (newPosition != 0 && cash > 0) {
+            double fillPrice = newPosition > 0 ? price * (1 + slippage) : price * (1 - slippage);
+            // Dimensiona para que valor + taxa caibam na fração alocada
+            double size = cash * config.getPositionFraction() / (fillPrice * (1 + feeRate));
+            quantity = newPosition * size;
+            entryFee = size * fillPrice * feeRate;
+            cash -= quantity * fillPrice + entryFee;
+            totalFees += entryFee;
+            entryTime = time;
+            entryPrice = fillPrice;
+            position = newPosition;
+        }
+    }
+
+    private void mark(int index, double currentEquity) {
+        double periodReturn = previousEquity > 0 ? currentEquity / previousEquity - 1 : 0;
+        sumReturns += periodReturn;
+        sumSquaredReturns += periodReturn * periodReturn;
+        bars++;
+        previousEquity = currentEquity;
+        if (currentEquity > peakEquity) {
+            peakEquity = currentEquity;
+        } else if (peakEquity > 0) {
+            maxDrawdown = Math.max(maxDrawdown, (peakEquity - currentEquity) / peakEquity);
+        }
+        int interval = config.getEquitySampleInterval();
+        if (interval > 0 && index % interval == 0) {
+            equityTimes[samples] = series.closeTime(index);
+            equity[samples] = currentEquity;
+            samples++;
+        }
+    }
+
+    private BacktestStats stats() {
+        BacktestStats stats = new BacktestStats();
+        double initial = config.getInitialCapital();
+        double finalEquity = previousEquity;
+        stats.setCandleCount(series.size());
+        stats.setFinalEquity(finalEquity);
+        stats.setTotalReturnPercentage((finalEquity / initial - 1) * 100);
+        stats.setMaxDrawdownPercentage(maxDrawdown * 100);
+        stats.setTotalFees(totalFees);
+        stats.setTradeCount(trades.size());
+        stats.setExposurePercentage(bars == 0 ? 0 : 100.0 * barsInMarket / bars);
+
+        double years = series.size() < 2 ? 0
+                : (series.closeTime(series.size() - 1) - series.openTime(0)) / YEAR_MILLIS;
+        stats.setAnnualizedReturnPercentage(years > 0 && finalEquity > 0
+                ? (Math.pow(finalEquity / initial, 1 / years) - 1) * 100 : Double.NaN);
+        if (bars > 1 && years > 0) {
+            double mean = sumReturns / bars;
+            double variance = sumSquaredReturns / bars - mean * mean;
+            double barsPerYear = bars / years;
+            stats.setSharpeRatio(variance > 0 ? mean / Math.sqrt(variance) * Math.sqrt(barsPerYear) : Double.NaN);
+        } else {
+            stats.setSharpeRatio(Double.NaN);
+        }
+
+        int wins = 0;
+        double grossProfit = 0;
+        double grossLoss = 0;
+        for (Trade trade : trades) {
+            if (trade.getProfit() > 0) {
+                wins++;
+                grossProfit += trade.getProfit();
+            } else {
+                grossLoss -= trade.getProfit();
+            }
+        }
+        stats.setWinRatePercentage(trades.isEmpty() ? 0 : 100.0 * wins / trades.size());
+        stats.setProfitFactor(grossLoss > 0 ? grossProfit / grossLoss : (grossProfit > 0 ? Double.POSITIVE_INFINITY : Double.NaN));
+        return stats;
+    }
+}
@@ -0,0 +1,44 @@
+package com.whs.trading.gemini.backtest;
+
+/**
+ * Operação encerrada. Quantidade positiva para compra (long), negativa para venda (short).
+ */
+public class Trade {
+    private final long entryTime;
+    private final double entryPrice;
+    private final long exitTime;
+    private final double exitPrice;
+    private final double quantity;
+    private final double fees;
+    private final double profit; // Já descontadas as taxas de entrada e saída
+
+    public Trade(long entryTime, double entryPrice, long exitTime, double exitPrice, double quantity, double fees, double profit) {
+        this.entryTime = entryTime;
+        this.entryPrice = entryPrice;
+        this.exitTime = exitTime;
+        this.exitPrice = exitPrice;
+        this.quantity = quantity;
+        this.fees = fees;
+        this.profit = profit;
+    }
+
+    // Getters
+    public long getEntryTime() { return entryTime; }
+    public double getEntryPrice() { return entryPrice; }
+    public long getExitTime() { return exitTime; }
+    public double getExitPrice() { return exitPrice; }
+    public double getQuantity() { return quantity; }
+    public double getFees() { return fees; }
+    public double getProfit() { return profit; }
+
+    public boolean isLong() {
+        return quantity > 0;
+    }
+
+    /**
+     * Resultado sobre o valor investido na entrada.
+     */
+    public double getReturnPercentage() {
+        return profit / Math.abs(quantity * entryPrice) * 100;
+    }
+}
@@ -0,0 +1,24 @@
+package com.whs.trading.gemini.cluster;
+
+import java.util.regex.Pattern;
+
+/**
+ * Instância do serviço no cluster.
+ *
+ * @param id  Identificador estável (letras, dígitos, ".", "_" e "-"): define os pontos da instância no anel.
+ * @param url URL base pela qual as outras instâncias a chamam (ex: {@code http://localhost:8081}).
+ */
+public record ClusterMember(String id, String url) {
+
+    private static final Pattern VALID_ID = Pattern.compile("[A-Za-z0-9._-]+");
+
+    public ClusterMember {
+        if (id == null || !VALID_ID.matcher(id).matches()) {
+            throw new IllegalArgumentException("Id de instância inválido: " + id);
+        }
+        if (url == null || url.isBlank()) {
+            throw new IllegalArgumentException("URL obrigatória para a instância " + id);
+        }
+        url = url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+}
@@ -0,0 +1,121 @@
+package com.whs.trading.gemini.cluster;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Anel de hash consistente (imutável): cada instância ocupa {@code virtualNodes} pontos no anel de 64 bits, e um
+ * símbolo pertence à instância do primeiro ponto a partir do hash dele. Quando uma instância entra ou sai, só os
+ * símbolos dos trechos dela mudam de dono (cerca de 1/n do universo); os demais ficam onde estavam.
+ * <p>
+ * O hash (FNV-1a de 64 bits dos bytes UTF-8 seguido da mistura final do MurmurHash3) não depende da JVM, então
+ * instâncias com os mesmos membros chegam ao mesmo dono para cada símbolo sem se consultar. Pontos em arrays
+ * ordenados: a busca do dono é uma busca binária, sem alocação.
+ */
+public final class ConsistentHashRing {
+
+    private final List<ClusterMember> members;
+    private final long[] points;
+    private final int[] owners; // índice em members do dono de cada ponto
+
+    private ConsistentHashRing(List<ClusterMember> members, long[] points, int[] owners) {
+        this.members = members;
+        this.points = points;
+        this.owners = owners;
+    }
+
+    public static ConsistentHashRing empty() {
+        return new ConsistentHashRing(List.of(), new long[0], new int[0]);
+    }
+
+    /**
+     * @throws IllegalArgumentException se {@code virtualNodes} não for positivo ou se dois membros tiverem o mesmo id.
+     */
+    public static ConsistentHashRing of(Collection<ClusterMember> members, int virtualNodes) {
+        if (virtualNodes <= 0) {
+            throw new IllegalArgumentException("virtualNodes deve ser positivo: " + virtualNodes);
+        }
+        List<ClusterMember> sorted = new ArrayList<>(members);
+        sorted.sort(Comparator.comparing(ClusterMember::id));
+        for (int m = 1; m < sorted.size(); m++) {
+            if (sorted.get(m).id().equals(sorted.get(m - 1).id())) {
+                throw new IllegalArgumentException("Instância repetida no anel: " + sorted.get(m).id());
+            }
+        }
+        int count = sorted.size() * virtualNodes;
+        long[] hashes = new long[count];
+        Integer[] order = new Integer[count];
+        for (int m = 0; m < sorted.size(); m++) {
+            for (int v = 0; v < virtualNodes; v++) {
+                int slot = m * virtualNodes + v;
+                hashes[slot] = hash(sorted.get(m).id() + '#' + v);
+                order[slot] = slot;
+            }
+        }
+        // Empates (improváveis) ficam com o menor id, então todas as instâncias desempatam igual
+        Arrays.sort(order, Comparator.<Integer>comparingLong(slot -> hashes[slot]).thenComparingInt(slot -> slot));
+        long[] points = new long[count];
+        int[] owners = new int[count];
+        for (int p = 0; p < count; p++) {
+            points[p] = hashes[order[p]];
+            owners[p] = order[p] / virtualNodes;
+        }
+        return new ConsistentHashRing(List.copyOf(sorted), points, owners);
+    }
+
+    /**
+     * Membros em ordem de id.
+     */
+    public List<ClusterMember> members() {
+        return members;
+    }
+
+    public boolean isEmpty() {
+        return members.isEmpty();
+    }
+
+    /**
+     * @throws IllegalStateException se o anel estiver vazio.
+     */
+    public ClusterMember ownerOf(String key) {
+        if (points.length == 0) {
+            throw new IllegalStateException("Anel sem instâncias");
+        }
+        int index = Arrays.binarySearch(points, hash(key));
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return members.get(owners[index == points.length ? 0 : index]);
+    }
+
+    /**
+     * Chaves agrupadas por dono, na ordem de {@code keys} dentro de cada grupo.
+     */
+    public Map<ClusterMember, List<String>> partition(Collection<String> keys) {
+        Map<ClusterMember, List<String>> shards = new LinkedHashMap<>();
+        for (String key : keys) {
+            shards.computeIfAbsent(ownerOf(key), member -> new ArrayList<>()).add(key);
+        }
+        return shards;
+    }
+
+    static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xff;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,145 @@
+package com.whs.trading.gemini.cluster;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Stream de Server-Sent Events de outra instância, lido numa thread virtual: cada evento e cada comentário
+ * (ex: heartbeat) vai ao {@link Listener} na ordem em que chegou. {@link #close()} é idempotente e encerra a
+ * conexão.
+ */
+public final class EventStreamRelay implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(EventStreamRelay.class);
+
+    /**
+     * Destino dos eventos repassados; chamado apenas pela thread do repasse. Uma {@link IOException} (ex: o
+     * cliente local saiu) encerra o repasse.
+     */
+    public interface Listener {
+        /**
+         * @param name Campo {@code event}, ou {@code null}.
+         * @param id   Campo {@code id}, ou {@code null}.
+         * @param data Linhas {@code data} unidas por quebra de linha.
+         */
+        void onEvent(String name, String id, String data) throws IOException;
+
+        void onComment(String comment) throws IOException;
+
+        /**
+         * Fim do stream pela outra ponta (encerrado pela instância, erro de HTTP ou de conexão); não é chamado
+         * depois de {@link #close()}.
+         */
+        void onEnd();
+    }
+
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private volatile Stream<String> lines;
+    private volatile Thread reader;
+
+    private EventStreamRelay() {
+    }
+
+    static EventStreamRelay open(HttpClient httpClient, URI uri, String forwardedBy, Listener listener) {
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .header(ShardingService.FORWARDED_HEADER, forwardedBy)
+                .header("Accept", "text/event-stream")
+                .GET()
+                .build();
+        EventStreamRelay relay = new EventStreamRelay();
+        relay.reader = Thread.ofVirtual().name("cluster-relay").start(() -> relay.run(httpClient, request, listener));
+        return relay;
+    }
+
+    public boolean isClosed() {
+        return closed.get();
+    }
+
+    @Override
+    public void close() {
+        if (closed.compareAndSet(false, true)) {
+            release();
+        }
+    }
+
+    private void run(HttpClient httpClient, HttpRequest request, Listener listener) {
+        try {
+            HttpResponse<Stream<String>> response = httpClient.send(request, HttpResponse.BodyHandlers.ofLines());
+            lines = response.body();
+            if (closed.get()) {
+                return; // Fechado enquanto conectava
+            }
+            if (response.statusCode() != 200) {
+                throw new IOException("HTTP " + response.statusCode() + " from " + request.uri());
+            }
+            read(lines.iterator(), listener);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException | UncheckedIOException e) {
+            if (!closed.get()) {
+                logger.warn("Event stream relay from {} failed: {}", request.uri(), e.getMessage());
+            }
+        } finally {
+            if (closed.compareAndSet(false, true)) {
+                release();
+                listener.onEnd();
+            } else {
+                release(); // Fechado durante a conexão: a resposta chegou depois do close()
+            }
+        }
+    }
+
+    private void read(Iterator<String> lines, Listener listener) throws IOException {
+        String name = null;
+        String id = null;
+        StringBuilder data = null;
+        while (!closed.get() && lines.hasNext()) {
+            String line = lines.next();
+            if (line.isEmpty()) {
+                if (data != null) {
+                    listener.onEvent(name, id, data.toString());
+                }
+                name = null;
+                id = null;
+                data = null;
+                continue;
+            }
+            if (line.startsWith(":")) {
+                listener.onComment(line.substring(1).strip());
+                continue;
+            }
+            int colon = line.indexOf(':');
+            String field = colon < 0 ? line : line.substring(0, colon);
+            String value = colon < 0 ? "" : line.substring(line.startsWith(" ", colon + 1) ? colon + 2 : colon + 1);
+            switch (field) {
+                case "event" -> name = value;
+                case "id" -> id = value;
+                case "data" -> data = data == null ? new StringBuilder(value) : data.append('\n').append(value);
+                default -> {
+                    // Campos como "retry" não são repassados
+                }
+            }
+        }
+    }
+
+    private void release() {
+        Stream<String> open = lines;
+        if (open != null) {
+            open.close();
+        }
+        Thread thread = reader;
+        if (thread != null && thread != Thread.currentThread()) {
+            thread.interrupt();
+        }
+    }
+}
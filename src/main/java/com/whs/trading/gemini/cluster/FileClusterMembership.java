@@ -0,0 +1,90 @@
+package com.whs.trading.gemini.cluster;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Membros do cluster por arquivos num diretório compartilhado, para várias JVMs na mesma máquina (ou num
+ * diretório de rede) sem um serviço de coordenação: cada instância mantém {@code <id>.member} com a sua URL,
+ * regravado a cada batida, e é considerada viva enquanto o arquivo tiver sido tocado há menos de {@code ttlMillis}.
+ * Uma saída ordenada apaga o arquivo; uma instância que cai sai do anel quando o arquivo expira.
+ */
+public final class FileClusterMembership {
+
+    private static final Logger logger = LoggerFactory.getLogger(FileClusterMembership.class);
+    private static final String EXTENSION = ".member";
+
+    private final Path directory;
+    private final long ttlMillis;
+
+    public FileClusterMembership(Path directory, long ttlMillis) {
+        if (ttlMillis <= 0) {
+            throw new IllegalArgumentException("ttlMillis deve ser positivo: " + ttlMillis);
+        }
+        this.directory = directory;
+        this.ttlMillis = ttlMillis;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Grava (ou renova) o arquivo da instância; a troca é atômica, então quem lê nunca vê a URL pela metade.
+     */
+    public void heartbeat(ClusterMember self) throws IOException {
+        Files.createDirectories(directory);
+        Path file = file(self.id());
+        Path temporary = directory.resolve(self.id() + EXTENSION + ".tmp");
+        Files.writeString(temporary, self.url(), StandardCharsets.UTF_8);
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+    }
+
+    public void leave(ClusterMember self) throws IOException {
+        Files.deleteIfExists(file(self.id()));
+    }
+
+    /**
+     * Instâncias com arquivo tocado há menos do TTL; arquivos ilegíveis ou com id inválido são ignorados.
+     */
+    public List<ClusterMember> liveMembers() throws IOException {
+        List<ClusterMember> members = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return members;
+        }
+        long oldest = System.currentTimeMillis() - ttlMillis;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + EXTENSION)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    if (Files.getLastModifiedTime(file).toMillis() < oldest) {
+                        continue;
+                    }
+                    String url = Files.readString(file, StandardCharsets.UTF_8).trim();
+                    members.add(new ClusterMember(name.substring(0, name.length() - EXTENSION.length()), url));
+                } catch (NoSuchFileException e) {
+                    // Saiu entre a listagem e a leitura
+                } catch (IOException | IllegalArgumentException e) {
+                    logger.warn("Ignoring unreadable cluster member file {}: {}", file, e.getMessage());
+                }
+            }
+        }
+        return members;
+    }
+
+    private Path file(String id) {
+        return directory.resolve(id + EXTENSION);
+    }
+}
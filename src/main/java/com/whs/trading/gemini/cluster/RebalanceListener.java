@@ -0,0 +1,13 @@
+package com.whs.trading.gemini.cluster;
+
+/**
+ * Avisado pelo {@link ShardingService} quando instâncias entram ou saem, já com o anel novo em vigor.
+ */
+@FunctionalInterface
+public interface RebalanceListener {
+
+    /**
+     * Chamado na thread de batidas do {@link ShardingService}; deve devolver logo ou repassar o trabalho.
+     */
+    void onRebalance(ConsistentHashRing previous, ConsistentHashRing current);
+}
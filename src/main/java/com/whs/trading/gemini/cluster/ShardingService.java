@@ -0,0 +1,329 @@
+package com.whs.trading.gemini.cluster;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Divisão do universo de símbolos entre várias instâncias do serviço por hash consistente.
+ * <p>
+ * Com {@code cluster.enabled=true}, cada instância renova o seu arquivo em {@code cluster.membership-directory}
+ * ({@link FileClusterMembership}) a cada {@code cluster.heartbeat-seconds} e remonta o {@link ConsistentHashRing}
+ * quando o conjunto de instâncias vivas muda, avisando os {@link RebalanceListener}s. Cada símbolo tem um único
+ * dono; quem recebe uma consulta de outros símbolos a repassa com {@link #forward}, {@link #relay} ou
+ * {@link #relayEvents} (marcada com
+ * {@value #FORWARDED_HEADER}, que não é repassada de novo), então só o dono busca, guarda em cache e calcula.
+ * <p>
+ * Desligado, o anel tem só esta instância: {@link #isLocal} é sempre verdadeiro e nada é repassado.
+ */
+@Service
+public class ShardingService implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardingService.class);
+    public static final String FORWARDED_HEADER = "X-Shard-Forwarded";
+
+    private final RestTemplate restTemplate;
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+    private final boolean enabled;
+    private final ClusterMember self;
+    private final FileClusterMembership membership;
+    private final long heartbeatMillis;
+    private final int virtualNodes;
+    private final List<RebalanceListener> listeners = new CopyOnWriteArrayList<>();
+    private final AtomicLong rebalances = new AtomicLong();
+    private volatile ConsistentHashRing ring;
+    private volatile ScheduledExecutorService scheduler;
+    private volatile Timer forwardTimer;
+
+    @Autowired
+    public ShardingService(RestTemplate restTemplate,
+                           @Value("${cluster.enabled:false}") boolean enabled,
+                           @Value("${cluster.instance-id:}") String instanceId,
+                           @Value("${cluster.advertised-url:http://localhost:${server.port:8080}}") String advertisedUrl,
+                           @Value("${cluster.membership-directory:data/cluster}") String membershipDirectory,
+                           @Value("${cluster.heartbeat-seconds:2}") long heartbeatSeconds,
+                           @Value("${cluster.member-ttl-seconds:10}") long memberTtlSeconds,
+                           @Value("${cluster.virtual-nodes:128}") int virtualNodes) {
+        this(restTemplate, enabled,
+                new ClusterMember(instanceId.isBlank() ? idFromUrl(advertisedUrl) : instanceId.trim(), advertisedUrl),
+                new FileClusterMembership(Paths.get(membershipDirectory), TimeUnit.SECONDS.toMillis(memberTtlSeconds)),
+                TimeUnit.SECONDS.toMillis(heartbeatSeconds), virtualNodes);
+    }
+
+    public ShardingService(RestTemplate restTemplate, boolean enabled, ClusterMember self,
+                           FileClusterMembership membership, long heartbeatMillis, int virtualNodes) {
+        if (heartbeatMillis <= 0) {
+            throw new IllegalArgumentException("cluster.heartbeat-seconds deve ser positivo");
+        }
+        this.restTemplate = restTemplate;
+        this.enabled = enabled;
+        this.self = self;
+        this.membership = membership;
+        this.heartbeatMillis = heartbeatMillis;
+        this.virtualNodes = virtualNodes;
+        this.ring = ConsistentHashRing.of(List.of(self), virtualNodes);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("cluster.members", this, sharding -> sharding.ring.members().size()).register(registry);
+        FunctionCounter.builder("cluster.rebalances", rebalances, AtomicLong::get).register(registry);
+        forwardTimer = Timer.builder("cluster.forward")
+                .description("Consultas repassadas à instância dona dos símbolos")
+                .register(registry);
+    }
+
+    /**
+     * Entra no cluster (primeira batida e leitura dos membros antes de os outros serviços iniciarem) e agenda
+     * as batidas seguintes.
+     */
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        beat();
+        scheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofVirtual().name("cluster-heartbeat").factory());
+        scheduler.scheduleWithFixedDelay(this::beat, heartbeatMillis, heartbeatMillis, TimeUnit.MILLISECONDS);
+        logger.info("Joined cluster as {} ({}) with {} member(s)", self.id(), self.url(), ring.members().size());
+    }
+
+    /**
+     * Sai do cluster apagando o arquivo de membro: as outras instâncias assumem os símbolos desta na batida
+     * seguinte, sem esperar o TTL.
+     */
+    @PreDestroy
+    public void stop() {
+        ScheduledExecutorService running = scheduler;
+        if (running == null) {
+            return;
+        }
+        scheduler = null;
+        running.shutdownNow();
+        try {
+            membership.leave(self);
+        } catch (IOException e) {
+            logger.warn("Could not remove cluster member file for {}: {}", self.id(), e.getMessage());
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public ClusterMember self() {
+        return self;
+    }
+
+    public ConsistentHashRing ring() {
+        return ring;
+    }
+
+    public boolean isLocal(String symbol) {
+        return !enabled || ring.ownerOf(symbol.toUpperCase(Locale.ROOT)).equals(self);
+    }
+
+    public ClusterMember ownerOf(String symbol) {
+        return ring.ownerOf(symbol.toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * Símbolos (já normalizados em maiúsculas) agrupados por dono no anel atual.
+     */
+    public Map<ClusterMember, List<String>> partition(Collection<String> symbols) {
+        return ring.partition(symbols);
+    }
+
+    public void addListener(RebalanceListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(RebalanceListener listener) {
+        listeners.remove(listener);
+    }
+
+    public long getRebalanceCount() {
+        return rebalances.get();
+    }
+
+    /**
+     * Renova o arquivo desta instância e relê os membros.
+     */
+    public void beat() {
+        try {
+            membership.heartbeat(self);
+        } catch (IOException e) {
+            logger.warn("Could not renew cluster member file for {}: {}", self.id(), e.getMessage());
+        }
+        refresh();
+    }
+
+    /**
+     * Remonta o anel se as instâncias vivas mudaram (esta instância sempre conta como viva).
+     */
+    public synchronized void refresh() {
+        List<ClusterMember> live;
+        try {
+            live = membership.liveMembers();
+        } catch (IOException e) {
+            logger.warn("Could not read cluster members from {}: {}", membership.getDirectory(), e.getMessage());
+            return;
+        }
+        Map<String, ClusterMember> byId = new TreeMap<>();
+        for (ClusterMember member : live) {
+            byId.put(member.id(), member);
+        }
+        byId.put(self.id(), self);
+        ConsistentHashRing previous = ring;
+        if (previous.members().equals(List.copyOf(byId.values()))) {
+            return;
+        }
+        ConsistentHashRing current = ConsistentHashRing.of(byId.values(), virtualNodes);
+        ring = current;
+        rebalances.incrementAndGet();
+        logger.info("Cluster membership changed: {} -> {}", ids(previous), ids(current));
+        for (RebalanceListener listener : listeners) {
+            try {
+                listener.onRebalance(previous, current);
+            } catch (RuntimeException e) {
+                logger.error("Rebalance listener failed: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * GET em {@code path} na instância dona, marcado como repassado.
+     *
+     * @throws org.springframework.web.client.RestClientException se a instância não responder ou responder com erro.
+     */
+    public <T> T forward(ClusterMember owner, String path, MultiValueMap<String, String> params, Class<T> responseType) {
+        long start = System.nanoTime();
+        try {
+            return restTemplate.exchange(uri(owner, path, params), HttpMethod.GET, forwarded(null), responseType).getBody();
+        } finally {
+            recordForward(start);
+        }
+    }
+
+    /**
+     * Repassa a chamada de um único símbolo à instância dona e devolve a resposta dela como veio (status,
+     * {@code Content-Type} e corpo, inclusive de erro), sem desserializar.
+     *
+     * @param body Corpo enviado em JSON, ou {@code null}.
+     * @return {@code null} se a dona não responder: quem chamou atende aqui, como a varredura faz com a parte de
+     *         uma dona fora do ar.
+     */
+    public ResponseEntity<byte[]> relay(ClusterMember owner, HttpMethod method, String path,
+                                        MultiValueMap<String, String> params, Object body) {
+        long start = System.nanoTime();
+        try {
+            ResponseEntity<byte[]> response = restTemplate.exchange(uri(owner, path, params), method, forwarded(body),
+                    byte[].class);
+            return relayed(response.getStatusCode(), response.getHeaders(), response.getBody());
+        } catch (HttpStatusCodeException e) {
+            return relayed(e.getStatusCode(), e.getResponseHeaders(), e.getResponseBodyAsByteArray());
+        } catch (ResourceAccessException e) {
+            logger.warn("Instance {} did not answer {} {} ({}); serving it locally", owner.id(), method, path,
+                    e.getMessage());
+            return null;
+        } finally {
+            recordForward(start);
+        }
+    }
+
+    /**
+     * {@link #relay} da chamada de um símbolo de outra instância, a não ser que ela já tenha vindo repassada
+     * ({@code forwardedBy}, o valor de {@value #FORWARDED_HEADER}): uma chamada é repassada no máximo uma vez.
+     *
+     * @return {@code null} se a chamada deve ser atendida aqui.
+     */
+    public ResponseEntity<byte[]> relayIfRemote(String symbol, String forwardedBy, HttpMethod method, String path,
+                                                MultiValueMap<String, String> params, Object body) {
+        if (forwardedBy != null || isLocal(symbol)) {
+            return null;
+        }
+        return relay(ownerOf(symbol), method, path, params, body);
+    }
+
+    /**
+     * Assina um stream de Server-Sent Events da instância dona, marcado como repassado; os eventos chegam ao
+     * {@code listener} numa thread virtual até {@link EventStreamRelay#close()} ou o fim do stream.
+     */
+    public EventStreamRelay relayEvents(ClusterMember owner, String path, MultiValueMap<String, String> params,
+                                        EventStreamRelay.Listener listener) {
+        return EventStreamRelay.open(httpClient, uri(owner, path, params), self.id(), listener);
+    }
+
+    private static URI uri(ClusterMember owner, String path, MultiValueMap<String, String> params) {
+        return UriComponentsBuilder.fromUriString(owner.url() + path).queryParams(params).encode().build().toUri();
+    }
+
+    private HttpEntity<Object> forwarded(Object body) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(FORWARDED_HEADER, self.id());
+        return new HttpEntity<>(body, headers);
+    }
+
+    private static ResponseEntity<byte[]> relayed(HttpStatusCode status, HttpHeaders headers, byte[] body) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(status);
+        if (headers != null && headers.getContentType() != null) {
+            response.contentType(headers.getContentType());
+        }
+        return response.body(body);
+    }
+
+    private void recordForward(long start) {
+        Timer timer = forwardTimer;
+        if (timer != null) {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static List<String> ids(ConsistentHashRing ring) {
+        return ring.members().stream().map(ClusterMember::id).toList();
+    }
+
+    /**
+     * Id padrão a partir da URL anunciada, ex: {@code http://localhost:8081} vira {@code localhost-8081}.
+     */
+    static String idFromUrl(String url) {
+        URI uri = URI.create(url);
+        String id = uri.getHost() + (uri.getPort() > 0 ? "-" + uri.getPort() : "");
+        return id.replaceAll("[^A-Za-z0-9._-]", "-");
+    }
+}
@@ -0,0 +1,223 @@
+package com.whs.trading.gemini.controller;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.whs.trading.gemini.alert.AlertBroadcaster;
+import com.whs.trading.gemini.alert.AlertEngine;
+import com.whs.trading.gemini.alert.AlertEvent;
+import com.whs.trading.gemini.alert.AlertRule;
+import com.whs.trading.gemini.cluster.ClusterMember;
+import com.whs.trading.gemini.cluster.EventStreamRelay;
+import com.whs.trading.gemini.cluster.ShardingService;
+
+/**
+ * Regras de alerta e o stream de disparos via Server-Sent Events.
+ * <p>
+ * Ex: {@code POST /api/alerts/rules} com {@code {"symbol":"BTCUSDT","interval":"1m","condition":"rsi(14) < 30 and
+ * close < bb_lower(20, 2)"}} e {@code GET /api/alerts/stream?symbols=BTCUSDT} (eventos {@code alert}; comentários
+ * de heartbeat). {@code bufferSize} e {@code dropPolicy} ajustam a fila do cliente, até o limite configurado.
+ * <p>
+ * Com o cluster ligado, cada regra vive na instância dona do seu símbolo (regras sem símbolo ficam nesta e
+ * avaliam os símbolos dela), e a remoção de um id que não está aqui é tentada nas outras instâncias;
+ * {@code GET /rules} lista só as regras desta instância. O stream repassa os disparos das donas dos símbolos
+ * pedidos (sem {@code symbols}, de todas as instâncias) e termina se uma delas sair, para o cliente reconectar
+ * sobre o anel atual. Chamadas já repassadas (cabeçalho {@value ShardingService#FORWARDED_HEADER}) são
+ * atendidas aqui, sem novo repasse.
+ */
+@RestController
+@RequestMapping("/api/alerts")
+public class AlertController {
+
+    private static final String RULES_PATH = "/api/alerts/rules";
+    private static final String STREAM_PATH = "/api/alerts/stream";
+
+    private final AlertEngine alertEngine;
+    private final AlertBroadcaster broadcaster;
+    private final ShardingService sharding;
+
+    @Autowired
+    public AlertController(AlertEngine alertEngine, AlertBroadcaster broadcaster, ShardingService sharding) {
+        this.alertEngine = alertEngine;
+        this.broadcaster = broadcaster;
+        this.sharding = sharding;
+    }
+
+    @GetMapping("/rules")
+    public List<AlertRule> rules() {
+        return alertEngine.getRules();
+    }
+
+    @PostMapping("/rules")
+    public ResponseEntity<?> addRule(@RequestBody AlertRule rule,
+                                     @RequestHeader(value = ShardingService.FORWARDED_HEADER, required = false) String forwardedBy) {
+        if (rule.symbol() != null && !rule.symbol().isBlank()) {
+            ResponseEntity<byte[]> relayed = sharding.relayIfRemote(rule.symbol().trim(), forwardedBy, HttpMethod.POST,
+                    RULES_PATH, new LinkedMultiValueMap<>(), rule);
+            if (relayed != null) {
+                return relayed;
+            }
+        }
+        return ResponseEntity.status(HttpStatus.CREATED).body(alertEngine.addRule(rule));
+    }
+
+    @DeleteMapping("/rules/{id}")
+    public ResponseEntity<?> removeRule(@PathVariable String id,
+                                        @RequestHeader(value = ShardingService.FORWARDED_HEADER, required = false) String forwardedBy) {
+        if (alertEngine.removeRule(id)) {
+            return ResponseEntity.noContent().build();
+        }
+        if (forwardedBy == null) {
+            for (ClusterMember member : others()) {
+                ResponseEntity<byte[]> relayed = sharding.relay(member, HttpMethod.DELETE, RULES_PATH + "/" + id,
+                        new LinkedMultiValueMap<>(), null);
+                if (relayed != null && relayed.getStatusCode() != HttpStatus.NOT_FOUND) {
+                    return relayed;
+                }
+            }
+        }
+        return ResponseEntity.notFound().build();
+    }
+
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@RequestParam(required = false) List<String> rules,
+                             @RequestParam(required = false) List<String> symbols,
+                             @RequestParam(required = false) Integer bufferSize,
+                             @RequestParam(required = false) AlertBroadcaster.DropPolicy dropPolicy,
+                             @RequestHeader(value = ShardingService.FORWARDED_HEADER, required = false) String forwardedBy) {
+        SseEmitter emitter = new SseEmitter(0L); // Sem timeout: o heartbeat detecta clientes que saíram
+        AlertBroadcaster.AlertSink sink = new AlertBroadcaster.AlertSink() {
+            @Override
+            public void send(AlertEvent event) throws IOException {
+                emitter.send(SseEmitter.event().name("alert").id(event.ruleId() + ":" + event.openTime()).data(event));
+            }
+
+            @Override
+            public void heartbeat() throws IOException {
+                emitter.send(SseEmitter.event().comment("heartbeat"));
+            }
+
+            @Override
+            public void close() {
+                emitter.complete();
+            }
+        };
+        Set<String> ruleIds = rules == null ? Set.of() : Set.copyOf(rules);
+        Set<String> symbolSet = symbols == null ? Set.of()
+                : symbols.stream().map(s -> s.trim().toUpperCase(Locale.ROOT)).collect(Collectors.toSet());
+
+        // Disparos de outras instâncias: as donas dos símbolos pedidos, ou todas se nenhum foi pedido
+        Set<String> localSymbols = symbolSet;
+        List<EventStreamRelay> relays = new ArrayList<>();
+        if (forwardedBy == null && sharding.isEnabled()) {
+            Map<ClusterMember, List<String>> owners = symbolSet.isEmpty()
+                    ? others().stream().collect(Collectors.toMap(member -> member, member -> List.<String>of()))
+                    : sharding.partition(symbolSet);
+            for (Map.Entry<ClusterMember, List<String>> owner : owners.entrySet()) {
+                if (!owner.getKey().equals(sharding.self())) {
+                    relays.add(sharding.relayEvents(owner.getKey(), STREAM_PATH,
+                            query(rules, owner.getValue(), bufferSize, dropPolicy), relayTo(emitter)));
+                }
+            }
+            localSymbols = symbolSet.isEmpty() ? Set.of() : Set.copyOf(owners.getOrDefault(sharding.self(), List.of()));
+        }
+        // Símbolos pedidos, todos de outras instâncias: nada a assinar aqui (um filtro vazio aceitaria todos)
+        AlertBroadcaster.Subscription subscription = !symbolSet.isEmpty() && localSymbols.isEmpty() ? null
+                : broadcaster.subscribe(ruleIds, localSymbols, sink,
+                        bufferSize != null ? bufferSize : Integer.MAX_VALUE,
+                        dropPolicy != null ? dropPolicy : broadcaster.getDropPolicy());
+        Runnable cancel = () -> {
+            if (subscription != null) {
+                subscription.close();
+            }
+            relays.forEach(EventStreamRelay::close);
+        };
+        emitter.onCompletion(cancel);
+        emitter.onTimeout(cancel);
+        emitter.onError(error -> cancel.run());
+        return emitter;
+    }
+
+    private List<ClusterMember> others() {
+        return sharding.ring().members().stream().filter(member -> !member.equals(sharding.self())).toList();
+    }
+
+    private static MultiValueMap<String, String> query(List<String> rules, List<String> symbols, Integer bufferSize,
+                                                       AlertBroadcaster.DropPolicy dropPolicy) {
+        MultiValueMap<String, String> query = new LinkedMultiValueMap<>();
+        if (rules != null && !rules.isEmpty()) {
+            query.set("rules", String.join(",", rules));
+        }
+        if (!symbols.isEmpty()) {
+            query.set("symbols", String.join(",", symbols));
+        }
+        if (bufferSize != null) {
+            query.set("bufferSize", bufferSize.toString());
+        }
+        if (dropPolicy != null) {
+            query.set("dropPolicy", dropPolicy.name());
+        }
+        return query;
+    }
+
+    /**
+     * Eventos e heartbeats de outra instância seguem para o cliente como vieram; o fim do stream remoto encerra
+     * o do cliente, que reconecta.
+     */
+    private static EventStreamRelay.Listener relayTo(SseEmitter emitter) {
+        return new EventStreamRelay.Listener() {
+            @Override
+            public void onEvent(String name, String id, String data) throws IOException {
+                SseEmitter.SseEventBuilder event = SseEmitter.event();
+                if (name != null) {
+                    event.name(name);
+                }
+                if (id != null) {
+                    event.id(id);
+                }
+                emitter.send(event.data(data, MediaType.APPLICATION_JSON));
+            }
+
+            @Override
+            public void onComment(String comment) throws IOException {
+                emitter.send(SseEmitter.event().comment(comment));
+            }
+
+            @Override
+            public void onEnd() {
+                emitter.complete();
+            }
+        };
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public Map<String, String> badRequest(IllegalArgumentException e) {
+        return Map.of("error", e.getMessage());
+    }
+}
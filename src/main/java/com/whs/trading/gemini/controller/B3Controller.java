@@ -0,0 +1,102 @@
+package com.whs.trading.gemini.controller;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.whs.trading.gemini.b3.B3HistoryService;
+import com.whs.trading.gemini.b3.CotahistImportResult;
+import com.whs.trading.gemini.b3.CotahistImporter;
+import com.whs.trading.gemini.dto.IndicatorResult;
+import com.whs.trading.gemini.dto.ScanResult;
+import com.whs.trading.gemini.screener.Recommendation;
+import com.whs.trading.gemini.screener.ScreenerReport;
+import com.whs.trading.gemini.screener.ScreenerRules;
+import com.whs.trading.gemini.screener.ScreenerService;
+
+/**
+ * Histórico diário de ações da B3, importado dos arquivos COTAHIST.
+ * <p>
+ * Ex: {@code POST /api/b3/import?files=COTAHIST_A2023.TXT} (sem {@code files}, todos os arquivos de
+ * {@code b3.cotahist.directory}) e {@code GET /api/b3/PETR4?indicators=RSI,MACD&startTime=1577836800000}.
+ * Parâmetros além dos listados abaixo são repassados aos indicadores.
+ * <p>
+ * Screener de todos os papéis: {@code GET /api/b3/screener?actions=BUY&smaLong=50} (regras em
+ * {@link ScreenerRules#fromParams}).
+ */
+@RestController
+@RequestMapping("/api/b3")
+public class B3Controller {
+
+    private static final Set<String> RESERVED_PARAMS = Set.of("startTime", "endTime", "indicators", "details");
+
+    private final CotahistImporter importer;
+    private final B3HistoryService historyService;
+    private final ScreenerService screenerService;
+
+    @Autowired
+    public B3Controller(CotahistImporter importer, B3HistoryService historyService, ScreenerService screenerService) {
+        this.importer = importer;
+        this.historyService = historyService;
+        this.screenerService = screenerService;
+    }
+
+    @GetMapping("/files")
+    public List<String> files() throws IOException {
+        return importer.getAvailableFiles();
+    }
+
+    @PostMapping("/import")
+    public CotahistImportResult importFiles(@RequestParam(required = false) List<String> files)
+            throws IOException, InterruptedException {
+        return importer.importFiles(files);
+    }
+
+    @GetMapping("/tickers")
+    public List<String> tickers() {
+        return historyService.getTickers();
+    }
+
+    @GetMapping("/screener")
+    public ScreenerReport screener(@RequestParam(required = false) List<String> tickers,
+                                   @RequestParam(required = false) List<Recommendation.Action> actions,
+                                   @RequestParam Map<String, String> allParams) {
+        Set<Recommendation.Action> wanted = actions == null ? Set.of() : Set.copyOf(actions);
+        return screenerService.screen(tickers, ScreenerRules.fromParams(allParams), wanted);
+    }
+
+    @GetMapping("/{ticker}")
+    public ScanResult analyze(@PathVariable String ticker,
+                              @RequestParam(defaultValue = "0") long startTime,
+                              @RequestParam(defaultValue = "" + Long.MAX_VALUE) long endTime,
+                              @RequestParam(required = false) List<String> indicators,
+                              @RequestParam(defaultValue = "true") boolean details,
+                              @RequestParam Map<String, String> allParams) {
+        Map<String, String> indicatorParams = new HashMap<>(allParams);
+        indicatorParams.keySet().removeAll(RESERVED_PARAMS);
+        ScanResult result = historyService.analyze(ticker, startTime, endTime, indicators, indicatorParams);
+        if (!details) {
+            result.getResults().forEach(IndicatorResult::omitDetails);
+        }
+        return result;
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public Map<String, String> badRequest(IllegalArgumentException e) {
+        return Map.of("error", e.getMessage());
+    }
+}
@@ -0,0 +1,107 @@
+package com.whs.trading.gemini.controller;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.whs.trading.gemini.backtest.BacktestConfig;
+import com.whs.trading.gemini.backtest.BacktestEngine;
+import com.whs.trading.gemini.cluster.ShardingService;
+import com.whs.trading.gemini.dto.CandleSeries;
+import com.whs.trading.gemini.service.MarketDataService;
+import com.whs.trading.gemini.service.StoredMarketDataService;
+
+/**
+ * Backtest dos indicadores sobre o histórico de um símbolo.
+ * <p>
+ * Ex: {@code GET /api/backtest/BTCUSDT?interval=1h&startTime=1577836800000&indicators=RSI,MACD&feeRate=0.001}.
+ * Sem {@code startTime}, usa as últimas {@code limit} velas fechadas. Parâmetros além dos listados abaixo são
+ * repassados aos indicadores. A curva de patrimônio é amostrada em até {@code maxEquityPoints} pontos.
+ * <p>
+ * Com o cluster ligado, o símbolo de outra instância é repassado à dona; uma chamada já repassada (cabeçalho
+ * {@value ShardingService#FORWARDED_HEADER}) é atendida aqui, sem novo repasse.
+ */
+@RestController
+@RequestMapping("/api/backtest")
+public class BacktestController {
+
+    private static final Set<String> RESERVED_PARAMS = Set.of("interval", "limit", "startTime", "endTime", "indicators",
+            "initialCapital", "feeRate", "slippageRate", "positionFraction", "signalThreshold", "allowShort",
+            "maxEquityPoints");
+
+    private final BacktestEngine backtestEngine;
+    private final MarketDataService marketDataService;
+    private final StoredMarketDataService storedMarketDataService;
+    private final ShardingService sharding;
+
+    @Autowired
+    public BacktestController(BacktestEngine backtestEngine, MarketDataService marketDataService,
+                              StoredMarketDataService storedMarketDataService, ShardingService sharding) {
+        this.backtestEngine = backtestEngine;
+        this.marketDataService = marketDataService;
+        this.storedMarketDataService = storedMarketDataService;
+        this.sharding = sharding;
+    }
+
+    @GetMapping("/{symbol}")
+    public ResponseEntity<?> backtest(@PathVariable String symbol,
+                                      @RequestParam(defaultValue = "1h") String interval,
+                                      @RequestParam(defaultValue = "1000") int limit,
+                                      @RequestParam(required = false) Long startTime,
+                                      @RequestParam(required = false) Long endTime,
+                                      @RequestParam(required = false) List<String> indicators,
+                                      @RequestParam(defaultValue = "10000") double initialCapital,
+                                      @RequestParam(defaultValue = "0.001") double feeRate,
+                                      @RequestParam(defaultValue = "0.0005") double slippageRate,
+                                      @RequestParam(defaultValue = "1") double positionFraction,
+                                      @RequestParam(defaultValue = "1") int signalThreshold,
+                                      @RequestParam(defaultValue = "false") boolean allowShort,
+                                      @RequestParam(defaultValue = "2000") int maxEquityPoints,
+                                      @RequestParam MultiValueMap<String, String> allParams,
+                                      @RequestHeader(value = ShardingService.FORWARDED_HEADER, required = false) String forwardedBy) {
+        ResponseEntity<byte[]> relayed = sharding.relayIfRemote(symbol, forwardedBy, HttpMethod.GET,
+                "/api/backtest/" + symbol, allParams, null);
+        if (relayed != null) {
+            return relayed;
+        }
+        long now = System.currentTimeMillis();
+        CandleSeries series = startTime != null
+                ? storedMarketDataService.getClosedCandleRange(symbol, interval, startTime, endTime != null ? endTime : now)
+                : marketDataService.getCandleSeries(symbol, interval, limit, null, endTime).closedAsOf(now);
+
+        BacktestConfig config = new BacktestConfig();
+        config.setInitialCapital(initialCapital);
+        config.setFeeRate(feeRate);
+        config.setSlippageRate(slippageRate);
+        config.setPositionFraction(positionFraction);
+        config.setSignalThreshold(signalThreshold);
+        config.setAllowShort(allowShort);
+        config.setEquitySampleInterval(Math.max(1, (series.size() + maxEquityPoints - 1) / Math.max(1, maxEquityPoints)));
+
+        Map<String, String> indicatorParams = new HashMap<>(allParams.toSingleValueMap());
+        indicatorParams.keySet().removeAll(RESERVED_PARAMS);
+        indicatorParams.put("symbol", symbol.toUpperCase());
+        return ResponseEntity.ok(backtestEngine.run(series, indicators, indicatorParams, config));
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public Map<String, String> badRequest(IllegalArgumentException e) {
+        return Map.of("error", e.getMessage());
+    }
+}
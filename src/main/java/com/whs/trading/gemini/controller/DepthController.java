@@ -0,0 +1,53 @@
+package com.whs.trading.gemini.controller;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.whs.trading.gemini.depth.BinanceDepthStreamService;
+import com.whs.trading.gemini.depth.OrderBook;
+import com.whs.trading.gemini.depth.OrderBookLevels;
+import com.whs.trading.gemini.depth.OrderBookStats;
+
+/**
+ * Livros de ofertas mantidos pelo {@link BinanceDepthStreamService}.
+ * <p>
+ * Ex: {@code GET /api/depth/BTCUSDT?levels=20} (topo e métricas) e {@code GET /api/depth/BTCUSDT/levels?levels=50}
+ * (os melhores níveis de cada lado). Símbolos não acompanhados devolvem 404.
+ */
+@RestController
+@RequestMapping("/api/depth")
+public class DepthController {
+
+    private final BinanceDepthStreamService depthService;
+
+    @Autowired
+    public DepthController(BinanceDepthStreamService depthService) {
+        this.depthService = depthService;
+    }
+
+    @GetMapping
+    public List<String> symbols() {
+        return depthService.getSymbols();
+    }
+
+    @GetMapping("/{symbol}")
+    public ResponseEntity<OrderBookStats> stats(@PathVariable String symbol,
+                                                @RequestParam(defaultValue = "10") int levels) {
+        OrderBook book = depthService.getBook(symbol);
+        return book == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(book.stats(Math.max(1, levels)));
+    }
+
+    @GetMapping("/{symbol}/levels")
+    public ResponseEntity<OrderBookLevels> levels(@PathVariable String symbol,
+                                                  @RequestParam(defaultValue = "20") int levels) {
+        OrderBook book = depthService.getBook(symbol);
+        return book == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(book.levels(Math.max(1, levels)));
+    }
+}
@@ -0,0 +1,79 @@
+package com.whs.trading.gemini.controller;
+
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.whs.trading.gemini.cluster.ShardingService;
+import com.whs.trading.gemini.dto.CandleSeries;
+import com.whs.trading.gemini.indicator.SupportResistanceLevels;
+import com.whs.trading.gemini.service.MarketDataService;
+import com.whs.trading.gemini.service.StoredMarketDataService;
+
+/**
+ * Níveis de suporte e resistência agrupados sobre o histórico de um símbolo.
+ * <p>
+ * Ex: {@code GET /api/levels/BTCUSDT?interval=1m&startTime=1577836800000&swingWindow=15&tolerance=0.003}.
+ * Sem {@code startTime}, usa as últimas {@code limit} velas fechadas. Devolve os {@code maxLevels} níveis de
+ * maior volume de cada lado.
+ * <p>
+ * Com o cluster ligado, o símbolo de outra instância é repassado à dona; uma chamada já repassada (cabeçalho
+ * {@value ShardingService#FORWARDED_HEADER}) é atendida aqui, sem novo repasse.
+ */
+@RestController
+@RequestMapping("/api/levels")
+public class LevelsController {
+
+    private final MarketDataService marketDataService;
+    private final StoredMarketDataService storedMarketDataService;
+    private final ShardingService sharding;
+
+    @Autowired
+    public LevelsController(MarketDataService marketDataService, StoredMarketDataService storedMarketDataService,
+                            ShardingService sharding) {
+        this.marketDataService = marketDataService;
+        this.storedMarketDataService = storedMarketDataService;
+        this.sharding = sharding;
+    }
+
+    @GetMapping("/{symbol}")
+    public ResponseEntity<?> levels(@PathVariable String symbol,
+                                    @RequestParam(defaultValue = "1h") String interval,
+                                    @RequestParam(defaultValue = "1000") int limit,
+                                    @RequestParam(required = false) Long startTime,
+                                    @RequestParam(required = false) Long endTime,
+                                    @RequestParam(defaultValue = "" + SupportResistanceLevels.DEFAULT_SWING_WINDOW) int swingWindow,
+                                    @RequestParam(defaultValue = "" + SupportResistanceLevels.DEFAULT_TOLERANCE) double tolerance,
+                                    @RequestParam(defaultValue = "10") int maxLevels,
+                                    @RequestParam MultiValueMap<String, String> allParams,
+                                    @RequestHeader(value = ShardingService.FORWARDED_HEADER, required = false) String forwardedBy) {
+        ResponseEntity<byte[]> relayed = sharding.relayIfRemote(symbol, forwardedBy, HttpMethod.GET,
+                "/api/levels/" + symbol, allParams, null);
+        if (relayed != null) {
+            return relayed;
+        }
+        long now = System.currentTimeMillis();
+        CandleSeries series = startTime != null
+                ? storedMarketDataService.getClosedCandleRange(symbol, interval, startTime, endTime != null ? endTime : now)
+                : marketDataService.getCandleSeries(symbol, interval, limit, null, endTime).closedAsOf(now);
+        return ResponseEntity.ok(SupportResistanceLevels.find(series, swingWindow, tolerance).strongest(maxLevels));
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public Map<String, String> badRequest(IllegalArgumentException e) {
+        return Map.of("error", e.getMessage());
+    }
+}
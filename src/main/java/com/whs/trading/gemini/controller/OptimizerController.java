@@ -0,0 +1,80 @@
+package com.whs.trading.gemini.controller;
+
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.whs.trading.gemini.cluster.ShardingService;
+import com.whs.trading.gemini.dto.CandleSeries;
+import com.whs.trading.gemini.dto.KlineInterval;
+import com.whs.trading.gemini.optimizer.OptimizationRequest;
+import com.whs.trading.gemini.optimizer.ParameterOptimizer;
+import com.whs.trading.gemini.service.StoredMarketDataService;
+
+/**
+ * Varredura de parâmetros sobre o histórico de um símbolo.
+ * <p>
+ * Ex: {@code POST /api/optimizer/BTCUSDT?interval=1h&startTime=1577836800000} com o corpo
+ * {@code {"ranges": {"rsiPeriod": {"from": 7, "to": 28, "step": 1}, "bbStdDevMult": {"values": [1.5, 2, 2.5]}}}}.
+ * <p>
+ * Com o cluster ligado, o símbolo de outra instância é repassado à dona; uma chamada já repassada (cabeçalho
+ * {@value ShardingService#FORWARDED_HEADER}) é atendida aqui, sem novo repasse.
+ */
+@RestController
+@RequestMapping("/api/optimizer")
+public class OptimizerController {
+
+    private static final long DEFAULT_HISTORY_CANDLES = 5_000;
+
+    private final ParameterOptimizer parameterOptimizer;
+    private final StoredMarketDataService storedMarketDataService;
+    private final ShardingService sharding;
+
+    @Autowired
+    public OptimizerController(ParameterOptimizer parameterOptimizer, StoredMarketDataService storedMarketDataService,
+                               ShardingService sharding) {
+        this.parameterOptimizer = parameterOptimizer;
+        this.storedMarketDataService = storedMarketDataService;
+        this.sharding = sharding;
+    }
+
+    @PostMapping("/{symbol}")
+    public ResponseEntity<?> optimize(@PathVariable String symbol,
+                                      @RequestParam(defaultValue = "1h") String interval,
+                                      @RequestParam(required = false) Long startTime,
+                                      @RequestParam(required = false) Long endTime,
+                                      @RequestParam MultiValueMap<String, String> allParams,
+                                      @RequestHeader(value = ShardingService.FORWARDED_HEADER, required = false) String forwardedBy,
+                                      @RequestBody OptimizationRequest request) {
+        ResponseEntity<byte[]> relayed = sharding.relayIfRemote(symbol, forwardedBy, HttpMethod.POST,
+                "/api/optimizer/" + symbol, allParams, request);
+        if (relayed != null) {
+            return relayed;
+        }
+        long end = endTime != null ? endTime : System.currentTimeMillis();
+        // Sem startTime: as últimas DEFAULT_HISTORY_CANDLES velas fechadas
+        long start = startTime != null ? startTime
+                : end - DEFAULT_HISTORY_CANDLES * KlineInterval.fromCode(interval).getMillis();
+        CandleSeries series = storedMarketDataService.getClosedCandleRange(symbol, interval, start, end);
+        return ResponseEntity.ok(parameterOptimizer.optimize(series, request));
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public Map<String, String> badRequest(IllegalArgumentException e) {
+        return Map.of("error", e.getMessage());
+    }
+}
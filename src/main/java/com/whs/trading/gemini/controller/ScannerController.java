@@ -0,0 +1,90 @@
+package com.whs.trading.gemini.controller;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.whs.trading.gemini.cluster.ShardingService;
+import com.whs.trading.gemini.dto.IndicatorResult;
+import com.whs.trading.gemini.dto.ScanReport;
+import com.whs.trading.gemini.dto.ScanResult;
+import com.whs.trading.gemini.service.IndicatorResultCache;
+import com.whs.trading.gemini.service.ScannerService;
+
+/**
+ * Varredura de vários símbolos com os indicadores registrados.
+ * <p>
+ * Ex: {@code GET /api/scanner/scan?interval=1h&symbols=BTCUSDT,ETHUSDT&indicators=RSI,MACD&rsiPeriod=21}.
+ * Parâmetros além dos listados abaixo são repassados aos indicadores. Com {@code details=false}, os resultados
+ * saem sem a descrição textual, que nem chega a ser montada.
+ * <p>
+ * Com o cluster ligado, os símbolos de outras instâncias são repassados às donas; uma chamada já repassada
+ * (cabeçalho {@value ShardingService#FORWARDED_HEADER}) é varrida aqui, sem novo repasse.
+ */
+@RestController
+@RequestMapping("/api/scanner")
+public class ScannerController {
+
+    private static final Set<String> RESERVED_PARAMS = Set.of("symbols", "interval", "limit", "indicators", "details");
+
+    private final ScannerService scannerService;
+    private final IndicatorResultCache resultCache;
+
+    @Autowired
+    public ScannerController(ScannerService scannerService, IndicatorResultCache resultCache) {
+        this.scannerService = scannerService;
+        this.resultCache = resultCache;
+    }
+
+    @GetMapping("/scan")
+    public ScanReport scan(@RequestParam(defaultValue = "1h") String interval,
+                           @RequestParam(required = false) List<String> symbols,
+                           @RequestParam(required = false) Integer limit,
+                           @RequestParam(required = false) List<String> indicators,
+                           @RequestParam(defaultValue = "true") boolean details,
+                           @RequestParam Map<String, String> allParams,
+                           @RequestHeader(value = ShardingService.FORWARDED_HEADER, required = false) String forwardedBy)
+            throws InterruptedException {
+        Map<String, String> indicatorParams = new HashMap<>(allParams);
+        indicatorParams.keySet().removeAll(RESERVED_PARAMS);
+        ScanReport report = forwardedBy != null
+                ? scannerService.scan(symbols, interval, limit, indicators, indicatorParams)
+                : scannerService.scanSharded(symbols, interval, limit, indicators, indicatorParams, details);
+        if (!details) {
+            for (ScanResult scanResult : report.getRanked()) {
+                scanResult.getResults().forEach(IndicatorResult::omitDetails);
+            }
+        }
+        return report;
+    }
+
+    @GetMapping("/indicators")
+    public List<String> indicators() {
+        return scannerService.getIndicatorNames();
+    }
+
+    /**
+     * Acertos, falhas e taxa de acerto do cache de resultados dos indicadores.
+     */
+    @GetMapping("/indicator-cache")
+    public IndicatorResultCache.Stats indicatorCache() {
+        return resultCache.getStats();
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public Map<String, String> badRequest(IllegalArgumentException e) {
+        return Map.of("error", e.getMessage());
+    }
+}
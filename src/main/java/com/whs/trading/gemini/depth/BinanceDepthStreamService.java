@@ -0,0 +1,469 @@
+package com.whs.trading.gemini.depth;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.whs.trading.gemini.service.BinanceMarketDataService;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Ingestão da profundidade (livro de ofertas) via streams combinados de diffs da Binance
+ * ({@code /stream?streams=btcusdt@depth@100ms/...}), com um {@link OrderBook} por símbolo.
+ * <p>
+ * Como no {@link com.whs.trading.gemini.service.BinanceKlineStreamService}, cada conexão tem uma fila e uma
+ * thread virtual de consumo; o consumo decodifica cada mensagem com o {@link DepthJsonParser} num
+ * {@link DepthUpdate} reaproveitado e aplica o diff ao livro, sem alocar por nível. O snapshot de cada livro é
+ * buscado sob demanda (primeiro diff, lacuna na sequência) pelo {@link DepthSnapshotSource}, fora do consumidor
+ * e dentro do orçamento de peso do REST, enquanto os diffs seguintes ficam guardados no livro.
+ * Conexões caídas são refeitas com backoff exponencial; a lacuna resultante ressincroniza os livros afetados.
+ * <p>
+ * Métricas: livros ({@code depth.books}, tag {@code state}), diffs por resultado ({@code depth.updates}),
+ * snapshots ({@code depth.snapshots}), fila, tempo por mensagem, conexões e reconexões ({@code depth.stream.*}).
+ */
+@Service
+public class BinanceDepthStreamService implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(BinanceDepthStreamService.class);
+    private static final long MAX_BACKOFF_MILLIS = 60_000L;
+
+    private final DepthSnapshotSource snapshotSource;
+    private final Executor snapshotExecutor;
+    private final int snapshotLimit;
+    private final String streamBaseUrl;
+    private final String updateSpeed;
+    private final int maxStreamsPerConnection;
+    private final boolean enabled;
+    private final List<String> symbols;
+    private final int queueCapacity;
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+    private final ScheduledExecutorService reconnectScheduler =
+            Executors.newSingleThreadScheduledExecutor(Thread.ofVirtual().name("depth-stream-reconnect").factory());
+    private final Map<String, OrderBook> books = new ConcurrentHashMap<>();
+    private final List<StreamConnection> connections = new CopyOnWriteArrayList<>();
+    // Um buffer por consumidor (uma thread por conexão)
+    private final ThreadLocal<DepthUpdate> parseBuffers = ThreadLocal.withInitial(() -> new DepthUpdate(256));
+    private final LongAdder applied = new LongAdder();
+    private final LongAdder stale = new LongAdder();
+    private final LongAdder buffered = new LongAdder();
+    private final LongAdder gaps = new LongAdder();
+    private final LongAdder untracked = new LongAdder();
+    private final LongAdder malformed = new LongAdder();
+    private final LongAdder snapshotsApplied = new LongAdder();
+    private final LongAdder snapshotsFailed = new LongAdder();
+    private final LongAdder reconnects = new LongAdder();
+    private final LongAdder overflows = new LongAdder();
+    private volatile Timer messageTimer;
+    private volatile boolean running;
+
+    @Autowired
+    public BinanceDepthStreamService(BinanceMarketDataService restMarketDataService,
+                                     @Value("${binance.depth.snapshot-limit:1000}") int snapshotLimit,
+                                     @Value("${binance.stream.base-url:wss://stream.binance.com:9443}") String streamBaseUrl,
+                                     @Value("${binance.depth.update-speed:100ms}") String updateSpeed,
+                                     @Value("${binance.stream.max-streams-per-connection:200}") int maxStreamsPerConnection,
+                                     @Value("${binance.depth.enabled:false}") boolean enabled,
+                                     @Value("${binance.depth.symbols:}") List<String> symbols,
+                                     @Value("${binance.stream.queue-capacity:10000}") int queueCapacity) {
+        this((symbol, into) -> restMarketDataService.fetchDepthSnapshot(symbol, snapshotLimit, body -> {
+                    DepthJsonParser.parseSnapshot(body, symbol, into);
+                    return into;
+                }), virtualThreadExecutor(), snapshotLimit, streamBaseUrl, updateSpeed, maxStreamsPerConnection,
+                enabled, symbols, queueCapacity);
+    }
+
+    BinanceDepthStreamService(DepthSnapshotSource snapshotSource, Executor snapshotExecutor, int snapshotLimit,
+                              String streamBaseUrl, String updateSpeed, int maxStreamsPerConnection, boolean enabled,
+                              List<String> symbols, int queueCapacity) {
+        if (!updateSpeed.equals("100ms") && !updateSpeed.equals("1000ms")) {
+            throw new IllegalArgumentException("binance.depth.update-speed deve ser 100ms ou 1000ms: " + updateSpeed);
+        }
+        if (queueCapacity <= 0) {
+            throw new IllegalArgumentException("binance.stream.queue-capacity deve ser positivo: " + queueCapacity);
+        }
+        this.snapshotSource = snapshotSource;
+        this.snapshotExecutor = snapshotExecutor;
+        this.snapshotLimit = snapshotLimit;
+        this.streamBaseUrl = streamBaseUrl;
+        this.updateSpeed = updateSpeed;
+        this.queueCapacity = queueCapacity;
+        this.maxStreamsPerConnection = maxStreamsPerConnection;
+        this.enabled = enabled;
+        this.symbols = symbols.stream().filter(s -> !s.isBlank()).map(s -> s.trim().toUpperCase(Locale.ROOT)).toList();
+    }
+
+    /**
+     * Snapshots em threads virtuais: cada busca bloqueia no limitador de peso, não num pool fixo.
+     */
+    private static ExecutorService virtualThreadExecutor() {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("depth-snapshot").factory());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startIfEnabled() {
+        if (enabled && !symbols.isEmpty()) {
+            subscribe(symbols);
+        }
+    }
+
+    /**
+     * Cria os livros e abre as conexões (até {@code maxStreamsPerConnection} streams cada). Os snapshots são
+     * buscados quando chega o primeiro diff de cada símbolo, como recomenda a Binance.
+     */
+    public synchronized void subscribe(List<String> symbolsToWatch) {
+        running = true;
+        List<String> streams = new ArrayList<>();
+        for (String symbol : symbolsToWatch) {
+            String upper = symbol.trim().toUpperCase(Locale.ROOT);
+            if (books.putIfAbsent(upper, new OrderBook(upper)) == null) {
+                streams.add(upper.toLowerCase(Locale.ROOT) + (updateSpeed.equals("100ms") ? "@depth@100ms" : "@depth"));
+            }
+        }
+        for (int from = 0; from < streams.size(); from += maxStreamsPerConnection) {
+            StreamConnection connection = new StreamConnection(
+                    List.copyOf(streams.subList(from, Math.min(streams.size(), from + maxStreamsPerConnection))));
+            connections.add(connection);
+            connection.start();
+        }
+        logger.info("Subscribed to {} depth streams over {} connection(s), snapshots with {} levels", streams.size(),
+                connections.size(), snapshotLimit);
+    }
+
+    /**
+     * Passa a manter o livro do símbolo sem abrir conexão: os diffs chegam por {@link #onMessage} (ex: replay).
+     */
+    public OrderBook track(String symbol) {
+        String upper = symbol.trim().toUpperCase(Locale.ROOT);
+        return books.computeIfAbsent(upper, OrderBook::new);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        for (StreamConnection connection : connections) {
+            connection.close();
+        }
+        connections.clear();
+        reconnectScheduler.shutdownNow();
+        if (snapshotExecutor instanceof ExecutorService executor) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Livro do símbolo, ou null se não é acompanhado.
+     */
+    public OrderBook getBook(String symbol) {
+        return books.get(symbol.toUpperCase(Locale.ROOT));
+    }
+
+    public List<String> getSymbols() {
+        return books.keySet().stream().sorted().toList();
+    }
+
+    public long getAppliedCount() {
+        return applied.sum();
+    }
+
+    public long getGapCount() {
+        return gaps.sum();
+    }
+
+    public long getSnapshotCount() {
+        return snapshotsApplied.sum();
+    }
+
+    public long getReconnectCount() {
+        return reconnects.sum();
+    }
+
+    /**
+     * Vezes em que a fila de uma conexão encheu: a conexão foi refeita e os livros voltam a sincronizar pela
+     * lacuna de sequência.
+     */
+    public long getOverflowCount() {
+        return overflows.sum();
+    }
+
+    /**
+     * Mensagens recebidas e ainda não processadas, somando as filas de todas as conexões.
+     */
+    public int getQueuedMessageCount() {
+        int queued = 0;
+        for (StreamConnection connection : connections) {
+            queued += connection.queue.size();
+        }
+        return queued;
+    }
+
+    public int getSyncedBookCount() {
+        int synced = 0;
+        for (OrderBook book : books.values()) {
+            if (book.isSynced()) {
+                synced++;
+            }
+        }
+        return synced;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("depth.books", books, Map::size).tag("state", "tracked").register(registry);
+        Gauge.builder("depth.books", this, BinanceDepthStreamService::getSyncedBookCount).tag("state", "synced")
+                .register(registry);
+        FunctionCounter.builder("depth.updates", applied, LongAdder::sum).tag("result", "applied").register(registry);
+        FunctionCounter.builder("depth.updates", stale, LongAdder::sum).tag("result", "stale").register(registry);
+        FunctionCounter.builder("depth.updates", buffered, LongAdder::sum).tag("result", "buffered").register(registry);
+        FunctionCounter.builder("depth.updates", gaps, LongAdder::sum).tag("result", "gap").register(registry);
+        FunctionCounter.builder("depth.updates", untracked, LongAdder::sum).tag("result", "untracked").register(registry);
+        FunctionCounter.builder("depth.updates", malformed, LongAdder::sum).tag("result", "malformed").register(registry);
+        FunctionCounter.builder("depth.snapshots", snapshotsApplied, LongAdder::sum).tag("result", "applied")
+                .register(registry);
+        FunctionCounter.builder("depth.snapshots", snapshotsFailed, LongAdder::sum).tag("result", "failed")
+                .register(registry);
+        Gauge.builder("depth.stream.queue", this, BinanceDepthStreamService::getQueuedMessageCount)
+                .description("Mensagens recebidas aguardando o consumidor")
+                .register(registry);
+        Gauge.builder("depth.stream.connections", connections, List::size).register(registry);
+        FunctionCounter.builder("depth.stream.reconnects", reconnects, LongAdder::sum).register(registry);
+        FunctionCounter.builder("depth.stream.overflows", overflows, LongAdder::sum).register(registry);
+        messageTimer = Timer.builder("depth.stream.message")
+                .description("Parse e aplicação de uma mensagem de profundidade")
+                .register(registry);
+    }
+
+    /**
+     * Decodifica e aplica uma mensagem do stream; chamado pelo consumidor de cada conexão (ou pelo replay).
+     */
+    public void onMessage(String text) {
+        DepthUpdate update = parseBuffers.get();
+        try {
+            if (DepthJsonParser.parse(text, update) != DepthJsonParser.Kind.DIFF) {
+                return;
+            }
+        } catch (IOException | RuntimeException e) {
+            malformed.increment();
+            logger.warn("Discarding unreadable depth stream message: {}", e.getMessage());
+            return;
+        }
+        onDepthUpdate(update);
+    }
+
+    /**
+     * Aplica um diff ao livro do símbolo e, se o livro ficou sem snapshot, pede um.
+     */
+    public void onDepthUpdate(DepthUpdate update) {
+        OrderBook book = update.symbol() == null ? null : books.get(update.symbol());
+        if (book == null) {
+            untracked.increment();
+            return;
+        }
+        switch (book.apply(update)) {
+            case APPLIED -> applied.increment();
+            case STALE -> stale.increment();
+            case BUFFERED -> buffered.increment();
+            case SNAPSHOT_NEEDED -> {
+                buffered.increment();
+                requestSnapshot(book);
+            }
+            case GAP -> {
+                gaps.increment();
+                logger.info("Depth gap on {} at update {}, resyncing", book.getSymbol(), update.firstUpdateId());
+                requestSnapshot(book);
+            }
+        }
+    }
+
+    private void requestSnapshot(OrderBook book) {
+        snapshotExecutor.execute(() -> loadSnapshot(book));
+    }
+
+    private void loadSnapshot(OrderBook book) {
+        DepthUpdate snapshot = new DepthUpdate(snapshotLimit);
+        try {
+            snapshotSource.load(book.getSymbol(), snapshot);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            book.snapshotFailed();
+            return;
+        } catch (IOException | RuntimeException e) {
+            snapshotsFailed.increment();
+            book.snapshotFailed();
+            logger.warn("Could not fetch depth snapshot for {}: {}", book.getSymbol(), e.getMessage());
+            return;
+        }
+        snapshotsApplied.increment();
+        if (book.applySnapshot(snapshot) == OrderBook.Result.SNAPSHOT_NEEDED) {
+            // Snapshot anterior aos diffs guardados: o próximo será mais novo
+            logger.debug("Depth snapshot for {} older than buffered updates, fetching another", book.getSymbol());
+            requestSnapshot(book);
+        }
+    }
+
+    /**
+     * Uma conexão WebSocket de streams combinados, com fila e consumidor próprios.
+     */
+    private final class StreamConnection implements WebSocket.Listener {
+
+        private final List<String> streams;
+        private final BlockingQueue<String> queue = new LinkedBlockingQueue<>(queueCapacity);
+        private final StringBuilder partial = new StringBuilder();
+        private volatile WebSocket webSocket;
+        private volatile Thread consumer;
+        private long backoffMillis = 1_000L;
+
+        StreamConnection(List<String> streams) {
+            this.streams = streams;
+        }
+
+        void start() {
+            consumer = Thread.ofVirtual().name("depth-stream-consumer").start(this::consume);
+            connect();
+        }
+
+        private void connect() {
+            if (!running) {
+                return;
+            }
+            URI uri = URI.create(streamBaseUrl + "/stream?streams=" + String.join("/", streams));
+            httpClient.newWebSocketBuilder()
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .buildAsync(uri, this)
+                    .whenComplete((ws, error) -> {
+                        if (error != null) {
+                            logger.warn("Depth stream connection failed: {}", error.getMessage());
+                            scheduleReconnect();
+                        } else {
+                            backoffMillis = 1_000L;
+                            logger.info("Depth stream connected with {} streams", streams.size());
+                        }
+                    });
+        }
+
+        private void scheduleReconnect() {
+            if (!running) {
+                return;
+            }
+            long delay = backoffMillis;
+            backoffMillis = Math.min(MAX_BACKOFF_MILLIS, backoffMillis * 2);
+            reconnects.increment();
+            reconnectScheduler.schedule(this::connect, delay, TimeUnit.MILLISECONDS);
+        }
+
+        private void consume() {
+            try {
+                while (running || !queue.isEmpty()) {
+                    String message = queue.poll(1, TimeUnit.SECONDS);
+                    if (message != null) {
+                        long start = System.nanoTime();
+                        onMessage(message);
+                        Timer timer = messageTimer;
+                        if (timer != null) {
+                            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                        }
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        void close() {
+            WebSocket ws = webSocket;
+            if (ws != null) {
+                ws.abort();
+            }
+            Thread thread = consumer;
+            if (thread != null) {
+                thread.interrupt();
+            }
+        }
+
+        @Override
+        public void onOpen(WebSocket ws) {
+            this.webSocket = ws;
+            ws.request(1);
+        }
+
+        @Override
+        public CompletionStage<?> onText(WebSocket ws, CharSequence data, boolean last) {
+            partial.append(data);
+            if (last) {
+                boolean queued = queue.offer(partial.toString());
+                partial.setLength(0);
+                if (!queued) {
+                    overflow(ws);
+                    return null;
+                }
+            }
+            ws.request(1);
+            return null;
+        }
+
+        /**
+         * Fila cheia: a mensagem perdida abriria uma lacuna de sequência de qualquer forma, então a conexão é
+         * refeita e {@link OrderBook#apply} ressincroniza cada livro pelo snapshot.
+         */
+        private void overflow(WebSocket ws) {
+            overflows.increment();
+            logger.warn("Depth stream queue full ({} messages), dropping the connection with {} streams",
+                    queueCapacity, streams.size());
+            webSocket = null; // Eventos atrasados do socket abortado não agendam outra reconexão
+            ws.abort();
+            scheduleReconnect();
+        }
+
+        @Override
+        public CompletionStage<?> onClose(WebSocket ws, int statusCode, String reason) {
+            if (ws != webSocket) {
+                return null;
+            }
+            logger.warn("Depth stream closed ({} {}), reconnecting", statusCode, reason);
+            partial.setLength(0);
+            scheduleReconnect();
+            return null;
+        }
+
+        @Override
+        public void onError(WebSocket ws, Throwable error) {
+            if (ws != webSocket) {
+                return;
+            }
+            logger.warn("Depth stream error: {}, reconnecting", error.getMessage());
+            partial.setLength(0);
+            scheduleReconnect();
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.whs.trading.gemini.depth;
+
+import java.util.Arrays;
+
+/**
+ * Um lado do livro de ofertas (compras ou vendas) em dois arrays primitivos ordenados: sem TreeMap, sem
+ * BigDecimal/Double como chave.
+ * <p>
+ * Os preços são guardados como chave ordenada crescente com o melhor nível no fim: o próprio preço nas
+ * compras e o preço negado nas vendas. Quase todas as atualizações de um stream de profundidade caem perto do
+ * topo, então inserir ou remover ali desloca poucos elementos; a busca é binária e o nível 0 de
+ * {@link #price(int)} é sempre o melhor. Quantidade zero remove o nível, como no protocolo da Binance.
+ * Não é thread-safe: o {@link OrderBook} sincroniza o acesso.
+ */
+public final class BookSide {
+
+    private final boolean bids;
+    private double[] keys;
+    private double[] quantities;
+    private int size;
+
+    public BookSide(boolean bids, int initialCapacity) {
+        this.bids = bids;
+        this.keys = new double[Math.max(16, initialCapacity)];
+        this.quantities = new double[keys.length];
+    }
+
+    public boolean isBids() {
+        return bids;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Define a quantidade no preço; zero (ou negativa) remove o nível.
+     */
+    public void set(double price, double quantity) {
+        double key = bids ? price : -price;
+        int top = size - 1;
+        // Atalho: atualização do melhor nível, o caso mais comum
+        int index = top >= 0 && keys[top] == key ? top : Arrays.binarySearch(keys, 0, size, key);
+        if (index >= 0) {
+            if (quantity > 0) {
+                quantities[index] = quantity;
+            } else {
+                remove(index);
+            }
+        } else if (quantity > 0) {
+            insert(-index - 1, key, quantity);
+        }
+    }
+
+    /**
+     * Preço do nível {@code rank} (0 = melhor).
+     */
+    public double price(int rank) {
+        double key = keys[index(rank)];
+        return bids ? key : -key;
+    }
+
+    public double quantity(int rank) {
+        return quantities[index(rank)];
+    }
+
+    /**
+     * Melhor preço, ou NaN com o lado vazio.
+     */
+    public double bestPrice() {
+        return size == 0 ? Double.NaN : price(0);
+    }
+
+    /**
+     * Quantidade no melhor preço, ou NaN com o lado vazio.
+     */
+    public double bestQuantity() {
+        return size == 0 ? Double.NaN : quantities[size - 1];
+    }
+
+    /**
+     * Quantidade somada dos {@code levels} melhores níveis (todos, se houver menos).
+     */
+    public double totalQuantity(int levels) {
+        double total = 0;
+        int from = Math.max(0, size - levels);
+        for (int i = size - 1; i >= from; i--) {
+            total += quantities[i];
+        }
+        return total;
+    }
+
+    /**
+     * Copia os {@code levels} melhores níveis, do melhor para o pior.
+     *
+     * @return Número de níveis copiados.
+     */
+    public int copyTo(double[] prices, double[] quantitiesOut, int levels) {
+        int count = Math.min(levels, size);
+        for (int rank = 0; rank < count; rank++) {
+            prices[rank] = price(rank);
+            quantitiesOut[rank] = quantity(rank);
+        }
+        return count;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    private int index(int rank) {
+        if (rank < 0 || rank >= size) {
+            throw new IndexOutOfBoundsException("Nível " + rank + " fora de [0, " + size + ")");
+        }
+        return size - 1 - rank;
+    }
+
+    private void insert(int index, double key, double quantity) {
+        if (size == keys.length) {
+            int capacity = keys.length * 2;
+            keys = Arrays.copyOf(keys, capacity);
+            quantities = Arrays.copyOf(quantities, capacity);
+        }
+        int tail = size - index;
+        if (tail > 0) {
+            System.arraycopy(keys, index, keys, index + 1, tail);
+            System.arraycopy(quantities, index, quantities, index + 1, tail);
+        }
+        keys[index] = key;
+        quantities[index] = quantity;
+        size++;
+    }
+
+    private void remove(int index) {
+        int tail = size - index - 1;
+        if (tail > 0) {
+            System.arraycopy(keys, index + 1, keys, index, tail);
+            System.arraycopy(quantities, index + 1, quantities, index, tail);
+        }
+        size--;
+    }
+}
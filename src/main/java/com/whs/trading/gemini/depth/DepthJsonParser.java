@@ -0,0 +1,178 @@
+package com.whs.trading.gemini.depth;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.whs.trading.gemini.service.KlineJsonParser;
+
+/**
+ * Parser em streaming das mensagens de profundidade da Binance para um {@link DepthUpdate} reaproveitável.
+ * <p>
+ * Aceita o evento {@code depthUpdate} do stream (direto ou dentro de {@code {"stream":...,"data":{...}}} dos
+ * streams combinados) e o snapshot de {@code /api/v3/depth} ({@code lastUpdateId}, {@code bids}, {@code asks};
+ * com um campo {@code symbol} opcional, como nas gravações do {@link DepthReplaySource}). Os preços, strings
+ * na API, são decodificados do buffer de caracteres do parser como em {@link KlineJsonParser}: sem String nem
+ * BigDecimal por nível.
+ */
+public final class DepthJsonParser {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    /**
+     * O que a mensagem continha.
+     */
+    public enum Kind {
+        /** Evento de diff ({@code U}/{@code u}). */
+        DIFF,
+        /** Snapshot ({@code lastUpdateId}). */
+        SNAPSHOT,
+        /** Outra mensagem (ex: resposta a um comando do WebSocket); {@code into} fica incompleto. */
+        OTHER
+    }
+
+    private DepthJsonParser() {
+    }
+
+    /**
+     * Decodifica uma mensagem (texto do WebSocket ou linha de gravação) em {@code into}, que é limpo antes.
+     */
+    public static Kind parse(String text, DepthUpdate into) throws IOException {
+        into.clear();
+        try (JsonParser parser = JSON_FACTORY.createParser(text)) {
+            return parseRoot(parser, into);
+        }
+    }
+
+    /**
+     * Decodifica o corpo de {@code /api/v3/depth} (que não traz o símbolo) em {@code into}.
+     *
+     * @throws IOException se o corpo não for um snapshot.
+     */
+    public static void parseSnapshot(InputStream body, String symbol, DepthUpdate into) throws IOException {
+        into.clear();
+        Kind kind;
+        try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+            kind = parseRoot(parser, into);
+        }
+        if (kind != Kind.SNAPSHOT) {
+            throw new IOException("Resposta de depth sem lastUpdateId");
+        }
+        into.setSymbol(symbol);
+    }
+
+    private static Kind parseRoot(JsonParser parser, DepthUpdate into) throws IOException {
+        JsonToken token = parser.nextToken();
+        if (token != JsonToken.START_OBJECT) {
+            throw new IOException("Mensagem de depth não é um objeto JSON: " + token);
+        }
+        return readObject(parser, into);
+    }
+
+    /**
+     * Lê os campos de um objeto (o parser está no START_OBJECT dele) até o END_OBJECT correspondente.
+     */
+    private static Kind readObject(JsonParser parser, DepthUpdate into) throws IOException {
+        Kind kind = Kind.OTHER;
+        long firstUpdateId = 0;
+        long finalUpdateId = 0;
+        JsonToken token;
+        while ((token = parser.nextToken()) == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            token = parser.nextToken();
+            switch (field) {
+                case "data" -> {
+                    if (token == JsonToken.START_OBJECT) {
+                        return finish(parser, readObject(parser, into));
+                    }
+                    parser.skipChildren();
+                }
+                case "E" -> into.setEventTime(longValue(parser, token));
+                case "s", "symbol" -> into.setSymbol(parser.getText());
+                case "U" -> {
+                    firstUpdateId = longValue(parser, token);
+                    kind = Kind.DIFF;
+                }
+                case "u" -> {
+                    finalUpdateId = longValue(parser, token);
+                    kind = Kind.DIFF;
+                }
+                case "lastUpdateId" -> {
+                    firstUpdateId = finalUpdateId = longValue(parser, token);
+                    kind = Kind.SNAPSHOT;
+                }
+                case "b", "bids" -> readLevels(parser, token, into, true);
+                case "a", "asks" -> readLevels(parser, token, into, false);
+                default -> parser.skipChildren();
+            }
+        }
+        if (token != JsonToken.END_OBJECT) {
+            throw new IOException("Mensagem de depth truncada");
+        }
+        into.setUpdateIds(firstUpdateId, finalUpdateId);
+        return kind;
+    }
+
+    /**
+     * Pula o resto do objeto externo depois de {@code data}.
+     */
+    private static Kind finish(JsonParser parser, Kind kind) throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) == JsonToken.FIELD_NAME) {
+            parser.nextToken();
+            parser.skipChildren();
+        }
+        if (token != JsonToken.END_OBJECT) {
+            throw new IOException("Mensagem de depth truncada");
+        }
+        return kind;
+    }
+
+    /**
+     * Níveis {@code [["preço","quantidade"], ...]}; o parser está no START_ARRAY externo.
+     */
+    private static void readLevels(JsonParser parser, JsonToken token, DepthUpdate into, boolean bids)
+            throws IOException {
+        if (token != JsonToken.START_ARRAY) {
+            throw new IOException("Níveis de depth não são um array: " + token);
+        }
+        while ((token = parser.nextToken()) == JsonToken.START_ARRAY) {
+            double price = decimalValue(parser, parser.nextToken());
+            double quantity = decimalValue(parser, parser.nextToken());
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token == null) {
+                    throw new IOException("Mensagem de depth truncada");
+                }
+                parser.skipChildren();
+            }
+            if (bids) {
+                into.addBid(price, quantity);
+            } else {
+                into.addAsk(price, quantity);
+            }
+        }
+        if (token != JsonToken.END_ARRAY) {
+            throw new IOException("Nível de depth não é um array: " + token);
+        }
+    }
+
+    private static long longValue(JsonParser parser, JsonToken token) throws IOException {
+        if (token != JsonToken.VALUE_NUMBER_INT) {
+            throw new IOException("Esperado inteiro, recebido " + token);
+        }
+        return parser.getLongValue();
+    }
+
+    private static double decimalValue(JsonParser parser, JsonToken token) throws IOException {
+        if (token == JsonToken.VALUE_STRING) {
+            return KlineJsonParser.parseDecimal(parser.getTextCharacters(), parser.getTextOffset(),
+                    parser.getTextLength());
+        }
+        if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT) {
+            return parser.getDoubleValue();
+        }
+        throw new IOException("Esperado número, recebido " + token);
+    }
+}
@@ -0,0 +1,104 @@
+package com.whs.trading.gemini.depth;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Reprodução local de uma sessão de profundidade gravada, para testes e benchmarks sem rede.
+ * <p>
+ * A gravação tem uma mensagem JSON por linha: as mensagens do stream como recebidas (combinadas ou não) e os
+ * snapshots de {@code /api/v3/depth} com um campo {@code symbol} acrescentado. As mensagens do stream vão em
+ * ordem para {@link #replay}; os snapshots de cada símbolo são servidos, também em ordem, a cada
+ * {@link #load} (como chamadas sucessivas ao REST). Linhas em branco são ignoradas.
+ */
+public final class DepthReplaySource implements DepthSnapshotSource {
+
+    private final List<String> messages = new ArrayList<>();
+    private final Map<String, ArrayDeque<String>> snapshots = new HashMap<>();
+    private final Set<String> symbols = new LinkedHashSet<>();
+
+    private DepthReplaySource() {
+    }
+
+    public static DepthReplaySource read(Path recording) throws IOException {
+        DepthReplaySource source = new DepthReplaySource();
+        try (BufferedReader reader = Files.newBufferedReader(recording, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                source.add(line);
+            }
+        }
+        return source;
+    }
+
+    public static DepthReplaySource of(List<String> lines) throws IOException {
+        DepthReplaySource source = new DepthReplaySource();
+        for (String line : lines) {
+            source.add(line);
+        }
+        return source;
+    }
+
+    private void add(String line) throws IOException {
+        if (line.isBlank()) {
+            return;
+        }
+        DepthUpdate parsed = new DepthUpdate(1);
+        DepthJsonParser.Kind kind = DepthJsonParser.parse(line, parsed);
+        if (kind == DepthJsonParser.Kind.SNAPSHOT) {
+            if (parsed.symbol() == null) {
+                throw new IOException("Snapshot gravado sem o campo symbol: " + line);
+            }
+            snapshots.computeIfAbsent(parsed.symbol(), s -> new ArrayDeque<>()).add(line);
+        } else {
+            messages.add(line);
+        }
+        if (parsed.symbol() != null) {
+            symbols.add(parsed.symbol());
+        }
+    }
+
+    /**
+     * Símbolos presentes na gravação, na ordem em que aparecem.
+     */
+    public Set<String> getSymbols() {
+        return symbols;
+    }
+
+    public int getMessageCount() {
+        return messages.size();
+    }
+
+    /**
+     * Entrega as mensagens do stream, em ordem, a {@code sink} (ex: o consumidor do serviço).
+     *
+     * @return Número de mensagens entregues.
+     */
+    public int replay(Consumer<String> sink) {
+        for (String message : messages) {
+            sink.accept(message);
+        }
+        return messages.size();
+    }
+
+    @Override
+    public synchronized void load(String symbol, DepthUpdate into) throws IOException {
+        ArrayDeque<String> pending = snapshots.get(symbol);
+        String line = pending == null ? null : pending.poll();
+        if (line == null) {
+            throw new IOException("Gravação sem mais snapshots de " + symbol);
+        }
+        DepthJsonParser.parse(line, into);
+    }
+}
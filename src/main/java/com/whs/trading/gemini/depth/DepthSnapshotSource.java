@@ -0,0 +1,15 @@
+package com.whs.trading.gemini.depth;
+
+import java.io.IOException;
+
+/**
+ * De onde vêm os snapshots do livro: o REST da Binance em produção, uma gravação no {@link DepthReplaySource}.
+ */
+@FunctionalInterface
+public interface DepthSnapshotSource {
+
+    /**
+     * Preenche {@code into} com um snapshot atual de {@code symbol}.
+     */
+    void load(String symbol, DepthUpdate into) throws IOException, InterruptedException;
+}
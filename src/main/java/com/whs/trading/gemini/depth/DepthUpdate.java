@@ -0,0 +1,135 @@
+package com.whs.trading.gemini.depth;
+
+import java.util.Arrays;
+
+/**
+ * Uma mensagem de profundidade já decodificada: diff do stream ({@code <symbol>@depth}) ou snapshot do REST
+ * ({@code /api/v3/depth}), com os níveis em arrays primitivos.
+ * <p>
+ * É um buffer mutável e reaproveitável: o consumidor de cada conexão decodifica todas as mensagens na mesma
+ * instância, sem alocar por nível. Quem precisa guardá-la (ex: diffs que chegam antes do snapshot) usa
+ * {@link #copy()}. Em um snapshot, {@code firstUpdateId} e {@code finalUpdateId} são o {@code lastUpdateId}.
+ */
+public final class DepthUpdate {
+
+    private String symbol;
+    private long eventTime;
+    private long firstUpdateId;
+    private long finalUpdateId;
+    private double[] bidPrices;
+    private double[] bidQuantities;
+    private int bidCount;
+    private double[] askPrices;
+    private double[] askQuantities;
+    private int askCount;
+
+    public DepthUpdate() {
+        this(64);
+    }
+
+    public DepthUpdate(int initialLevels) {
+        int capacity = Math.max(1, initialLevels);
+        bidPrices = new double[capacity];
+        bidQuantities = new double[capacity];
+        askPrices = new double[capacity];
+        askQuantities = new double[capacity];
+    }
+
+    public void clear() {
+        symbol = null;
+        eventTime = 0;
+        firstUpdateId = 0;
+        finalUpdateId = 0;
+        bidCount = 0;
+        askCount = 0;
+    }
+
+    public void setSymbol(String symbol) {
+        this.symbol = symbol;
+    }
+
+    public void setEventTime(long eventTime) {
+        this.eventTime = eventTime;
+    }
+
+    public void setUpdateIds(long firstUpdateId, long finalUpdateId) {
+        this.firstUpdateId = firstUpdateId;
+        this.finalUpdateId = finalUpdateId;
+    }
+
+    public void addBid(double price, double quantity) {
+        if (bidCount == bidPrices.length) {
+            bidPrices = Arrays.copyOf(bidPrices, bidCount * 2);
+            bidQuantities = Arrays.copyOf(bidQuantities, bidCount * 2);
+        }
+        bidPrices[bidCount] = price;
+        bidQuantities[bidCount++] = quantity;
+    }
+
+    public void addAsk(double price, double quantity) {
+        if (askCount == askPrices.length) {
+            askPrices = Arrays.copyOf(askPrices, askCount * 2);
+            askQuantities = Arrays.copyOf(askQuantities, askCount * 2);
+        }
+        askPrices[askCount] = price;
+        askQuantities[askCount++] = quantity;
+    }
+
+    public String symbol() {
+        return symbol;
+    }
+
+    public long eventTime() {
+        return eventTime;
+    }
+
+    public long firstUpdateId() {
+        return firstUpdateId;
+    }
+
+    public long finalUpdateId() {
+        return finalUpdateId;
+    }
+
+    public int bidCount() {
+        return bidCount;
+    }
+
+    public double bidPrice(int i) {
+        return bidPrices[i];
+    }
+
+    public double bidQuantity(int i) {
+        return bidQuantities[i];
+    }
+
+    public int askCount() {
+        return askCount;
+    }
+
+    public double askPrice(int i) {
+        return askPrices[i];
+    }
+
+    public double askQuantity(int i) {
+        return askQuantities[i];
+    }
+
+    /**
+     * Cópia independente, com arrays do tamanho exato.
+     */
+    public DepthUpdate copy() {
+        DepthUpdate copy = new DepthUpdate(1);
+        copy.symbol = symbol;
+        copy.eventTime = eventTime;
+        copy.firstUpdateId = firstUpdateId;
+        copy.finalUpdateId = finalUpdateId;
+        copy.bidPrices = Arrays.copyOf(bidPrices, Math.max(1, bidCount));
+        copy.bidQuantities = Arrays.copyOf(bidQuantities, Math.max(1, bidCount));
+        copy.bidCount = bidCount;
+        copy.askPrices = Arrays.copyOf(askPrices, Math.max(1, askCount));
+        copy.askQuantities = Arrays.copyOf(askQuantities, Math.max(1, askCount));
+        copy.askCount = askCount;
+        return copy;
+    }
+}
@@ -0,0 +1,257 @@
+package com.whs.trading.gemini.depth;
+
+import java.util.ArrayDeque;
+
+/**
+ * Livro de ofertas local de um símbolo, mantido com snapshot + diffs conforme as regras da Binance.
+ * <p>
+ * Diffs que chegam antes do snapshot (ou depois de uma lacuna) ficam guardados; o snapshot descarta os que ele
+ * já cobre ({@code u <= lastUpdateId}) e aplica o resto em sequência. Com o livro sincronizado, cada diff deve
+ * começar no máximo em {@code lastUpdateId + 1}: um {@code U} além disso (ex: mensagens perdidas numa
+ * reconexão) invalida o livro até o próximo snapshot. Os resultados de {@link #apply} e {@link #applySnapshot}
+ * dizem ao chamador quando buscar um snapshot; o livro só pede um de cada vez.
+ * <p>
+ * Um único consumidor escreve e os leitores (indicadores, API) leem sob o mesmo monitor; as leituras são
+ * O(níveis pedidos) e a escrita toca só os níveis do diff.
+ */
+public final class OrderBook {
+
+    /**
+     * Diffs guardados à espera do snapshot; além disso os mais antigos são descartados (o snapshot, mais novo,
+     * costuma cobri-los; se não cobrir, {@link #applySnapshot} pede outro).
+     */
+    static final int MAX_PENDING_UPDATES = 1000;
+    private static final int INITIAL_LEVELS = 1024;
+
+    public enum Result {
+        /** Diff aplicado (ou snapshot aplicado e diffs guardados em dia). */
+        APPLIED,
+        /** Diff já coberto pelo livro, ignorado. */
+        STALE,
+        /** Livro sem snapshot; diff guardado e um snapshot já foi pedido. */
+        BUFFERED,
+        /** Livro sem snapshot (ou snapshot mais antigo que os diffs guardados): o chamador deve buscar um. */
+        SNAPSHOT_NEEDED,
+        /** Lacuna na sequência: livro invalidado e diff guardado; o chamador deve buscar um snapshot. */
+        GAP
+    }
+
+    private final String symbol;
+    private final BookSide bids = new BookSide(true, INITIAL_LEVELS);
+    private final BookSide asks = new BookSide(false, INITIAL_LEVELS);
+    private final ArrayDeque<DepthUpdate> pending = new ArrayDeque<>();
+    private long lastUpdateId = -1; // -1: sem snapshot válido
+    private long eventTime;
+    private boolean snapshotRequested;
+    private long gapCount;
+
+    public OrderBook(String symbol) {
+        this.symbol = symbol;
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public synchronized Result apply(DepthUpdate update) {
+        if (lastUpdateId < 0) {
+            return buffer(update);
+        }
+        if (update.finalUpdateId() <= lastUpdateId) {
+            return Result.STALE;
+        }
+        if (update.firstUpdateId() > lastUpdateId + 1) {
+            gapCount++;
+            invalidate();
+            buffer(update);
+            return Result.GAP;
+        }
+        applyLevels(update);
+        return Result.APPLIED;
+    }
+
+    /**
+     * Substitui o livro pelo snapshot e aplica os diffs guardados posteriores a ele.
+     *
+     * @return {@link Result#APPLIED}, ou {@link Result#SNAPSHOT_NEEDED} se o snapshot é anterior ao primeiro
+     *         diff guardado (o livro continua inválido).
+     */
+    public synchronized Result applySnapshot(DepthUpdate snapshot) {
+        snapshotRequested = false;
+        bids.clear();
+        asks.clear();
+        for (int i = 0; i < snapshot.bidCount(); i++) {
+            bids.set(snapshot.bidPrice(i), snapshot.bidQuantity(i));
+        }
+        for (int i = 0; i < snapshot.askCount(); i++) {
+            asks.set(snapshot.askPrice(i), snapshot.askQuantity(i));
+        }
+        lastUpdateId = snapshot.finalUpdateId();
+        eventTime = snapshot.eventTime();
+        while (!pending.isEmpty()) {
+            DepthUpdate update = pending.pollFirst();
+            if (update.finalUpdateId() <= lastUpdateId) {
+                continue;
+            }
+            if (update.firstUpdateId() > lastUpdateId + 1) {
+                pending.addFirst(update);
+                invalidate();
+                snapshotRequested = true;
+                return Result.SNAPSHOT_NEEDED;
+            }
+            applyLevels(update);
+        }
+        return Result.APPLIED;
+    }
+
+    /**
+     * A busca do snapshot falhou: o próximo diff pede outro.
+     */
+    public synchronized void snapshotFailed() {
+        snapshotRequested = false;
+    }
+
+    /**
+     * Descarta o livro e os diffs guardados (ex: fim da assinatura).
+     */
+    public synchronized void reset() {
+        invalidate();
+        pending.clear();
+        snapshotRequested = false;
+    }
+
+    public synchronized boolean isSynced() {
+        return lastUpdateId >= 0;
+    }
+
+    public synchronized long getLastUpdateId() {
+        return lastUpdateId;
+    }
+
+    /**
+     * Horário (ms) do último diff aplicado, ou do snapshot.
+     */
+    public synchronized long getEventTime() {
+        return eventTime;
+    }
+
+    public synchronized int getPendingUpdateCount() {
+        return pending.size();
+    }
+
+    public synchronized long getGapCount() {
+        return gapCount;
+    }
+
+    public synchronized int bidLevels() {
+        return bids.size();
+    }
+
+    public synchronized int askLevels() {
+        return asks.size();
+    }
+
+    public synchronized double bestBid() {
+        return bids.bestPrice();
+    }
+
+    public synchronized double bestAsk() {
+        return asks.bestPrice();
+    }
+
+    /**
+     * Melhor venda menos melhor compra (NaN sem um dos lados).
+     */
+    public synchronized double spread() {
+        return asks.bestPrice() - bids.bestPrice();
+    }
+
+    public synchronized double midPrice() {
+        return (asks.bestPrice() + bids.bestPrice()) / 2;
+    }
+
+    /**
+     * Preço médio ponderado pela quantidade do lado oposto no topo do livro:
+     * {@code (bid * askQty + ask * bidQty) / (bidQty + askQty)}. Fica mais perto da venda quando sobra compra.
+     */
+    public synchronized double microprice() {
+        return microprice(bids.bestPrice(), bids.bestQuantity(), asks.bestPrice(), asks.bestQuantity());
+    }
+
+    /**
+     * Desequilíbrio entre as quantidades dos {@code levels} melhores níveis de cada lado, em [-1, 1]:
+     * {@code (compras - vendas) / (compras + vendas)}. NaN com o livro vazio.
+     */
+    public synchronized double imbalance(int levels) {
+        return imbalance(bids.totalQuantity(levels), asks.totalQuantity(levels));
+    }
+
+    /**
+     * Topo do livro e métricas derivadas numa leitura consistente.
+     */
+    public synchronized OrderBookStats stats(int levels) {
+        double bidPrice = bids.bestPrice();
+        double bidQuantity = bids.bestQuantity();
+        double askPrice = asks.bestPrice();
+        double askQuantity = asks.bestQuantity();
+        double bidDepth = bids.totalQuantity(levels);
+        double askDepth = asks.totalQuantity(levels);
+        return new OrderBookStats(symbol, lastUpdateId >= 0, lastUpdateId, eventTime, bidPrice, bidQuantity, askPrice,
+                askQuantity, askPrice - bidPrice, (askPrice + bidPrice) / 2,
+                microprice(bidPrice, bidQuantity, askPrice, askQuantity), levels, bidDepth, askDepth,
+                imbalance(bidDepth, askDepth));
+    }
+
+    /**
+     * Os {@code levels} melhores níveis de cada lado, do melhor para o pior.
+     */
+    public synchronized OrderBookLevels levels(int levels) {
+        int bidCount = Math.min(levels, bids.size());
+        int askCount = Math.min(levels, asks.size());
+        double[] bidPrices = new double[bidCount];
+        double[] bidQuantities = new double[bidCount];
+        double[] askPrices = new double[askCount];
+        double[] askQuantities = new double[askCount];
+        bids.copyTo(bidPrices, bidQuantities, bidCount);
+        asks.copyTo(askPrices, askQuantities, askCount);
+        return new OrderBookLevels(symbol, lastUpdateId, eventTime, bidPrices, bidQuantities, askPrices, askQuantities);
+    }
+
+    private static double microprice(double bidPrice, double bidQuantity, double askPrice, double askQuantity) {
+        return (bidPrice * askQuantity + askPrice * bidQuantity) / (bidQuantity + askQuantity);
+    }
+
+    private static double imbalance(double bidDepth, double askDepth) {
+        double total = bidDepth + askDepth;
+        return total == 0 ? Double.NaN : (bidDepth - askDepth) / total;
+    }
+
+    private void applyLevels(DepthUpdate update) {
+        for (int i = 0; i < update.bidCount(); i++) {
+            bids.set(update.bidPrice(i), update.bidQuantity(i));
+        }
+        for (int i = 0; i < update.askCount(); i++) {
+            asks.set(update.askPrice(i), update.askQuantity(i));
+        }
+        lastUpdateId = update.finalUpdateId();
+        eventTime = update.eventTime();
+    }
+
+    private Result buffer(DepthUpdate update) {
+        if (pending.size() == MAX_PENDING_UPDATES) {
+            pending.pollFirst();
+        }
+        pending.addLast(update.copy());
+        if (snapshotRequested) {
+            return Result.BUFFERED;
+        }
+        snapshotRequested = true;
+        return Result.SNAPSHOT_NEEDED;
+    }
+
+    private void invalidate() {
+        lastUpdateId = -1;
+        bids.clear();
+        asks.clear();
+    }
+}
@@ -0,0 +1,8 @@
+package com.whs.trading.gemini.depth;
+
+/**
+ * Cópia dos melhores níveis de cada lado do livro, do melhor para o pior (índice 0 = melhor preço).
+ */
+public record OrderBookLevels(String symbol, long lastUpdateId, long eventTime, double[] bidPrices,
+                              double[] bidQuantities, double[] askPrices, double[] askQuantities) {
+}
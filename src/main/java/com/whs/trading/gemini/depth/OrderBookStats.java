@@ -0,0 +1,22 @@
+package com.whs.trading.gemini.depth;
+
+/**
+ * Topo do livro de um símbolo e as métricas derivadas, lidos de uma vez sob o monitor do {@link OrderBook}.
+ * Preços e métricas são NaN quando falta um dos lados.
+ *
+ * @param synced     Se o livro está sincronizado (snapshot aplicado e diffs em sequência).
+ * @param levels     Níveis por lado somados em {@code bidDepth}, {@code askDepth} e {@code imbalance}.
+ * @param imbalance  {@code (bidDepth - askDepth) / (bidDepth + askDepth)}, em [-1, 1].
+ */
+public record OrderBookStats(String symbol, boolean synced, long lastUpdateId, long eventTime, double bestBid,
+                             double bestBidQuantity, double bestAsk, double bestAskQuantity, double spread,
+                             double midPrice, double microprice, int levels, double bidDepth, double askDepth,
+                             double imbalance) {
+
+    /**
+     * Spread relativo ao preço médio, em pontos-base.
+     */
+    public double spreadBps() {
+        return spread / midPrice * 10_000;
+    }
+}
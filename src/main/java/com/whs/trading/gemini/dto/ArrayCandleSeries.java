@@ -0,0 +1,188 @@
+package com.whs.trading.gemini.dto;
+
+import java.util.Arrays;
+
+/**
+ * {@link CandleSeries} baseada em arrays primitivos por coluna.
+ * Visões criadas por {@link #slice(int, int)} compartilham os mesmos arrays (offset + tamanho).
+ */
+public final class ArrayCandleSeries implements CandleSeries {
+
+    static final ArrayCandleSeries EMPTY = new Builder(0).build();
+
+    private final long[] openTimes;
+    private final long[] closeTimes;
+    private final double[] opens;
+    private final double[] highs;
+    private final double[] lows;
+    private final double[] closes;
+    private final double[] volumes;
+    private final double[] quoteVolumes;
+    private final long[] tradeCounts;
+    private final double[] takerBuyBaseVolumes;
+    private final double[] takerBuyQuoteVolumes;
+    private final int offset;
+    private final int size;
+
+    private ArrayCandleSeries(long[] openTimes, long[] closeTimes, double[] opens, double[] highs, double[] lows,
+                              double[] closes, double[] volumes, double[] quoteVolumes, long[] tradeCounts,
+                              double[] takerBuyBaseVolumes, double[] takerBuyQuoteVolumes, int offset, int size) {
+        this.openTimes = openTimes;
+        this.closeTimes = closeTimes;
+        this.opens = opens;
+        this.highs = highs;
+        this.lows = lows;
+        this.closes = closes;
+        this.volumes = volumes;
+        this.quoteVolumes = quoteVolumes;
+        this.tradeCounts = tradeCounts;
+        this.takerBuyBaseVolumes = takerBuyBaseVolumes;
+        this.takerBuyQuoteVolumes = takerBuyQuoteVolumes;
+        this.offset = offset;
+        this.size = size;
+    }
+
+    @Override
+    public int size() { return size; }
+
+    @Override
+    public long openTime(int index) { return openTimes[offset + index]; }
+
+    @Override
+    public long closeTime(int index) { return closeTimes[offset + index]; }
+
+    @Override
+    public double open(int index) { return opens[offset + index]; }
+
+    @Override
+    public double high(int index) { return highs[offset + index]; }
+
+    @Override
+    public double low(int index) { return lows[offset + index]; }
+
+    @Override
+    public double close(int index) { return closes[offset + index]; }
+
+    @Override
+    public double volume(int index) { return volumes[offset + index]; }
+
+    @Override
+    public double quoteVolume(int index) { return quoteVolumes[offset + index]; }
+
+    @Override
+    public long tradeCount(int index) { return tradeCounts[offset + index]; }
+
+    @Override
+    public double takerBuyBaseVolume(int index) { return takerBuyBaseVolumes[offset + index]; }
+
+    @Override
+    public double takerBuyQuoteVolume(int index) { return takerBuyQuoteVolumes[offset + index]; }
+
+    @Override
+    public CandleSeries slice(int fromIndex, int toIndex) {
+        if (fromIndex < 0 || toIndex > size || fromIndex > toIndex) {
+            throw new IndexOutOfBoundsException("slice [" + fromIndex + ", " + toIndex + ") fora de [0, " + size + ")");
+        }
+        if (fromIndex == 0 && toIndex == size) {
+            return this;
+        }
+        return new ArrayCandleSeries(openTimes, closeTimes, opens, highs, lows, closes, volumes, quoteVolumes,
+                tradeCounts, takerBuyBaseVolumes, takerBuyQuoteVolumes, offset + fromIndex, toIndex - fromIndex);
+    }
+
+    /**
+     * Acumulador append-only. Séries geradas por {@link #build()} compartilham os arrays atuais;
+     * como o builder apenas acrescenta (e realoca ao crescer), séries já construídas nunca mudam.
+     */
+    public static final class Builder {
+        private long[] openTimes;
+        private long[] closeTimes;
+        private double[] opens;
+        private double[] highs;
+        private double[] lows;
+        private double[] closes;
+        private double[] volumes;
+        private double[] quoteVolumes;
+        private long[] tradeCounts;
+        private double[] takerBuyBaseVolumes;
+        private double[] takerBuyQuoteVolumes;
+        private int size;
+
+        Builder(int initialCapacity) {
+            int capacity = Math.max(initialCapacity, 0);
+            openTimes = new long[capacity];
+            closeTimes = new long[capacity];
+            opens = new double[capacity];
+            highs = new double[capacity];
+            lows = new double[capacity];
+            closes = new double[capacity];
+            volumes = new double[capacity];
+            quoteVolumes = new double[capacity];
+            tradeCounts = new long[capacity];
+            takerBuyBaseVolumes = new double[capacity];
+            takerBuyQuoteVolumes = new double[capacity];
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public long lastOpenTime() {
+            return size == 0 ? Long.MIN_VALUE : openTimes[size - 1];
+        }
+
+        public Builder add(long openTime, double open, double high, double low, double close, double volume,
+                           long closeTime, double quoteVolume, long tradeCount,
+                           double takerBuyBaseVolume, double takerBuyQuoteVolume) {
+            if (size == openTimes.length) {
+                grow();
+            }
+            openTimes[size] = openTime;
+            closeTimes[size] = closeTime;
+            opens[size] = open;
+            highs[size] = high;
+            lows[size] = low;
+            closes[size] = close;
+            volumes[size] = volume;
+            quoteVolumes[size] = quoteVolume;
+            tradeCounts[size] = tradeCount;
+            takerBuyBaseVolumes[size] = takerBuyBaseVolume;
+            takerBuyQuoteVolumes[size] = takerBuyQuoteVolume;
+            size++;
+            return this;
+        }
+
+        public Builder add(CandleSeries series, int index) {
+            return add(series.openTime(index), series.open(index), series.high(index), series.low(index),
+                    series.close(index), series.volume(index), series.closeTime(index), series.quoteVolume(index),
+                    series.tradeCount(index), series.takerBuyBaseVolume(index), series.takerBuyQuoteVolume(index));
+        }
+
+        public Builder addAll(CandleSeries series) {
+            for (int i = 0; i < series.size(); i++) {
+                add(series, i);
+            }
+            return this;
+        }
+
+        public ArrayCandleSeries build() {
+            return new ArrayCandleSeries(openTimes, closeTimes, opens, highs, lows, closes, volumes, quoteVolumes,
+                    tradeCounts, takerBuyBaseVolumes, takerBuyQuoteVolumes, 0, size);
+        }
+
+        private void grow() {
+            int capacity = Math.max(16, openTimes.length + (openTimes.length >> 1));
+            openTimes = Arrays.copyOf(openTimes, capacity);
+            closeTimes = Arrays.copyOf(closeTimes, capacity);
+            opens = Arrays.copyOf(opens, capacity);
+            highs = Arrays.copyOf(highs, capacity);
+            lows = Arrays.copyOf(lows, capacity);
+            closes = Arrays.copyOf(closes, capacity);
+            volumes = Arrays.copyOf(volumes, capacity);
+            quoteVolumes = Arrays.copyOf(quoteVolumes, capacity);
+            tradeCounts = Arrays.copyOf(tradeCounts, capacity);
+            takerBuyBaseVolumes = Arrays.copyOf(takerBuyBaseVolumes, capacity);
+            takerBuyQuoteVolumes = Arrays.copyOf(takerBuyQuoteVolumes, capacity);
+        }
+    }
+}
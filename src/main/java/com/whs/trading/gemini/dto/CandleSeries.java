@@ -0,0 +1,129 @@
+package com.whs.trading.gemini.dto;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Série de velas em formato colunar (primitivos), ordenada da mais antiga para a mais recente.
+ * <p>
+ * Substitui {@code List<CandlestickData>} no caminho quente dos indicadores: cada campo é lido
+ * por índice, sem objetos por vela. Implementações devem suportar {@link #slice(int, int)} sem cópia.
+ */
+public interface CandleSeries {
+
+    int size();
+
+    long openTime(int index);
+
+    long closeTime(int index);
+
+    double open(int index);
+
+    double high(int index);
+
+    double low(int index);
+
+    double close(int index);
+
+    double volume(int index);
+
+    double quoteVolume(int index);
+
+    long tradeCount(int index);
+
+    double takerBuyBaseVolume(int index);
+
+    double takerBuyQuoteVolume(int index);
+
+    /**
+     * Visão (sem cópia) do intervalo [fromIndex, toIndex) desta série.
+     */
+    CandleSeries slice(int fromIndex, int toIndex);
+
+    default boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Visão das últimas {@code count} velas (ou da série inteira, se menor).
+     */
+    default CandleSeries tail(int count) {
+        int size = size();
+        return count >= size ? this : slice(size - count, size);
+    }
+
+    /**
+     * Visão sem as velas do fim ainda abertas em {@code now} (fechamento em {@code now} ou depois), como a vela
+     * em formação que a API REST inclui no fim da resposta.
+     */
+    default CandleSeries closedAsOf(long now) {
+        int size = size();
+        while (size > 0 && closeTime(size - 1) >= now) {
+            size--;
+        }
+        return size == size() ? this : slice(0, size);
+    }
+
+    /**
+     * Converte a vela no índice informado para o DTO legado (aloca BigDecimal/Instant).
+     */
+    default CandlestickData toCandlestickData(int index) {
+        return new CandlestickData(
+                Instant.ofEpochMilli(openTime(index)),
+                BigDecimal.valueOf(open(index)),
+                BigDecimal.valueOf(high(index)),
+                BigDecimal.valueOf(low(index)),
+                BigDecimal.valueOf(close(index)),
+                BigDecimal.valueOf(volume(index)),
+                Instant.ofEpochMilli(closeTime(index)));
+    }
+
+    default List<CandlestickData> toCandlestickDataList() {
+        int size = size();
+        List<CandlestickData> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            list.add(toCandlestickData(i));
+        }
+        return list;
+    }
+
+    static CandleSeries empty() {
+        return ArrayCandleSeries.EMPTY;
+    }
+
+    /**
+     * Cria uma série colunar a partir da lista legada. Campos ausentes no DTO
+     * (volume em moeda de cotação, nº de trades, volumes taker) ficam zerados.
+     */
+    static CandleSeries of(List<CandlestickData> candles) {
+        if (candles == null || candles.isEmpty()) {
+            return empty();
+        }
+        ArrayCandleSeries.Builder builder = builder(candles.size());
+        for (CandlestickData c : candles) {
+            builder.add(c.getOpenTime().toEpochMilli(), c.getOpen().doubleValue(), c.getHigh().doubleValue(),
+                    c.getLow().doubleValue(), c.getClose().doubleValue(), c.getVolume().doubleValue(),
+                    c.getCloseTime().toEpochMilli(), 0d, 0L, 0d, 0d);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Visão (sem cópia) de {@code head} seguida de {@code tail}. O chamador garante a ordem das aberturas.
+     */
+    static CandleSeries concat(CandleSeries head, CandleSeries tail) {
+        if (tail.isEmpty()) {
+            return head;
+        }
+        if (head.isEmpty()) {
+            return tail;
+        }
+        return new ConcatCandleSeries(head, tail);
+    }
+
+    static ArrayCandleSeries.Builder builder(int initialCapacity) {
+        return new ArrayCandleSeries.Builder(initialCapacity);
+    }
+}
@@ -0,0 +1,79 @@
+package com.whs.trading.gemini.dto;
+
+/**
+ * Visão (sem cópia) de duas séries consecutivas, ex: histórico em disco seguido da vela em formação.
+ */
+final class ConcatCandleSeries implements CandleSeries {
+
+    private final CandleSeries head;
+    private final CandleSeries tail;
+    private final int headSize;
+
+    ConcatCandleSeries(CandleSeries head, CandleSeries tail) {
+        this.head = head;
+        this.tail = tail;
+        this.headSize = head.size();
+    }
+
+    @Override
+    public int size() { return headSize + tail.size(); }
+
+    @Override
+    public long openTime(int index) { return index < headSize ? head.openTime(index) : tail.openTime(index - headSize); }
+
+    @Override
+    public long closeTime(int index) { return index < headSize ? head.closeTime(index) : tail.closeTime(index - headSize); }
+
+    @Override
+    public double open(int index) { return index < headSize ? head.open(index) : tail.open(index - headSize); }
+
+    @Override
+    public double high(int index) { return index < headSize ? head.high(index) : tail.high(index - headSize); }
+
+    @Override
+    public double low(int index) { return index < headSize ? head.low(index) : tail.low(index - headSize); }
+
+    @Override
+    public double close(int index) { return index < headSize ? head.close(index) : tail.close(index - headSize); }
+
+    @Override
+    public double volume(int index) { return index < headSize ? head.volume(index) : tail.volume(index - headSize); }
+
+    @Override
+    public double quoteVolume(int index) {
+        return index < headSize ? head.quoteVolume(index) : tail.quoteVolume(index - headSize);
+    }
+
+    @Override
+    public long tradeCount(int index) {
+        return index < headSize ? head.tradeCount(index) : tail.tradeCount(index - headSize);
+    }
+
+    @Override
+    public double takerBuyBaseVolume(int index) {
+        return index < headSize ? head.takerBuyBaseVolume(index) : tail.takerBuyBaseVolume(index - headSize);
+    }
+
+    @Override
+    public double takerBuyQuoteVolume(int index) {
+        return index < headSize ? head.takerBuyQuoteVolume(index) : tail.takerBuyQuoteVolume(index - headSize);
+    }
+
+    @Override
+    public CandleSeries slice(int fromIndex, int toIndex) {
+        int size = size();
+        if (fromIndex < 0 || toIndex > size || fromIndex > toIndex) {
+            throw new IndexOutOfBoundsException("slice [" + fromIndex + ", " + toIndex + ") fora de [0, " + size + ")");
+        }
+        if (toIndex <= headSize) {
+            return head.slice(fromIndex, toIndex);
+        }
+        if (fromIndex >= headSize) {
+            return tail.slice(fromIndex - headSize, toIndex - headSize);
+        }
+        if (fromIndex == 0 && toIndex == size) {
+            return this;
+        }
+        return new ConcatCandleSeries(head.slice(fromIndex, headSize), tail.slice(0, toIndex - headSize));
+    }
+}
@@ -3,15 +3,33 @@ package com.whs.trading.gemini.dto;
 import java.util.HashMap;
 import java.util.Map;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Resultado de um indicador. Os resultados do caminho colunar carregam {@link IndicatorValues} tipados e montam
+ * o mapa {@code values} e o texto {@code details} só na primeira leitura; os montados à mão (caminho legado,
+ * dados insuficientes) usam {@link #addValue} e {@link #setDetails} diretamente.
+ */
 public class IndicatorResult {
     private String indicatorName;
     private Signal signal;
+    private IndicatorValues typedValues; // Valores primitivos, quando o indicador os fornece
     private Map<String, Object> values; // Para armazenar valores calculados (ex: valor do RSI, níveis de S/R)
     private String details; // Descrição textual do resultado
+    private boolean detailsOmitted;
+
+    @JsonCreator
+    public IndicatorResult(@JsonProperty("indicatorName") String indicatorName) {
+        this.indicatorName = indicatorName;
+    }
 
-    public IndicatorResult(String indicatorName) {
+    public IndicatorResult(String indicatorName, Signal signal, IndicatorValues typedValues) {
         this.indicatorName = indicatorName;
-        this.values = new HashMap<>();
+        this.signal = signal;
+        this.typedValues = typedValues;
     }
 
     // Getters e Setters
@@ -19,12 +37,56 @@ public class IndicatorResult {
     public void setIndicatorName(String indicatorName) { this.indicatorName = indicatorName; }
     public Signal getSignal() { return signal; }
     public void setSignal(Signal signal) { this.signal = signal; }
-    public Map<String, Object> getValues() { return values; }
+
+    @JsonIgnore
+    public IndicatorValues getTypedValues() { return typedValues; }
+
+    public Map<String, Object> getValues() {
+        if (values == null) {
+            values = typedValues != null ? typedValues.toMap() : new HashMap<>();
+        }
+        return values;
+    }
+
     public void setValues(Map<String, Object> values) { this.values = values; }
-    public String getDetails() { return details; }
+
+    /**
+     * Descrição textual, montada na primeira leitura; null (e fora do JSON) após {@link #omitDetails()}.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public String getDetails() {
+        if (detailsOmitted) {
+            return null;
+        }
+        if (details == null && typedValues != null) {
+            details = typedValues.describe(signal);
+        }
+        return details;
+    }
+
     public void setDetails(String details) { this.details = details; }
 
+    /**
+     * Dispensa a descrição (ex: scans grandes em que só os valores interessam).
+     */
+    public void omitDetails() {
+        this.detailsOmitted = true;
+    }
+
     public void addValue(String key, Object value) {
-        this.values.put(key, value);
+        getValues().put(key, value);
+    }
+
+    /**
+     * Cópia independente; os valores tipados (imutáveis) são compartilhados e o mapa só é copiado se já existir.
+     */
+    public IndicatorResult copy() {
+        IndicatorResult copy = new IndicatorResult(indicatorName, signal, typedValues);
+        if (values != null) {
+            copy.values = new HashMap<>(values);
+        }
+        copy.details = details;
+        copy.detailsOmitted = detailsOmitted;
+        return copy;
     }
-}
\ No newline at end of file
+}
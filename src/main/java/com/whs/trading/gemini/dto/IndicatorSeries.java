@@ -0,0 +1,51 @@
+package com.whs.trading.gemini.dto;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Saída completa de um indicador, alinhada aos horários de abertura das velas de entrada.
+ * <p>
+ * Cada linha (ex: "macdLine", "signalLine") é um {@code double[]} do mesmo tamanho de {@link #getOpenTimes()};
+ * posições anteriores a {@link #getWarmupOffset()} podem conter NaN. {@code signals} guarda o ordinal de
+ * {@link Signal} por vela.
+ */
+public class IndicatorSeries {
+    private final String indicatorName;
+    private final long[] openTimes;
+    private final int warmupOffset;
+    private final Map<String, double[]> lines;
+    private final byte[] signals;
+
+    public IndicatorSeries(String indicatorName, long[] openTimes, int warmupOffset,
+                           Map<String, double[]> lines, byte[] signals) {
+        this.indicatorName = indicatorName;
+        this.openTimes = openTimes;
+        this.warmupOffset = warmupOffset;
+        this.lines = Collections.unmodifiableMap(new LinkedHashMap<>(lines));
+        this.signals = signals;
+    }
+
+    public String getIndicatorName() { return indicatorName; }
+    public long[] getOpenTimes() { return openTimes; }
+    public int getWarmupOffset() { return warmupOffset; }
+    public Map<String, double[]> getLines() { return lines; }
+    public byte[] getSignals() { return signals; }
+
+    public int size() {
+        return openTimes.length;
+    }
+
+    public double[] line(String name) {
+        double[] line = lines.get(name);
+        if (line == null) {
+            throw new IllegalArgumentException("Linha inexistente para " + indicatorName + ": " + name);
+        }
+        return line;
+    }
+
+    public Signal signalAt(int index) {
+        return Signal.values()[signals[index]];
+    }
+}
@@ -0,0 +1,220 @@
+package com.whs.trading.gemini.dto;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Valores tipados do resultado de cada indicador, com campos primitivos.
+ * <p>
+ * É o que os indicadores produzem no caminho colunar: sem mapa, sem BigDecimal e sem texto. O mapa de
+ * {@link IndicatorResult#getValues()} (formato JSON histórico, com BigDecimal arredondado) e a descrição de
+ * {@link IndicatorResult#getDetails()} só são montados por {@link #toMap()} e {@link #describe(Signal)} quando
+ * alguém os lê, ex: na serialização da resposta. Quem só precisa do sinal não paga por eles.
+ */
+public sealed interface IndicatorValues {
+
+    /**
+     * Visão em mapa (mutável), com as mesmas chaves e tipos do resultado montado à mão.
+     */
+    Map<String, Object> toMap();
+
+    /**
+     * Descrição textual do resultado com o sinal dado.
+     */
+    String describe(Signal signal);
+
+    /**
+     * Arredonda primeiro a 9 casas, o que descarta o erro de representação binária (111.025 vira
+     * 111.02499999999999 em double), e só então à escala reportada: empates decimais sobem como no BigDecimal.
+     */
+    private static BigDecimal scaled(double value, int scale) {
+        return BigDecimal.valueOf(value).setScale(9, RoundingMode.HALF_UP).setScale(scale, RoundingMode.HALF_UP);
+    }
+
+    record Sma(double smaValue, double currentPrice, int period, int scale) implements IndicatorValues {
+
+        @Override
+        public Map<String, Object> toMap() {
+            Map<String, Object> map = new HashMap<>();
+            map.put("smaValue", scaled(smaValue, scale));
+            map.put("currentPrice", BigDecimal.valueOf(currentPrice));
+            map.put("period", period);
+            return map;
+        }
+
+        @Override
+        public String describe(Signal signal) {
+            if (signal == Signal.BUY) {
+                return String.format("Preço (%.2f) acima da SMA(%d) (%.2f). Tendência de alta.", currentPrice, period, smaValue);
+            } else if (signal == Signal.SELL) {
+                return String.format("Preço (%.2f) abaixo da SMA(%d) (%.2f). Tendência de baixa.", currentPrice, period, smaValue);
+            }
+            return String.format("Preço (%.2f) igual à SMA(%d) (%.2f).", currentPrice, period, smaValue);
+        }
+    }
+
+    /**
+     * @param noAverageLoss Perda média zero: RSI 100 sem período no mapa.
+     */
+    record Rsi(double rsiValue, int period, boolean noAverageLoss) implements IndicatorValues {
+
+        @Override
+        public Map<String, Object> toMap() {
+            Map<String, Object> map = new HashMap<>();
+            if (noAverageLoss) {
+                map.put("rsiValue", BigDecimal.valueOf(100));
+                return map;
+            }
+            map.put("rsiValue", scaled(rsiValue, 2));
+            map.put("period", period);
+            return map;
+        }
+
+        @Override
+        public String describe(Signal signal) {
+            if (noAverageLoss) {
+                return "RSI: 100.00 (Sobrecompra Extrema - Ausência de Perdas Médias)";
+            }
+            if (signal == Signal.SELL) {
+                return String.format("RSI: %.2f (Sobrecompra)", rsiValue);
+            } else if (signal == Signal.BUY) {
+                return String.format("RSI: %.2f (Sobrevenda)", rsiValue);
+            }
+            return String.format("RSI: %.2f (Neutra)", rsiValue);
+        }
+    }
+
+    record Macd(double macdLine, double signalLine, double histogram, int shortPeriod, int longPeriod, int signalPeriod,
+                boolean crossedUp, boolean crossedDown) implements IndicatorValues {
+
+        @Override
+        public Map<String, Object> toMap() {
+            Map<String, Object> map = new HashMap<>();
+            map.put("macdLine", scaled(macdLine, 2));
+            map.put("signalLine", scaled(signalLine, 2));
+            map.put("histogram", scaled(histogram, 2));
+            map.put("shortPeriod", shortPeriod);
+            map.put("longPeriod", longPeriod);
+            map.put("signalPeriod", signalPeriod);
+            return map;
+        }
+
+        @Override
+        public String describe(Signal signal) {
+            String details = String.format("MACD(%.2f), Sinal(%.2f), Hist(%.2f).", macdLine, signalLine, histogram);
+            if (crossedUp) {
+                return details + " Cruzamento de COMPRA da linha MACD sobre a linha de Sinal.";
+            } else if (crossedDown) {
+                return details + " Cruzamento de VENDA da linha MACD sob a linha de Sinal.";
+            } else if (macdLine > 0 && signalLine > 0) {
+                return details + " Ambas as linhas acima de zero (Otimista).";
+            } else if (macdLine < 0 && signalLine < 0) {
+                return details + " Ambas as linhas abaixo de zero (Pessimista).";
+            }
+            return details + " Neutro.";
+        }
+    }
+
+    /**
+     * @param percentB            NaN se a largura das bandas for zero.
+     * @param bandWidthPercentage NaN fora das bandas (só é calculada com o preço dentro delas).
+     */
+    record BollingerBands(double middleBand, double upperBand, double lowerBand, double currentPrice, int period,
+                          double stdDevMultiplier, double percentB, double bandWidthPercentage, int scale)
+            implements IndicatorValues {
+
+        @Override
+        public Map<String, Object> toMap() {
+            Map<String, Object> map = new HashMap<>();
+            map.put("middleBand", scaled(middleBand, scale));
+            map.put("upperBand", scaled(upperBand, scale));
+            map.put("lowerBand", scaled(lowerBand, scale));
+            map.put("currentPrice", scaled(currentPrice, scale));
+            map.put("period", period);
+            map.put("stdDevMultiplier", BigDecimal.valueOf(stdDevMultiplier));
+            map.put("percentB", Double.isNaN(percentB) ? "N/A (Bandwidth is zero)" : scaled(percentB, scale));
+            if (!Double.isNaN(bandWidthPercentage)) {
+                map.put("bandWidthPercentage", scaled(bandWidthPercentage, scale));
+            }
+            return map;
+        }
+
+        @Override
+        public String describe(Signal signal) {
+            String details = String.format("Preço: %.2f, Inf: %.2f, Méd: %.2f, Sup: %.2f.",
+                    currentPrice, lowerBand, middleBand, upperBand);
+            if (signal == Signal.SELL) {
+                return details + " Preço acima da Banda Superior (Potencial Venda/Sobrecompra).";
+            } else if (signal == Signal.BUY) {
+                return details + " Preço abaixo da Banda Inferior (Potencial Compra/Sobrevenda).";
+            }
+            if (bandWidthPercentage < 5) { // Exemplo: < 5% é um squeeze (falso para NaN)
+                details += " Squeeze detectado (Bandas estreitas).";
+            }
+            return details + " Preço dentro das bandas.";
+        }
+    }
+
+    record SupportResistance(double support, double resistance, double currentPrice, int lookbackPeriod)
+            implements IndicatorValues {
+
+        @Override
+        public Map<String, Object> toMap() {
+            Map<String, Object> map = new HashMap<>();
+            map.put("support", scaled(support, 2));
+            map.put("resistance", scaled(resistance, 2));
+            map.put("currentPrice", scaled(currentPrice, 2));
+            map.put("lookbackPeriod", lookbackPeriod);
+            return map;
+        }
+
+        @Override
+        public String describe(Signal signal) {
+            if (signal == Signal.BUY) {
+                return String.format("Preço (%.2f) próximo ao Suporte (%.2f). Potencial Compra.", currentPrice, support);
+            } else if (signal == Signal.SELL) {
+                return String.format("Preço (%.2f) próximo à Resistência (%.2f). Potencial Venda.", currentPrice, resistance);
+            }
+            return String.format("Preço (%.2f) entre Suporte (%.2f) e Resistência (%.2f).", currentPrice, support, resistance);
+        }
+    }
+
+    /**
+     * Métricas do livro de ofertas ao vivo (não dependem das velas).
+     *
+     * @param imbalance Desequilíbrio dos {@code levels} melhores níveis, em [-1, 1].
+     * @param threshold Desequilíbrio (em módulo) a partir do qual há sinal.
+     */
+    record OrderBook(double bestBid, double bestAsk, double spread, double spreadBps, double midPrice,
+                     double microprice, double imbalance, int levels, double threshold) implements IndicatorValues {
+
+        @Override
+        public Map<String, Object> toMap() {
+            Map<String, Object> map = new HashMap<>();
+            map.put("bestBid", BigDecimal.valueOf(bestBid));
+            map.put("bestAsk", BigDecimal.valueOf(bestAsk));
+            map.put("spread", BigDecimal.valueOf(spread));
+            map.put("spreadBps", scaled(spreadBps, 2));
+            map.put("midPrice", BigDecimal.valueOf(midPrice));
+            map.put("microprice", BigDecimal.valueOf(microprice));
+            map.put("imbalance", scaled(imbalance, 4));
+            map.put("levels", levels);
+            return map;
+        }
+
+        @Override
+        public String describe(Signal signal) {
+            String details = String.format("Desequilíbrio %.2f nos %d melhores níveis, spread %.2f bps, microprice %s (médio %s).",
+                    imbalance, levels, spreadBps, BigDecimal.valueOf(microprice).toPlainString(),
+                    BigDecimal.valueOf(midPrice).toPlainString());
+            if (signal == Signal.BUY) {
+                return details + " Pressão compradora.";
+            } else if (signal == Signal.SELL) {
+                return details + " Pressão vendedora.";
+            }
+            return details + " Livro equilibrado.";
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.whs.trading.gemini.dto;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+
+/**
+ * Intervalos de vela aceitos pela Binance, com a duração em milissegundos.
+ * {@link #ONE_MONTH} tem duração variável: use {@link #nextOpenTime(long)} para avançar corretamente.
+ */
+public enum KlineInterval {
+    ONE_SECOND("1s", 1_000L),
+    ONE_MINUTE("1m", 60_000L),
+    THREE_MINUTES("3m", 3 * 60_000L),
+    FIVE_MINUTES("5m", 5 * 60_000L),
+    FIFTEEN_MINUTES("15m", 15 * 60_000L),
+    THIRTY_MINUTES("30m", 30 * 60_000L),
+    ONE_HOUR("1h", 3_600_000L),
+    TWO_HOURS("2h", 2 * 3_600_000L),
+    FOUR_HOURS("4h", 4 * 3_600_000L),
+    SIX_HOURS("6h", 6 * 3_600_000L),
+    EIGHT_HOURS("8h", 8 * 3_600_000L),
+    TWELVE_HOURS("12h", 12 * 3_600_000L),
+    ONE_DAY("1d", 86_400_000L),
+    THREE_DAYS("3d", 3 * 86_400_000L),
+    ONE_WEEK("1w", 7 * 86_400_000L),
+    ONE_MONTH("1M", 30 * 86_400_000L);
+
+    private final String code;
+    private final long millis;
+
+    KlineInterval(String code, long millis) {
+        this.code = code;
+        this.millis = millis;
+    }
+
+    public String getCode() { return code; }
+
+    /**
+     * Duração do intervalo (aproximada para {@link #ONE_MONTH}).
+     */
+    public long getMillis() { return millis; }
+
+    public static KlineInterval fromCode(String code) {
+        for (KlineInterval interval : values()) {
+            if (interval.code.equals(code)) {
+                return interval;
+            }
+        }
+        throw new IllegalArgumentException("Intervalo de vela desconhecido: " + code);
+    }
+
+    /**
+     * Horário de abertura da vela seguinte à vela aberta em {@code openTime}.
+     */
+    public long nextOpenTime(long openTime) {
+        if (this == ONE_MONTH) {
+            return ZonedDateTime.ofInstant(Instant.ofEpochMilli(openTime), ZoneOffset.UTC).plusMonths(1)
+                    .toInstant().toEpochMilli();
+        }
+        return openTime + millis;
+    }
+
+    /**
+     * Horário de abertura da vela que contém {@code timestamp} (alinhado em UTC, como a Binance).
+     * Semanas abrem na segunda-feira.
+     */
+    public long openTimeOf(long timestamp) {
+        if (this == ONE_MONTH) {
+            ZonedDateTime time = ZonedDateTime.ofInstant(Instant.ofEpochMilli(timestamp), ZoneOffset.UTC);
+            return time.withDayOfMonth(1).toLocalDate().atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+        }
+        if (this == ONE_WEEK) {
+            // 1970-01-01 foi uma quinta-feira: desloca 4 dias para alinhar na segunda
+            long shift = 4 * 86_400_000L;
+            return Math.floorDiv(timestamp - shift, millis) * millis + shift;
+        }
+        return Math.floorDiv(timestamp, millis) * millis;
+    }
+}
@@ -0,0 +1,40 @@
+package com.whs.trading.gemini.dto;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Varredura completa: símbolos com resultado, do maior para o menor placar, e símbolos que falharam por inteiro.
+ */
+public class ScanReport {
+    private String interval;
+    private int symbolCount;
+    private long elapsedMillis;
+    private List<ScanResult> ranked;
+    private List<ScanResult> failed;
+
+    @JsonCreator // Relatório parcial vindo de outra instância do cluster
+    public ScanReport(@JsonProperty("interval") String interval, @JsonProperty("symbolCount") int symbolCount,
+                      @JsonProperty("elapsedMillis") long elapsedMillis, @JsonProperty("ranked") List<ScanResult> ranked,
+                      @JsonProperty("failed") List<ScanResult> failed) {
+        this.interval = interval;
+        this.symbolCount = symbolCount;
+        this.elapsedMillis = elapsedMillis;
+        this.ranked = ranked;
+        this.failed = failed;
+    }
+
+    // Getters e Setters
+    public String getInterval() { return interval; }
+    public void setInterval(String interval) { this.interval = interval; }
+    public int getSymbolCount() { return symbolCount; }
+    public void setSymbolCount(int symbolCount) { this.symbolCount = symbolCount; }
+    public long getElapsedMillis() { return elapsedMillis; }
+    public void setElapsedMillis(long elapsedMillis) { this.elapsedMillis = elapsedMillis; }
+    public List<ScanResult> getRanked() { return ranked; }
+    public void setRanked(List<ScanResult> ranked) { this.ranked = ranked; }
+    public List<ScanResult> getFailed() { return failed; }
+    public void setFailed(List<ScanResult> failed) { this.failed = failed; }
+}
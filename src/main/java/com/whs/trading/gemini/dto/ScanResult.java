@@ -0,0 +1,64 @@
+package com.whs.trading.gemini.dto;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Resultado do scanner para um símbolo: os resultados de cada indicador, o placar de sinais
+ * (compras menos vendas) e as falhas ocorridas (por indicador, ou na busca dos dados).
+ */
+@JsonIgnoreProperties(value = "failed", allowGetters = true) // Derivado, só de saída
+public class ScanResult {
+    private String symbol;
+    private int score;
+    private int buySignals;
+    private int sellSignals;
+    private long lastOpenTime;
+    private List<IndicatorResult> results = new ArrayList<>();
+    private Map<String, String> errors = new LinkedHashMap<>(); // Nome do indicador (ou "marketData") -> mensagem
+
+    @JsonCreator
+    public ScanResult(@JsonProperty("symbol") String symbol) {
+        this.symbol = symbol;
+    }
+
+    // Getters e Setters
+    public String getSymbol() { return symbol; }
+    public void setSymbol(String symbol) { this.symbol = symbol; }
+    public int getScore() { return score; }
+    public void setScore(int score) { this.score = score; }
+    public int getBuySignals() { return buySignals; }
+    public void setBuySignals(int buySignals) { this.buySignals = buySignals; }
+    public int getSellSignals() { return sellSignals; }
+    public void setSellSignals(int sellSignals) { this.sellSignals = sellSignals; }
+    public long getLastOpenTime() { return lastOpenTime; }
+    public void setLastOpenTime(long lastOpenTime) { this.lastOpenTime = lastOpenTime; }
+    public List<IndicatorResult> getResults() { return results; }
+    public void setResults(List<IndicatorResult> results) { this.results = results; }
+    public Map<String, String> getErrors() { return errors; }
+    public void setErrors(Map<String, String> errors) { this.errors = errors; }
+
+    public void addResult(IndicatorResult result) {
+        this.results.add(result);
+        if (result.getSignal() == Signal.BUY) {
+            buySignals++;
+        } else if (result.getSignal() == Signal.SELL) {
+            sellSignals++;
+        }
+        this.score = buySignals - sellSignals;
+    }
+
+    public void addError(String source, String message) {
+        this.errors.put(source, message);
+    }
+
+    public boolean isFailed() {
+        return results.isEmpty() && !errors.isEmpty();
+    }
+}
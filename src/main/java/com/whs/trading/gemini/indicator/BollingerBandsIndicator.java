@@ -8,18 +8,23 @@ import java.util.stream.Collectors;
 
 import org.springframework.stereotype.Service;
 
+import com.whs.trading.gemini.dto.CandleSeries;
 import com.whs.trading.gemini.dto.CandlestickData;
 import com.whs.trading.gemini.dto.IndicatorResult;
+import com.whs.trading.gemini.dto.IndicatorValues;
 import com.whs.trading.gemini.dto.Signal;
+import com.whs.trading.gemini.indicator.streaming.IndicatorGraph;
+import com.whs.trading.gemini.indicator.streaming.StreamingIndicator;
+import com.whs.trading.gemini.indicator.streaming.StreamingBollingerBands;
 
 @Service
-public class BollingerBandsIndicator implements TechnicalIndicator {
+public class BollingerBandsIndicator implements CandleIndicator {
 
     private static final String NAME = "Bollinger Bands";
     private static final int DEFAULT_PERIOD = 20;
     private static final BigDecimal DEFAULT_STD_DEV_MULTIPLIER = new BigDecimal("2.0");
     private static final int SCALE = 2; // Para valores finais
-    private static final int CALC_SCALE = 8; // Para cálculos intermediários de desvio padrão
+    private static final int CALC_SCALE = 12; // Para cálculos intermediários de desvio padrão e largura de banda
 
     @Override
     public String getName() {
@@ -130,4 +135,73 @@ public class BollingerBandsIndicator implements TechnicalIndicator {
         result.setDetails(signalDetails);
         return result;
     }
-}
\ No newline at end of file
+
+    @Override
+    public StreamingBollingerBands newStream(Map<String, String> params) {
+        return new StreamingBollingerBands(period(params), stdDevMultiplier(params));
+    }
+
+    @Override
+    public StreamingBollingerBands newStream(IndicatorGraph graph, Map<String, String> params) {
+        return StreamingBollingerBands.on(graph, period(params), stdDevMultiplier(params));
+    }
+
+    private static int period(Map<String, String> params) {
+        return params.containsKey("bbPeriod") ? Integer.parseInt(params.get("bbPeriod")) : DEFAULT_PERIOD;
+    }
+
+    private static double stdDevMultiplier(Map<String, String> params) {
+        return params.containsKey("bbStdDevMult") ?
+               Double.parseDouble(params.get("bbStdDevMult")) : DEFAULT_STD_DEV_MULTIPLIER.doubleValue();
+    }
+
+    @Override
+    public IndicatorResult analyze(CandleSeries series, Map<String, String> params) {
+        StreamingBollingerBands bands = newStream(params);
+        int candleCount = series == null ? 0 : series.size();
+        if (candleCount >= bands.period()) {
+            bands.updateAll(series);
+        }
+        return analyze(bands, candleCount);
+    }
+
+    @Override
+    public IndicatorResult analyze(StreamingIndicator stream, int candleCount) {
+        StreamingBollingerBands bands = (StreamingBollingerBands) stream;
+        int period = bands.period();
+
+        if (candleCount < period) {
+            IndicatorResult result = new IndicatorResult(getName());
+            result.setSignal(Signal.NEUTRAL);
+            result.setDetails(String.format("Dados históricos insuficientes. Necessário: %d, Disponível: %d",
+                                            period, candleCount));
+            return result;
+        }
+        return toResult(bands);
+    }
+
+    @Override
+    public SeriesRecorder<?> newRecorder(StreamingIndicator stream, int size) {
+        return new SeriesRecorder<>(getName(), (StreamingBollingerBands) stream, size,
+                new String[] {"middleBand", "upperBand", "lowerBand", "percentB"},
+                (bands, lines, i) -> {
+                    lines[0][i] = bands.middleBand();
+                    lines[1][i] = bands.upperBand();
+                    lines[2][i] = bands.lowerBand();
+                    lines[3][i] = bands.percentB();
+                });
+    }
+
+    /**
+     * Monta o resultado a partir do estado incremental (já pronto).
+     */
+    public IndicatorResult toResult(StreamingBollingerBands bands) {
+        Signal signal = bands.signal();
+        // A largura só é informada com o preço dentro das bandas
+        double bandWidthPercentage = signal == Signal.NEUTRAL ? bands.bandWidthPercentage() : Double.NaN;
+        return new IndicatorResult(getName(), signal,
+                new IndicatorValues.BollingerBands(bands.middleBand(), bands.upperBand(), bands.lowerBand(),
+                        bands.currentPrice(), bands.period(), bands.stdDevMultiplier(), bands.percentB(),
+                        bandWidthPercentage, SCALE));
+    }
+}
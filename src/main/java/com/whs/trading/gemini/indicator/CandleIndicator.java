@@ -0,0 +1,43 @@
+package com.whs.trading.gemini.indicator;
+
+import java.util.Map;
+
+import com.whs.trading.gemini.dto.CandleSeries;
+import com.whs.trading.gemini.dto.IndicatorResult;
+import com.whs.trading.gemini.dto.IndicatorSeries;
+import com.whs.trading.gemini.indicator.streaming.IndicatorGraph;
+import com.whs.trading.gemini.indicator.streaming.StreamingIndicator;
+
+/**
+ * Indicador cujo resultado é função só das velas, com estado incremental por vela. Só estes entram no cache de
+ * resultados, no backtest, no {@link IndicatorPipeline} e no histórico da B3; indicadores sobre estado ao vivo
+ * (ex: {@link OrderBookIndicator}) implementam apenas {@link TechnicalIndicator}.
+ */
+public interface CandleIndicator extends TechnicalIndicator {
+
+    // Estado incremental equivalente: update() a cada vela fechada, O(1) e sem alocação.
+    // analyze(CandleSeries, ...) é implementado sobre este mesmo estado, então os valores coincidem.
+    StreamingIndicator newStream(Map<String, String> params);
+
+    // Mesmo estado, mas lendo os nós compartilhados do grafo (SMA, EMA, desvio, extremos...), que os avança.
+    // Por padrão o indicador não compartilha nada: devolve um estado próprio, alimentado na mesma passada.
+    default StreamingIndicator newStream(IndicatorGraph graph, Map<String, String> params) {
+        return newStream(params);
+    }
+
+    // Resultado de analyze(CandleSeries, ...) a partir de um estado (de newStream) já alimentado com
+    // 'candleCount' velas, inclusive a mensagem de dados insuficientes.
+    IndicatorResult analyze(StreamingIndicator stream, int candleCount);
+
+    // Modo série: todas as saídas do indicador, uma posição por vela, em uma única passada.
+    default IndicatorSeries analyzeSeries(CandleSeries series, Map<String, String> params) {
+        return newRecorder(newStream(params), series.size()).recordAll(series);
+    }
+
+    // Gravador do modo série sobre um estado de newStream. Por padrão grava apenas value();
+    // os indicadores com várias linhas sobrescrevem.
+    default SeriesRecorder<?> newRecorder(StreamingIndicator stream, int size) {
+        return new SeriesRecorder<>(getName(), stream, size, new String[] {"value"},
+                (s, lines, i) -> lines[0][i] = s.value());
+    }
+}
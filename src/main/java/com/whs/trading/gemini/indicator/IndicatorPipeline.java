@@ -0,0 +1,161 @@
+package com.whs.trading.gemini.indicator;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.whs.trading.gemini.dto.CandleSeries;
+import com.whs.trading.gemini.dto.IndicatorResult;
+import com.whs.trading.gemini.dto.IndicatorSeries;
+import com.whs.trading.gemini.indicator.streaming.IndicatorGraph;
+import com.whs.trading.gemini.indicator.streaming.StreamingIndicator;
+
+/**
+ * Roda vários indicadores sobre a mesma série em uma única passada, compartilhando as operações primitivas
+ * por meio de um {@link IndicatorGraph}: a SMA(20) do {@link SmaIndicator} e a banda média do
+ * {@link BollingerBandsIndicator} padrão são um único nó, assim como as EMAs de mesmo período de dois MACD,
+ * e cada vela é lida uma única vez para todos. Indicadores que não usam o grafo rodam com o próprio estado
+ * na mesma passada.
+ * <p>
+ * As saídas são idênticas às de {@code analyze(CandleSeries, ...)} e {@code analyzeSeries} de cada indicador,
+ * pois os nós são os mesmos estados incrementais. Imutável: cada execução monta o próprio grafo, então a mesma
+ * instância pode ser usada por várias threads.
+ */
+public final class IndicatorPipeline {
+
+    private final List<CandleIndicator> indicators;
+    private final List<Map<String, String>> params;
+
+    private IndicatorPipeline(List<CandleIndicator> indicators, List<Map<String, String>> params) {
+        this.indicators = List.copyOf(indicators);
+        this.params = List.copyOf(params);
+    }
+
+    /**
+     * Pipeline com os mesmos parâmetros para todos os indicadores (como no scanner e no backtest).
+     */
+    public static IndicatorPipeline of(Collection<? extends CandleIndicator> indicators, Map<String, String> params) {
+        Builder builder = builder();
+        for (CandleIndicator indicator : indicators) {
+            builder.add(indicator, params);
+        }
+        return builder.build();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public List<CandleIndicator> getIndicators() {
+        return indicators;
+    }
+
+    /**
+     * Número de nós primitivos distintos que cada execução cria (após a deduplicação).
+     */
+    public int nodeCount() {
+        IndicatorGraph graph = new IndicatorGraph();
+        bind(graph);
+        return graph.size();
+    }
+
+    /**
+     * Resultado de cada indicador na última vela, na ordem de inclusão.
+     */
+    public List<IndicatorResult> analyze(CandleSeries series) {
+        int size = series == null ? 0 : series.size();
+        IndicatorGraph graph = new IndicatorGraph();
+        StreamingIndicator[] streams = bind(graph);
+
+        for (int i = 0; i < size; i++) {
+            double high = series.high(i);
+            double low = series.low(i);
+            double close = series.close(i);
+            graph.update(high, low, close);
+            for (StreamingIndicator stream : streams) {
+                if (stream != null) {
+                    stream.update(high, low, close);
+                }
+            }
+        }
+
+        List<IndicatorResult> results = new ArrayList<>(streams.length);
+        for (int k = 0; k < streams.length; k++) {
+            CandleIndicator indicator = indicators.get(k);
+            results.add(streams[k] != null ? indicator.analyze(streams[k], size) : indicator.analyze(series, params.get(k)));
+        }
+        return results;
+    }
+
+    /**
+     * Modo série de cada indicador, na ordem de inclusão.
+     */
+    public List<IndicatorSeries> analyzeSeries(CandleSeries series) {
+        int size = series.size();
+        IndicatorGraph graph = new IndicatorGraph();
+        StreamingIndicator[] streams = bind(graph);
+        SeriesRecorder<?>[] recorders = new SeriesRecorder<?>[streams.length];
+        for (int k = 0; k < streams.length; k++) {
+            if (streams[k] != null) {
+                recorders[k] = indicators.get(k).newRecorder(streams[k], size);
+            }
+        }
+
+        for (int i = 0; i < size; i++) {
+            double high = series.high(i);
+            double low = series.low(i);
+            double close = series.close(i);
+            long openTime = series.openTime(i);
+            graph.update(high, low, close);
+            for (int k = 0; k < streams.length; k++) {
+                if (streams[k] != null) {
+                    streams[k].update(high, low, close);
+                    recorders[k].record(i, openTime);
+                }
+            }
+        }
+
+        List<IndicatorSeries> results = new ArrayList<>(streams.length);
+        for (int k = 0; k < streams.length; k++) {
+            results.add(recorders[k] != null ? recorders[k].finish() : indicators.get(k).analyzeSeries(series, params.get(k)));
+        }
+        return results;
+    }
+
+    /**
+     * Cria o estado de cada indicador sobre o grafo. Parâmetros inválidos deixam a posição nula: o indicador
+     * roda isolado depois da passada e produz o mesmo resultado (ou a mesma exceção) que produziria sozinho.
+     */
+    private StreamingIndicator[] bind(IndicatorGraph graph) {
+        StreamingIndicator[] streams = new StreamingIndicator[indicators.size()];
+        for (int k = 0; k < streams.length; k++) {
+            try {
+                streams[k] = indicators.get(k).newStream(graph, params.get(k));
+            } catch (IllegalArgumentException e) {
+                streams[k] = null;
+            }
+        }
+        return streams;
+    }
+
+    public static final class Builder {
+        private final List<CandleIndicator> indicators = new ArrayList<>();
+        private final List<Map<String, String>> params = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        public Builder add(CandleIndicator indicator, Map<String, String> params) {
+            this.indicators.add(indicator);
+            this.params.add(Collections.unmodifiableMap(new HashMap<>(params)));
+            return this;
+        }
+
+        public IndicatorPipeline build() {
+            return new IndicatorPipeline(indicators, params);
+        }
+    }
+}
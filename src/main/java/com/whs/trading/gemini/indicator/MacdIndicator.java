@@ -10,18 +10,23 @@ import java.util.stream.Collectors;
 
 import org.springframework.stereotype.Service;
 
+import com.whs.trading.gemini.dto.CandleSeries;
 import com.whs.trading.gemini.dto.CandlestickData;
 import com.whs.trading.gemini.dto.IndicatorResult;
+import com.whs.trading.gemini.dto.IndicatorValues;
 import com.whs.trading.gemini.dto.Signal;
+import com.whs.trading.gemini.indicator.streaming.IndicatorGraph;
+import com.whs.trading.gemini.indicator.streaming.StreamingIndicator;
+import com.whs.trading.gemini.indicator.streaming.StreamingMacd;
 
 @Service
-public class MacdIndicator implements TechnicalIndicator {
+public class MacdIndicator implements CandleIndicator {
 
     private static final String NAME = "MACD";
     private static final int DEFAULT_SHORT_PERIOD = 12;
     private static final int DEFAULT_LONG_PERIOD = 26;
     private static final int DEFAULT_SIGNAL_PERIOD = 9;
-    private static final int SCALE = 4; // Maior precisão para cálculos intermediários
+    private static final int SCALE = 10; // Maior precisão para cálculos intermediários (as EMAs acumulam o arredondamento)
 
     @Override
     public String getName() {
@@ -161,4 +166,79 @@ public class MacdIndicator implements TechnicalIndicator {
         result.setDetails(signalDetails);
         return result;
     }
-}
\ No newline at end of file
+
+    @Override
+    public StreamingMacd newStream(Map<String, String> params) {
+        return new StreamingMacd(shortPeriod(params), longPeriod(params), signalPeriod(params));
+    }
+
+    @Override
+    public StreamingMacd newStream(IndicatorGraph graph, Map<String, String> params) {
+        return StreamingMacd.on(graph, shortPeriod(params), longPeriod(params), signalPeriod(params));
+    }
+
+    private static int shortPeriod(Map<String, String> params) {
+        return params.containsKey("macdShortPeriod") ? Integer.parseInt(params.get("macdShortPeriod")) : DEFAULT_SHORT_PERIOD;
+    }
+
+    private static int longPeriod(Map<String, String> params) {
+        return params.containsKey("macdLongPeriod") ? Integer.parseInt(params.get("macdLongPeriod")) : DEFAULT_LONG_PERIOD;
+    }
+
+    private static int signalPeriod(Map<String, String> params) {
+        return params.containsKey("macdSignalPeriod") ? Integer.parseInt(params.get("macdSignalPeriod")) : DEFAULT_SIGNAL_PERIOD;
+    }
+
+    @Override
+    public IndicatorResult analyze(CandleSeries series, Map<String, String> params) {
+        StreamingMacd macd;
+        try {
+            macd = newStream(params);
+        } catch (IllegalArgumentException e) {
+            IndicatorResult result = new IndicatorResult(getName());
+            result.setSignal(Signal.NEUTRAL);
+            result.setDetails("Erro ao alinhar EMAs para cálculo do MACD.");
+            return result;
+        }
+        int candleCount = series == null ? 0 : series.size();
+        if (candleCount >= macd.warmupPeriod()) {
+            macd.updateAll(series);
+        }
+        return analyze(macd, candleCount);
+    }
+
+    @Override
+    public IndicatorResult analyze(StreamingIndicator stream, int candleCount) {
+        StreamingMacd macd = (StreamingMacd) stream;
+        int required = macd.warmupPeriod();
+
+        if (candleCount < required) {
+            IndicatorResult result = new IndicatorResult(getName());
+            result.setSignal(Signal.NEUTRAL);
+            result.setDetails(String.format("Dados históricos insuficientes. Necessário: %d, Disponível: %d",
+                                            required, candleCount));
+            return result;
+        }
+        return toResult(macd);
+    }
+
+    @Override
+    public SeriesRecorder<?> newRecorder(StreamingIndicator stream, int size) {
+        return new SeriesRecorder<>(getName(), (StreamingMacd) stream, size,
+                new String[] {"macdLine", "signalLine", "histogram"},
+                (macd, lines, i) -> {
+                    lines[0][i] = macd.macdLine();
+                    lines[1][i] = macd.signalLine();
+                    lines[2][i] = macd.histogram();
+                });
+    }
+
+    /**
+     * Monta o resultado a partir do estado incremental (já pronto).
+     */
+    public IndicatorResult toResult(StreamingMacd macd) {
+        return new IndicatorResult(getName(), macd.signal(),
+                new IndicatorValues.Macd(macd.macdLine(), macd.signalLine(), macd.histogram(), macd.shortPeriod(),
+                        macd.longPeriod(), macd.signalPeriod(), macd.crossedUp(), macd.crossedDown()));
+    }
+}
@@ -0,0 +1,89 @@
+package com.whs.trading.gemini.indicator;
+
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.whs.trading.gemini.depth.BinanceDepthStreamService;
+import com.whs.trading.gemini.depth.OrderBook;
+import com.whs.trading.gemini.depth.OrderBookStats;
+import com.whs.trading.gemini.dto.CandleSeries;
+import com.whs.trading.gemini.dto.CandlestickData;
+import com.whs.trading.gemini.dto.IndicatorResult;
+import com.whs.trading.gemini.dto.IndicatorValues;
+import com.whs.trading.gemini.dto.Signal;
+
+/**
+ * Desequilíbrio, spread e microprice do livro de ofertas ao vivo do símbolo ({@code params.symbol}), mantido
+ * pelo {@link BinanceDepthStreamService}. As velas não entram no cálculo: o resultado é o estado do livro no
+ * momento da chamada, então não é um {@link CandleIndicator}: fica fora do cache, do backtest e do modo série.
+ * <p>
+ * Sinal: compra com o desequilíbrio dos {@code bookLevels} melhores níveis acima de {@code imbalanceThreshold},
+ * venda abaixo de {@code -imbalanceThreshold}.
+ */
+@Service
+public class OrderBookIndicator implements TechnicalIndicator {
+
+    private static final String NAME = "ORDER_BOOK";
+    private static final int DEFAULT_LEVELS = 10;
+    private static final double DEFAULT_THRESHOLD = 0.3;
+
+    private final BinanceDepthStreamService depthService;
+
+    @Autowired
+    public OrderBookIndicator(BinanceDepthStreamService depthService) {
+        this.depthService = depthService;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public IndicatorResult analyze(List<CandlestickData> historicalData, Map<String, String> params) {
+        return analyze(params);
+    }
+
+    @Override
+    public IndicatorResult analyze(CandleSeries series, Map<String, String> params) {
+        return analyze(params);
+    }
+
+    private IndicatorResult analyze(Map<String, String> params) {
+        int levels = params.containsKey("bookLevels") ? Integer.parseInt(params.get("bookLevels")) : DEFAULT_LEVELS;
+        double threshold = params.containsKey("imbalanceThreshold")
+                ? Double.parseDouble(params.get("imbalanceThreshold")) : DEFAULT_THRESHOLD;
+        if (levels <= 0) {
+            throw new IllegalArgumentException("bookLevels deve ser positivo: " + levels);
+        }
+        String symbol = params.get("symbol");
+        OrderBook book = symbol == null ? null : depthService.getBook(symbol);
+        if (book == null) {
+            return neutral("Livro de ofertas não acompanhado para " + symbol + " (binance.depth.symbols)");
+        }
+        OrderBookStats stats = book.stats(levels);
+        if (!stats.synced() || Double.isNaN(stats.spread()) || Double.isNaN(stats.imbalance())) {
+            return neutral("Livro de ofertas de " + book.getSymbol() + " ainda não sincronizado");
+        }
+
+        Signal signal = Signal.NEUTRAL;
+        if (stats.imbalance() > threshold) {
+            signal = Signal.BUY;
+        } else if (stats.imbalance() < -threshold) {
+            signal = Signal.SELL;
+        }
+        return new IndicatorResult(getName(), signal, new IndicatorValues.OrderBook(stats.bestBid(), stats.bestAsk(),
+                stats.spread(), stats.spreadBps(), stats.midPrice(), stats.microprice(), stats.imbalance(), levels,
+                threshold));
+    }
+
+    private IndicatorResult neutral(String details) {
+        IndicatorResult result = new IndicatorResult(getName());
+        result.setSignal(Signal.NEUTRAL);
+        result.setDetails(details);
+        return result;
+    }
+}
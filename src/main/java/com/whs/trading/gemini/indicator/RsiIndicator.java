@@ -8,16 +8,21 @@ import java.util.Map;
 
 import org.springframework.stereotype.Service; // Importa a anotação Service
 
+import com.whs.trading.gemini.dto.CandleSeries;
 import com.whs.trading.gemini.dto.CandlestickData;
 import com.whs.trading.gemini.dto.IndicatorResult;
+import com.whs.trading.gemini.dto.IndicatorValues;
 import com.whs.trading.gemini.dto.Signal;
+import com.whs.trading.gemini.indicator.streaming.IndicatorGraph;
+import com.whs.trading.gemini.indicator.streaming.StreamingIndicator;
+import com.whs.trading.gemini.indicator.streaming.StreamingRsi;
 
 @Service // Para que o Spring gerencie este bean
-public class RsiIndicator implements TechnicalIndicator {
+public class RsiIndicator implements CandleIndicator {
 
     private static final String NAME = "RSI";
     private static final int DEFAULT_PERIOD = 14;
-    private static final int SCALE = 4; // Escala para precisão do BigDecimal
+    private static final int SCALE = 10; // Escala dos cálculos intermediários (a suavização de Wilder acumula o arredondamento)
 
     @Override
     public String getName() {
@@ -93,4 +98,58 @@ public class RsiIndicator implements TechnicalIndicator {
         }
         return result;
     }
-}
\ No newline at end of file
+
+    @Override
+    public StreamingRsi newStream(Map<String, String> params) {
+        return new StreamingRsi(period(params));
+    }
+
+    @Override
+    public StreamingRsi newStream(IndicatorGraph graph, Map<String, String> params) {
+        return StreamingRsi.on(graph, period(params));
+    }
+
+    private static int period(Map<String, String> params) {
+        return params.containsKey("rsiPeriod") ? Integer.parseInt(params.get("rsiPeriod")) : DEFAULT_PERIOD;
+    }
+
+    @Override
+    public IndicatorResult analyze(CandleSeries series, Map<String, String> params) {
+        StreamingRsi rsi = newStream(params);
+        int candleCount = series == null ? 0 : series.size();
+        if (candleCount >= rsi.warmupPeriod()) {
+            rsi.updateAll(series);
+        }
+        return analyze(rsi, candleCount);
+    }
+
+    @Override
+    public IndicatorResult analyze(StreamingIndicator stream, int candleCount) {
+        StreamingRsi rsi = (StreamingRsi) stream;
+        int period = rsi.period();
+
+        if (candleCount < period + 1) {
+            IndicatorResult result = new IndicatorResult(getName());
+            result.setSignal(Signal.NEUTRAL);
+            result.setDetails("Dados históricos insuficientes para calcular o RSI com período " + period);
+            return result;
+        }
+        return toResult(rsi);
+    }
+
+    @Override
+    public SeriesRecorder<?> newRecorder(StreamingIndicator stream, int size) {
+        return new SeriesRecorder<>(getName(), (StreamingRsi) stream, size, new String[] {"rsiValue"},
+                (rsi, lines, i) -> lines[0][i] = rsi.value());
+    }
+
+    /**
+     * Monta o resultado a partir do estado incremental (já pronto).
+     */
+    public IndicatorResult toResult(StreamingRsi rsi) {
+        if (rsi.averageLoss() == 0) {
+            return new IndicatorResult(getName(), Signal.SELL, new IndicatorValues.Rsi(100, rsi.period(), true));
+        }
+        return new IndicatorResult(getName(), rsi.signal(), new IndicatorValues.Rsi(rsi.value(), rsi.period(), false));
+    }
+}
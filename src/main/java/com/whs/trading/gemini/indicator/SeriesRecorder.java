@@ -0,0 +1,83 @@
+package com.whs.trading.gemini.indicator;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.whs.trading.gemini.dto.CandleSeries;
+import com.whs.trading.gemini.dto.IndicatorSeries;
+import com.whs.trading.gemini.indicator.streaming.StreamingIndicator;
+
+/**
+ * Gera o modo série de um indicador em uma única passada linear: alimenta o estado incremental vela a vela
+ * e grava as linhas pedidas em arrays primitivos. O último ponto é idêntico a {@code analyze(CandleSeries, ...)}.
+ * <p>
+ * Quem conduz a passada pode ser o próprio gravador ({@link #recordAll}) ou um chamador que alimenta o estado
+ * por fora e chama {@link #record} a cada vela (ex: {@link IndicatorPipeline}).
+ */
+public final class SeriesRecorder<S extends StreamingIndicator> {
+
+    /**
+     * Copia os valores do estado atual para a posição {@code index} de cada linha.
+     */
+    @FunctionalInterface
+    public interface LineWriter<S extends StreamingIndicator> {
+        void write(S stream, double[][] lines, int index);
+    }
+
+    private final String indicatorName;
+    private final S stream;
+    private final String[] lineNames;
+    private final LineWriter<S> writer;
+    private final long[] openTimes;
+    private final double[][] lines;
+    private final byte[] signals;
+    private int warmupOffset;
+
+    public SeriesRecorder(String indicatorName, S stream, int size, String[] lineNames, LineWriter<S> writer) {
+        this.indicatorName = indicatorName;
+        this.stream = stream;
+        this.lineNames = lineNames;
+        this.writer = writer;
+        this.openTimes = new long[size];
+        this.lines = new double[lineNames.length][size];
+        this.signals = new byte[size];
+        this.warmupOffset = size;
+    }
+
+    /**
+     * Alimenta o estado com todas as velas da série (do mesmo tamanho do gravador) e gera o resultado.
+     */
+    public IndicatorSeries recordAll(CandleSeries series) {
+        for (int i = 0; i < series.size(); i++) {
+            stream.update(series, i);
+            record(i, series.openTime(i));
+        }
+        return finish();
+    }
+
+    /**
+     * Grava a posição {@code index} a partir do estado, que já deve ter recebido a vela correspondente.
+     */
+    public void record(int index, long openTime) {
+        openTimes[index] = openTime;
+        if (stream.isReady()) {
+            if (warmupOffset == openTimes.length) {
+                warmupOffset = index;
+            }
+            writer.write(stream, lines, index);
+        } else {
+            for (double[] line : lines) {
+                line[index] = Double.NaN;
+            }
+        }
+        signals[index] = (byte) stream.signal().ordinal();
+    }
+
+    public IndicatorSeries finish() {
+        Map<String, double[]> named = new LinkedHashMap<>();
+        for (int l = 0; l < lineNames.length; l++) {
+            named.put(lineNames[l], lines[l]);
+        }
+        return new IndicatorSeries(indicatorName, openTimes, warmupOffset, named, signals);
+    }
+}
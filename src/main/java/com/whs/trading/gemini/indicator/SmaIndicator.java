@@ -7,12 +7,17 @@ import java.util.Map;
 
 import org.springframework.stereotype.Service;
 
+import com.whs.trading.gemini.dto.CandleSeries;
 import com.whs.trading.gemini.dto.CandlestickData;
 import com.whs.trading.gemini.dto.IndicatorResult;
+import com.whs.trading.gemini.dto.IndicatorValues;
 import com.whs.trading.gemini.dto.Signal;
+import com.whs.trading.gemini.indicator.streaming.IndicatorGraph;
+import com.whs.trading.gemini.indicator.streaming.StreamingIndicator;
+import com.whs.trading.gemini.indicator.streaming.StreamingSma;
 
 @Service
-public class SmaIndicator implements TechnicalIndicator {
+public class SmaIndicator implements CandleIndicator {
 
     private static final String NAME = "SMA";
     private static final int DEFAULT_PERIOD = 20; // Período comum para SMA
@@ -47,12 +52,13 @@ public class SmaIndicator implements TechnicalIndicator {
         result.addValue("currentPrice", currentPrice);
         result.addValue("period", period);
 
-        // Sinal simples: preço atual vs SMA
+        // Sinal simples: preço atual vs SMA exata (soma vs preço * período, sem o arredondamento do valor reportado)
         // (Estratégias mais complexas envolvem cruzamentos de SMAs de diferentes períodos)
-        if (currentPrice.compareTo(smaValue) > 0) {
+        int comparison = currentPrice.multiply(BigDecimal.valueOf(period)).compareTo(sumOfCloses);
+        if (comparison > 0) {
             result.setSignal(Signal.BUY); // Ou HOLD se já comprado
             result.setDetails(String.format("Preço (%.2f) acima da SMA(%d) (%.2f). Tendência de alta.", currentPrice, period, smaValue));
-        } else if (currentPrice.compareTo(smaValue) < 0) {
+        } else if (comparison < 0) {
             result.setSignal(Signal.SELL); // Ou HOLD se já vendido
             result.setDetails(String.format("Preço (%.2f) abaixo da SMA(%d) (%.2f). Tendência de baixa.", currentPrice, period, smaValue));
         } else {
@@ -61,4 +67,56 @@ public class SmaIndicator implements TechnicalIndicator {
         }
         return result;
     }
-}
\ No newline at end of file
+
+    @Override
+    public StreamingSma newStream(Map<String, String> params) {
+        return new StreamingSma(period(params));
+    }
+
+    @Override
+    public StreamingSma newStream(IndicatorGraph graph, Map<String, String> params) {
+        return StreamingSma.on(graph, period(params));
+    }
+
+    private static int period(Map<String, String> params) {
+        return params.containsKey("smaPeriod") ? Integer.parseInt(params.get("smaPeriod")) : DEFAULT_PERIOD;
+    }
+
+    @Override
+    public IndicatorResult analyze(CandleSeries series, Map<String, String> params) {
+        StreamingSma sma = newStream(params);
+        int candleCount = series == null ? 0 : series.size();
+        if (candleCount >= sma.period()) {
+            sma.updateAll(series);
+        }
+        return analyze(sma, candleCount);
+    }
+
+    @Override
+    public IndicatorResult analyze(StreamingIndicator stream, int candleCount) {
+        StreamingSma sma = (StreamingSma) stream;
+        int period = sma.period();
+
+        if (candleCount < period) {
+            IndicatorResult result = new IndicatorResult(getName());
+            result.setSignal(Signal.NEUTRAL);
+            result.setDetails("Dados históricos insuficientes para calcular SMA com período " + period);
+            return result;
+        }
+        return toResult(sma);
+    }
+
+    @Override
+    public SeriesRecorder<?> newRecorder(StreamingIndicator stream, int size) {
+        return new SeriesRecorder<>(getName(), (StreamingSma) stream, size, new String[] {"smaValue"},
+                (sma, lines, i) -> lines[0][i] = sma.value());
+    }
+
+    /**
+     * Monta o resultado a partir do estado incremental (já pronto).
+     */
+    public IndicatorResult toResult(StreamingSma sma) {
+        return new IndicatorResult(getName(), sma.signal(),
+                new IndicatorValues.Sma(sma.value(), sma.currentPrice(), sma.period(), SCALE));
+    }
+}
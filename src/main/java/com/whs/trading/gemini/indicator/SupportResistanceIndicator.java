@@ -2,19 +2,22 @@ package com.whs.trading.gemini.indicator;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
-import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 import org.springframework.stereotype.Service;
 
+import com.whs.trading.gemini.dto.CandleSeries;
 import com.whs.trading.gemini.dto.CandlestickData;
 import com.whs.trading.gemini.dto.IndicatorResult;
+import com.whs.trading.gemini.dto.IndicatorValues;
 import com.whs.trading.gemini.dto.Signal;
+import com.whs.trading.gemini.indicator.streaming.IndicatorGraph;
+import com.whs.trading.gemini.indicator.streaming.StreamingIndicator;
+import com.whs.trading.gemini.indicator.streaming.StreamingSupportResistance;
 
 @Service
-public class SupportResistanceIndicator implements TechnicalIndicator {
+public class SupportResistanceIndicator implements CandleIndicator {
 
     private static final String NAME = "Support/Resistance";
     private static final int DEFAULT_LOOKBACK_PERIOD = 20; // Nº de velas para identificar S/R
@@ -37,10 +40,18 @@ public class SupportResistanceIndicator implements TechnicalIndicator {
             return result;
         }
 
-        List<CandlestickData> relevantData = historicalData.subList(historicalData.size() - lookbackPeriod, historicalData.size());
-
-        BigDecimal supportLevel = Collections.min(relevantData.stream().map(CandlestickData::getLow).collect(Collectors.toList()));
-        BigDecimal resistanceLevel = Collections.max(relevantData.stream().map(CandlestickData::getHigh).collect(Collectors.toList()));
+        // Extremos do lookback em uma passada, sem listas intermediárias
+        BigDecimal supportLevel = null;
+        BigDecimal resistanceLevel = null;
+        for (int i = historicalData.size() - lookbackPeriod; i < historicalData.size(); i++) {
+            CandlestickData candle = historicalData.get(i);
+            if (supportLevel == null || candle.getLow().compareTo(supportLevel) < 0) {
+                supportLevel = candle.getLow();
+            }
+            if (resistanceLevel == null || candle.getHigh().compareTo(resistanceLevel) > 0) {
+                resistanceLevel = candle.getHigh();
+            }
+        }
         BigDecimal currentPrice = historicalData.get(historicalData.size() - 1).getClose();
 
         result.addValue("support", supportLevel.setScale(2, RoundingMode.HALF_UP));
@@ -68,4 +79,61 @@ public class SupportResistanceIndicator implements TechnicalIndicator {
         }
         return result;
     }
-}
\ No newline at end of file
+
+    @Override
+    public StreamingSupportResistance newStream(Map<String, String> params) {
+        return new StreamingSupportResistance(lookbackPeriod(params), PROXIMITY_PERCENTAGE.doubleValue());
+    }
+
+    @Override
+    public StreamingSupportResistance newStream(IndicatorGraph graph, Map<String, String> params) {
+        return StreamingSupportResistance.on(graph, lookbackPeriod(params), PROXIMITY_PERCENTAGE.doubleValue());
+    }
+
+    private static int lookbackPeriod(Map<String, String> params) {
+        return params.containsKey("srLookbackPeriod") ? Integer.parseInt(params.get("srLookbackPeriod")) : DEFAULT_LOOKBACK_PERIOD;
+    }
+
+    @Override
+    public IndicatorResult analyze(CandleSeries series, Map<String, String> params) {
+        StreamingSupportResistance sr = newStream(params);
+        int candleCount = series == null ? 0 : series.size();
+        if (candleCount >= sr.lookbackPeriod()) {
+            // Só as últimas 'lookbackPeriod' velas influenciam o resultado
+            sr.updateAll(series.tail(sr.lookbackPeriod()));
+        }
+        return analyze(sr, candleCount);
+    }
+
+    @Override
+    public IndicatorResult analyze(StreamingIndicator stream, int candleCount) {
+        StreamingSupportResistance sr = (StreamingSupportResistance) stream;
+        int lookbackPeriod = sr.lookbackPeriod();
+
+        if (candleCount < lookbackPeriod) {
+            IndicatorResult result = new IndicatorResult(getName());
+            result.setSignal(Signal.NEUTRAL);
+            result.setDetails("Dados históricos insuficientes para S/R com lookback " + lookbackPeriod);
+            return result;
+        }
+        return toResult(sr);
+    }
+
+    @Override
+    public SeriesRecorder<?> newRecorder(StreamingIndicator stream, int size) {
+        return new SeriesRecorder<>(getName(), (StreamingSupportResistance) stream, size,
+                new String[] {"support", "resistance"},
+                (sr, lines, i) -> {
+                    lines[0][i] = sr.support();
+                    lines[1][i] = sr.resistance();
+                });
+    }
+
+    /**
+     * Monta o resultado a partir do estado incremental (já pronto).
+     */
+    public IndicatorResult toResult(StreamingSupportResistance sr) {
+        return new IndicatorResult(getName(), sr.signal(),
+                new IndicatorValues.SupportResistance(sr.support(), sr.resistance(), sr.currentPrice(), sr.lookbackPeriod()));
+    }
+}
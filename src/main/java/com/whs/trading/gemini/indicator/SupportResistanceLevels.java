@@ -0,0 +1,229 @@
+package com.whs.trading.gemini.indicator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import com.whs.trading.gemini.dto.CandleSeries;
+import com.whs.trading.gemini.indicator.streaming.RollingExtremum;
+
+/**
+ * Níveis de suporte e resistência de uma série inteira, em uma passada linear.
+ * <p>
+ * Um pivô de baixa (alta) é a vela cuja mínima (máxima) é o extremo da janela de {@code swingWindow} velas de
+ * cada lado, obtido por deques monotônicos ({@link RollingExtremum}); as {@code swingWindow} últimas velas ainda
+ * não confirmam pivô. Os preços dos pivôs são ordenados e agrupados em uma varredura: um nível começa no menor
+ * preço ainda livre e absorve os preços até {@code tolerance} acima dele. O preço do nível é a média dos pivôs
+ * ponderada pelo volume e a força é o volume somado, com o nº de toques e o último toque.
+ * <p>
+ * Custo O(n + p log p) para n velas e p pivôs (p é uma fração pequena de n), sem objetos por vela: históricos
+ * de vários anos em 1m cabem em uma chamada.
+ */
+public final class SupportResistanceLevels {
+
+    public static final int DEFAULT_SWING_WINDOW = 5;
+    public static final double DEFAULT_TOLERANCE = 0.005; // 0,5%
+
+    private SupportResistanceLevels() {
+    }
+
+    /**
+     * @param price         Média dos pivôs ponderada pelo volume (média simples se o volume for zero).
+     * @param lowest        Menor preço de pivô do nível.
+     * @param highest       Maior preço de pivô do nível.
+     * @param touches       Nº de pivôs no nível.
+     * @param volume        Volume somado das velas dos pivôs (força do nível).
+     * @param lastTouchTime Abertura da vela do pivô mais recente.
+     */
+    public record Level(double price, double lowest, double highest, int touches, double volume, long lastTouchTime) {
+    }
+
+    /**
+     * Níveis em ordem crescente de preço.
+     */
+    public record Levels(int candleCount, double lastClose, List<Level> supports, List<Level> resistances) {
+
+        /**
+         * Suporte mais próximo no preço ou abaixo dele, ou null.
+         */
+        public Level nearestSupport(double price) {
+            Level nearest = null;
+            for (Level level : supports) {
+                if (level.price() <= price) {
+                    nearest = level;
+                }
+            }
+            return nearest;
+        }
+
+        /**
+         * Resistência mais próxima no preço ou acima dele, ou null.
+         */
+        public Level nearestResistance(double price) {
+            for (Level level : resistances) {
+                if (level.price() >= price) {
+                    return level;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Só os {@code maxLevels} níveis de maior volume de cada lado, ainda em ordem de preço.
+         */
+        public Levels strongest(int maxLevels) {
+            return new Levels(candleCount, lastClose, strongest(supports, maxLevels), strongest(resistances, maxLevels));
+        }
+
+        private static List<Level> strongest(List<Level> levels, int maxLevels) {
+            if (levels.size() <= maxLevels) {
+                return levels;
+            }
+            List<Level> kept = new ArrayList<>(levels);
+            kept.sort(Comparator.comparingDouble(Level::volume).reversed());
+            kept = new ArrayList<>(kept.subList(0, Math.max(0, maxLevels)));
+            kept.sort(Comparator.comparingDouble(Level::price));
+            return List.copyOf(kept);
+        }
+    }
+
+    public static Levels find(CandleSeries series) {
+        return find(series, DEFAULT_SWING_WINDOW, DEFAULT_TOLERANCE);
+    }
+
+    public static Levels find(CandleSeries series, int swingWindow, double tolerance) {
+        if (swingWindow <= 0) {
+            throw new IllegalArgumentException("swingWindow deve ser positivo: " + swingWindow);
+        }
+        if (!(tolerance >= 0)) {
+            throw new IllegalArgumentException("tolerance não pode ser negativa: " + tolerance);
+        }
+        int size = series == null ? 0 : series.size();
+        if (size == 0) {
+            return new Levels(0, Double.NaN, List.of(), List.of());
+        }
+        int window = 2 * swingWindow + 1;
+        RollingExtremum lowest = RollingExtremum.min(window);
+        RollingExtremum highest = RollingExtremum.max(window);
+        Pivots lows = new Pivots(Math.max(16, size / window));
+        Pivots highs = new Pivots(Math.max(16, size / window));
+
+        for (int i = 0; i < size; i++) {
+            lowest.update(series.low(i));
+            highest.update(series.high(i));
+            if (!lowest.isFull()) {
+                continue;
+            }
+            // Centro da janela [i - 2w, i]; num patamar, só a primeira vela conta como pivô
+            int center = i - swingWindow;
+            double low = series.low(center);
+            if (low == lowest.value() && (center == 0 || series.low(center - 1) != low)) {
+                lows.add(low, series.volume(center), series.openTime(center));
+            }
+            double high = series.high(center);
+            if (high == highest.value() && (center == 0 || series.high(center - 1) != high)) {
+                highs.add(high, series.volume(center), series.openTime(center));
+            }
+        }
+        return new Levels(size, series.close(size - 1), cluster(lows, tolerance), cluster(highs, tolerance));
+    }
+
+    /**
+     * Agrupa preços próximos: ordena e varre uma vez; devolve o menor preço de cada grupo, em ordem crescente.
+     */
+    public static double[] clusterPrices(double[] prices, double tolerance) {
+        double[] sorted = prices.clone();
+        Arrays.sort(sorted);
+        return clusterStarts(sorted, sorted.length, tolerance);
+    }
+
+    private static List<Level> cluster(Pivots pivots, double tolerance) {
+        int count = pivots.size;
+        if (count == 0) {
+            return List.of();
+        }
+        double[] sorted = Arrays.copyOf(pivots.prices, count);
+        Arrays.sort(sorted);
+        double[] starts = clusterStarts(sorted, count, tolerance);
+        int levels = starts.length;
+
+        // Segunda passada na ordem original: cada pivô vai para o grupo pelo início (busca binária)
+        int[] touches = new int[levels];
+        double[] volumes = new double[levels];
+        double[] weightedSums = new double[levels];
+        double[] sums = new double[levels];
+        double[] mins = new double[levels];
+        double[] maxs = new double[levels];
+        long[] lastTouches = new long[levels];
+        Arrays.fill(mins, Double.POSITIVE_INFINITY);
+        Arrays.fill(maxs, Double.NEGATIVE_INFINITY);
+        Arrays.fill(lastTouches, Long.MIN_VALUE);
+        for (int k = 0; k < count; k++) {
+            double price = pivots.prices[k];
+            int level = floorIndex(starts, price);
+            touches[level]++;
+            volumes[level] += pivots.volumes[k];
+            weightedSums[level] += price * pivots.volumes[k];
+            sums[level] += price;
+            mins[level] = Math.min(mins[level], price);
+            maxs[level] = Math.max(maxs[level], price);
+            lastTouches[level] = Math.max(lastTouches[level], pivots.openTimes[k]);
+        }
+
+        List<Level> result = new ArrayList<>(levels);
+        for (int l = 0; l < levels; l++) {
+            double price = volumes[l] > 0 ? weightedSums[l] / volumes[l] : sums[l] / touches[l];
+            result.add(new Level(price, mins[l], maxs[l], touches[l], volumes[l], lastTouches[l]));
+        }
+        return List.copyOf(result);
+    }
+
+    private static double[] clusterStarts(double[] sorted, int count, double tolerance) {
+        double[] starts = new double[count];
+        int levels = 0;
+        for (int k = 0; k < count; k++) {
+            if (levels == 0 || sorted[k] > starts[levels - 1] * (1 + tolerance)) {
+                starts[levels++] = sorted[k];
+            }
+        }
+        return Arrays.copyOf(starts, levels);
+    }
+
+    /**
+     * Índice do maior início menor ou igual ao preço.
+     */
+    private static int floorIndex(double[] starts, double price) {
+        int index = Arrays.binarySearch(starts, price);
+        return index >= 0 ? index : -index - 2;
+    }
+
+    /**
+     * Pivôs em arrays primitivos que crescem sob demanda.
+     */
+    private static final class Pivots {
+        private double[] prices;
+        private double[] volumes;
+        private long[] openTimes;
+        private int size;
+
+        Pivots(int capacity) {
+            prices = new double[capacity];
+            volumes = new double[capacity];
+            openTimes = new long[capacity];
+        }
+
+        void add(double price, double volume, long openTime) {
+            if (size == prices.length) {
+                int capacity = size + (size >> 1);
+                prices = Arrays.copyOf(prices, capacity);
+                volumes = Arrays.copyOf(volumes, capacity);
+                openTimes = Arrays.copyOf(openTimes, capacity);
+            }
+            prices[size] = price;
+            volumes[size] = volume;
+            openTimes[size] = openTime;
+            size++;
+        }
+    }
+}
@@ -3,12 +3,19 @@ package com.whs.trading.gemini.indicator;
 import java.util.List;
 import java.util.Map;
 
+import com.whs.trading.gemini.dto.CandleSeries;
 import com.whs.trading.gemini.dto.CandlestickData;
 import com.whs.trading.gemini.dto.IndicatorResult;
 
+// Indicadores calculados só das velas, com estado por vela (backtest, cache, modo série), implementam
+// CandleIndicator; os que leem estado ao vivo (ex: livro de ofertas) implementam só esta interface.
 public interface TechnicalIndicator {
     String getName(); // Nome do indicador (ex: "RSI", "SMA")
     IndicatorResult analyze(List<CandlestickData> historicalData, Map<String, String> params);
     // 'params' pode conter configurações como período do RSI, períodos das MAs, etc.
     // A lista historicalData deve estar ordenada do mais antigo para o mais recente.
-}
\ No newline at end of file
+
+    // Versão colunar (double) do cálculo: mesmos parâmetros, chaves de 'values' e lógica de sinal,
+    // sem BigDecimal por vela. A série deve estar ordenada do mais antigo para o mais recente.
+    IndicatorResult analyze(CandleSeries series, Map<String, String> params);
+}
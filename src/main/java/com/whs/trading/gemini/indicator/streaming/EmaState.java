@@ -0,0 +1,74 @@
+package com.whs.trading.gemini.indicator.streaming;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Média móvel exponencial incremental. Os primeiros {@code period} valores formam a semente (SMA);
+ * a partir daí EMA = (x - EMA_prev) * 2/(period+1) + EMA_prev.
+ */
+public final class EmaState implements StreamingState {
+
+    private final int period;
+    private final double multiplier;
+    private long count;
+    private double sum;
+    private double value;
+
+    public EmaState(int period) {
+        if (period <= 0) {
+            throw new IllegalArgumentException("period deve ser positivo: " + period);
+        }
+        this.period = period;
+        this.multiplier = 2.0 / (period + 1);
+    }
+
+    public void update(double x) {
+        count++;
+        if (count <= period) {
+            sum += x;
+            value = sum / period;
+        } else {
+            value = (x - value) * multiplier + value;
+        }
+    }
+
+    public boolean isReady() {
+        return count >= period;
+    }
+
+    public double value() {
+        return value;
+    }
+
+    public long count() {
+        return count;
+    }
+
+    public int period() {
+        return period;
+    }
+
+    public void reset() {
+        count = 0;
+        sum = 0;
+        value = 0;
+    }
+
+    @Override
+    public void writeState(DataOutput out) throws IOException {
+        out.writeInt(period);
+        out.writeLong(count);
+        out.writeDouble(sum);
+        out.writeDouble(value);
+    }
+
+    @Override
+    public void readState(DataInput in) throws IOException {
+        StreamingState.checkPeriod("EMA", period, in.readInt());
+        count = in.readLong();
+        sum = in.readDouble();
+        value = in.readDouble();
+    }
+}
@@ -0,0 +1,166 @@
+package com.whs.trading.gemini.indicator.streaming;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import com.whs.trading.gemini.dto.CandleSeries;
+
+/**
+ * Grafo de operações primitivas compartilhadas entre indicadores: variação do fechamento, média e desvio
+ * em janela, EMA, médias de Wilder de ganhos e perdas, mínima e máxima deslizantes.
+ * <p>
+ * Cada nó existe uma única vez por operação e período (ex: a SMA(20) do {@code StreamingSma} e a banda média
+ * do {@code StreamingBollingerBands} de período 20 são a mesma {@link RollingWindow}) e é avançado uma vez por
+ * vela em {@link #update}, na ordem de criação; as dependências de um nó são sempre criadas antes dele. Os
+ * indicadores criados sobre o grafo ({@code StreamingSma.on(graph, ...)} etc.) só leem os nós, então devem
+ * receber cada vela depois do grafo. Os nós são os mesmos estados do modo isolado, logo os valores coincidem.
+ * <p>
+ * Uso em uma única passada: sem {@code reset}, e não é thread-safe. O estado de todos os nós pode ser gravado
+ * e retomado ({@link #writeState}/{@link #readState}) num grafo montado com os mesmos nós na mesma ordem.
+ */
+public final class IndicatorGraph implements StreamingState {
+
+    private enum Operation {
+        CLOSE_CHANGE, CLOSE_WINDOW, CLOSE_EMA, AVERAGE_GAIN, AVERAGE_LOSS, LOWEST_LOW, HIGHEST_HIGH
+    }
+
+    private record NodeKey(Operation operation, int period) {
+    }
+
+    @FunctionalInterface
+    private interface Node {
+        void update(double high, double low, double close);
+    }
+
+    private final Map<NodeKey, StreamingState> states = new HashMap<>();
+    private final List<NodeKey> keys = new ArrayList<>();
+    private final List<Node> nodes = new ArrayList<>();
+
+    /**
+     * Variação do fechamento em relação à vela anterior.
+     */
+    public PriceChange closeChange() {
+        return node(Operation.CLOSE_CHANGE, 0, PriceChange::new, change -> (high, low, close) -> change.update(close));
+    }
+
+    /**
+     * Janela do fechamento: SMA ({@link RollingWindow#mean()}) e desvio ({@link RollingWindow#standardDeviation()}).
+     */
+    public RollingWindow closeWindow(int period) {
+        return node(Operation.CLOSE_WINDOW, period, () -> new RollingWindow(period),
+                window -> (high, low, close) -> window.update(close));
+    }
+
+    public EmaState closeEma(int period) {
+        return node(Operation.CLOSE_EMA, period, () -> new EmaState(period), ema -> (high, low, close) -> ema.update(close));
+    }
+
+    /**
+     * Média de Wilder dos ganhos de {@link #closeChange()}, a partir da segunda vela.
+     */
+    public WilderAverage averageGain(int period) {
+        PriceChange change = closeChange();
+        return node(Operation.AVERAGE_GAIN, period, () -> new WilderAverage(period), average -> (high, low, close) -> {
+            if (change.isDefined()) {
+                average.update(change.gain());
+            }
+        });
+    }
+
+    /**
+     * Média de Wilder das perdas (positivas) de {@link #closeChange()}, a partir da segunda vela.
+     */
+    public WilderAverage averageLoss(int period) {
+        PriceChange change = closeChange();
+        return node(Operation.AVERAGE_LOSS, period, () -> new WilderAverage(period), average -> (high, low, close) -> {
+            if (change.isDefined()) {
+                average.update(change.loss());
+            }
+        });
+    }
+
+    public RollingExtremum lowestLow(int period) {
+        return node(Operation.LOWEST_LOW, period, () -> RollingExtremum.min(period),
+                extremum -> (high, low, close) -> extremum.update(low));
+    }
+
+    public RollingExtremum highestHigh(int period) {
+        return node(Operation.HIGHEST_HIGH, period, () -> RollingExtremum.max(period),
+                extremum -> (high, low, close) -> extremum.update(high));
+    }
+
+    /**
+     * Avança todos os nós com a próxima vela fechada (em ordem cronológica).
+     */
+    public void update(double high, double low, double close) {
+        for (int n = 0; n < nodes.size(); n++) {
+            nodes.get(n).update(high, low, close);
+        }
+    }
+
+    public void update(CandleSeries series, int index) {
+        update(series.high(index), series.low(index), series.close(index));
+    }
+
+    /**
+     * Número de nós distintos (após a deduplicação).
+     */
+    public int size() {
+        return nodes.size();
+    }
+
+    /**
+     * Grava a operação e o período de cada nó, na ordem de criação, seguidos do estado dele.
+     */
+    @Override
+    public void writeState(DataOutput out) throws IOException {
+        out.writeInt(keys.size());
+        for (NodeKey key : keys) {
+            out.writeUTF(key.operation().name());
+            out.writeInt(key.period());
+            states.get(key).writeState(out);
+        }
+    }
+
+    /**
+     * @throws IOException se os nós gravados não forem os deste grafo, na mesma ordem.
+     */
+    @Override
+    public void readState(DataInput in) throws IOException {
+        int count = in.readInt();
+        if (count != keys.size()) {
+            throw new IOException("Estado do grafo com " + count + " nós, esperados " + keys.size());
+        }
+        for (NodeKey key : keys) {
+            String operation = in.readUTF();
+            int period = in.readInt();
+            if (!operation.equals(key.operation().name()) || period != key.period()) {
+                throw new IOException("Estado do grafo com nó " + operation + "(" + period + ") no lugar de "
+                        + key.operation() + "(" + key.period() + ")");
+            }
+            states.get(key).readState(in);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T extends StreamingState> T node(Operation operation, int period, Supplier<T> factory,
+                                              Function<T, Node> binder) {
+        NodeKey key = new NodeKey(operation, period);
+        StreamingState existing = states.get(key);
+        if (existing != null) {
+            return (T) existing;
+        }
+        T state = factory.get();
+        states.put(key, state);
+        keys.add(key);
+        nodes.add(binder.apply(state));
+        return state;
+    }
+}
@@ -0,0 +1,53 @@
+package com.whs.trading.gemini.indicator.streaming;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Variação do fechamento em relação à vela anterior (indefinida na primeira vela), separada em ganho e perda
+ * com as mesmas regras do RSI: variação positiva é ganho; zero ou negativa é perda.
+ */
+public final class PriceChange implements StreamingState {
+
+    private double previousClose = Double.NaN;
+    private double change = Double.NaN;
+
+    public void update(double close) {
+        change = close - previousClose;
+        previousClose = close;
+    }
+
+    public boolean isDefined() {
+        return !Double.isNaN(change);
+    }
+
+    public double value() {
+        return change;
+    }
+
+    public double gain() {
+        return change > 0 ? change : 0;
+    }
+
+    public double loss() {
+        return change > 0 ? 0 : -change;
+    }
+
+    public void reset() {
+        previousClose = Double.NaN;
+        change = Double.NaN;
+    }
+
+    @Override
+    public void writeState(DataOutput out) throws IOException {
+        out.writeDouble(previousClose);
+        out.writeDouble(change);
+    }
+
+    @Override
+    public void readState(DataInput in) throws IOException {
+        previousClose = in.readDouble();
+        change = in.readDouble();
+    }
+}
@@ -0,0 +1,113 @@
+package com.whs.trading.gemini.indicator.streaming;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Mínimo ou máximo de uma janela deslizante via deque monotônico (O(1) amortizado, sem alocação).
+ */
+public final class RollingExtremum implements StreamingState {
+
+    private final int period;
+    private final boolean max;
+    private final long[] indices;
+    private final double[] values;
+    private int first;
+    private int size;
+    private long count;
+
+    private RollingExtremum(int period, boolean max) {
+        if (period <= 0) {
+            throw new IllegalArgumentException("period deve ser positivo: " + period);
+        }
+        this.period = period;
+        this.max = max;
+        this.indices = new long[period];
+        this.values = new double[period];
+    }
+
+    public static RollingExtremum min(int period) {
+        return new RollingExtremum(period, false);
+    }
+
+    public static RollingExtremum max(int period) {
+        return new RollingExtremum(period, true);
+    }
+
+    public void update(double x) {
+        // Remove do início o que sai da janela com a entrada deste valor
+        if (size > 0 && indices[first] <= count - period) {
+            first = (first + 1) % period;
+            size--;
+        }
+        // Remove do fim os valores que nunca mais serão o extremo da janela
+        while (size > 0) {
+            double last = values[slot(size - 1)];
+            if (max ? last <= x : last >= x) {
+                size--;
+            } else {
+                break;
+            }
+        }
+        int slot = slot(size);
+        indices[slot] = count;
+        values[slot] = x;
+        size++;
+        count++;
+    }
+
+    private int slot(int position) {
+        return (first + position) % period;
+    }
+
+    public boolean isFull() {
+        return count >= period;
+    }
+
+    public double value() {
+        return size == 0 ? Double.NaN : values[first];
+    }
+
+    public void reset() {
+        first = 0;
+        size = 0;
+        count = 0;
+    }
+
+    /**
+     * Grava só os candidatos vivos do deque, do mais antigo ao mais novo.
+     */
+    @Override
+    public void writeState(DataOutput out) throws IOException {
+        out.writeInt(period);
+        out.writeBoolean(max);
+        out.writeLong(count);
+        out.writeInt(size);
+        for (int position = 0; position < size; position++) {
+            int slot = slot(position);
+            out.writeLong(indices[slot]);
+            out.writeDouble(values[slot]);
+        }
+    }
+
+    @Override
+    public void readState(DataInput in) throws IOException {
+        StreamingState.checkPeriod(max ? "máxima" : "mínima", period, in.readInt());
+        if (in.readBoolean() != max) {
+            throw new IOException("Estado de extremo com direção trocada (máxima/mínima)");
+        }
+        long savedCount = in.readLong();
+        int savedSize = in.readInt();
+        if (savedSize < 0 || savedSize > period) {
+            throw new IOException("Estado de extremo corrompido: " + savedSize + " candidatos para período " + period);
+        }
+        for (int slot = 0; slot < savedSize; slot++) {
+            indices[slot] = in.readLong();
+            values[slot] = in.readDouble();
+        }
+        first = 0;
+        size = savedSize;
+        count = savedCount;
+    }
+}
@@ -0,0 +1,118 @@
+package com.whs.trading.gemini.indicator.streaming;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Janela deslizante de tamanho fixo com soma e soma dos quadrados mantidas em O(1) por atualização.
+ * <p>
+ * Para não acumular erro de arredondamento em históricos longos, as somas são recalculadas a partir do
+ * buffer a cada volta completa do anel (custo amortizado O(1), sem alocação).
+ */
+public final class RollingWindow implements StreamingState {
+
+    private final double[] buffer;
+    private int head;
+    private long count;
+    private double sum;
+    private double sumOfSquares;
+
+    public RollingWindow(int period) {
+        if (period <= 0) {
+            throw new IllegalArgumentException("period deve ser positivo: " + period);
+        }
+        this.buffer = new double[period];
+    }
+
+    public void update(double x) {
+        int period = buffer.length;
+        if (count >= period) {
+            double oldest = buffer[head];
+            sum -= oldest;
+            sumOfSquares -= oldest * oldest;
+        }
+        buffer[head] = x;
+        sum += x;
+        sumOfSquares += x * x;
+        count++;
+        if (++head == period) {
+            head = 0;
+            resync();
+        }
+    }
+
+    private void resync() {
+        double s = 0;
+        double sq = 0;
+        for (double v : buffer) {
+            s += v;
+            sq += v * v;
+        }
+        sum = s;
+        sumOfSquares = sq;
+    }
+
+    public boolean isFull() {
+        return count >= buffer.length;
+    }
+
+    public int period() {
+        return buffer.length;
+    }
+
+    public double sum() {
+        return sum;
+    }
+
+    public double mean() {
+        return sum / buffer.length;
+    }
+
+    /**
+     * Desvio padrão populacional dos valores da janela (cheia).
+     */
+    public double standardDeviation() {
+        int n = buffer.length;
+        double variance = (sumOfSquares - sum * sum / n) / n;
+        return variance > 0 ? Math.sqrt(variance) : 0;
+    }
+
+    public void reset() {
+        head = 0;
+        count = 0;
+        sum = 0;
+        sumOfSquares = 0;
+    }
+
+    /**
+     * Grava o buffer inteiro e as somas como estão, para que os valores retomados coincidam bit a bit.
+     */
+    @Override
+    public void writeState(DataOutput out) throws IOException {
+        out.writeInt(buffer.length);
+        out.writeInt(head);
+        out.writeLong(count);
+        out.writeDouble(sum);
+        out.writeDouble(sumOfSquares);
+        for (double v : buffer) {
+            out.writeDouble(v);
+        }
+    }
+
+    @Override
+    public void readState(DataInput in) throws IOException {
+        StreamingState.checkPeriod("janela", buffer.length, in.readInt());
+        int savedHead = in.readInt();
+        if (savedHead < 0 || savedHead >= buffer.length) {
+            throw new IOException("Estado de janela corrompido: posição " + savedHead + " para período " + buffer.length);
+        }
+        head = savedHead;
+        count = in.readLong();
+        sum = in.readDouble();
+        sumOfSquares = in.readDouble();
+        for (int i = 0; i < buffer.length; i++) {
+            buffer[i] = in.readDouble();
+        }
+    }
+}
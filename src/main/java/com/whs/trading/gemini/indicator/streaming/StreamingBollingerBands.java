@@ -0,0 +1,148 @@
+package com.whs.trading.gemini.indicator.streaming;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import com.whs.trading.gemini.dto.Signal;
+
+/**
+ * Bandas de Bollinger incrementais: média e desvio padrão populacional da janela de fechamentos, mantidos pela
+ * {@link RollingWindow}. Fica pronto com {@code period} velas; antes disso {@link #value()} (banda média) e as
+ * bandas são NaN e o sinal é neutro.
+ */
+public final class StreamingBollingerBands implements StreamingIndicator {
+
+    private final RollingWindow window;
+    private final boolean shared; // janela avançada pelo IndicatorGraph
+    private final double stdDevMultiplier;
+    private double currentPrice = Double.NaN;
+
+    public StreamingBollingerBands(int period, double stdDevMultiplier) {
+        this(new RollingWindow(period), false, stdDevMultiplier);
+    }
+
+    private StreamingBollingerBands(RollingWindow window, boolean shared, double stdDevMultiplier) {
+        this.window = window;
+        this.shared = shared;
+        this.stdDevMultiplier = stdDevMultiplier;
+    }
+
+    /**
+     * Bandas sobre a janela de fechamentos do grafo (a mesma de uma SMA do mesmo período); deve receber cada
+     * vela depois de {@link IndicatorGraph#update}.
+     */
+    public static StreamingBollingerBands on(IndicatorGraph graph, int period, double stdDevMultiplier) {
+        return new StreamingBollingerBands(graph.closeWindow(period), true, stdDevMultiplier);
+    }
+
+    @Override
+    public String getName() {
+        return "Bollinger Bands";
+    }
+
+    @Override
+    public void update(double high, double low, double close) {
+        if (!shared) {
+            window.update(close);
+        }
+        currentPrice = close;
+    }
+
+    @Override
+    public boolean isReady() {
+        return window.isFull();
+    }
+
+    /**
+     * Banda média (SMA do período).
+     */
+    @Override
+    public double value() {
+        return middleBand();
+    }
+
+    public double middleBand() {
+        return isReady() ? window.mean() : Double.NaN;
+    }
+
+    public double upperBand() {
+        return middleBand() + window.standardDeviation() * stdDevMultiplier;
+    }
+
+    public double lowerBand() {
+        return middleBand() - window.standardDeviation() * stdDevMultiplier;
+    }
+
+    public double currentPrice() {
+        return currentPrice;
+    }
+
+    public int period() {
+        return window.period();
+    }
+
+    public double stdDevMultiplier() {
+        return stdDevMultiplier;
+    }
+
+    /**
+     * %B em porcentagem; NaN quando a largura das bandas é zero.
+     */
+    public double percentB() {
+        double upper = upperBand();
+        double lower = lowerBand();
+        double bandWidth = upper - lower;
+        return bandWidth != 0 ? (currentPrice - lower) / bandWidth * 100 : Double.NaN;
+    }
+
+    /**
+     * Largura das bandas relativa à média, em porcentagem; NaN quando a média é zero.
+     */
+    public double bandWidthPercentage() {
+        double middle = middleBand();
+        return middle != 0 ? (upperBand() - lowerBand()) / middle * 100 : Double.NaN;
+    }
+
+    @Override
+    public Signal signal() {
+        if (!isReady()) {
+            return Signal.NEUTRAL;
+        }
+        if (currentPrice > upperBand()) {
+            return Signal.SELL;
+        } else if (currentPrice < lowerBand()) {
+            return Signal.BUY;
+        }
+        return Signal.NEUTRAL;
+    }
+
+    @Override
+    public int warmupPeriod() {
+        return window.period();
+    }
+
+    @Override
+    public void reset() {
+        if (!shared) {
+            window.reset();
+        }
+        currentPrice = Double.NaN;
+    }
+
+    @Override
+    public void writeState(DataOutput out) throws IOException {
+        if (!shared) {
+            window.writeState(out);
+        }
+        out.writeDouble(currentPrice);
+    }
+
+    @Override
+    public void readState(DataInput in) throws IOException {
+        if (!shared) {
+            window.readState(in);
+        }
+        currentPrice = in.readDouble();
+    }
+}
@@ -0,0 +1,59 @@
+package com.whs.trading.gemini.indicator.streaming;
+
+import com.whs.trading.gemini.dto.CandleSeries;
+import com.whs.trading.gemini.dto.CandlestickData;
+import com.whs.trading.gemini.dto.Signal;
+
+/**
+ * Versão incremental (com estado) de um indicador: cada vela fechada é aplicada uma única vez via
+ * {@code update}, em O(1) e sem alocação. Os valores coincidem com {@code CandleIndicator.analyze(CandleSeries, ...)}
+ * aplicado à mesma sequência de velas, pois o cálculo em lote usa estas mesmas classes.
+ * <p>
+ * {@link #writeState}/{@link #readState} gravam o estado próprio do indicador; quando criado sobre um
+ * {@link IndicatorGraph}, os nós compartilhados ficam de fora e são gravados pelo grafo.
+ */
+public interface StreamingIndicator extends StreamingState {
+
+    String getName();
+
+    /**
+     * Aplica a próxima vela fechada (em ordem cronológica).
+     */
+    void update(double high, double low, double close);
+
+    default void update(CandleSeries series, int index) {
+        update(series.high(index), series.low(index), series.close(index));
+    }
+
+    default void update(CandlestickData candle) {
+        update(candle.getHigh().doubleValue(), candle.getLow().doubleValue(), candle.getClose().doubleValue());
+    }
+
+    default void updateAll(CandleSeries series) {
+        for (int i = 0; i < series.size(); i++) {
+            update(series, i);
+        }
+    }
+
+    /**
+     * Indica se já foram recebidas velas suficientes para {@link #value()} e {@link #signal()}.
+     */
+    boolean isReady();
+
+    /**
+     * Valor principal do indicador (SMA, RSI, linha MACD, banda média, suporte); NaN se não estiver pronto.
+     */
+    double value();
+
+    /**
+     * Sinal para a última vela recebida (mesmas regras do cálculo em lote); NEUTRAL se não estiver pronto.
+     */
+    Signal signal();
+
+    /**
+     * Número mínimo de velas para o indicador ficar pronto.
+     */
+    int warmupPeriod();
+
+    void reset();
+}
@@ -0,0 +1,173 @@
+package com.whs.trading.gemini.indicator.streaming;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import com.whs.trading.gemini.dto.Signal;
+
+/**
+ * MACD incremental: EMAs curta e longa do fechamento, linha MACD a partir da vela em que a EMA longa
+ * fica pronta e linha de sinal (EMA da linha MACD).
+ */
+public final class StreamingMacd implements StreamingIndicator {
+
+    private final EmaState emaShort;
+    private final EmaState emaLong;
+    private final boolean shared; // EMAs curta e longa avançadas pelo IndicatorGraph
+    private final EmaState signalEma;
+    private double macd = Double.NaN;
+    private double previousMacd = Double.NaN;
+    private double previousSignal = Double.NaN;
+
+    public StreamingMacd(int shortPeriod, int longPeriod, int signalPeriod) {
+        this(new EmaState(shortPeriod), new EmaState(longPeriod), false, signalPeriod);
+    }
+
+    private StreamingMacd(EmaState emaShort, EmaState emaLong, boolean shared, int signalPeriod) {
+        checkPeriods(emaShort.period(), emaLong.period());
+        this.emaShort = emaShort;
+        this.emaLong = emaLong;
+        this.shared = shared;
+        this.signalEma = new EmaState(signalPeriod);
+    }
+
+    /**
+     * MACD sobre as EMAs de fechamento do grafo (compartilhadas com outros MACD/estratégias de mesmo período);
+     * a linha de sinal é própria. Deve receber cada vela depois de {@link IndicatorGraph#update}.
+     */
+    public static StreamingMacd on(IndicatorGraph graph, int shortPeriod, int longPeriod, int signalPeriod) {
+        checkPeriods(shortPeriod, longPeriod); // antes de criar nós no grafo
+        return new StreamingMacd(graph.closeEma(shortPeriod), graph.closeEma(longPeriod), true, signalPeriod);
+    }
+
+    private static void checkPeriods(int shortPeriod, int longPeriod) {
+        if (shortPeriod > longPeriod) {
+            throw new IllegalArgumentException("shortPeriod (" + shortPeriod + ") maior que longPeriod (" + longPeriod + ")");
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "MACD";
+    }
+
+    @Override
+    public void update(double high, double low, double close) {
+        if (!shared) {
+            emaShort.update(close);
+            emaLong.update(close);
+        }
+        if (!emaLong.isReady()) {
+            return;
+        }
+        if (signalEma.isReady()) {
+            previousMacd = macd;
+            previousSignal = signalEma.value();
+        }
+        macd = emaShort.value() - emaLong.value();
+        signalEma.update(macd);
+    }
+
+    /**
+     * Pronto quando há linha de sinal atual e anterior (necessário para detectar cruzamento).
+     */
+    @Override
+    public boolean isReady() {
+        return signalEma.count() > signalEma.period();
+    }
+
+    @Override
+    public double value() {
+        return isReady() ? macd : Double.NaN;
+    }
+
+    public double macdLine() {
+        return macd;
+    }
+
+    public double signalLine() {
+        return signalEma.isReady() ? signalEma.value() : Double.NaN;
+    }
+
+    public double histogram() {
+        return macd - signalLine();
+    }
+
+    public int shortPeriod() {
+        return emaShort.period();
+    }
+
+    public int longPeriod() {
+        return emaLong.period();
+    }
+
+    public int signalPeriod() {
+        return signalEma.period();
+    }
+
+    public boolean crossedUp() {
+        return isReady() && previousMacd <= previousSignal && macd > signalEma.value();
+    }
+
+    public boolean crossedDown() {
+        return isReady() && previousMacd >= previousSignal && macd < signalEma.value();
+    }
+
+    @Override
+    public Signal signal() {
+        if (!isReady()) {
+            return Signal.NEUTRAL;
+        }
+        double signalLine = signalEma.value();
+        if (crossedUp()) {
+            return Signal.BUY;
+        } else if (crossedDown()) {
+            return Signal.SELL;
+        } else if ((macd > 0 && signalLine > 0) || (macd < 0 && signalLine < 0)) {
+            return Signal.HOLD;
+        }
+        return Signal.NEUTRAL;
+    }
+
+    @Override
+    public int warmupPeriod() {
+        return emaLong.period() + signalEma.period();
+    }
+
+    @Override
+    public void reset() {
+        if (!shared) {
+            emaShort.reset();
+            emaLong.reset();
+        }
+        signalEma.reset();
+        macd = Double.NaN;
+        previousMacd = Double.NaN;
+        previousSignal = Double.NaN;
+    }
+
+    @Override
+    public void writeState(DataOutput out) throws IOException {
+        if (!shared) {
+            emaShort.writeState(out);
+            emaLong.writeState(out);
+        }
+        signalEma.writeState(out);
+        out.writeDouble(macd);
+        out.writeDouble(previousMacd);
+        out.writeDouble(previousSignal);
+    }
+
+    @Override
+    public void readState(DataInput in) throws IOException {
+        if (!shared) {
+            emaShort.readState(in);
+            emaLong.readState(in);
+        }
+        signalEma.readState(in);
+        macd = in.readDouble();
+        previousMacd = in.readDouble();
+        previousSignal = in.readDouble();
+    }
+}
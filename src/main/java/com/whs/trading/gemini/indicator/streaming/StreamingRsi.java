@@ -0,0 +1,137 @@
+package com.whs.trading.gemini.indicator.streaming;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import com.whs.trading.gemini.dto.Signal;
+
+/**
+ * RSI incremental: médias de Wilder dos ganhos e das perdas entre fechamentos consecutivos. A primeira vela só
+ * guarda o fechamento, então fica pronto com {@code period + 1} velas; antes disso {@link #value()} é NaN e o
+ * sinal é neutro.
+ */
+public final class StreamingRsi implements StreamingIndicator {
+
+    private final int period;
+    private final WilderAverage averageGain;
+    private final WilderAverage averageLoss;
+    private final boolean shared; // médias avançadas pelo IndicatorGraph
+    private double previousClose = Double.NaN;
+
+    public StreamingRsi(int period) {
+        this(period, new WilderAverage(period), new WilderAverage(period), false);
+    }
+
+    private StreamingRsi(int period, WilderAverage averageGain, WilderAverage averageLoss, boolean shared) {
+        this.period = period;
+        this.averageGain = averageGain;
+        this.averageLoss = averageLoss;
+        this.shared = shared;
+    }
+
+    /**
+     * RSI sobre as médias de ganhos e perdas do grafo; deve receber cada vela depois de {@link IndicatorGraph#update}.
+     */
+    public static StreamingRsi on(IndicatorGraph graph, int period) {
+        return new StreamingRsi(period, graph.averageGain(period), graph.averageLoss(period), true);
+    }
+
+    @Override
+    public String getName() {
+        return "RSI";
+    }
+
+    @Override
+    public void update(double high, double low, double close) {
+        if (!shared && !Double.isNaN(previousClose)) {
+            double difference = close - previousClose;
+            if (difference > 0) {
+                averageGain.update(difference);
+                averageLoss.update(0);
+            } else {
+                averageGain.update(0);
+                averageLoss.update(-difference);
+            }
+        }
+        previousClose = close;
+    }
+
+    @Override
+    public boolean isReady() {
+        return averageLoss.isReady();
+    }
+
+    /**
+     * RSI atual; 100 quando não há perdas médias.
+     */
+    @Override
+    public double value() {
+        if (!isReady()) {
+            return Double.NaN;
+        }
+        double avgLoss = averageLoss.value();
+        if (avgLoss == 0) {
+            return 100;
+        }
+        return 100 - 100 / (1 + averageGain.value() / avgLoss);
+    }
+
+    public double averageGain() {
+        return averageGain.value();
+    }
+
+    public double averageLoss() {
+        return averageLoss.value();
+    }
+
+    public int period() {
+        return period;
+    }
+
+    @Override
+    public Signal signal() {
+        if (!isReady()) {
+            return Signal.NEUTRAL;
+        }
+        double rsi = value();
+        if (rsi > 70) {
+            return Signal.SELL;
+        } else if (rsi < 30) {
+            return Signal.BUY;
+        }
+        return Signal.NEUTRAL;
+    }
+
+    @Override
+    public int warmupPeriod() {
+        return period + 1;
+    }
+
+    @Override
+    public void reset() {
+        if (!shared) {
+            averageGain.reset();
+            averageLoss.reset();
+        }
+        previousClose = Double.NaN;
+    }
+
+    @Override
+    public void writeState(DataOutput out) throws IOException {
+        if (!shared) {
+            averageGain.writeState(out);
+            averageLoss.writeState(out);
+        }
+        out.writeDouble(previousClose);
+    }
+
+    @Override
+    public void readState(DataInput in) throws IOException {
+        if (!shared) {
+            averageGain.readState(in);
+            averageLoss.readState(in);
+        }
+        previousClose = in.readDouble();
+    }
+}
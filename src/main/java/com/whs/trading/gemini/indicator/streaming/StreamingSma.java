@@ -0,0 +1,109 @@
+package com.whs.trading.gemini.indicator.streaming;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import com.whs.trading.gemini.dto.Signal;
+
+/**
+ * Média móvel simples incremental sobre a {@link RollingWindow} de fechamentos. Fica pronta com {@code period}
+ * velas; antes disso {@link #value()} é NaN e o sinal é neutro.
+ */
+public final class StreamingSma implements StreamingIndicator {
+
+    private static final double TIE_TOLERANCE = 1e-12;
+
+    private final RollingWindow window;
+    private final boolean shared; // janela avançada pelo IndicatorGraph
+    private double currentPrice = Double.NaN;
+
+    public StreamingSma(int period) {
+        this(new RollingWindow(period), false);
+    }
+
+    private StreamingSma(RollingWindow window, boolean shared) {
+        this.window = window;
+        this.shared = shared;
+    }
+
+    /**
+     * SMA sobre a janela de fechamentos do grafo; deve receber cada vela depois de {@link IndicatorGraph#update}.
+     */
+    public static StreamingSma on(IndicatorGraph graph, int period) {
+        return new StreamingSma(graph.closeWindow(period), true);
+    }
+
+    @Override
+    public String getName() {
+        return "SMA";
+    }
+
+    @Override
+    public void update(double high, double low, double close) {
+        if (!shared) {
+            window.update(close);
+        }
+        currentPrice = close;
+    }
+
+    @Override
+    public boolean isReady() {
+        return window.isFull();
+    }
+
+    @Override
+    public double value() {
+        return isReady() ? window.mean() : Double.NaN;
+    }
+
+    public double currentPrice() {
+        return currentPrice;
+    }
+
+    public int period() {
+        return window.period();
+    }
+
+    @Override
+    public Signal signal() {
+        if (!isReady()) {
+            return Signal.NEUTRAL;
+        }
+        double sma = window.mean();
+        // A soma móvel acumula erro de arredondamento: preço igual à média exata não deve virar compra/venda
+        if (Math.abs(currentPrice - sma) <= TIE_TOLERANCE * Math.abs(sma)) {
+            return Signal.NEUTRAL;
+        }
+        return currentPrice > sma ? Signal.BUY : Signal.SELL;
+    }
+
+    @Override
+    public int warmupPeriod() {
+        return window.period();
+    }
+
+    @Override
+    public void reset() {
+        if (!shared) {
+            window.reset();
+        }
+        currentPrice = Double.NaN;
+    }
+
+    @Override
+    public void writeState(DataOutput out) throws IOException {
+        if (!shared) {
+            window.writeState(out);
+        }
+        out.writeDouble(currentPrice);
+    }
+
+    @Override
+    public void readState(DataInput in) throws IOException {
+        if (!shared) {
+            window.readState(in);
+        }
+        currentPrice = in.readDouble();
+    }
+}
@@ -0,0 +1,31 @@
+package com.whs.trading.gemini.indicator.streaming;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Estado incremental que pode ser gravado e retomado depois (ex: snapshots para reinício a quente), em vez de
+ * reaquecido com o histórico. Só o estado mutável é gravado: {@link #readState} é chamado numa instância criada
+ * com os mesmos parâmetros, que são conferidos quando fazem parte do formato.
+ */
+public interface StreamingState {
+
+    void writeState(DataOutput out) throws IOException;
+
+    /**
+     * Substitui o estado atual pelo gravado em {@link #writeState}.
+     *
+     * @throws IOException se os dados forem de outra configuração (ex: outro período) ou estiverem truncados.
+     */
+    void readState(DataInput in) throws IOException;
+
+    /**
+     * Confere o período gravado contra o da instância.
+     */
+    static void checkPeriod(String name, int expected, int actual) throws IOException {
+        if (expected != actual) {
+            throw new IOException("Estado de " + name + " com período " + actual + ", esperado " + expected);
+        }
+    }
+}
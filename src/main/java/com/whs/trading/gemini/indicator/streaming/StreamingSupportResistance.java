@@ -0,0 +1,151 @@
+package com.whs.trading.gemini.indicator.streaming;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import com.whs.trading.gemini.dto.Signal;
+
+/**
+ * Suporte (mínima das mínimas) e resistência (máxima das máximas) das últimas {@code lookbackPeriod}
+ * velas, mantidos por deques monotônicos.
+ */
+public final class StreamingSupportResistance implements StreamingIndicator {
+
+    private static final double TIE_TOLERANCE = 1e-12;
+
+    private final int lookbackPeriod;
+    private final double proximityPercentage;
+    private final RollingExtremum support;
+    private final RollingExtremum resistance;
+    private final boolean shared; // extremos avançados pelo IndicatorGraph
+    private double currentPrice = Double.NaN;
+
+    public StreamingSupportResistance(int lookbackPeriod, double proximityPercentage) {
+        this(lookbackPeriod, proximityPercentage, RollingExtremum.min(lookbackPeriod), RollingExtremum.max(lookbackPeriod),
+                false);
+    }
+
+    private StreamingSupportResistance(int lookbackPeriod, double proximityPercentage, RollingExtremum support,
+                                       RollingExtremum resistance, boolean shared) {
+        this.lookbackPeriod = lookbackPeriod;
+        this.proximityPercentage = proximityPercentage;
+        this.support = support;
+        this.resistance = resistance;
+        this.shared = shared;
+    }
+
+    /**
+     * S/R sobre a mínima e a máxima deslizantes do grafo; deve receber cada vela depois de {@link IndicatorGraph#update}.
+     */
+    public static StreamingSupportResistance on(IndicatorGraph graph, int lookbackPeriod, double proximityPercentage) {
+        return new StreamingSupportResistance(lookbackPeriod, proximityPercentage, graph.lowestLow(lookbackPeriod),
+                graph.highestHigh(lookbackPeriod), true);
+    }
+
+    @Override
+    public String getName() {
+        return "Support/Resistance";
+    }
+
+    @Override
+    public void update(double high, double low, double close) {
+        if (!shared) {
+            support.update(low);
+            resistance.update(high);
+        }
+        currentPrice = close;
+    }
+
+    @Override
+    public boolean isReady() {
+        return support.isFull();
+    }
+
+    /**
+     * Nível de suporte atual.
+     */
+    @Override
+    public double value() {
+        return support();
+    }
+
+    public double support() {
+        return isReady() ? support.value() : Double.NaN;
+    }
+
+    public double resistance() {
+        return isReady() ? resistance.value() : Double.NaN;
+    }
+
+    public double currentPrice() {
+        return currentPrice;
+    }
+
+    public int lookbackPeriod() {
+        return lookbackPeriod;
+    }
+
+    public boolean nearSupport() {
+        double proximity = currentPrice - support();
+        return proximity >= 0 && withinProximity(proximity, support());
+    }
+
+    public boolean nearResistance() {
+        double proximity = resistance() - currentPrice;
+        return proximity >= 0 && withinProximity(proximity, resistance());
+    }
+
+    /**
+     * Distância dentro da faixa de proximidade, com folga para o erro de arredondamento da subtração: preço a
+     * exatamente 1% do nível (ex: 110.88 e 112.00) conta como próximo, como no cálculo decimal.
+     */
+    private boolean withinProximity(double proximity, double level) {
+        return proximity - level * proximityPercentage <= TIE_TOLERANCE * level;
+    }
+
+    @Override
+    public Signal signal() {
+        if (!isReady()) {
+            return Signal.NEUTRAL;
+        }
+        if (nearSupport()) {
+            return Signal.BUY;
+        } else if (nearResistance()) {
+            return Signal.SELL;
+        }
+        return Signal.NEUTRAL;
+    }
+
+    @Override
+    public int warmupPeriod() {
+        return lookbackPeriod;
+    }
+
+    @Override
+    public void reset() {
+        if (!shared) {
+            support.reset();
+            resistance.reset();
+        }
+        currentPrice = Double.NaN;
+    }
+
+    @Override
+    public void writeState(DataOutput out) throws IOException {
+        if (!shared) {
+            support.writeState(out);
+            resistance.writeState(out);
+        }
+        out.writeDouble(currentPrice);
+    }
+
+    @Override
+    public void readState(DataInput in) throws IOException {
+        if (!shared) {
+            support.readState(in);
+            resistance.readState(in);
+        }
+        currentPrice = in.readDouble();
+    }
+}
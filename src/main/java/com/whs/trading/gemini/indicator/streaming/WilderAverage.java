@@ -0,0 +1,61 @@
+package com.whs.trading.gemini.indicator.streaming;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Média suavizada de Wilder: média simples dos primeiros {@code period} valores e, depois,
+ * avg = (avg_prev * (period - 1) + x) / period.
+ */
+public final class WilderAverage implements StreamingState {
+
+    private final int period;
+    private long count;
+    private double value;
+
+    public WilderAverage(int period) {
+        if (period <= 0) {
+            throw new IllegalArgumentException("period deve ser positivo: " + period);
+        }
+        this.period = period;
+    }
+
+    public void update(double x) {
+        count++;
+        if (count < period) {
+            value += x;
+        } else if (count == period) {
+            value = (value + x) / period;
+        } else {
+            value = (value * (period - 1) + x) / period;
+        }
+    }
+
+    public boolean isReady() {
+        return count >= period;
+    }
+
+    public double value() {
+        return isReady() ? value : Double.NaN;
+    }
+
+    public void reset() {
+        count = 0;
+        value = 0;
+    }
+
+    @Override
+    public void writeState(DataOutput out) throws IOException {
+        out.writeInt(period);
+        out.writeLong(count);
+        out.writeDouble(value);
+    }
+
+    @Override
+    public void readState(DataInput in) throws IOException {
+        StreamingState.checkPeriod("média de Wilder", period, in.readInt());
+        count = in.readLong();
+        value = in.readDouble();
+    }
+}
@@ -0,0 +1,22 @@
+package com.whs.trading.gemini.optimizer;
+
+import com.whs.trading.gemini.backtest.BacktestStats;
+
+/**
+ * Métrica usada para ordenar as combinações (maior é melhor).
+ */
+public enum Objective {
+    SHARPE,
+    TOTAL_RETURN,
+    RETURN_OVER_DRAWDOWN;
+
+    double evaluate(BacktestStats stats) {
+        return switch (this) {
+            case SHARPE -> stats.getSharpeRatio();
+            case TOTAL_RETURN -> stats.getTotalReturnPercentage();
+            case RETURN_OVER_DRAWDOWN -> stats.getMaxDrawdownPercentage() > 0
+                    ? stats.getTotalReturnPercentage() / stats.getMaxDrawdownPercentage()
+                    : stats.getTotalReturnPercentage();
+        };
+    }
+}
@@ -0,0 +1,40 @@
+package com.whs.trading.gemini.optimizer;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.whs.trading.gemini.backtest.BacktestConfig;
+
+/**
+ * Otimização: faixas por parâmetro (rsiPeriod, macdShortPeriod, macdLongPeriod, macdSignalPeriod, bbPeriod,
+ * bbStdDevMult), indicadores combinados no placar e divisão walk-forward. Parâmetros sem faixa usam o padrão
+ * do indicador.
+ */
+public class OptimizationRequest {
+    private List<String> indicators = List.of(ParameterOptimizer.RSI, ParameterOptimizer.MACD, ParameterOptimizer.BOLLINGER);
+    private Map<String, ParameterRange> ranges = new LinkedHashMap<>();
+    private int walkForwardFolds = 4; // Trechos: folds + 1; o fold f treina no trecho f e testa no f + 1
+    private Objective objective = Objective.SHARPE;
+    private int top = 50;
+    private BacktestConfig backtest = new BacktestConfig();
+
+    // Getters e Setters
+    public List<String> getIndicators() { return indicators; }
+    public void setIndicators(List<String> indicators) { this.indicators = indicators; }
+    public Map<String, ParameterRange> getRanges() { return ranges; }
+    public void setRanges(Map<String, ParameterRange> ranges) { this.ranges = ranges; }
+    public int getWalkForwardFolds() { return walkForwardFolds; }
+    public void setWalkForwardFolds(int walkForwardFolds) { this.walkForwardFolds = walkForwardFolds; }
+    public Objective getObjective() { return objective; }
+    public void setObjective(Objective objective) { this.objective = objective; }
+    public int getTop() { return top; }
+    public void setTop(int top) { this.top = top; }
+    public BacktestConfig getBacktest() { return backtest; }
+    public void setBacktest(BacktestConfig backtest) { this.backtest = backtest; }
+
+    public OptimizationRequest range(String parameter, ParameterRange range) {
+        this.ranges.put(parameter, range);
+        return this;
+    }
+}
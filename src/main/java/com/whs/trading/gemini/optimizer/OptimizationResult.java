@@ -0,0 +1,30 @@
+package com.whs.trading.gemini.optimizer;
+
+import java.util.List;
+
+/**
+ * Tabela ordenada pela métrica média nos trechos de treino (as {@code top} melhores) e o resumo do walk-forward.
+ */
+public class OptimizationResult {
+    private final int combinationCount;
+    private final int candleCount;
+    private final long elapsedMillis;
+    private final List<OptimizationRow> ranked;
+    private final List<WalkForwardFold> walkForward;
+
+    public OptimizationResult(int combinationCount, int candleCount, long elapsedMillis, List<OptimizationRow> ranked,
+                              List<WalkForwardFold> walkForward) {
+        this.combinationCount = combinationCount;
+        this.candleCount = candleCount;
+        this.elapsedMillis = elapsedMillis;
+        this.ranked = ranked;
+        this.walkForward = walkForward;
+    }
+
+    // Getters
+    public int getCombinationCount() { return combinationCount; }
+    public int getCandleCount() { return candleCount; }
+    public long getElapsedMillis() { return elapsedMillis; }
+    public List<OptimizationRow> getRanked() { return ranked; }
+    public List<WalkForwardFold> getWalkForward() { return walkForward; }
+}
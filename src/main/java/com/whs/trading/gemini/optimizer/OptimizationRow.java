@@ -0,0 +1,30 @@
+package com.whs.trading.gemini.optimizer;
+
+import java.util.Map;
+
+/**
+ * Uma combinação de parâmetros: métrica média nos trechos de treino e de teste, e por trecho.
+ */
+public class OptimizationRow {
+    private final Map<String, String> parameters;
+    private final double trainObjective;
+    private final double testObjective;
+    private final double[] segmentObjectives;
+    private final int tradeCount;
+
+    public OptimizationRow(Map<String, String> parameters, double trainObjective, double testObjective,
+                           double[] segmentObjectives, int tradeCount) {
+        this.parameters = parameters;
+        this.trainObjective = trainObjective;
+        this.testObjective = testObjective;
+        this.segmentObjectives = segmentObjectives;
+        this.tradeCount = tradeCount;
+    }
+
+    // Getters
+    public Map<String, String> getParameters() { return parameters; }
+    public double getTrainObjective() { return trainObjective; }
+    public double getTestObjective() { return testObjective; }
+    public double[] getSegmentObjectives() { return segmentObjectives; }
+    public int getTradeCount() { return tradeCount; }
+}
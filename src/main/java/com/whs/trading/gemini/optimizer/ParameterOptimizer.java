@@ -0,0 +1,324 @@
+package com.whs.trading.gemini.optimizer;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.whs.trading.gemini.backtest.BacktestConfig;
+import com.whs.trading.gemini.backtest.BacktestStats;
+import com.whs.trading.gemini.backtest.PositionSimulator;
+import com.whs.trading.gemini.dto.CandleSeries;
+import com.whs.trading.gemini.indicator.BollingerBandsIndicator;
+import com.whs.trading.gemini.indicator.MacdIndicator;
+import com.whs.trading.gemini.indicator.RsiIndicator;
+import com.whs.trading.gemini.indicator.streaming.StreamingBollingerBands;
+import com.whs.trading.gemini.indicator.streaming.StreamingMacd;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Varredura de parâmetros de RSI, MACD e Bandas de Bollinger em um {@link ForkJoinPool}.
+ * <p>
+ * Cada combinação combina os placares dos indicadores escolhidos (como o {@code BacktestEngine}) e é simulada
+ * pelo {@link PositionSimulator} em cada trecho do walk-forward. Os placares vêm de {@link SharedComputations}:
+ * uma EMA de período 12, por exemplo, é calculada uma única vez e servida a todas as combinações que a usam,
+ * assim como o placar de cada RSI/MACD/Bollinger é compartilhado pelas combinações dos outros indicadores.
+ */
+@Service
+public class ParameterOptimizer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ParameterOptimizer.class);
+
+    public static final String RSI = "RSI";
+    public static final String MACD = "MACD";
+    public static final String BOLLINGER = "Bollinger Bands";
+
+    // Ordem fixa dos parâmetros dentro de cada combinação
+    private static final String[] PARAMETERS = {"rsiPeriod", "macdShortPeriod", "macdLongPeriod", "macdSignalPeriod",
+            "bbPeriod", "bbStdDevMult"};
+    private static final int RSI_PERIOD = 0;
+    private static final int MACD_SHORT = 1;
+    private static final int MACD_LONG = 2;
+    private static final int MACD_SIGNAL = 3;
+    private static final int BB_PERIOD = 4;
+    private static final int BB_MULTIPLIER = 5;
+    private static final int LEAF_COMBINATIONS = 4;
+
+    private final double[] defaults;
+    private final int maxCombinations;
+    private final ForkJoinPool pool;
+
+    @Autowired
+    public ParameterOptimizer(RsiIndicator rsiIndicator, MacdIndicator macdIndicator,
+                              BollingerBandsIndicator bollingerBandsIndicator,
+                              @Value("${optimizer.parallelism:0}") int parallelism,
+                              @Value("${optimizer.max-combinations:20000}") int maxCombinations) {
+        // Padrões lidos dos próprios indicadores, para não duplicar as constantes
+        StreamingMacd macd = macdIndicator.newStream(Map.of());
+        StreamingBollingerBands bands = bollingerBandsIndicator.newStream(Map.of());
+        this.defaults = new double[] {rsiIndicator.newStream(Map.of()).period(), macd.shortPeriod(), macd.longPeriod(),
+                macd.signalPeriod(), bands.period(), bands.stdDevMultiplier()};
+        this.maxCombinations = maxCombinations;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    public OptimizationResult optimize(CandleSeries series, OptimizationRequest request) {
+        long start = System.nanoTime();
+        Set<String> indicators = selectedIndicators(request.getIndicators());
+        List<double[]> combinations = combinations(indicators, request.getRanges());
+        int folds = Math.max(0, request.getWalkForwardFolds());
+        int segments = folds + 1;
+        if (series.size() < segments * 2) {
+            throw new IllegalArgumentException("Velas insuficientes (" + series.size() + ") para " + folds + " folds");
+        }
+        BacktestConfig config = request.getBacktest().copy();
+        config.setEquitySampleInterval(0);
+
+        int[] bounds = new int[segments + 1];
+        for (int s = 0; s <= segments; s++) {
+            bounds[s] = (int) ((long) series.size() * s / segments);
+        }
+        SharedComputations shared = new SharedComputations(series);
+        double[][] objectives = new double[combinations.size()][];
+        int[] trades = new int[combinations.size()];
+        pool.invoke(new EvaluateTask(series, shared, indicators, combinations, bounds, config, request.getObjective(),
+                objectives, trades, 0, combinations.size()));
+
+        List<OptimizationRow> rows = new ArrayList<>(combinations.size());
+        for (int c = 0; c < combinations.size(); c++) {
+            double[] segment = objectives[c];
+            double train = folds == 0 ? segment[0] : mean(segment, 0, folds);
+            double test = folds == 0 ? Double.NaN : mean(segment, 1, segments);
+            rows.add(new OptimizationRow(parameters(indicators, combinations.get(c)), train, test, segment, trades[c]));
+        }
+        List<WalkForwardFold> walkForward = new ArrayList<>(folds);
+        for (int f = 0; f < folds; f++) {
+            int best = -1;
+            for (int c = 0; c < combinations.size(); c++) {
+                if (best < 0 || rank(objectives[c][f]) > rank(objectives[best][f])) {
+                    best = c;
+                }
+            }
+            walkForward.add(new WalkForwardFold(f, series.openTime(bounds[f]), series.closeTime(bounds[f + 1] - 1),
+                    series.openTime(bounds[f + 1]), series.closeTime(bounds[f + 2] - 1),
+                    parameters(indicators, combinations.get(best)), objectives[best][f], objectives[best][f + 1]));
+        }
+        rows.sort(Comparator.comparingDouble((OptimizationRow row) -> rank(row.getTrainObjective())).reversed());
+        List<OptimizationRow> ranked = List.copyOf(rows.subList(0, Math.min(rows.size(), Math.max(1, request.getTop()))));
+
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        logger.info("Evaluated {} combinations over {} candles in {} segment(s) in {} ms", combinations.size(),
+                series.size(), segments, elapsedMillis);
+        return new OptimizationResult(combinations.size(), series.size(), elapsedMillis, ranked, walkForward);
+    }
+
+    private static final class EvaluateTask extends RecursiveAction {
+        private final CandleSeries series;
+        private final SharedComputations shared;
+        private final Set<String> indicators;
+        private final List<double[]> combinations;
+        private final int[] bounds;
+        private final BacktestConfig config;
+        private final Objective objective;
+        private final double[][] objectives;
+        private final int[] trades;
+        private final int from;
+        private final int to;
+
+        EvaluateTask(CandleSeries series, SharedComputations shared, Set<String> indicators, List<double[]> combinations,
+                     int[] bounds, BacktestConfig config, Objective objective, double[][] objectives, int[] trades,
+                     int from, int to) {
+            this.series = series;
+            this.shared = shared;
+            this.indicators = indicators;
+            this.combinations = combinations;
+            this.bounds = bounds;
+            this.config = config;
+            this.objective = objective;
+            this.objectives = objectives;
+            this.trades = trades;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= LEAF_COMBINATIONS) {
+                for (int c = from; c < to; c++) {
+                    evaluate(c);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new EvaluateTask(series, shared, indicators, combinations, bounds, config, objective, objectives,
+                            trades, from, middle),
+                    new EvaluateTask(series, shared, indicators, combinations, bounds, config, objective, objectives,
+                            trades, middle, to));
+        }
+
+        private void evaluate(int c) {
+            double[] values = combinations.get(c);
+            List<byte[]> parts = new ArrayList<>(3);
+            if (indicators.contains(RSI)) {
+                parts.add(shared.rsi((int) values[RSI_PERIOD]));
+            }
+            if (indicators.contains(MACD)) {
+                parts.add(shared.macd((int) values[MACD_SHORT], (int) values[MACD_LONG], (int) values[MACD_SIGNAL]));
+            }
+            if (indicators.contains(BOLLINGER)) {
+                parts.add(shared.bollinger((int) values[BB_PERIOD], values[BB_MULTIPLIER]));
+            }
+            byte[] first = parts.get(0);
+            byte[] second = parts.size() > 1 ? parts.get(1) : null;
+            byte[] third = parts.size() > 2 ? parts.get(2) : null;
+
+            int segments = bounds.length - 1;
+            double[] results = new double[segments];
+            int tradeCount = 0;
+            for (int s = 0; s < segments; s++) {
+                int start = bounds[s];
+                PositionSimulator simulator = new PositionSimulator(series.slice(start, bounds[s + 1]), config);
+                for (int i = start; i < bounds[s + 1]; i++) {
+                    int score = first[i];
+                    if (second != null) {
+                        score += second[i];
+                    }
+                    if (third != null) {
+                        score += third[i];
+                    }
+                    simulator.onBar(i - start, score);
+                }
+                BacktestStats stats = simulator.finish().getStats();
+                results[s] = objective.evaluate(stats);
+                tradeCount += stats.getTradeCount();
+            }
+            objectives[c] = results;
+            trades[c] = tradeCount;
+        }
+    }
+
+    private static Set<String> selectedIndicators(List<String> names) {
+        Set<String> selected = new LinkedHashSet<>();
+        if (names == null || names.isEmpty()) {
+            selected.add(RSI);
+            selected.add(MACD);
+            selected.add(BOLLINGER);
+            return selected;
+        }
+        for (String name : names) {
+            String normalized = name.trim().toUpperCase(Locale.ROOT);
+            switch (normalized) {
+                case "RSI" -> selected.add(RSI);
+                case "MACD" -> selected.add(MACD);
+                case "BOLLINGER", "BOLLINGER BANDS", "BB" -> selected.add(BOLLINGER);
+                default -> throw new IllegalArgumentException("Indicador não otimizável: " + name
+                        + "; disponíveis: " + List.of(RSI, MACD, BOLLINGER));
+            }
+        }
+        return selected;
+    }
+
+    private List<double[]> combinations(Set<String> indicators, Map<String, ParameterRange> ranges) {
+        Map<String, ParameterRange> remaining = new LinkedHashMap<>(ranges == null ? Map.of() : ranges);
+        double[][] axes = new double[PARAMETERS.length][];
+        long total = 1;
+        for (int p = 0; p < PARAMETERS.length; p++) {
+            ParameterRange range = remaining.remove(PARAMETERS[p]);
+            boolean used = switch (p) {
+                case RSI_PERIOD -> indicators.contains(RSI);
+                case MACD_SHORT, MACD_LONG, MACD_SIGNAL -> indicators.contains(MACD);
+                default -> indicators.contains(BOLLINGER);
+            };
+            axes[p] = used && range != null ? range.expand(PARAMETERS[p]) : new double[] {defaults[p]};
+            total *= axes[p].length;
+        }
+        if (!remaining.isEmpty()) {
+            throw new IllegalArgumentException("Parâmetros desconhecidos: " + remaining.keySet()
+                    + "; disponíveis: " + List.of(PARAMETERS));
+        }
+        if (total > maxCombinations) {
+            throw new IllegalArgumentException(total + " combinações excedem o máximo de " + maxCombinations);
+        }
+
+        List<double[]> combinations = new ArrayList<>((int) total);
+        int[] index = new int[PARAMETERS.length];
+        for (long n = 0; n < total; n++) {
+            double[] values = new double[PARAMETERS.length];
+            for (int p = 0; p < PARAMETERS.length; p++) {
+                values[p] = axes[p][index[p]];
+            }
+            if (valid(values)) {
+                combinations.add(values);
+            }
+            for (int p = PARAMETERS.length - 1; p >= 0; p--) {
+                if (++index[p] < axes[p].length) {
+                    break;
+                }
+                index[p] = 0;
+            }
+        }
+        if (combinations.isEmpty()) {
+            throw new IllegalArgumentException("Nenhuma combinação válida (períodos positivos e macdShortPeriod < macdLongPeriod)");
+        }
+        return combinations;
+    }
+
+    private static boolean valid(double[] values) {
+        for (int p = 0; p < BB_MULTIPLIER; p++) {
+            if (values[p] < 1 || values[p] != Math.rint(values[p])) {
+                return false;
+            }
+        }
+        return values[MACD_SHORT] < values[MACD_LONG] && values[BB_MULTIPLIER] > 0;
+    }
+
+    private static Map<String, String> parameters(Set<String> indicators, double[] values) {
+        Map<String, String> parameters = new LinkedHashMap<>();
+        if (indicators.contains(RSI)) {
+            parameters.put(PARAMETERS[RSI_PERIOD], Long.toString((long) values[RSI_PERIOD]));
+        }
+        if (indicators.contains(MACD)) {
+            for (int p = MACD_SHORT; p <= MACD_SIGNAL; p++) {
+                parameters.put(PARAMETERS[p], Long.toString((long) values[p]));
+            }
+        }
+        if (indicators.contains(BOLLINGER)) {
+            parameters.put(PARAMETERS[BB_PERIOD], Long.toString((long) values[BB_PERIOD]));
+            parameters.put(PARAMETERS[BB_MULTIPLIER], Double.toString(values[BB_MULTIPLIER]));
+        }
+        return parameters;
+    }
+
+    private static double mean(double[] values, int from, int to) {
+        double sum = 0;
+        for (int i = from; i < to; i++) {
+            sum += values[i];
+        }
+        return sum / (to - from);
+    }
+
+    /**
+     * NaN (ex: Sharpe sem variação) fica por último na ordenação.
+     */
+    private static double rank(double value) {
+        return Double.isNaN(value) ? Double.NEGATIVE_INFINITY : value;
+    }
+}
@@ -0,0 +1,63 @@
+package com.whs.trading.gemini.optimizer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Faixa de valores de um parâmetro: de {@code from} até {@code to} (inclusive) em passos de {@code step},
+ * ou a lista explícita {@code values} quando informada.
+ */
+public class ParameterRange {
+    private double from;
+    private double to;
+    private double step = 1;
+    private List<Double> values;
+
+    public ParameterRange() {
+    }
+
+    public ParameterRange(double from, double to, double step) {
+        this.from = from;
+        this.to = to;
+        this.step = step;
+    }
+
+    public static ParameterRange of(double... values) {
+        ParameterRange range = new ParameterRange();
+        List<Double> list = new ArrayList<>(values.length);
+        for (double value : values) {
+            list.add(value);
+        }
+        range.setValues(list);
+        return range;
+    }
+
+    // Getters e Setters
+    public double getFrom() { return from; }
+    public void setFrom(double from) { this.from = from; }
+    public double getTo() { return to; }
+    public void setTo(double to) { this.to = to; }
+    public double getStep() { return step; }
+    public void setStep(double step) { this.step = step; }
+    public List<Double> getValues() { return values; }
+    public void setValues(List<Double> values) { this.values = values; }
+
+    /**
+     * Valores expandidos da faixa.
+     */
+    public double[] expand(String name) {
+        if (values != null && !values.isEmpty()) {
+            return values.stream().mapToDouble(Double::doubleValue).toArray();
+        }
+        if (!(step > 0) || to < from) {
+            throw new IllegalArgumentException("Faixa inválida para " + name + ": de " + from + " até " + to + " passo " + step);
+        }
+        int count = (int) Math.floor((to - from) / step + 1e-9) + 1;
+        double[] expanded = new double[count];
+        for (int i = 0; i < count; i++) {
+            // Arredonda para não acumular erro de ponto flutuante nos passos decimais (ex: 0.1)
+            expanded[i] = Math.round((from + i * step) * 1e9) / 1e9;
+        }
+        return expanded;
+    }
+}
@@ -0,0 +1,155 @@
+package com.whs.trading.gemini.optimizer;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.whs.trading.gemini.dto.CandleSeries;
+import com.whs.trading.gemini.indicator.streaming.EmaState;
+import com.whs.trading.gemini.indicator.streaming.RollingWindow;
+import com.whs.trading.gemini.indicator.streaming.WilderAverage;
+
+/**
+ * Blocos intermediários compartilhados entre as combinações de uma otimização, calculados uma vez por
+ * série e por parâmetro (sob demanda, thread-safe): variações de preço, EMA por período, média e desvio
+ * por período de Bollinger, e o placar (-1 venda, 0, +1 compra) de cada indicador por conjunto de parâmetros.
+ * <p>
+ * Usa os mesmos blocos do modo streaming ({@link EmaState}, {@link WilderAverage}, {@link RollingWindow}) com
+ * as mesmas operações, então os placares são idênticos aos sinais de {@code StreamingRsi}, {@code StreamingMacd}
+ * e {@code StreamingBollingerBands} vela a vela. Como os indicadores são causais, cada placar é calculado
+ * sobre a série inteira e reaproveitado por todos os trechos do walk-forward.
+ */
+final class SharedComputations {
+
+    private final int size;
+    private final double[] closes;
+    private final double[] changes; // changes[i] = close[i] - close[i-1]; changes[0] = NaN
+    private final ConcurrentMap<Integer, double[]> emas = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Integer, double[][]> bollingerWindows = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Integer, byte[]> rsiScores = new ConcurrentHashMap<>();
+    private final ConcurrentMap<MacdKey, byte[]> macdScores = new ConcurrentHashMap<>();
+    private final ConcurrentMap<BollingerKey, byte[]> bollingerScores = new ConcurrentHashMap<>();
+
+    SharedComputations(CandleSeries series) {
+        this.size = series.size();
+        this.closes = new double[size];
+        this.changes = new double[size];
+        for (int i = 0; i < size; i++) {
+            closes[i] = series.close(i);
+            changes[i] = i == 0 ? Double.NaN : closes[i] - closes[i - 1];
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * EMA do fechamento por vela; NaN antes de {@code period} velas.
+     */
+    double[] ema(int period) {
+        return emas.computeIfAbsent(period, p -> {
+            EmaState ema = new EmaState(p);
+            double[] values = new double[size];
+            for (int i = 0; i < size; i++) {
+                ema.update(closes[i]);
+                values[i] = ema.isReady() ? ema.value() : Double.NaN;
+            }
+            return values;
+        });
+    }
+
+    byte[] rsi(int period) {
+        return rsiScores.computeIfAbsent(period, p -> {
+            WilderAverage averageGain = new WilderAverage(p);
+            WilderAverage averageLoss = new WilderAverage(p);
+            byte[] scores = new byte[size];
+            for (int i = 1; i < size; i++) {
+                double difference = changes[i];
+                if (difference > 0) {
+                    averageGain.update(difference);
+                    averageLoss.update(0);
+                } else {
+                    averageGain.update(0);
+                    averageLoss.update(-difference);
+                }
+                if (!averageLoss.isReady()) {
+                    continue;
+                }
+                double avgLoss = averageLoss.value();
+                double rsi = avgLoss == 0 ? 100 : 100 - 100 / (1 + averageGain.value() / avgLoss);
+                scores[i] = (byte) (rsi > 70 ? -1 : rsi < 30 ? 1 : 0);
+            }
+            return scores;
+        });
+    }
+
+    byte[] macd(int shortPeriod, int longPeriod, int signalPeriod) {
+        return macdScores.computeIfAbsent(new MacdKey(shortPeriod, longPeriod, signalPeriod), key -> {
+            double[] emaShort = ema(shortPeriod);
+            double[] emaLong = ema(longPeriod);
+            EmaState signalEma = new EmaState(signalPeriod);
+            double macd = Double.NaN;
+            double previousMacd = Double.NaN;
+            double previousSignal = Double.NaN;
+            byte[] scores = new byte[size];
+            for (int i = longPeriod - 1; i < size; i++) {
+                if (signalEma.isReady()) {
+                    previousMacd = macd;
+                    previousSignal = signalEma.value();
+                }
+                macd = emaShort[i] - emaLong[i];
+                signalEma.update(macd);
+                if (signalEma.count() <= signalPeriod) {
+                    continue;
+                }
+                double signal = signalEma.value();
+                if (previousMacd <= previousSignal && macd > signal) {
+                    scores[i] = 1;
+                } else if (previousMacd >= previousSignal && macd < signal) {
+                    scores[i] = -1;
+                }
+            }
+            return scores;
+        });
+    }
+
+    byte[] bollinger(int period, double stdDevMultiplier) {
+        return bollingerScores.computeIfAbsent(new BollingerKey(period, stdDevMultiplier), key -> {
+            double[][] window = bollingerWindow(period);
+            double[] middle = window[0];
+            double[] deviation = window[1];
+            byte[] scores = new byte[size];
+            for (int i = period - 1; i < size; i++) {
+                if (closes[i] > middle[i] + deviation[i] * stdDevMultiplier) {
+                    scores[i] = -1;
+                } else if (closes[i] < middle[i] - deviation[i] * stdDevMultiplier) {
+                    scores[i] = 1;
+                }
+            }
+            return scores;
+        });
+    }
+
+    /**
+     * Média e desvio padrão populacional da janela por vela (compartilhados por todos os multiplicadores).
+     */
+    private double[][] bollingerWindow(int period) {
+        return bollingerWindows.computeIfAbsent(period, p -> {
+            RollingWindow window = new RollingWindow(p);
+            double[] middle = new double[size];
+            double[] deviation = new double[size];
+            for (int i = 0; i < size; i++) {
+                window.update(closes[i]);
+                middle[i] = window.isFull() ? window.mean() : Double.NaN;
+                deviation[i] = window.isFull() ? window.standardDeviation() : Double.NaN;
+            }
+            return new double[][] {middle, deviation};
+        });
+    }
+
+    private record MacdKey(int shortPeriod, int longPeriod, int signalPeriod) {
+    }
+
+    private record BollingerKey(int period, double stdDevMultiplier) {
+    }
+}
@@ -0,0 +1,39 @@
+package com.whs.trading.gemini.optimizer;
+
+import java.util.Map;
+
+/**
+ * Um passo do walk-forward: a melhor combinação no trecho de treino e o resultado dela no trecho seguinte.
+ */
+public class WalkForwardFold {
+    private final int fold;
+    private final long trainStart;
+    private final long trainEnd;
+    private final long testStart;
+    private final long testEnd;
+    private final Map<String, String> parameters;
+    private final double trainObjective;
+    private final double testObjective;
+
+    public WalkForwardFold(int fold, long trainStart, long trainEnd, long testStart, long testEnd,
+                           Map<String, String> parameters, double trainObjective, double testObjective) {
+        this.fold = fold;
+        this.trainStart = trainStart;
+        this.trainEnd = trainEnd;
+        this.testStart = testStart;
+        this.testEnd = testEnd;
+        this.parameters = parameters;
+        this.trainObjective = trainObjective;
+        this.testObjective = testObjective;
+    }
+
+    // Getters
+    public int getFold() { return fold; }
+    public long getTrainStart() { return trainStart; }
+    public long getTrainEnd() { return trainEnd; }
+    public long getTestStart() { return testStart; }
+    public long getTestEnd() { return testEnd; }
+    public Map<String, String> getParameters() { return parameters; }
+    public double getTrainObjective() { return trainObjective; }
+    public double getTestObjective() { return testObjective; }
+}
@@ -0,0 +1,105 @@
+package com.whs.trading.gemini.screener;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.whs.trading.gemini.dto.CandleSeries;
+
+/**
+ * Últimos {@code window} fechamentos de vários papéis num único bloco struct-of-arrays: a linha {@code row}
+ * (0 = mais antiga) guarda o fechamento de cada papel lado a lado, em {@code closes[row * size + column]}.
+ * <p>
+ * Assim cada regra do screener é uma soma de linhas inteiras, papel a papel na mesma posição de cada linha,
+ * sem redução horizontal: o kernel vetorial carrega um vetor de papéis por linha.
+ */
+public final class CloseBlock {
+
+    private final String[] tickers;
+    private final long[] lastOpenTimes;
+    private final int window;
+    private final double[] closes;
+
+    private CloseBlock(String[] tickers, long[] lastOpenTimes, int window, double[] closes) {
+        this.tickers = tickers;
+        this.lastOpenTimes = lastOpenTimes;
+        this.window = window;
+        this.closes = closes;
+    }
+
+    public static Builder builder(int window) {
+        return new Builder(window);
+    }
+
+    public int size() {
+        return tickers.length;
+    }
+
+    public int window() {
+        return window;
+    }
+
+    public String ticker(int column) {
+        return tickers[column];
+    }
+
+    public long lastOpenTime(int column) {
+        return lastOpenTimes[column];
+    }
+
+    public double close(int row, int column) {
+        return closes[row * tickers.length + column];
+    }
+
+    double[] closes() {
+        return closes;
+    }
+
+    public static final class Builder {
+
+        private final int window;
+        private final List<String> tickers = new ArrayList<>();
+        private final List<double[]> columns = new ArrayList<>();
+        private final List<Long> lastOpenTimes = new ArrayList<>();
+
+        private Builder(int window) {
+            if (window <= 0) {
+                throw new IllegalArgumentException("window deve ser positivo: " + window);
+            }
+            this.window = window;
+        }
+
+        /**
+         * Copia os últimos {@code window} fechamentos da série.
+         *
+         * @return false (papel não incluído) se a série tiver menos velas que a janela.
+         */
+        public boolean add(String ticker, CandleSeries series) {
+            int size = series.size();
+            if (size < window) {
+                return false;
+            }
+            double[] column = new double[window];
+            for (int row = 0, i = size - window; row < window; row++, i++) {
+                column[row] = series.close(i);
+            }
+            tickers.add(ticker);
+            columns.add(column);
+            lastOpenTimes.add(series.openTime(size - 1));
+            return true;
+        }
+
+        public CloseBlock build() {
+            int size = tickers.size();
+            double[] closes = new double[window * size];
+            long[] openTimes = new long[size];
+            for (int column = 0; column < size; column++) {
+                double[] values = columns.get(column);
+                for (int row = 0; row < window; row++) {
+                    closes[row * size + column] = values[row];
+                }
+                openTimes[column] = lastOpenTimes.get(column);
+            }
+            return new CloseBlock(tickers.toArray(String[]::new), openTimes, window, closes);
+        }
+    }
+}
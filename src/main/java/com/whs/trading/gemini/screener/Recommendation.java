@@ -0,0 +1,30 @@
+package com.whs.trading.gemini.screener;
+
+/**
+ * Recomendação do screener para um papel, com as regras de {@code RecomendacaoPETZ3}.
+ *
+ * @param lastOpenTime Abertura da última vela considerada.
+ * @param price        Último fechamento.
+ * @param action       {@code BUY} se MMS curta &gt; média, RSI abaixo de sobrecomprado e preço abaixo da banda
+ *                     superior; senão {@code PARTIAL_SELL} se MMS curta &lt; média, RSI acima de sobrevendido e
+ *                     preço acima da banda inferior; senão {@code WAIT}.
+ * @param stopLoss     Suporte: menor fechamento da janela (só em {@code BUY}; senão NaN).
+ * @param takeProfit   Resistência: maior fechamento da janela (só em {@code PARTIAL_SELL}; senão NaN).
+ */
+public record Recommendation(String ticker, long lastOpenTime, double price,
+                             double smaShort, double smaMedium, double smaLong, double rsi,
+                             double upperBand, double lowerBand,
+                             Trend trend, RsiZone rsiZone, BandPosition bandPosition, Action action,
+                             double stopLoss, double takeProfit) {
+
+    /**
+     * Alta forte: MMS curta &gt; média &gt; longa; baixa forte: curta &lt; média &lt; longa.
+     */
+    public enum Trend { STRONG_UPTREND, STRONG_DOWNTREND, SIDEWAYS }
+
+    public enum RsiZone { OVERBOUGHT, OVERSOLD, NEUTRAL }
+
+    public enum BandPosition { ABOVE_UPPER, BELOW_LOWER, INSIDE }
+
+    public enum Action { BUY, PARTIAL_SELL, WAIT }
+}
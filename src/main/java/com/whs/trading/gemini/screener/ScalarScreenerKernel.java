@@ -0,0 +1,89 @@
+package com.whs.trading.gemini.screener;
+
+/**
+ * Kernel escalar: um papel por vez. Também cobre as colunas que sobram do último vetor cheio no
+ * {@link VectorScreenerKernel}.
+ */
+final class ScalarScreenerKernel implements ScreenerKernel {
+
+    @Override
+    public String name() {
+        return "scalar";
+    }
+
+    @Override
+    public ScreenerColumns evaluate(CloseBlock block, ScreenerRules rules) {
+        ScreenerColumns out = new ScreenerColumns(block.size());
+        evaluate(block, rules, out, 0, block.size());
+        return out;
+    }
+
+    /**
+     * Avalia as colunas [from, to).
+     */
+    static void evaluate(CloseBlock block, ScreenerRules rules, ScreenerColumns out, int from, int to) {
+        double[] c = block.closes();
+        int n = block.size();
+        int window = block.window();
+        for (int i = from; i < to; i++) {
+            double price = c[(window - 1) * n + i];
+            double smaShort = sum(c, n, i, window, rules.shortPeriod()) / rules.shortPeriod();
+            double smaMedium = sum(c, n, i, window, rules.mediumPeriod()) / rules.mediumPeriod();
+            double smaLong = sum(c, n, i, window, rules.longPeriod()) / rules.longPeriod();
+
+            double gains = 0;
+            double losses = 0;
+            for (int row = window - rules.rsiPeriod(); row < window; row++) {
+                double change = c[row * n + i] - c[(row - 1) * n + i];
+                gains += Math.max(change, 0.0);
+                losses += Math.max(-change, 0.0);
+            }
+            double averageGain = gains / rules.rsiPeriod();
+            double averageLoss = losses / rules.rsiPeriod();
+            double rsi = averageLoss == 0 ? 100 : 100 - 100 / (averageGain / averageLoss + 1);
+
+            double mean = sum(c, n, i, window, rules.bandPeriod()) / rules.bandPeriod();
+            double squares = 0;
+            for (int row = window - rules.bandPeriod(); row < window; row++) {
+                double deviation = c[row * n + i] - mean;
+                squares += deviation * deviation;
+            }
+            double width = Math.sqrt(squares / rules.bandPeriod()) * rules.bandMultiplier();
+            double upper = mean + width;
+            double lower = mean - width;
+
+            double low = c[i];
+            double high = c[i];
+            for (int row = 1; row < window; row++) {
+                low = Math.min(low, c[row * n + i]);
+                high = Math.max(high, c[row * n + i]);
+            }
+
+            out.price[i] = price;
+            out.smaShort[i] = smaShort;
+            out.smaMedium[i] = smaMedium;
+            out.smaLong[i] = smaLong;
+            out.rsi[i] = rsi;
+            out.upperBand[i] = upper;
+            out.lowerBand[i] = lower;
+            out.low[i] = low;
+            out.high[i] = high;
+            out.strongUptrend[i] = smaShort > smaMedium && smaMedium > smaLong;
+            out.strongDowntrend[i] = smaShort < smaMedium && smaMedium < smaLong;
+            out.overbought[i] = rsi > rules.overbought();
+            out.oversold[i] = rsi < rules.oversold();
+            out.aboveUpperBand[i] = price > upper;
+            out.belowLowerBand[i] = price < lower;
+            out.buy[i] = smaShort > smaMedium && rsi < rules.overbought() && price < upper;
+            out.partialSell[i] = smaShort < smaMedium && rsi > rules.oversold() && price > lower;
+        }
+    }
+
+    private static double sum(double[] c, int n, int i, int window, int period) {
+        double sum = 0;
+        for (int row = window - period; row < window; row++) {
+            sum += c[row * n + i];
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,74 @@
+package com.whs.trading.gemini.screener;
+
+/**
+ * Saída de um {@link ScreenerKernel}, uma posição por coluna do {@link CloseBlock}: os indicadores e cada
+ * condição das regras já avaliada.
+ */
+public final class ScreenerColumns {
+
+    final double[] price;
+    final double[] smaShort;
+    final double[] smaMedium;
+    final double[] smaLong;
+    final double[] rsi;
+    final double[] upperBand;
+    final double[] lowerBand;
+    final double[] low;
+    final double[] high;
+
+    final boolean[] strongUptrend;
+    final boolean[] strongDowntrend;
+    final boolean[] overbought;
+    final boolean[] oversold;
+    final boolean[] aboveUpperBand;
+    final boolean[] belowLowerBand;
+    final boolean[] buy;
+    final boolean[] partialSell;
+
+    ScreenerColumns(int size) {
+        price = new double[size];
+        smaShort = new double[size];
+        smaMedium = new double[size];
+        smaLong = new double[size];
+        rsi = new double[size];
+        upperBand = new double[size];
+        lowerBand = new double[size];
+        low = new double[size];
+        high = new double[size];
+        strongUptrend = new boolean[size];
+        strongDowntrend = new boolean[size];
+        overbought = new boolean[size];
+        oversold = new boolean[size];
+        aboveUpperBand = new boolean[size];
+        belowLowerBand = new boolean[size];
+        buy = new boolean[size];
+        partialSell = new boolean[size];
+    }
+
+    public int size() {
+        return price.length;
+    }
+
+    /**
+     * Recomendação do papel na coluna {@code column} do bloco avaliado.
+     */
+    public Recommendation recommendation(CloseBlock block, int column) {
+        Recommendation.Trend trend = strongUptrend[column] ? Recommendation.Trend.STRONG_UPTREND
+                : strongDowntrend[column] ? Recommendation.Trend.STRONG_DOWNTREND
+                : Recommendation.Trend.SIDEWAYS;
+        Recommendation.RsiZone rsiZone = overbought[column] ? Recommendation.RsiZone.OVERBOUGHT
+                : oversold[column] ? Recommendation.RsiZone.OVERSOLD
+                : Recommendation.RsiZone.NEUTRAL;
+        Recommendation.BandPosition band = aboveUpperBand[column] ? Recommendation.BandPosition.ABOVE_UPPER
+                : belowLowerBand[column] ? Recommendation.BandPosition.BELOW_LOWER
+                : Recommendation.BandPosition.INSIDE;
+        Recommendation.Action action = buy[column] ? Recommendation.Action.BUY
+                : partialSell[column] ? Recommendation.Action.PARTIAL_SELL
+                : Recommendation.Action.WAIT;
+        return new Recommendation(block.ticker(column), block.lastOpenTime(column), price[column],
+                smaShort[column], smaMedium[column], smaLong[column], rsi[column],
+                upperBand[column], lowerBand[column], trend, rsiZone, band, action,
+                action == Recommendation.Action.BUY ? low[column] : Double.NaN,
+                action == Recommendation.Action.PARTIAL_SELL ? high[column] : Double.NaN);
+    }
+}
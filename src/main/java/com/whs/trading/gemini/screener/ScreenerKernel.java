@@ -0,0 +1,46 @@
+package com.whs.trading.gemini.screener;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Avalia as regras do screener para todos os papéis de um {@link CloseBlock}.
+ * <p>
+ * As duas implementações fazem as mesmas operações na mesma ordem (sem FMA), então dão resultados idênticos.
+ */
+public interface ScreenerKernel {
+
+    String name();
+
+    ScreenerColumns evaluate(CloseBlock block, ScreenerRules rules);
+
+    static ScreenerKernel scalar() {
+        return new ScalarScreenerKernel();
+    }
+
+    /**
+     * Kernel da Vector API.
+     *
+     * @throws UnsupportedOperationException se o módulo {@code jdk.incubator.vector} não foi carregado
+     *                                       ({@code --add-modules jdk.incubator.vector}).
+     */
+    static ScreenerKernel vector() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            throw new UnsupportedOperationException("Módulo jdk.incubator.vector ausente; inicie a JVM com --add-modules jdk.incubator.vector");
+        }
+        return new VectorScreenerKernel();
+    }
+
+    /**
+     * O kernel vetorial se disponível, senão o escalar.
+     */
+    static ScreenerKernel best() {
+        Logger log = LoggerFactory.getLogger(ScreenerKernel.class);
+        try {
+            return vector();
+        } catch (UnsupportedOperationException | LinkageError e) {
+            log.warn("Vector API unavailable, screener falls back to the scalar kernel: {}", e.getMessage());
+            return scalar();
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.whs.trading.gemini.screener;
+
+import java.util.List;
+
+/**
+ * Resultado de uma varredura do screener.
+ *
+ * @param kernel              Kernel usado ({@code scalar} ou {@code vector-<bits>}).
+ * @param window              Fechamentos por papel ({@link ScreenerRules#window()}).
+ * @param tickers             Papéis avaliados.
+ * @param insufficientHistory Papéis com menos velas que a janela, fora da avaliação.
+ * @param kernelMicros        Tempo só da avaliação das regras sobre o bloco.
+ * @param elapsedMillis       Tempo total, incluindo a montagem do bloco a partir das séries.
+ */
+public record ScreenerReport(String kernel, int window, int tickers, List<String> insufficientHistory,
+                             long kernelMicros, long elapsedMillis, List<Recommendation> recommendations) {
+}
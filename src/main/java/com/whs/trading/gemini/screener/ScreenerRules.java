@@ -0,0 +1,60 @@
+package com.whs.trading.gemini.screener;
+
+import java.util.Map;
+
+/**
+ * Parâmetros das regras do screener (as de {@code RecomendacaoPETZ3}: MMS-5/10/20, RSI-14 com 70/30 e Bollinger
+ * 20 com 2 desvios).
+ *
+ * @param shortPeriod    Média móvel curta ({@code smaShort}).
+ * @param mediumPeriod   Média móvel média ({@code smaMedium}).
+ * @param longPeriod     Média móvel longa ({@code smaLong}).
+ * @param rsiPeriod      Variações do RSI, média simples de ganhos e perdas ({@code rsiPeriod}).
+ * @param overbought     RSI acima disso: sobrecomprado ({@code rsiOverbought}).
+ * @param oversold       RSI abaixo disso: sobrevendido ({@code rsiOversold}).
+ * @param bandPeriod     Fechamentos das bandas de Bollinger ({@code bbPeriod}).
+ * @param bandMultiplier Desvios-padrão (populacionais) entre a média e cada banda ({@code bbStdDevMult}).
+ */
+public record ScreenerRules(int shortPeriod, int mediumPeriod, int longPeriod, int rsiPeriod,
+                            double overbought, double oversold, int bandPeriod, double bandMultiplier) {
+
+    public static final ScreenerRules DEFAULT = new ScreenerRules(5, 10, 20, 14, 70, 30, 20, 2);
+
+    public ScreenerRules {
+        if (shortPeriod <= 0 || mediumPeriod <= 0 || longPeriod <= 0 || rsiPeriod <= 0 || bandPeriod <= 0) {
+            throw new IllegalArgumentException("Períodos do screener devem ser positivos");
+        }
+        if (!(oversold < overbought)) {
+            throw new IllegalArgumentException("rsiOversold (" + oversold + ") deve ser menor que rsiOverbought (" + overbought + ")");
+        }
+        if (!(bandMultiplier > 0)) {
+            throw new IllegalArgumentException("bbStdDevMult deve ser positivo");
+        }
+    }
+
+    /**
+     * Regras padrão com os parâmetros informados sobrepostos (os ausentes ficam no padrão).
+     */
+    public static ScreenerRules fromParams(Map<String, String> params) {
+        try {
+            return new ScreenerRules(
+                    Integer.parseInt(params.getOrDefault("smaShort", String.valueOf(DEFAULT.shortPeriod))),
+                    Integer.parseInt(params.getOrDefault("smaMedium", String.valueOf(DEFAULT.mediumPeriod))),
+                    Integer.parseInt(params.getOrDefault("smaLong", String.valueOf(DEFAULT.longPeriod))),
+                    Integer.parseInt(params.getOrDefault("rsiPeriod", String.valueOf(DEFAULT.rsiPeriod))),
+                    Double.parseDouble(params.getOrDefault("rsiOverbought", String.valueOf(DEFAULT.overbought))),
+                    Double.parseDouble(params.getOrDefault("rsiOversold", String.valueOf(DEFAULT.oversold))),
+                    Integer.parseInt(params.getOrDefault("bbPeriod", String.valueOf(DEFAULT.bandPeriod))),
+                    Double.parseDouble(params.getOrDefault("bbStdDevMult", String.valueOf(DEFAULT.bandMultiplier))));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Parâmetro numérico inválido: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Fechamentos necessários por papel: o maior período (o RSI precisa de um fechamento a mais que variações).
+     */
+    public int window() {
+        return Math.max(Math.max(Math.max(shortPeriod, mediumPeriod), Math.max(longPeriod, bandPeriod)), rsiPeriod + 1);
+    }
+}
@@ -0,0 +1,83 @@
+package com.whs.trading.gemini.screener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.whs.trading.gemini.b3.B3HistoryService;
+import com.whs.trading.gemini.dto.CandleSeries;
+
+/**
+ * Screener transversal: as regras de {@code RecomendacaoPETZ3} (tendência pelas médias móveis, zonas do RSI e
+ * bandas de Bollinger) avaliadas de uma vez para todos os papéis do histórico da B3, num {@link CloseBlock}.
+ * <p>
+ * Usa o kernel da Vector API quando a JVM carrega {@code jdk.incubator.vector} e {@code screener.vector-api} é
+ * true; senão o escalar, com o mesmo resultado.
+ */
+@Service
+public class ScreenerService {
+
+    private static final Logger log = LoggerFactory.getLogger(ScreenerService.class);
+
+    private final B3HistoryService history;
+    private final ScreenerKernel kernel;
+
+    @Autowired
+    public ScreenerService(B3HistoryService history, @Value("${screener.vector-api:true}") boolean vectorApi) {
+        this(history, vectorApi ? ScreenerKernel.best() : ScreenerKernel.scalar());
+    }
+
+    public ScreenerService(B3HistoryService history, ScreenerKernel kernel) {
+        this.history = history;
+        this.kernel = kernel;
+        log.info("Screener kernel: {}", kernel.name());
+    }
+
+    public String getKernelName() {
+        return kernel.name();
+    }
+
+    /**
+     * Avalia os papéis do histórico da B3.
+     *
+     * @param tickers Papéis (null ou vazio: todos os importados).
+     * @param actions Só devolve recomendações com essas ações (null ou vazio: todas).
+     */
+    public ScreenerReport screen(Collection<String> tickers, ScreenerRules rules,
+                                 Set<Recommendation.Action> actions) {
+        long start = System.currentTimeMillis();
+        Collection<String> universe = tickers == null || tickers.isEmpty() ? history.getTickers() : tickers;
+        CloseBlock.Builder builder = CloseBlock.builder(rules.window());
+        List<String> insufficient = new ArrayList<>();
+        for (String ticker : universe) {
+            String upper = ticker.trim().toUpperCase(Locale.ROOT);
+            CandleSeries series = history.getSeries(upper);
+            if (!builder.add(upper, series)) {
+                insufficient.add(upper);
+            }
+        }
+        CloseBlock block = builder.build();
+
+        long kernelStart = System.nanoTime();
+        ScreenerColumns columns = kernel.evaluate(block, rules);
+        long kernelMicros = (System.nanoTime() - kernelStart) / 1_000;
+
+        List<Recommendation> recommendations = new ArrayList<>();
+        for (int column = 0; column < block.size(); column++) {
+            Recommendation recommendation = columns.recommendation(block, column);
+            if (actions == null || actions.isEmpty() || actions.contains(recommendation.action())) {
+                recommendations.add(recommendation);
+            }
+        }
+        return new ScreenerReport(kernel.name(), block.window(), block.size(), insufficient, kernelMicros,
+                System.currentTimeMillis() - start, recommendations);
+    }
+}
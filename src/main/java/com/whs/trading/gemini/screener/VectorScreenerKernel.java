@@ -0,0 +1,114 @@
+package com.whs.trading.gemini.screener;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Kernel da Vector API ({@code jdk.incubator.vector}): cada operação avalia {@code SPECIES.length()} papéis
+ * de uma vez, lendo as linhas do {@link CloseBlock} em vetores. As colunas que sobram do último vetor cheio
+ * vão pelo {@link ScalarScreenerKernel}.
+ * <p>
+ * Só é carregada por {@link ScreenerKernel#vector()}, depois de confirmar que o módulo está presente.
+ */
+final class VectorScreenerKernel implements ScreenerKernel {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    @Override
+    public String name() {
+        return "vector-" + SPECIES.vectorBitSize();
+    }
+
+    @Override
+    public ScreenerColumns evaluate(CloseBlock block, ScreenerRules rules) {
+        ScreenerColumns out = new ScreenerColumns(block.size());
+        int bound = SPECIES.loopBound(block.size());
+        for (int i = 0; i < bound; i += SPECIES.length()) {
+            evaluate(block, rules, out, i);
+        }
+        ScalarScreenerKernel.evaluate(block, rules, out, bound, block.size());
+        return out;
+    }
+
+    private static void evaluate(CloseBlock block, ScreenerRules rules, ScreenerColumns out, int i) {
+        double[] c = block.closes();
+        int n = block.size();
+        int window = block.window();
+        DoubleVector price = DoubleVector.fromArray(SPECIES, c, (window - 1) * n + i);
+        DoubleVector smaShort = sum(c, n, i, window, rules.shortPeriod()).div(rules.shortPeriod());
+        DoubleVector smaMedium = sum(c, n, i, window, rules.mediumPeriod()).div(rules.mediumPeriod());
+        DoubleVector smaLong = sum(c, n, i, window, rules.longPeriod()).div(rules.longPeriod());
+
+        DoubleVector gains = DoubleVector.zero(SPECIES);
+        DoubleVector losses = DoubleVector.zero(SPECIES);
+        DoubleVector previous = DoubleVector.fromArray(SPECIES, c, (window - rules.rsiPeriod() - 1) * n + i);
+        for (int row = window - rules.rsiPeriod(); row < window; row++) {
+            DoubleVector current = DoubleVector.fromArray(SPECIES, c, row * n + i);
+            DoubleVector change = current.sub(previous);
+            gains = gains.add(change.max(0.0));
+            losses = losses.add(change.neg().max(0.0));
+            previous = current;
+        }
+        DoubleVector averageGain = gains.div(rules.rsiPeriod());
+        DoubleVector averageLoss = losses.div(rules.rsiPeriod());
+        // Sem perdas a divisão dá infinito ou NaN, substituídos por 100
+        DoubleVector hundred = DoubleVector.broadcast(SPECIES, 100);
+        DoubleVector rsi = hundred.sub(hundred.div(averageGain.div(averageLoss).add(1)))
+                .blend(hundred, averageLoss.compare(VectorOperators.EQ, 0));
+
+        DoubleVector mean = sum(c, n, i, window, rules.bandPeriod()).div(rules.bandPeriod());
+        DoubleVector squares = DoubleVector.zero(SPECIES);
+        for (int row = window - rules.bandPeriod(); row < window; row++) {
+            DoubleVector deviation = DoubleVector.fromArray(SPECIES, c, row * n + i).sub(mean);
+            squares = squares.add(deviation.mul(deviation));
+        }
+        DoubleVector width = squares.div(rules.bandPeriod()).sqrt().mul(rules.bandMultiplier());
+        DoubleVector upper = mean.add(width);
+        DoubleVector lower = mean.sub(width);
+
+        DoubleVector low = DoubleVector.fromArray(SPECIES, c, i);
+        DoubleVector high = low;
+        for (int row = 1; row < window; row++) {
+            DoubleVector close = DoubleVector.fromArray(SPECIES, c, row * n + i);
+            low = low.min(close);
+            high = high.max(close);
+        }
+
+        price.intoArray(out.price, i);
+        smaShort.intoArray(out.smaShort, i);
+        smaMedium.intoArray(out.smaMedium, i);
+        smaLong.intoArray(out.smaLong, i);
+        rsi.intoArray(out.rsi, i);
+        upper.intoArray(out.upperBand, i);
+        lower.intoArray(out.lowerBand, i);
+        low.intoArray(out.low, i);
+        high.intoArray(out.high, i);
+
+        VectorMask<Double> shortAboveMedium = smaShort.compare(VectorOperators.GT, smaMedium);
+        VectorMask<Double> shortBelowMedium = smaShort.compare(VectorOperators.LT, smaMedium);
+        VectorMask<Double> overbought = rsi.compare(VectorOperators.GT, rules.overbought());
+        VectorMask<Double> oversold = rsi.compare(VectorOperators.LT, rules.oversold());
+        VectorMask<Double> belowUpper = price.compare(VectorOperators.LT, upper);
+        VectorMask<Double> aboveLower = price.compare(VectorOperators.GT, lower);
+        shortAboveMedium.and(smaMedium.compare(VectorOperators.GT, smaLong)).intoArray(out.strongUptrend, i);
+        shortBelowMedium.and(smaMedium.compare(VectorOperators.LT, smaLong)).intoArray(out.strongDowntrend, i);
+        overbought.intoArray(out.overbought, i);
+        oversold.intoArray(out.oversold, i);
+        price.compare(VectorOperators.GT, upper).intoArray(out.aboveUpperBand, i);
+        price.compare(VectorOperators.LT, lower).intoArray(out.belowLowerBand, i);
+        shortAboveMedium.and(rsi.compare(VectorOperators.LT, rules.overbought())).and(belowUpper)
+                .intoArray(out.buy, i);
+        shortBelowMedium.and(rsi.compare(VectorOperators.GT, rules.oversold())).and(aboveLower)
+                .intoArray(out.partialSell, i);
+    }
+
+    private static DoubleVector sum(double[] c, int n, int i, int window, int period) {
+        DoubleVector sum = DoubleVector.zero(SPECIES);
+        for (int row = window - period; row < window; row++) {
+            sum = sum.add(DoubleVector.fromArray(SPECIES, c, row * n + i));
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,208 @@
+package com.whs.trading.gemini.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToIntFunction;
+import java.util.zip.GZIPInputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+
+import com.whs.trading.gemini.dto.CandleSeries;
+import com.whs.trading.gemini.dto.CandlestickData;
+import com.whs.trading.gemini.service.BinanceMarketDataService.BodyReader;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Cliente REST assíncrono da Binance sobre o {@link HttpClient} do JDK: HTTP/2 (uma conexão multiplexada por
+ * host; HTTP/1.1 com conexões keep-alive reaproveitadas se o servidor não negociar HTTP/2), respostas em gzip e
+ * E/S sem bloqueio. Só as {@code binance.api.async.threads} threads do executor (mais o seletor do cliente)
+ * atendem todas as chamadas em andamento: o corpo chega inteiro em memória e é lido pelo mesmo
+ * {@link KlineJsonParser} do cliente bloqueante.
+ * <p>
+ * Divide com o {@link BinanceMarketDataService} o {@link RequestWeightLimiter} (reservado sem bloquear, com
+ * {@link RequestWeightLimiter#acquireAsync}) e as métricas {@code binance.*}. Conexões HTTP/1.1 ociosas ficam
+ * abertas por {@code -Djdk.httpclient.keepalive.timeout} segundos (padrão 30).
+ */
+@Service
+public class AsyncBinanceMarketDataService implements AsyncMarketDataService, MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncBinanceMarketDataService.class);
+
+    private final RequestWeightLimiter weightLimiter;
+    private final String baseUrl;
+    private final Duration requestTimeout;
+    private final ExecutorService executor;
+    private final HttpClient httpClient;
+    private final BinanceRequestMetrics metrics;
+
+    @Autowired
+    public AsyncBinanceMarketDataService(RequestWeightLimiter weightLimiter,
+                                         @Value("${binance.api.base-url:" + BinanceMarketDataService.BINANCE_API_BASE_URL + "}") String baseUrl,
+                                         @Value("${binance.api.async.threads:4}") int threads,
+                                         @Value("${binance.api.async.connect-timeout-seconds:5}") long connectTimeoutSeconds,
+                                         @Value("${binance.api.async.request-timeout-seconds:10}") long requestTimeoutSeconds) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("binance.api.async.threads deve ser positivo: " + threads);
+        }
+        this.weightLimiter = weightLimiter;
+        this.baseUrl = baseUrl;
+        this.requestTimeout = Duration.ofSeconds(requestTimeoutSeconds);
+        AtomicInteger count = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "binance-http-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofSeconds(connectTimeoutSeconds))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .executor(executor)
+                .build();
+        this.metrics = new BinanceRequestMetrics(weightLimiter);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        metrics.bindTo(registry);
+    }
+
+    @Override
+    public CompletableFuture<List<CandlestickData>> getHistoricalCandlesticksAsync(String symbol, String interval,
+                                                                                  Integer limit, Long startTime,
+                                                                                  Long endTime) {
+        return requestKlines(symbol, interval, limit, startTime, endTime, KlineJsonParser::parseCandlesticks, List::size)
+                .exceptionally(error -> {
+                    logFailure(error);
+                    return Collections.emptyList();
+                });
+    }
+
+    @Override
+    public CompletableFuture<CandleSeries> getCandleSeriesAsync(String symbol, String interval, Integer limit,
+                                                                Long startTime, Long endTime) {
+        return requestKlines(symbol, interval, limit, startTime, endTime, KlineJsonParser::parseSeries, CandleSeries::size)
+                .exceptionally(error -> {
+                    logFailure(error);
+                    return CandleSeries.empty();
+                });
+    }
+
+    /**
+     * Uma página de klines; o futuro completa com o erro (HTTP, I/O, timeout) em vez de uma série vazia, como
+     * {@link BinanceMarketDataService#fetchCandleSeriesPage}. Erros HTTP chegam como
+     * {@link HttpClientErrorException} ou {@link HttpServerErrorException}, os mesmos do cliente bloqueante.
+     */
+    public CompletableFuture<CandleSeries> fetchCandleSeriesPageAsync(String symbol, String interval, Integer limit,
+                                                                      Long startTime, Long endTime) {
+        return requestKlines(symbol, interval, limit, startTime, endTime, KlineJsonParser::parseSeries, CandleSeries::size);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T> CompletableFuture<T> requestKlines(String symbol, String interval, Integer limit, Long startTime,
+                                                   Long endTime, BodyReader<T> reader, ToIntFunction<T> candleCount) {
+        String url = BinanceMarketDataService.klinesUrl(baseUrl, symbol, interval, limit, startTime, endTime);
+        logger.debug("Fetching klines asynchronously from Binance API: {}", url);
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .timeout(requestTimeout)
+                .header("Accept-Encoding", "gzip")
+                .GET()
+                .build();
+        return weightLimiter.acquireAsync(BinanceMarketDataService.KLINES_REQUEST_WEIGHT).thenCompose(ignored -> {
+            long start = System.nanoTime();
+            return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                    .handle((response, error) -> read(response, error, start, reader, candleCount));
+        });
+    }
+
+    private <T> T read(HttpResponse<byte[]> response, Throwable error, long start, BodyReader<T> reader,
+                       ToIntFunction<T> candleCount) {
+        if (error != null) {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            metrics.recordRequest(BinanceMarketDataService.KLINES_ENDPOINT, BinanceMarketDataService.statusOf(cause), start);
+            throw error instanceof CompletionException completion ? completion : new CompletionException(error);
+        }
+        recordUsedWeight(response.headers());
+        int status = response.statusCode();
+        if (status >= 400) {
+            // 429 (limite excedido) e 418 (IP banido temporariamente): não gastar mais peso nesta janela
+            if (status == 429 || status == 418) {
+                weightLimiter.exhaustWindow();
+            }
+            metrics.recordRequest(BinanceMarketDataService.KLINES_ENDPOINT, String.valueOf(status), start);
+            throw new CompletionException(httpError(response));
+        }
+        long parseStart = System.nanoTime();
+        try (InputStream body = body(response)) {
+            T parsed = reader.read(body);
+            metrics.recordParse(candleCount.applyAsInt(parsed), parseStart);
+            metrics.recordRequest(BinanceMarketDataService.KLINES_ENDPOINT, String.valueOf(status), start);
+            return parsed;
+        } catch (IOException e) {
+            metrics.recordRequest(BinanceMarketDataService.KLINES_ENDPOINT, BinanceMarketDataService.statusOf(e), start);
+            throw new CompletionException(new UncheckedIOException(e));
+        }
+    }
+
+    private static InputStream body(HttpResponse<byte[]> response) throws IOException {
+        InputStream body = new ByteArrayInputStream(response.body());
+        String encoding = response.headers().firstValue("Content-Encoding").orElse("");
+        return "gzip".equalsIgnoreCase(encoding) ? new GZIPInputStream(body) : body;
+    }
+
+    private static RuntimeException httpError(HttpResponse<byte[]> response) {
+        HttpHeaders headers = new HttpHeaders();
+        response.headers().map().forEach(headers::addAll);
+        HttpStatusCode status = HttpStatusCode.valueOf(response.statusCode());
+        byte[] body = response.body();
+        return status.is4xxClientError()
+                ? HttpClientErrorException.create(status, "", headers, body, StandardCharsets.UTF_8)
+                : HttpServerErrorException.create(status, "", headers, body, StandardCharsets.UTF_8);
+    }
+
+    private void recordUsedWeight(java.net.http.HttpHeaders headers) {
+        metrics.recordUsedWeight(headers.firstValue(BinanceRequestMetrics.USED_WEIGHT_HEADER)
+                .or(() -> headers.firstValue(BinanceRequestMetrics.LEGACY_USED_WEIGHT_HEADER))
+                .orElse(null));
+    }
+
+    private static void logFailure(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof HttpClientErrorException e) {
+            logger.error("HTTP Client Error when calling Binance API: {} - {}", e.getStatusCode(), e.getResponseBodyAsString(), e);
+        } else {
+            logger.error("An unexpected error occurred when calling Binance API: {}", cause.getMessage(), cause);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.whs.trading.gemini.service;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import com.whs.trading.gemini.dto.CandleSeries;
+import com.whs.trading.gemini.dto.CandlestickData;
+
+/**
+ * Variante assíncrona de {@link MarketDataService}: as consultas devolvem na hora um {@link CompletableFuture},
+ * sem ocupar uma thread durante a ida e volta, então milhares de buscas podem estar em andamento ao mesmo tempo.
+ * <p>
+ * Como na versão bloqueante, erros são registrados em log e o futuro completa com uma lista ou série vazia.
+ */
+public interface AsyncMarketDataService {
+
+    /**
+     * Mesma consulta de {@link MarketDataService#getHistoricalCandlesticks}.
+     */
+    CompletableFuture<List<CandlestickData>> getHistoricalCandlesticksAsync(String symbol, String interval, Integer limit,
+                                                                           Long startTime, Long endTime);
+
+    /**
+     * Mesma consulta de {@link MarketDataService#getCandleSeries}, em formato colunar.
+     */
+    default CompletableFuture<CandleSeries> getCandleSeriesAsync(String symbol, String interval, Integer limit,
+                                                                 Long startTime, Long endTime) {
+        return getHistoricalCandlesticksAsync(symbol, interval, limit, startTime, endTime).thenApply(CandleSeries::of);
+    }
+}
@@ -0,0 +1,935 @@
+package com.whs.trading.gemini.service;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.whs.trading.gemini.cluster.ShardingService;
+import com.whs.trading.gemini.dto.ArrayCandleSeries;
+import com.whs.trading.gemini.dto.CandleSeries;
+import com.whs.trading.gemini.dto.CandlestickData;
+import com.whs.trading.gemini.dto.KlineInterval;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Ingestão push dos klines via streams combinados da Binance ({@code /stream?streams=btcusdt@kline_1m/...}).
+ * <p>
+ * Mantém uma {@link CandleTail} por símbolo/intervalo, semeada pela API REST. Cada conexão tem uma fila e
+ * uma thread virtual de consumo: o listener do WebSocket só enfileira o texto, e o consumo (parse, lacunas,
+ * notificação) pode bloquear sem travar o socket. Lacunas (vela fechada com abertura além da próxima
+ * esperada, ex: após reconexão) são preenchidas por {@link BinanceMarketDataService#getCandleSeries}.
+ * Conexões caídas são refeitas com backoff exponencial.
+ * <p>
+ * Os intervalos de {@code binance.stream.derived-intervals} (ex: 5m, 1h, 1d) não têm stream próprio: são
+ * remontados das velas de 1m por um {@link CandleResampler} por símbolo, com os mesmos horários da Binance e
+ * a vela parcial em {@link #getSeriesWithLive}. Só as velas fechadas iniciais vêm do REST no próprio intervalo.
+ * <p>
+ * As velas fechadas de todas as caudas podem ser gravadas e retomadas ({@link #writeState}/{@link #readState}):
+ * depois de um reinício, a semeadura de um símbolo/intervalo gravado só busca no REST as velas posteriores.
+ * <p>
+ * Com o {@link ShardingService} ligado, só os símbolos de {@code binance.stream.symbols} que são desta instância
+ * no anel são assinados; quando instâncias entram ou saem, os que mudaram de dono são assinados ou cancelados
+ * ({@link #unsubscribe}) sem reabrir as demais conexões.
+ * <p>
+ * Métricas: mensagens pendentes nas filas ({@code kline.stream.queue}), tempo de processamento de cada mensagem
+ * ({@code kline.stream.message}), conexões, caudas, reconexões, velas preenchidas via REST e retomadas de snapshot.
+ */
+@Service
+public class BinanceKlineStreamService implements MarketDataService, MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(BinanceKlineStreamService.class);
+    private static final int MAX_REST_LIMIT = 1000;
+    private static final long MAX_BACKOFF_MILLIS = 60_000L;
+    private static final String BASE_INTERVAL = KlineInterval.ONE_MINUTE.getCode();
+    static final int DEFAULT_QUEUE_CAPACITY = 10_000;
+
+    private final MarketDataService restMarketDataService;
+    private final ObjectMapper objectMapper;
+    private final String streamBaseUrl;
+    private final int tailSize;
+    private final int maxStreamsPerConnection;
+    private final int queueCapacity;
+    private final boolean enabled;
+    private final List<String> symbols;
+    private final List<String> intervals;
+    private final List<String> derivedIntervals;
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+    private final ScheduledExecutorService reconnectScheduler =
+            Executors.newSingleThreadScheduledExecutor(Thread.ofVirtual().name("kline-stream-reconnect").factory());
+    private final Map<String, CandleTail> tails = new ConcurrentHashMap<>();
+    // Derivados por símbolo/intervalo e por símbolo/1m; atualizados sob o lock da CandleTail de 1m
+    private final Map<String, CandleResampler> resamplers = new ConcurrentHashMap<>();
+    private final Map<String, List<CandleResampler>> resamplersByBase = new ConcurrentHashMap<>();
+    private final List<KlineStreamListener> listeners = new CopyOnWriteArrayList<>();
+    private final List<StreamConnection> connections = new CopyOnWriteArrayList<>();
+    private final AtomicLong reconnects = new AtomicLong();
+    private final AtomicLong backfilledCandles = new AtomicLong();
+    private final AtomicLong overflows = new AtomicLong();
+    // Velas fechadas lidas de um snapshot, consumidas na semeadura de cada símbolo/intervalo
+    private final Map<String, CandleSeries> restoredTails = new ConcurrentHashMap<>();
+    private final AtomicLong restoredCandles = new AtomicLong();
+    private final ShardingService sharding; // null ou desligado: assina todos os símbolos configurados
+    private final Set<String> ownedSymbols = new HashSet<>(); // Configurados e assinados; sob o lock do serviço
+    private final AtomicLong requestIds = new AtomicLong();
+    private volatile Timer messageTimer;
+    private volatile boolean running;
+
+    @Autowired
+    public BinanceKlineStreamService(BinanceMarketDataService restMarketDataService,
+                                     ObjectMapper objectMapper,
+                                     @Value("${binance.stream.base-url:wss://stream.binance.com:9443}") String streamBaseUrl,
+                                     @Value("${binance.stream.tail-size:1000}") int tailSize,
+                                     @Value("${binance.stream.max-streams-per-connection:200}") int maxStreamsPerConnection,
+                                     @Value("${binance.stream.enabled:false}") boolean enabled,
+                                     @Value("${binance.stream.symbols:}") List<String> symbols,
+                                     @Value("${binance.stream.intervals:1m}") List<String> intervals,
+                                     @Value("${binance.stream.derived-intervals:}") List<String> derivedIntervals,
+                                     @Value("${binance.stream.queue-capacity:" + DEFAULT_QUEUE_CAPACITY + "}") int queueCapacity,
+                                     ShardingService sharding) {
+        this((MarketDataService) restMarketDataService, objectMapper, streamBaseUrl, tailSize, maxStreamsPerConnection,
+                enabled, symbols, intervals, derivedIntervals, queueCapacity, sharding);
+    }
+
+    BinanceKlineStreamService(MarketDataService restMarketDataService, ObjectMapper objectMapper, String streamBaseUrl,
+                              int tailSize, int maxStreamsPerConnection, boolean enabled,
+                              List<String> symbols, List<String> intervals, List<String> derivedIntervals) {
+        this(restMarketDataService, objectMapper, streamBaseUrl, tailSize, maxStreamsPerConnection, enabled, symbols,
+                intervals, derivedIntervals, DEFAULT_QUEUE_CAPACITY, null);
+    }
+
+    BinanceKlineStreamService(MarketDataService restMarketDataService, ObjectMapper objectMapper, String streamBaseUrl,
+                              int tailSize, int maxStreamsPerConnection, boolean enabled,
+                              List<String> symbols, List<String> intervals, List<String> derivedIntervals,
+                              int queueCapacity, ShardingService sharding) {
+        if (queueCapacity <= 0) {
+            throw new IllegalArgumentException("binance.stream.queue-capacity deve ser positivo: " + queueCapacity);
+        }
+        this.queueCapacity = queueCapacity;
+        this.sharding = sharding;
+        this.restMarketDataService = restMarketDataService;
+        this.objectMapper = objectMapper;
+        this.streamBaseUrl = streamBaseUrl;
+        this.tailSize = tailSize;
+        this.maxStreamsPerConnection = maxStreamsPerConnection;
+        this.enabled = enabled;
+        this.symbols = symbols.stream().filter(s -> !s.isBlank()).map(s -> s.trim().toUpperCase(Locale.ROOT)).toList();
+        this.intervals = intervals.stream().filter(s -> !s.isBlank()).map(String::trim).toList();
+        this.derivedIntervals = derivedIntervals.stream().filter(s -> !s.isBlank()).map(String::trim).toList();
+        for (String interval : this.derivedIntervals) {
+            new CandleResampler(KlineInterval.fromCode(interval), 1); // valida: intervalo conhecido e maior que 1m
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startIfEnabled() {
+        if (!enabled || symbols.isEmpty()) {
+            return;
+        }
+        if (sharding == null || !sharding.isEnabled()) {
+            subscribe(symbols, intervals);
+            return;
+        }
+        // A semeadura via REST pode demorar: fora da thread de batidas do cluster
+        sharding.addListener((previous, current) ->
+                Thread.ofVirtual().name("kline-stream-rebalance").start(this::rebalance));
+        rebalance();
+    }
+
+    /**
+     * Alinha as assinaturas de {@code binance.stream.symbols} ao anel atual: assina os que passaram a ser desta
+     * instância e cancela os que passaram a outra. Compara com o anel do momento (não com o do aviso), então
+     * avisos que chegam fora de ordem chegam ao mesmo resultado.
+     */
+    synchronized void rebalance() {
+        if (reconnectScheduler.isShutdown()) {
+            return;
+        }
+        List<String> gained = new ArrayList<>();
+        List<String> lost = new ArrayList<>();
+        for (String symbol : symbols) {
+            if (sharding.isLocal(symbol)) {
+                if (ownedSymbols.add(symbol)) {
+                    gained.add(symbol);
+                }
+            } else if (ownedSymbols.remove(symbol)) {
+                lost.add(symbol);
+            }
+        }
+        if (!lost.isEmpty()) {
+            unsubscribe(lost);
+        }
+        if (!gained.isEmpty()) {
+            subscribe(gained, intervals);
+        }
+        logger.info("Kline stream owns {} of {} configured symbols (+{} -{})", ownedSymbols.size(), symbols.size(),
+                gained.size(), lost.size());
+    }
+
+    public void addListener(KlineStreamListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(KlineStreamListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Semeia as caudas via REST e abre as conexões (até {@code maxStreamsPerConnection} streams cada).
+     * Intervalos derivados pedidos aqui são remontados do stream de 1m, assinado no lugar deles.
+     */
+    public synchronized void subscribe(List<String> symbolsToWatch, List<String> intervalsToWatch) {
+        running = true;
+        List<String> streams = new ArrayList<>();
+        List<String> streamedIntervals = streamedIntervals(intervalsToWatch);
+        for (String symbol : symbolsToWatch) {
+            String upper = symbol.toUpperCase(Locale.ROOT);
+            for (String interval : streamedIntervals) {
+                KlineInterval.fromCode(interval); // valida o intervalo antes de conectar
+                String key = key(upper, interval);
+                if (tails.containsKey(key)) {
+                    continue;
+                }
+                CandleTail tail = new CandleTail(tailSize);
+                tail.appendClosed(initialCandles(upper, interval));
+                tails.put(key, tail);
+                streams.add(streamName(upper, interval));
+            }
+            deriveFromBase(upper);
+        }
+        for (int from = 0; from < streams.size(); from += maxStreamsPerConnection) {
+            StreamConnection connection = new StreamConnection(
+                    streams.subList(from, Math.min(streams.size(), from + maxStreamsPerConnection)));
+            connections.add(connection);
+            connection.start();
+        }
+        logger.info("Subscribed to {} kline streams over {} connection(s)", streams.size(), connections.size());
+    }
+
+    /**
+     * Descarta as caudas (e os derivados) dos símbolos e cancela os streams deles; conexões que ficam sem
+     * streams são fechadas, as demais seguem abertas.
+     */
+    public synchronized void unsubscribe(Collection<String> symbolsToDrop) {
+        Set<String> dropped = new HashSet<>();
+        for (String symbol : symbolsToDrop) {
+            String prefix = symbol.toUpperCase(Locale.ROOT) + '|';
+            // Derivados antes das caudas: getTail sincroniza na cauda de 1m de um derivado ainda registrado
+            resamplers.keySet().removeIf(key -> key.startsWith(prefix));
+            resamplersByBase.keySet().removeIf(key -> key.startsWith(prefix));
+            tails.keySet().removeIf(key -> {
+                if (!key.startsWith(prefix)) {
+                    return false;
+                }
+                dropped.add(streamName(key.substring(0, prefix.length() - 1), key.substring(prefix.length())));
+                return true;
+            });
+        }
+        int closed = closeStreams(dropped);
+        logger.info("Unsubscribed from {} kline streams ({} connection(s) closed)", dropped.size(), closed);
+    }
+
+    /**
+     * Cancela um símbolo/intervalo assinado avulso (ex: pela última regra de alerta dele), mantendo os
+     * intervalos ainda acompanhados ({@code stillWatched}) e, se o símbolo é desta instância em
+     * {@code binance.stream.symbols}, os configurados. Um intervalo derivado só solta a base de 1m (e os
+     * derivados do símbolo) se ela não for mais necessária.
+     */
+    public synchronized void unsubscribe(String symbol, String interval, Collection<String> stillWatched) {
+        String upper = symbol.toUpperCase(Locale.ROOT);
+        List<String> kept = new ArrayList<>(stillWatched);
+        if (symbols.contains(upper) && (sharding == null || !sharding.isEnabled() || ownedSymbols.contains(upper))) {
+            kept.addAll(intervals);
+        }
+        Set<String> keptStreams = new HashSet<>(kept.isEmpty() ? List.of() : streamedIntervals(kept));
+        Set<String> dropped = new HashSet<>();
+        for (String streamed : streamedIntervals(List.of(interval))) {
+            if (keptStreams.contains(streamed) || tails.remove(key(upper, streamed)) == null) {
+                continue;
+            }
+            if (streamed.equals(BASE_INTERVAL)) {
+                String prefix = upper + '|';
+                resamplers.keySet().removeIf(key -> key.startsWith(prefix));
+                resamplersByBase.remove(key(upper, BASE_INTERVAL));
+            }
+            dropped.add(streamName(upper, streamed));
+        }
+        if (!dropped.isEmpty()) {
+            int closed = closeStreams(dropped);
+            logger.info("Unsubscribed from {} {} ({} connection(s) closed)", upper, interval, closed);
+        }
+    }
+
+    /**
+     * Tira os streams das conexões: as que ficam vazias são fechadas, as demais recebem um UNSUBSCRIBE.
+     *
+     * @return Conexões fechadas.
+     */
+    private int closeStreams(Set<String> dropped) {
+        int closed = 0;
+        for (StreamConnection connection : connections) {
+            List<String> removed = connection.streams.stream().filter(dropped::contains).toList();
+            if (removed.isEmpty()) {
+                continue;
+            }
+            connection.streams.removeAll(removed);
+            if (connection.streams.isEmpty()) {
+                connection.close();
+                connections.remove(connection);
+                closed++;
+            } else {
+                connection.unsubscribe(removed);
+            }
+        }
+        return closed;
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        for (StreamConnection connection : connections) {
+            connection.close();
+        }
+        connections.clear();
+        reconnectScheduler.shutdownNow();
+    }
+
+    /**
+     * Cópia das velas fechadas em memória para o símbolo/intervalo (assinado ou derivado), ou série vazia.
+     */
+    public CandleSeries getTail(String symbol, String interval) {
+        String upper = symbol.toUpperCase(Locale.ROOT);
+        CandleResampler resampler = resamplers.get(key(upper, interval));
+        if (resampler != null) {
+            CandleTail base = tails.get(key(upper, BASE_INTERVAL));
+            if (base == null) {
+                return CandleSeries.empty(); // Cancelado entre as duas leituras
+            }
+            synchronized (base) {
+                return resampler.closedSeries();
+            }
+        }
+        CandleTail tail = tails.get(key(upper, interval));
+        if (tail == null) {
+            return CandleSeries.empty();
+        }
+        synchronized (tail) {
+            return tail.closedSeries();
+        }
+    }
+
+    /**
+     * Velas fechadas seguidas da vela em formação (cópia); em intervalos derivados, a vela parcial remontada
+     * das velas de 1m do período, inclusive a de 1m em formação.
+     */
+    public CandleSeries getSeriesWithLive(String symbol, String interval) {
+        String upper = symbol.toUpperCase(Locale.ROOT);
+        CandleResampler resampler = resamplers.get(key(upper, interval));
+        if (resampler != null) {
+            CandleTail base = tails.get(key(upper, BASE_INTERVAL));
+            if (base == null) {
+                return CandleSeries.empty(); // Cancelado entre as duas leituras
+            }
+            synchronized (base) {
+                return resampler.seriesWithPartial();
+            }
+        }
+        CandleTail tail = tails.get(key(upper, interval));
+        if (tail == null) {
+            return CandleSeries.empty();
+        }
+        synchronized (tail) {
+            return tail.seriesWithLive();
+        }
+    }
+
+    public long getReconnectCount() {
+        return reconnects.get();
+    }
+
+    public long getBackfilledCandleCount() {
+        return backfilledCandles.get();
+    }
+
+    /**
+     * Vezes em que a fila de uma conexão encheu: a mensagem foi descartada e a conexão refeita.
+     */
+    public long getOverflowCount() {
+        return overflows.get();
+    }
+
+    /**
+     * Velas semeadas a partir de um snapshot em vez do REST.
+     */
+    public long getRestoredCandleCount() {
+        return restoredCandles.get();
+    }
+
+    /**
+     * Grava as velas fechadas de cada cauda e de cada intervalo derivado. Sob o lock de cada cauda só se pega
+     * a visão (sem cópia, que não muda depois de entregue); a gravação acontece fora dele.
+     */
+    public void writeState(DataOutput out) throws IOException {
+        Map<String, CandleSeries> closed = new LinkedHashMap<>();
+        for (Map.Entry<String, CandleTail> entry : tails.entrySet()) {
+            CandleTail tail = entry.getValue();
+            synchronized (tail) {
+                closed.put(entry.getKey(), tail.closedSeries());
+            }
+        }
+        for (Map.Entry<String, CandleResampler> entry : resamplers.entrySet()) {
+            String symbol = entry.getKey().substring(0, entry.getKey().indexOf('|'));
+            CandleTail base = tails.get(key(symbol, BASE_INTERVAL));
+            if (base == null) {
+                continue; // Cancelado durante a gravação
+            }
+            synchronized (base) {
+                closed.put(entry.getKey(), entry.getValue().closedSeries());
+            }
+        }
+        out.writeInt(closed.size());
+        for (Map.Entry<String, CandleSeries> entry : closed.entrySet()) {
+            out.writeUTF(entry.getKey());
+            writeSeries(out, entry.getValue());
+        }
+    }
+
+    /**
+     * Guarda as velas gravadas para a semeadura: símbolos/intervalos assinados depois disto (inclusive os de
+     * {@code binance.stream.symbols}) partem delas e só buscam no REST as velas fechadas desde então, se forem
+     * menos que uma cauda; senão, e para os que já estão assinados, nada muda.
+     */
+    public void readState(DataInput in) throws IOException {
+        int count = in.readInt();
+        long candles = 0;
+        for (int t = 0; t < count; t++) {
+            String key = in.readUTF();
+            CandleSeries series = readSeries(in);
+            if (!series.isEmpty()) {
+                restoredTails.put(key, series);
+                candles += series.size();
+            }
+        }
+        logger.info("Read {} saved candle tail(s) with {} candles", count, candles);
+    }
+
+    /**
+     * Mensagens recebidas e ainda não processadas, somando as filas de todas as conexões.
+     */
+    public int getQueuedMessageCount() {
+        int queued = 0;
+        for (StreamConnection connection : connections) {
+            queued += connection.queue.size();
+        }
+        return queued;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("kline.stream.queue", this, BinanceKlineStreamService::getQueuedMessageCount)
+                .description("Mensagens recebidas aguardando o consumidor")
+                .register(registry);
+        Gauge.builder("kline.stream.connections", connections, List::size).register(registry);
+        Gauge.builder("kline.stream.tails", tails, Map::size).register(registry);
+        FunctionCounter.builder("kline.stream.reconnects", reconnects, AtomicLong::get).register(registry);
+        FunctionCounter.builder("kline.stream.overflows", overflows, AtomicLong::get).register(registry);
+        FunctionCounter.builder("kline.stream.backfilled.candles", backfilledCandles, AtomicLong::get)
+                .baseUnit("candles")
+                .register(registry);
+        FunctionCounter.builder("kline.stream.restored.candles", restoredCandles, AtomicLong::get)
+                .baseUnit("candles")
+                .register(registry);
+        messageTimer = Timer.builder("kline.stream.message")
+                .description("Parse e aplicação de uma mensagem do stream")
+                .register(registry);
+    }
+
+    @Override
+    public List<CandlestickData> getHistoricalCandlesticks(String symbol, String interval, Integer limit, Long startTime, Long endTime) {
+        return getCandleSeries(symbol, interval, limit, startTime, endTime).toCandlestickDataList();
+    }
+
+    /**
+     * Atende da memória quando a consulta é "últimas N velas" e a cauda cobre N; senão delega ao REST.
+     */
+    @Override
+    public CandleSeries getCandleSeries(String symbol, String interval, Integer limit, Long startTime, Long endTime) {
+        int wanted = limit != null ? limit : 500;
+        if (startTime == null && endTime == null) {
+            CandleSeries tail = getTail(symbol, interval);
+            if (tail.size() >= wanted) {
+                return tail.tail(wanted);
+            }
+        }
+        return restMarketDataService.getCandleSeries(symbol, interval, limit, startTime, endTime);
+    }
+
+    void onMessage(String text) {
+        JsonNode kline;
+        try {
+            JsonNode root = objectMapper.readTree(text);
+            JsonNode data = root.has("data") ? root.get("data") : root;
+            kline = data.get("k");
+        } catch (Exception e) {
+            logger.warn("Discarding unreadable kline stream message: {}", e.getMessage());
+            return;
+        }
+        if (kline == null) {
+            return;
+        }
+        String symbol = kline.path("s").asText();
+        String interval = kline.path("i").asText();
+        CandleTail tail = tails.get(key(symbol, interval));
+        if (tail == null) {
+            return;
+        }
+
+        long openTime = kline.path("t").asLong();
+        boolean closed = kline.path("x").asBoolean();
+        double open = kline.path("o").asDouble();
+        double high = kline.path("h").asDouble();
+        double low = kline.path("l").asDouble();
+        double close = kline.path("c").asDouble();
+        double volume = kline.path("v").asDouble();
+        long closeTime = kline.path("T").asLong();
+        double quoteVolume = kline.path("q").asDouble();
+        long tradeCount = kline.path("n").asLong();
+        double takerBuyBaseVolume = kline.path("V").asDouble();
+        double takerBuyQuoteVolume = kline.path("Q").asDouble();
+        List<CandleResampler> derived = resamplersByBase.get(key(symbol, interval));
+        CandleSeries notifyWith = null;
+        List<CandleResampler> derivedClosed = List.of();
+        CandleSeries missing = CandleSeries.empty();
+        if (closed) {
+            // Só este consumidor acrescenta velas a esta cauda: a lacuna vista aqui continua a mesma fora do lock
+            long last;
+            synchronized (tail) {
+                last = tail.lastClosedOpenTime();
+            }
+            missing = fetchGap(symbol, interval, last, openTime);
+        }
+        synchronized (tail) {
+            if (closed) {
+                long lastBefore = tail.lastClosedOpenTime();
+                backfilledCandles.addAndGet(tail.appendClosed(missing));
+                if (tail.appendClosed(openTime, open, high, low, close, volume, closeTime, quoteVolume, tradeCount,
+                        takerBuyBaseVolume, takerBuyQuoteVolume)) {
+                    notifyWith = tail.closedSeries();
+                }
+                if (derived != null) {
+                    derivedClosed = appendToDerived(derived, after(tail.closedSeries(), lastBefore));
+                }
+            } else {
+                tail.updateLive(openTime, open, high, low, close, volume, closeTime, quoteVolume, tradeCount,
+                        takerBuyBaseVolume, takerBuyQuoteVolume);
+                if (derived != null) {
+                    for (CandleResampler resampler : derived) {
+                        resampler.updateBaseLive(openTime, open, high, low, close, volume, quoteVolume, tradeCount,
+                                takerBuyBaseVolume, takerBuyQuoteVolume);
+                    }
+                }
+            }
+        }
+        if (notifyWith != null) {
+            notifyListeners(symbol, interval, notifyWith);
+        }
+        for (CandleResampler resampler : derivedClosed) {
+            CandleSeries derivedTail;
+            synchronized (tail) {
+                derivedTail = resampler.closedSeries();
+            }
+            notifyListeners(symbol, resampler.interval().getCode(), derivedTail);
+        }
+    }
+
+    private void notifyListeners(String symbol, String interval, CandleSeries closedTail) {
+        for (KlineStreamListener listener : listeners) {
+            try {
+                listener.onCandleClosed(symbol, interval, closedTail);
+            } catch (RuntimeException e) {
+                logger.error("Kline stream listener failed for {} {}: {}", symbol, interval, e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * @return Os derivados em que alguma vela fechou.
+     */
+    private static List<CandleResampler> appendToDerived(List<CandleResampler> derived, CandleSeries newBase) {
+        List<CandleResampler> closed = new ArrayList<>();
+        for (CandleResampler resampler : derived) {
+            if (resampler.appendBase(newBase)) {
+                closed.add(resampler);
+            }
+        }
+        return closed;
+    }
+
+    /**
+     * Intervalos com stream próprio: os pedidos que não são derivados, mais a base de 1m se houver derivados.
+     */
+    private List<String> streamedIntervals(List<String> intervalsToWatch) {
+        Set<String> streamed = new LinkedHashSet<>();
+        if (!derivedIntervals.isEmpty()) {
+            streamed.add(BASE_INTERVAL);
+        }
+        for (String interval : intervalsToWatch) {
+            if (!derivedIntervals.contains(interval)) {
+                streamed.add(interval);
+            }
+        }
+        return List.copyOf(streamed);
+    }
+
+    /**
+     * Cria os intervalos derivados do símbolo: velas fechadas semeadas via REST no próprio intervalo e a vela
+     * parcial remontada das velas de 1m desde a sua abertura (da cauda de 1m e, se ela não alcançar, do REST).
+     */
+    private void deriveFromBase(String symbol) {
+        String baseKey = key(symbol, BASE_INTERVAL);
+        CandleTail base = tails.get(baseKey);
+        if (base == null) {
+            return;
+        }
+        for (String interval : derivedIntervals) {
+            String key = key(symbol, interval);
+            if (resamplers.containsKey(key)) {
+                continue;
+            }
+            KlineInterval klineInterval = KlineInterval.fromCode(interval);
+            CandleResampler resampler = new CandleResampler(klineInterval, tailSize);
+            resampler.seedClosed(initialCandles(symbol, interval));
+            long lastClosed = resampler.lastClosedOpenTime();
+            long partialFrom = lastClosed != Long.MIN_VALUE ? klineInterval.nextOpenTime(lastClosed)
+                    : klineInterval.openTimeOf(System.currentTimeMillis());
+            synchronized (base) {
+                CandleSeries baseCandles = base.closedSeries();
+                long firstBase = baseCandles.isEmpty() ? Long.MAX_VALUE : baseCandles.openTime(0);
+                if (partialFrom < firstBase) {
+                    resampler.appendBase(fetchBase(symbol, partialFrom,
+                            Math.min(firstBase, System.currentTimeMillis()) - 1));
+                }
+                resampler.appendBase(baseCandles);
+                resamplersByBase.computeIfAbsent(baseKey, k -> new CopyOnWriteArrayList<>()).add(resampler);
+                resamplers.put(key, resampler);
+            }
+        }
+    }
+
+    /**
+     * Velas fechadas iniciais do símbolo/intervalo: as do snapshot seguidas das fechadas desde então (uma
+     * consulta de até uma cauda), ou as últimas do REST sem snapshot ou se ele ficou mais de uma cauda para trás.
+     */
+    private CandleSeries initialCandles(String symbol, String interval) {
+        int limit = Math.min(tailSize, MAX_REST_LIMIT);
+        CandleSeries restored = restoredTails.remove(key(symbol, interval));
+        if (restored != null) {
+            KlineInterval klineInterval = KlineInterval.fromCode(interval);
+            long next = klineInterval.nextOpenTime(restored.openTime(restored.size() - 1));
+            long now = System.currentTimeMillis();
+            // Velas abertas desde o snapshot, inclusive a em formação
+            long since = now < next ? 0 : (now - next) / klineInterval.getMillis() + 1;
+            if (since <= limit) {
+                restoredCandles.addAndGet(restored.size());
+                if (since <= 1) {
+                    return restored;
+                }
+                CandleSeries recent = restMarketDataService.getCandleSeries(symbol, interval, (int) since,
+                        next, null).closedAsOf(System.currentTimeMillis());
+                logger.debug("Resumed {} {} from snapshot with {} newer candles", symbol, interval, recent.size());
+                return CandleSeries.builder(restored.size() + recent.size()).addAll(restored).addAll(recent).build();
+            }
+            logger.info("Snapshot of {} {} is more than {} candles old, seeding from REST", symbol, interval, limit);
+        }
+        return restMarketDataService.getCandleSeries(symbol, interval, limit, null, null)
+                .closedAsOf(System.currentTimeMillis());
+    }
+
+    private static void writeSeries(DataOutput out, CandleSeries series) throws IOException {
+        out.writeInt(series.size());
+        for (int i = 0; i < series.size(); i++) {
+            out.writeLong(series.openTime(i));
+            out.writeDouble(series.open(i));
+            out.writeDouble(series.high(i));
+            out.writeDouble(series.low(i));
+            out.writeDouble(series.close(i));
+            out.writeDouble(series.volume(i));
+            out.writeLong(series.closeTime(i));
+            out.writeDouble(series.quoteVolume(i));
+            out.writeLong(series.tradeCount(i));
+            out.writeDouble(series.takerBuyBaseVolume(i));
+            out.writeDouble(series.takerBuyQuoteVolume(i));
+        }
+    }
+
+    private static CandleSeries readSeries(DataInput in) throws IOException {
+        int size = in.readInt();
+        if (size < 0) {
+            throw new IOException("Quantidade de velas inválida: " + size);
+        }
+        ArrayCandleSeries.Builder builder = CandleSeries.builder(Math.min(size, MAX_REST_LIMIT));
+        for (int i = 0; i < size; i++) {
+            builder.add(in.readLong(), in.readDouble(), in.readDouble(), in.readDouble(), in.readDouble(),
+                    in.readDouble(), in.readLong(), in.readDouble(), in.readLong(), in.readDouble(), in.readDouble());
+        }
+        return builder.build();
+    }
+
+    /**
+     * Velas fechadas de 1m com abertura em [from, to], paginadas pelo REST.
+     */
+    private CandleSeries fetchBase(String symbol, long from, long to) {
+        ArrayCandleSeries.Builder builder = CandleSeries.builder(MAX_REST_LIMIT);
+        long next = from;
+        while (next <= to) {
+            CandleSeries page = restMarketDataService.getCandleSeries(symbol, BASE_INTERVAL, MAX_REST_LIMIT,
+                    next, to).closedAsOf(System.currentTimeMillis());
+            if (page.isEmpty()) {
+                logger.warn("Could not fetch {} {} candles from {} for derived intervals", symbol, BASE_INTERVAL, next);
+                break;
+            }
+            builder.addAll(page);
+            next = KlineInterval.ONE_MINUTE.nextOpenTime(page.openTime(page.size() - 1));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Sufixo da série com abertura maior que {@code openTime}.
+     */
+    private static CandleSeries after(CandleSeries series, long openTime) {
+        int from = series.size();
+        while (from > 0 && series.openTime(from - 1) > openTime) {
+            from--;
+        }
+        return series.slice(from, series.size());
+    }
+
+    /**
+     * Velas fechadas entre {@code last} (exclusive) e {@code openTime} (exclusive), paginadas pelo REST; chamado
+     * fora do lock da cauda, para uma busca lenta não travar leitores nem as outras streams da conexão.
+     */
+    private CandleSeries fetchGap(String symbol, String interval, long last, long openTime) {
+        if (last == Long.MIN_VALUE) {
+            return CandleSeries.empty();
+        }
+        KlineInterval klineInterval = KlineInterval.fromCode(interval);
+        long expected = klineInterval.nextOpenTime(last);
+        if (expected >= openTime) {
+            return CandleSeries.empty();
+        }
+        ArrayCandleSeries.Builder builder = CandleSeries.builder(
+                (int) Math.min(MAX_REST_LIMIT, (openTime - expected) / klineInterval.getMillis()));
+        while (expected < openTime) {
+            CandleSeries page = restMarketDataService.getCandleSeries(symbol, interval, MAX_REST_LIMIT,
+                    expected, openTime - 1).closedAsOf(System.currentTimeMillis());
+            if (page.isEmpty()) {
+                logger.warn("Could not backfill {} {} gap starting at {}", symbol, interval, expected);
+                break;
+            }
+            builder.addAll(page);
+            long pageLast = page.openTime(page.size() - 1);
+            if (pageLast < expected) {
+                break;
+            }
+            expected = klineInterval.nextOpenTime(pageLast);
+        }
+        return builder.build();
+    }
+
+    private static String key(String symbol, String interval) {
+        return symbol + '|' + interval;
+    }
+
+    private static String streamName(String symbol, String interval) {
+        return symbol.toLowerCase(Locale.ROOT) + "@kline_" + interval;
+    }
+
+    /**
+     * Uma conexão WebSocket de streams combinados, com fila (limitada a {@code binance.stream.queue-capacity}
+     * mensagens) e consumidor próprios. Fila cheia: a mensagem é descartada e a conexão refeita; as velas
+     * fechadas perdidas voltam pelo preenchimento de lacunas na primeira vela fechada depois da reconexão.
+     */
+    private final class StreamConnection implements WebSocket.Listener {
+
+        private final List<String> streams; // Reconexões usam a lista atual, sem os streams cancelados
+        private final BlockingQueue<String> queue = new LinkedBlockingQueue<>(queueCapacity);
+        private final StringBuilder partial = new StringBuilder();
+        private volatile WebSocket webSocket;
+        private volatile Thread consumer;
+        private volatile boolean closed;
+        private long backoffMillis = 1_000L;
+
+        StreamConnection(List<String> streams) {
+            this.streams = new CopyOnWriteArrayList<>(streams);
+        }
+
+        void start() {
+            consumer = Thread.ofVirtual().name("kline-stream-consumer").start(this::consume);
+            connect();
+        }
+
+        private void connect() {
+            if (!running || closed) {
+                return;
+            }
+            URI uri = URI.create(streamBaseUrl + "/stream?streams=" + String.join("/", streams));
+            httpClient.newWebSocketBuilder()
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .buildAsync(uri, this)
+                    .whenComplete((ws, error) -> {
+                        if (error != null) {
+                            logger.warn("Kline stream connection to {} failed: {}", uri, error.getMessage());
+                            scheduleReconnect();
+                        } else {
+                            backoffMillis = 1_000L;
+                            logger.info("Kline stream connected with {} streams", streams.size());
+                        }
+                    });
+        }
+
+        private void scheduleReconnect() {
+            if (!running || closed) {
+                return;
+            }
+            long delay = backoffMillis;
+            backoffMillis = Math.min(MAX_BACKOFF_MILLIS, backoffMillis * 2);
+            reconnects.incrementAndGet();
+            reconnectScheduler.schedule(this::connect, delay, TimeUnit.MILLISECONDS);
+        }
+
+        private void consume() {
+            try {
+                while (running || !queue.isEmpty()) {
+                    String message = queue.poll(1, TimeUnit.SECONDS);
+                    if (message != null) {
+                        long start = System.nanoTime();
+                        onMessage(message);
+                        Timer timer = messageTimer;
+                        if (timer != null) {
+                            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                        }
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        /**
+         * Cancela streams na conexão aberta; mensagens deles já em trânsito são ignoradas (sem cauda).
+         */
+        void unsubscribe(List<String> removed) {
+            WebSocket ws = webSocket;
+            if (ws == null) {
+                return;
+            }
+            ObjectNode request = objectMapper.createObjectNode().put("method", "UNSUBSCRIBE");
+            removed.forEach(request.putArray("params")::add);
+            request.put("id", requestIds.incrementAndGet());
+            ws.sendText(request.toString(), true);
+        }
+
+        void close() {
+            closed = true;
+            WebSocket ws = webSocket;
+            if (ws != null) {
+                ws.abort();
+            }
+            Thread thread = consumer;
+            if (thread != null) {
+                thread.interrupt();
+            }
+        }
+
+        @Override
+        public void onOpen(WebSocket ws) {
+            this.webSocket = ws;
+            ws.request(1);
+        }
+
+        @Override
+        public CompletionStage<?> onText(WebSocket ws, CharSequence data, boolean last) {
+            partial.append(data);
+            if (last) {
+                boolean queued = queue.offer(partial.toString());
+                partial.setLength(0);
+                if (!queued) {
+                    overflow(ws);
+                    return null;
+                }
+            }
+            ws.request(1);
+            return null;
+        }
+
+        private void overflow(WebSocket ws) {
+            overflows.incrementAndGet();
+            logger.warn("Kline stream queue full ({} messages), dropping the connection with {} streams",
+                    queueCapacity, streams.size());
+            webSocket = null; // Eventos atrasados do socket abortado não agendam outra reconexão
+            ws.abort();
+            scheduleReconnect();
+        }
+
+        @Override
+        public CompletionStage<?> onClose(WebSocket ws, int statusCode, String reason) {
+            if (ws != webSocket) {
+                return null;
+            }
+            logger.warn("Kline stream closed ({} {}), reconnecting", statusCode, reason);
+            partial.setLength(0);
+            scheduleReconnect();
+            return null;
+        }
+
+        @Override
+        public void onError(WebSocket ws, Throwable error) {
+            if (ws != webSocket) {
+                return;
+            }
+            logger.warn("Kline stream error: {}, reconnecting", error.getMessage());
+            partial.setLength(0);
+            scheduleReconnect();
+        }
+    }
+}
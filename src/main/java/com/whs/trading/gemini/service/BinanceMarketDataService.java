@@ -1,110 +1,294 @@
 package com.whs.trading.gemini.service;
 
-import java.math.BigDecimal;
-import java.time.Instant;
-import java.util.ArrayList;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.function.ToIntFunction;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.whs.trading.gemini.dto.CandleSeries;
 import com.whs.trading.gemini.dto.CandlestickData;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Cliente REST da Binance. Com o Actuator, registra por chamada o timer {@code binance.requests} (endpoint,
+ * status HTTP ou tipo do erro), o custo da leitura das klines em {@code binance.klines.parse} e
+ * {@code binance.klines.candles}, e o peso usado informado pelo servidor em {@code binance.weight.used}.
+ * Também busca os snapshots do livro de ofertas ({@code endpoint=depth}) para o
+ * {@link com.whs.trading.gemini.depth.BinanceDepthStreamService}.
+ */
 @Service
-public class BinanceMarketDataService implements MarketDataService {
+public class BinanceMarketDataService implements MarketDataService, MeterBinder {
 
     private static final Logger logger = LoggerFactory.getLogger(BinanceMarketDataService.class);
-    private static final String BINANCE_API_BASE_URL = "https://api.binance.com/api/v3/klines";
+    static final String BINANCE_API_BASE_URL = "https://api.binance.com";
+    private static final String KLINES_PATH = "/api/v3/klines";
+    // Peso de GET /api/v3/klines, independente do 'limit'
+    static final int KLINES_REQUEST_WEIGHT = 2;
+    private static final String TICKER_24H_PATH = "/api/v3/ticker/24hr";
+    // Peso de GET /api/v3/ticker/24hr sem 'symbol' (todos os pares)
+    static final int TICKER_24H_ALL_REQUEST_WEIGHT = 80;
+    static final String KLINES_ENDPOINT = "klines";
+    private static final String TICKER_24H_ENDPOINT = "ticker24h";
+    private static final String DEPTH_PATH = "/api/v3/depth";
+    private static final String DEPTH_ENDPOINT = "depth";
 
     private final RestTemplate restTemplate;
+    private final RequestWeightLimiter weightLimiter;
+    private final String baseUrl;
+    private final BinanceRequestMetrics metrics;
 
     @Autowired
-    public BinanceMarketDataService(RestTemplate restTemplate) {
+    public BinanceMarketDataService(RestTemplate restTemplate, RequestWeightLimiter weightLimiter,
+                                    @Value("${binance.api.base-url:" + BINANCE_API_BASE_URL + "}") String baseUrl) {
         this.restTemplate = restTemplate;
+        this.weightLimiter = weightLimiter;
+        this.baseUrl = baseUrl;
+        this.metrics = new BinanceRequestMetrics(weightLimiter);
     }
 
     @Override
-    public List<CandlestickData> getHistoricalCandlesticks(String symbol, String interval, Integer limit, Long startTime, Long endTime) {
-        UriComponentsBuilder builder = UriComponentsBuilder.fromHttpUrl(BINANCE_API_BASE_URL)
-                .queryParam("symbol", symbol.toUpperCase())
-                .queryParam("interval", interval);
+    public void bindTo(MeterRegistry registry) {
+        metrics.bindTo(registry);
+    }
 
-        if (limit != null) {
-            builder.queryParam("limit", limit);
-        }
-        if (startTime != null) {
-            builder.queryParam("startTime", startTime);
-        }
-        if (endTime != null) {
-            builder.queryParam("endTime", endTime);
+    @Override
+    public List<CandlestickData> getHistoricalCandlesticks(String symbol, String interval, Integer limit, Long startTime, Long endTime) {
+        List<CandlestickData> candlestickDataList = fetchKlines(symbol, interval, limit, startTime, endTime,
+                KlineJsonParser::parseCandlesticks, List::size);
+        if (candlestickDataList == null) {
+            return Collections.emptyList(); // Retorna lista vazia em caso de erro
         }
+        logger.debug("Successfully fetched and parsed {} candlesticks for {} interval {}", candlestickDataList.size(), symbol, interval);
+        return candlestickDataList;
+    }
 
-        String url = builder.toUriString();
-        logger.info("Fetching klines from Binance API: {}", url);
+    @Override
+    public CandleSeries getCandleSeries(String symbol, String interval, Integer limit, Long startTime, Long endTime) {
+        CandleSeries series = fetchKlines(symbol, interval, limit, startTime, endTime, KlineJsonParser::parseSeries,
+                CandleSeries::size);
+        if (series == null) {
+            return CandleSeries.empty();
+        }
+        logger.debug("Successfully fetched and parsed {} candles for {} interval {}", series.size(), symbol, interval);
+        return series;
+    }
 
+    /**
+     * Pares negociados contra {@code quoteAsset} (ex: "USDT") ordenados pelo volume em moeda de cotação das
+     * últimas 24h, do maior para o menor.
+     *
+     * @return Até {@code count} símbolos, ou lista vazia em caso de erro.
+     */
+    public List<String> getTopSymbolsByQuoteVolume(String quoteAsset, int count) {
+        String url = baseUrl + TICKER_24H_PATH;
+        String suffix = quoteAsset.toUpperCase();
+        long start = 0;
         try {
-            // A API da Binance retorna um array de arrays: Object[][]
-            ResponseEntity<Object[][]> response = restTemplate.getForEntity(url, Object[][].class);
-            Object[][] klines = response.getBody();
-
-            if (klines == null) {
+            weightLimiter.acquire(TICKER_24H_ALL_REQUEST_WEIGHT);
+            start = System.nanoTime();
+            ResponseEntity<TickerStatistics[]> response = restTemplate.getForEntity(url, TickerStatistics[].class);
+            metrics.recordRequest(TICKER_24H_ENDPOINT, String.valueOf(response.getStatusCode().value()), start);
+            recordUsedWeight(response.getHeaders());
+            TickerStatistics[] tickers = response.getBody();
+            if (tickers == null) {
                 logger.warn("Received null body from Binance API for URL: {}", url);
                 return Collections.emptyList();
             }
+            return Arrays.stream(tickers)
+                    .filter(t -> t.symbol() != null && t.quoteVolume() != null && t.symbol().endsWith(suffix))
+                    .sorted(Comparator.comparingDouble((TickerStatistics t) -> Double.parseDouble(t.quoteVolume())).reversed())
+                    .limit(count)
+                    .map(TickerStatistics::symbol)
+                    .toList();
+        } catch (HttpClientErrorException e) {
+            if (e.getStatusCode().value() == 429 || e.getStatusCode().value() == 418) {
+                weightLimiter.exhaustWindow();
+            }
+            metrics.recordRequest(TICKER_24H_ENDPOINT, statusOf(e), start);
+            recordUsedWeight(e.getResponseHeaders());
+            logger.error("HTTP Client Error when calling Binance API: {} - {}", e.getStatusCode(), e.getResponseBodyAsString(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("Interrupted while waiting for Binance request weight");
+        } catch (Exception e) {
+            if (e instanceof RestClientException) { // Falha da chamada, não do processamento da resposta
+                metrics.recordRequest(TICKER_24H_ENDPOINT, statusOf(e), start);
+            }
+            logger.error("An unexpected error occurred when calling Binance API: {}", e.getMessage(), e);
+        }
+        return Collections.emptyList();
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record TickerStatistics(String symbol, String quoteVolume) {
+    }
+
+    /**
+     * Busca uma página de klines propagando erros (HTTP, I/O, interrupção), para quem precisa repetir a
+     * chamada em vez de receber uma série vazia, como o backfill paginado.
+     */
+    public CandleSeries fetchCandleSeriesPage(String symbol, String interval, Integer limit, Long startTime, Long endTime)
+            throws InterruptedException {
+        return requestKlines(symbol, interval, limit, startTime, endTime, KlineJsonParser::parseSeries,
+                CandleSeries::size);
+    }
 
-            List<CandlestickData> candlestickDataList = new ArrayList<>();
-            for (Object[] kline : klines) {
-                // Estrutura de um kline da Binance:
-                // 0: Open time (Long)
-                // 1: Open price (String)
-                // 2: High price (String)
-                // 3: Low price (String)
-                // 4: Close price (String)
-                // 5: Volume (String)
-                // 6: Close time (Long)
-                // 7: Quote asset volume (String)
-                // 8: Number of trades (Integer)
-                // 9: Taker buy base asset volume (String)
-                // 10: Taker buy quote asset volume (String)
-                // 11: Ignore (String)
-
-                // Validar que temos pelo menos os 7 campos esperados
-                if (kline.length < 7) {
-                    logger.warn("Kline data has insufficient fields: {}", (Object) kline); // Cast para evitar varargs warning
-                    continue; 
-                }
-
-                try {
-                    Instant openTime = Instant.ofEpochMilli((Long) kline[0]);
-                    BigDecimal openPrice = new BigDecimal((String) kline[1]);
-                    BigDecimal highPrice = new BigDecimal((String) kline[2]);
-                    BigDecimal lowPrice = new BigDecimal((String) kline[3]);
-                    BigDecimal closePrice = new BigDecimal((String) kline[4]);
-                    BigDecimal volume = new BigDecimal((String) kline[5]);
-                    Instant closeTime = Instant.ofEpochMilli((Long) kline[6]);
-
-                    candlestickDataList.add(new CandlestickData(
-                            openTime, openPrice, highPrice, lowPrice, closePrice, volume, closeTime
-                    ));
-                } catch (ClassCastException | NumberFormatException e) {
-                    logger.error("Error parsing kline data field: {} for kline: {}", e.getMessage(), (Object) kline, e);
-                }
+    /**
+     * Snapshot do livro de ofertas ({@code GET /api/v3/depth}) com até {@code limit} níveis por lado, lido em
+     * streaming por {@code reader}. Propaga erros como {@link #fetchCandleSeriesPage}: quem mantém o livro
+     * precisa saber que o snapshot falhou para pedir outro.
+     */
+    public <T> T fetchDepthSnapshot(String symbol, int limit, BodyReader<T> reader) throws InterruptedException {
+        String url = UriComponentsBuilder.fromUriString(baseUrl + DEPTH_PATH)
+                .queryParam("symbol", symbol.toUpperCase())
+                .queryParam("limit", limit)
+                .toUriString();
+        logger.debug("Fetching depth snapshot from Binance API: {}", url);
+
+        weightLimiter.acquire(depthRequestWeight(limit));
+        long start = System.nanoTime();
+        try {
+            return restTemplate.execute(url, HttpMethod.GET, null, response -> {
+                recordUsedWeight(response.getHeaders());
+                T parsed = reader.read(response.getBody());
+                metrics.recordRequest(DEPTH_ENDPOINT, String.valueOf(response.getStatusCode().value()), start);
+                return parsed;
+            });
+        } catch (HttpClientErrorException e) {
+            if (e.getStatusCode().value() == 429 || e.getStatusCode().value() == 418) {
+                weightLimiter.exhaustWindow();
             }
-            logger.info("Successfully fetched and parsed {} candlesticks for {} interval {}", candlestickDataList.size(), symbol, interval);
-            return candlestickDataList;
+            metrics.recordRequest(DEPTH_ENDPOINT, statusOf(e), start);
+            recordUsedWeight(e.getResponseHeaders());
+            throw e;
+        } catch (RuntimeException e) {
+            metrics.recordRequest(DEPTH_ENDPOINT, statusOf(e), start);
+            throw e;
+        }
+    }
 
+    /**
+     * Peso de GET /api/v3/depth, que cresce com o 'limit' (até 100: 5; 500: 25; 1000: 50; 5000: 250).
+     */
+    static int depthRequestWeight(int limit) {
+        if (limit <= 100) {
+            return 5;
+        }
+        if (limit <= 500) {
+            return 25;
+        }
+        return limit <= 1000 ? 50 : 250;
+    }
+
+    /**
+     * Executa a chamada REST de klines. Retorna null em caso de erro (já registrado em log).
+     */
+    private <T> T fetchKlines(String symbol, String interval, Integer limit, Long startTime, Long endTime,
+                              BodyReader<T> reader, ToIntFunction<T> candleCount) {
+        try {
+            return requestKlines(symbol, interval, limit, startTime, endTime, reader, candleCount);
         } catch (HttpClientErrorException e) {
             logger.error("HTTP Client Error when calling Binance API: {} - {}", e.getStatusCode(), e.getResponseBodyAsString(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("Interrupted while waiting for Binance request weight");
         } catch (Exception e) {
             logger.error("An unexpected error occurred when calling Binance API: {}", e.getMessage(), e);
         }
-        return Collections.emptyList(); // Retorna lista vazia em caso de erro
+        return null;
+    }
+
+    /**
+     * Lê o corpo da resposta direto do stream (sem materializar Object[][]).
+     */
+    @FunctionalInterface
+    public interface BodyReader<T> {
+        T read(InputStream body) throws IOException;
+    }
+
+    private <T> T requestKlines(String symbol, String interval, Integer limit, Long startTime, Long endTime,
+                                BodyReader<T> reader, ToIntFunction<T> candleCount) throws InterruptedException {
+        String url = klinesUrl(baseUrl, symbol, interval, limit, startTime, endTime);
+        logger.debug("Fetching klines from Binance API: {}", url);
+
+        weightLimiter.acquire(KLINES_REQUEST_WEIGHT);
+        long start = System.nanoTime();
+        try {
+            // A API da Binance retorna um array de arrays; o parser em streaming grava direto no modelo pedido
+            return restTemplate.execute(url, HttpMethod.GET, null, response -> {
+                recordUsedWeight(response.getHeaders());
+                long parseStart = System.nanoTime();
+                T parsed = reader.read(response.getBody());
+                metrics.recordParse(candleCount.applyAsInt(parsed), parseStart);
+                metrics.recordRequest(KLINES_ENDPOINT, String.valueOf(response.getStatusCode().value()), start);
+                return parsed;
+            });
+        } catch (HttpClientErrorException e) {
+            // 429 (limite excedido) e 418 (IP banido temporariamente): não gastar mais peso nesta janela
+            if (e.getStatusCode().value() == 429 || e.getStatusCode().value() == 418) {
+                weightLimiter.exhaustWindow();
+            }
+            metrics.recordRequest(KLINES_ENDPOINT, statusOf(e), start);
+            recordUsedWeight(e.getResponseHeaders());
+            throw e;
+        } catch (RuntimeException e) {
+            metrics.recordRequest(KLINES_ENDPOINT, statusOf(e), start);
+            throw e;
+        }
+    }
+
+    static String klinesUrl(String baseUrl, String symbol, String interval, Integer limit, Long startTime, Long endTime) {
+        UriComponentsBuilder builder = UriComponentsBuilder.fromHttpUrl(baseUrl + KLINES_PATH)
+                .queryParam("symbol", symbol.toUpperCase())
+                .queryParam("interval", interval);
+
+        if (limit != null) {
+            builder.queryParam("limit", limit);
+        }
+        if (startTime != null) {
+            builder.queryParam("startTime", startTime);
+        }
+        if (endTime != null) {
+            builder.queryParam("endTime", endTime);
+        }
+        return builder.toUriString();
+    }
+
+    /**
+     * Código HTTP do erro, ou o tipo da exceção se não houve resposta (ex: timeout, falha de parse).
+     */
+    static String statusOf(Throwable e) {
+        return e instanceof HttpStatusCodeException statusError
+                ? String.valueOf(statusError.getStatusCode().value())
+                : e.getClass().getSimpleName();
+    }
+
+    private void recordUsedWeight(HttpHeaders headers) {
+        if (headers == null) {
+            return;
+        }
+        String usedWeight = headers.getFirst(BinanceRequestMetrics.USED_WEIGHT_HEADER);
+        metrics.recordUsedWeight(usedWeight != null ? usedWeight
+                : headers.getFirst(BinanceRequestMetrics.LEGACY_USED_WEIGHT_HEADER));
     }
-}
\ No newline at end of file
+}
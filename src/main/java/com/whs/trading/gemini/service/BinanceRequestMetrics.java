@@ -0,0 +1,90 @@
+package com.whs.trading.gemini.service;
+
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Métricas das chamadas REST à Binance, comuns aos clientes bloqueante ({@link BinanceMarketDataService}) e
+ * assíncrono ({@link AsyncBinanceMarketDataService}), que registram nos mesmos medidores. Também repassa ao
+ * {@link RequestWeightLimiter} o peso usado informado pelo servidor.
+ */
+final class BinanceRequestMetrics {
+
+    private static final Logger logger = LoggerFactory.getLogger(BinanceRequestMetrics.class);
+    static final String USED_WEIGHT_HEADER = "X-MBX-USED-WEIGHT-1M";
+    static final String LEGACY_USED_WEIGHT_HEADER = "X-MBX-USED-WEIGHT";
+
+    private final RequestWeightLimiter weightLimiter;
+    private volatile MeterRegistry meterRegistry; // null até o registro das métricas (ex: testes sem Actuator)
+
+    BinanceRequestMetrics(RequestWeightLimiter weightLimiter) {
+        this.weightLimiter = weightLimiter;
+    }
+
+    void bindTo(MeterRegistry registry) {
+        this.meterRegistry = registry;
+    }
+
+    /**
+     * Duração desde {@code startNanos} (envio até o fim da leitura do corpo, ou até o erro).
+     */
+    void recordRequest(String endpoint, String status, long startNanos) {
+        MeterRegistry registry = meterRegistry;
+        if (registry == null) {
+            return;
+        }
+        Timer.builder("binance.requests")
+                .description("Chamadas REST à Binance")
+                .tag("endpoint", endpoint)
+                .tag("status", status)
+                .register(registry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Leitura do corpo: no cliente bloqueante inclui a espera pelos bytes da rede além do parse em si.
+     */
+    void recordParse(int candles, long startNanos) {
+        MeterRegistry registry = meterRegistry;
+        if (registry == null) {
+            return;
+        }
+        Timer.builder("binance.klines.parse")
+                .description("Leitura e parse do corpo de klines")
+                .register(registry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        DistributionSummary.builder("binance.klines.candles")
+                .description("Velas por resposta de klines")
+                .baseUnit("candles")
+                .register(registry)
+                .record(candles);
+    }
+
+    /**
+     * Aplica o valor de {@code X-MBX-USED-WEIGHT-1M} (ou do cabeçalho legado), se presente.
+     */
+    void recordUsedWeight(String usedWeight) {
+        if (usedWeight == null) {
+            return;
+        }
+        try {
+            long serverUsedWeight = Long.parseLong(usedWeight.trim());
+            weightLimiter.recordUsedWeight(serverUsedWeight);
+            MeterRegistry registry = meterRegistry;
+            if (registry != null) {
+                DistributionSummary.builder("binance.weight.used")
+                        .description("Peso usado na janela de 1 minuto, informado pelo servidor")
+                        .register(registry)
+                        .record(serverUsedWeight);
+            }
+        } catch (NumberFormatException e) {
+            logger.debug("Ignoring malformed used-weight header: {}", usedWeight);
+        }
+    }
+}
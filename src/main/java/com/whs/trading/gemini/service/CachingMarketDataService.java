@@ -0,0 +1,242 @@
+package com.whs.trading.gemini.service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import com.whs.trading.gemini.dto.CandleSeries;
+import com.whs.trading.gemini.dto.CandlestickData;
+import com.whs.trading.gemini.dto.KlineInterval;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Decorador de {@link MarketDataService} com cache LRU limitado e coalescência de requisições.
+ * <p>
+ * Cada consulta (símbolo, intervalo, limit, startTime, endTime) vale até o fechamento da vela em andamento
+ * (uma entrada de 1m expira no próximo minuto cheio); consultas que terminam antes da vela atual só têm
+ * velas fechadas e valem até serem removidas pelo LRU. Consultas idênticas simultâneas esperam uma única
+ * busca no serviço de origem. Resultados vazios (erro já registrado pela origem) não são guardados.
+ * A vela em formação fica congelada enquanto a entrada vale: quem precisa dela a cada tick usa o stream.
+ * Métricas: {@code market-data.cache.requests} (hit, miss, coalesced), evictions, tamanho e buscas em andamento.
+ */
+@Service
+@Primary // Fonte padrão para quem injeta MarketDataService; o stream é opt-in
+public class CachingMarketDataService implements MarketDataService, MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(CachingMarketDataService.class);
+    private static final long NEVER = Long.MAX_VALUE;
+
+    private final MarketDataService delegate;
+    private final int maxEntries;
+    private final LongSupplier clock;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<Key, Entry> entries;
+    private final ConcurrentMap<Key, CompletableFuture<CandleSeries>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    @Autowired
+    public CachingMarketDataService(StoredMarketDataService storedMarketDataService,
+                                    @Value("${market-data.cache.max-entries:1000}") int maxEntries) {
+        this(storedMarketDataService, maxEntries, System::currentTimeMillis);
+    }
+
+    CachingMarketDataService(MarketDataService delegate, int maxEntries, LongSupplier clock) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("max-entries deve ser positivo: " + maxEntries);
+        }
+        this.delegate = delegate;
+        this.maxEntries = maxEntries;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                if (size() > CachingMarketDataService.this.maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("market-data.cache.requests", hits, LongAdder::sum).tag("result", "hit").register(registry);
+        FunctionCounter.builder("market-data.cache.requests", misses, LongAdder::sum).tag("result", "miss").register(registry);
+        FunctionCounter.builder("market-data.cache.requests", coalesced, LongAdder::sum).tag("result", "coalesced").register(registry);
+        FunctionCounter.builder("market-data.cache.evictions", evictions, LongAdder::sum).register(registry);
+        Gauge.builder("market-data.cache.size", this, CachingMarketDataService::size).register(registry);
+        Gauge.builder("market-data.cache.in-flight", inFlight, Map::size)
+                .description("Buscas na origem em andamento")
+                .register(registry);
+    }
+
+    @Override
+    public List<CandlestickData> getHistoricalCandlesticks(String symbol, String interval, Integer limit, Long startTime, Long endTime) {
+        return getCandleSeries(symbol, interval, limit, startTime, endTime).toCandlestickDataList();
+    }
+
+    @Override
+    public CandleSeries getCandleSeries(String symbol, String interval, Integer limit, Long startTime, Long endTime) {
+        Key key = new Key(symbol.toUpperCase(Locale.ROOT), interval, limit, startTime, endTime);
+        CandleSeries cached = lookup(key);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+
+        CompletableFuture<CandleSeries> mine = new CompletableFuture<>();
+        CompletableFuture<CandleSeries> existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            coalesced.increment();
+            return await(existing);
+        }
+        try {
+            // Outra busca pode ter terminado entre a consulta ao cache e o registro desta
+            CandleSeries series = lookup(key);
+            if (series == null) {
+                misses.increment();
+                series = delegate.getCandleSeries(symbol, interval, limit, startTime, endTime);
+                store(key, series);
+            } else {
+                hits.increment();
+            }
+            mine.complete(series);
+            return series;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Consultas atendidas por uma busca já em andamento (sem nova chamada à origem).
+     */
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void clear() {
+        lock.lock();
+        try {
+            entries.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private CandleSeries lookup(Key key) {
+        lock.lock();
+        try {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (clock.getAsLong() >= entry.expiresAt()) {
+                entries.remove(key);
+                return null;
+            }
+            return entry.series();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void store(Key key, CandleSeries series) {
+        if (series == null || series.isEmpty()) {
+            return;
+        }
+        long expiresAt = expiresAt(key, clock.getAsLong());
+        lock.lock();
+        try {
+            entries.put(key, new Entry(series, expiresAt));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Fechamento da vela em andamento, ou {@link #NEVER} se a consulta termina antes dela.
+     */
+    private static long expiresAt(Key key, long now) {
+        KlineInterval interval;
+        try {
+            interval = KlineInterval.fromCode(key.interval());
+        } catch (IllegalArgumentException e) {
+            logger.debug("Unknown interval {}, caching until the next minute", key.interval());
+            return KlineInterval.ONE_MINUTE.nextOpenTime(KlineInterval.ONE_MINUTE.openTimeOf(now));
+        }
+        long currentOpenTime = interval.openTimeOf(now);
+        if (key.endTime() != null && key.endTime() < currentOpenTime) {
+            return NEVER;
+        }
+        return interval.nextOpenTime(currentOpenTime);
+    }
+
+    private static CandleSeries await(CompletableFuture<CandleSeries> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private record Key(String symbol, String interval, Integer limit, Long startTime, Long endTime) {
+        Key {
+            Objects.requireNonNull(symbol, "symbol");
+            Objects.requireNonNull(interval, "interval");
+        }
+    }
+
+    private record Entry(CandleSeries series, long expiresAt) {
+    }
+}
@@ -0,0 +1,191 @@
+package com.whs.trading.gemini.service;
+
+import com.whs.trading.gemini.dto.CandleSeries;
+import com.whs.trading.gemini.dto.KlineInterval;
+
+/**
+ * Monta velas de um intervalo maior (ex: 1h) a partir das velas base de 1m, incrementalmente.
+ * <p>
+ * Cada vela base fechada entra na vela do intervalo que contém sua abertura ({@link KlineInterval#openTimeOf}):
+ * abertura da primeira, máxima e mínima, fechamento da última, volumes e nº de trades somados. A vela fecha
+ * quando chega a vela base que termina junto com ela, ou quando chega uma vela base de um período seguinte
+ * (lacuna). A vela parcial (velas base já fechadas mais a vela base em formação) aparece em
+ * {@link #seriesWithPartial()}. Aberturas e fechamentos seguem a Binance: {@code closeTime} é a abertura
+ * seguinte menos 1 ms, inclusive na vela parcial.
+ * <p>
+ * As velas fechadas ficam em uma {@link CandleTail}. Velas base repetidas (abertura menor ou igual à última
+ * recebida) e de períodos já fechados (ex: semeados via {@link #seedClosed}) são ignoradas, então a mesma
+ * série base pode ser reenviada. Não é thread-safe: o chamador sincroniza.
+ */
+public final class CandleResampler {
+
+    private final KlineInterval interval;
+    private final CandleTail tail;
+    private long lastBaseOpenTime = Long.MIN_VALUE;
+
+    // Vela em formação, só com velas base fechadas
+    private boolean forming;
+    private long openTime;
+    private long closeTime;
+    private double open;
+    private double high;
+    private double low;
+    private double close;
+    private double volume;
+    private double quoteVolume;
+    private long tradeCount;
+    private double takerBuyBaseVolume;
+    private double takerBuyQuoteVolume;
+
+    public CandleResampler(KlineInterval interval, int capacity) {
+        if (interval.getMillis() <= KlineInterval.ONE_MINUTE.getMillis()) {
+            throw new IllegalArgumentException("Intervalo deve ser maior que 1m: " + interval.getCode());
+        }
+        this.interval = interval;
+        this.tail = new CandleTail(capacity);
+    }
+
+    /**
+     * Reamostra uma série de velas de 1m inteira; a última vela pode ser parcial.
+     */
+    public static CandleSeries resample(CandleSeries base, KlineInterval interval) {
+        CandleResampler resampler = new CandleResampler(interval, Math.max(1, base.size()));
+        resampler.appendBase(base);
+        return resampler.seriesWithPartial();
+    }
+
+    public KlineInterval interval() {
+        return interval;
+    }
+
+    /**
+     * Velas já fechadas do intervalo (ex: da API REST), anteriores a qualquer vela base.
+     */
+    public void seedClosed(CandleSeries closedCandles) {
+        tail.appendClosed(closedCandles);
+    }
+
+    /**
+     * Abertura da última vela base recebida, ou {@link Long#MIN_VALUE} se nenhuma.
+     */
+    public long lastBaseOpenTime() {
+        return lastBaseOpenTime;
+    }
+
+    /**
+     * Abertura da última vela fechada do intervalo, ou {@link Long#MIN_VALUE} se vazia.
+     */
+    public long lastClosedOpenTime() {
+        return tail.lastClosedOpenTime();
+    }
+
+    /**
+     * Acrescenta uma vela base fechada (em ordem crescente de abertura).
+     *
+     * @return true se alguma vela do intervalo fechou.
+     */
+    public boolean appendBase(long baseOpenTime, double baseOpen, double baseHigh, double baseLow, double baseClose,
+                              double baseVolume, long baseCloseTime, double baseQuoteVolume, long baseTradeCount,
+                              double baseTakerBuyBaseVolume, double baseTakerBuyQuoteVolume) {
+        long bucket = interval.openTimeOf(baseOpenTime);
+        if (baseOpenTime <= lastBaseOpenTime || bucket <= tail.lastClosedOpenTime()) {
+            return false;
+        }
+        lastBaseOpenTime = baseOpenTime;
+        boolean closedAny = false;
+        if (forming && bucket != openTime) {
+            closeForming(); // Lacuna: a vela anterior não recebeu a última vela base
+            closedAny = true;
+        }
+        if (!forming) {
+            forming = true;
+            openTime = bucket;
+            closeTime = interval.nextOpenTime(bucket) - 1;
+            open = baseOpen;
+            high = baseHigh;
+            low = baseLow;
+            volume = 0;
+            quoteVolume = 0;
+            tradeCount = 0;
+            takerBuyBaseVolume = 0;
+            takerBuyQuoteVolume = 0;
+        } else {
+            high = Math.max(high, baseHigh);
+            low = Math.min(low, baseLow);
+        }
+        close = baseClose;
+        volume += baseVolume;
+        quoteVolume += baseQuoteVolume;
+        tradeCount += baseTradeCount;
+        takerBuyBaseVolume += baseTakerBuyBaseVolume;
+        takerBuyQuoteVolume += baseTakerBuyQuoteVolume;
+
+        if (baseCloseTime >= closeTime) {
+            closeForming();
+            return true;
+        }
+        tail.updateLive(openTime, open, high, low, close, volume, closeTime, quoteVolume, tradeCount,
+                takerBuyBaseVolume, takerBuyQuoteVolume);
+        return closedAny;
+    }
+
+    /**
+     * @return true se alguma vela do intervalo fechou.
+     */
+    public boolean appendBase(CandleSeries base) {
+        boolean closedAny = false;
+        for (int i = 0; i < base.size(); i++) {
+            closedAny |= appendBase(base.openTime(i), base.open(i), base.high(i), base.low(i), base.close(i),
+                    base.volume(i), base.closeTime(i), base.quoteVolume(i), base.tradeCount(i),
+                    base.takerBuyBaseVolume(i), base.takerBuyQuoteVolume(i));
+        }
+        return closedAny;
+    }
+
+    /**
+     * Atualiza a vela base em formação: entra só na vela parcial, até ser substituída ou fechada. Se ela é de
+     * um período seguinte ao da vela em formação (lacuna), a parcial continua sendo a vela em formação: as
+     * velas base que faltam ainda podem chegar fechadas (ex: preenchidas via REST) antes dela.
+     */
+    public void updateBaseLive(long baseOpenTime, double baseOpen, double baseHigh, double baseLow, double baseClose,
+                               double baseVolume, double baseQuoteVolume, long baseTradeCount,
+                               double baseTakerBuyBaseVolume, double baseTakerBuyQuoteVolume) {
+        long bucket = interval.openTimeOf(baseOpenTime);
+        if (baseOpenTime <= lastBaseOpenTime || bucket <= tail.lastClosedOpenTime()) {
+            return;
+        }
+        if (forming && bucket != openTime) {
+            return; // Lacuna: a vela em formação só fecha com velas base fechadas (appendBase)
+        }
+        long liveCloseTime = interval.nextOpenTime(bucket) - 1;
+        if (!forming) {
+            // Primeira vela base do período: a parcial é só ela
+            tail.updateLive(bucket, baseOpen, baseHigh, baseLow, baseClose, baseVolume, liveCloseTime,
+                    baseQuoteVolume, baseTradeCount, baseTakerBuyBaseVolume, baseTakerBuyQuoteVolume);
+            return;
+        }
+        tail.updateLive(openTime, open, Math.max(high, baseHigh), Math.min(low, baseLow), baseClose,
+                volume + baseVolume, closeTime, quoteVolume + baseQuoteVolume, tradeCount + baseTradeCount,
+                takerBuyBaseVolume + baseTakerBuyBaseVolume, takerBuyQuoteVolume + baseTakerBuyQuoteVolume);
+    }
+
+    /**
+     * Últimas velas fechadas do intervalo (visão sem cópia).
+     */
+    public CandleSeries closedSeries() {
+        return tail.closedSeries();
+    }
+
+    /**
+     * Velas fechadas seguidas da vela parcial, se houver (cópia).
+     */
+    public CandleSeries seriesWithPartial() {
+        return tail.seriesWithLive();
+    }
+
+    private void closeForming() {
+        tail.appendClosed(openTime, open, high, low, close, volume, closeTime, quoteVolume, tradeCount,
+                takerBuyBaseVolume, takerBuyQuoteVolume);
+        forming = false;
+    }
+}
@@ -0,0 +1,130 @@
+package com.whs.trading.gemini.service;
+
+import com.whs.trading.gemini.dto.ArrayCandleSeries;
+import com.whs.trading.gemini.dto.CandleSeries;
+
+/**
+ * Cauda em memória das velas fechadas de um símbolo/intervalo, em ordem crescente de abertura, mais a vela
+ * em formação. {@link #closedSeries()} devolve uma visão sem cópia; quando o buffer chega ao dobro da
+ * capacidade, as últimas {@code capacity} velas são copiadas para arrays novos, então visões já entregues
+ * continuam válidas. Não é thread-safe: o chamador sincroniza.
+ */
+public final class CandleTail {
+
+    private final int capacity;
+    private ArrayCandleSeries.Builder closed;
+
+    private boolean hasLive;
+    private long liveOpenTime;
+    private long liveCloseTime;
+    private double liveOpen;
+    private double liveHigh;
+    private double liveLow;
+    private double liveClose;
+    private double liveVolume;
+    private double liveQuoteVolume;
+    private long liveTradeCount;
+    private double liveTakerBuyBaseVolume;
+    private double liveTakerBuyQuoteVolume;
+
+    public CandleTail(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity deve ser positiva: " + capacity);
+        }
+        this.capacity = capacity;
+        this.closed = CandleSeries.builder(Math.min(capacity, 1024));
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Abertura da última vela fechada, ou {@link Long#MIN_VALUE} se vazia.
+     */
+    public long lastClosedOpenTime() {
+        return closed.lastOpenTime();
+    }
+
+    /**
+     * Acrescenta uma vela fechada. Velas com abertura menor ou igual à última são ignoradas (duplicadas).
+     *
+     * @return true se a vela foi acrescentada.
+     */
+    public boolean appendClosed(long openTime, double open, double high, double low, double close, double volume,
+                                long closeTime, double quoteVolume, long tradeCount,
+                                double takerBuyBaseVolume, double takerBuyQuoteVolume) {
+        if (openTime <= closed.lastOpenTime()) {
+            return false;
+        }
+        if (closed.size() >= 2 * capacity) {
+            ArrayCandleSeries.Builder compacted = CandleSeries.builder(2 * capacity);
+            compacted.addAll(closed.build().tail(capacity));
+            closed = compacted;
+        }
+        closed.add(openTime, open, high, low, close, volume, closeTime, quoteVolume, tradeCount,
+                takerBuyBaseVolume, takerBuyQuoteVolume);
+        if (hasLive && liveOpenTime <= openTime) {
+            hasLive = false;
+        }
+        return true;
+    }
+
+    /**
+     * @return Quantas velas foram acrescentadas (as já presentes são ignoradas).
+     */
+    public int appendClosed(CandleSeries series) {
+        int appended = 0;
+        for (int i = 0; i < series.size(); i++) {
+            if (appendClosed(series.openTime(i), series.open(i), series.high(i), series.low(i), series.close(i),
+                    series.volume(i), series.closeTime(i), series.quoteVolume(i), series.tradeCount(i),
+                    series.takerBuyBaseVolume(i), series.takerBuyQuoteVolume(i))) {
+                appended++;
+            }
+        }
+        return appended;
+    }
+
+    /**
+     * Atualiza a vela em formação (sobrescreve a anterior se for do mesmo horário ou mais nova).
+     */
+    public void updateLive(long openTime, double open, double high, double low, double close, double volume,
+                           long closeTime, double quoteVolume, long tradeCount,
+                           double takerBuyBaseVolume, double takerBuyQuoteVolume) {
+        if (openTime <= closed.lastOpenTime() || (hasLive && openTime < liveOpenTime)) {
+            return;
+        }
+        hasLive = true;
+        liveOpenTime = openTime;
+        liveCloseTime = closeTime;
+        liveOpen = open;
+        liveHigh = high;
+        liveLow = low;
+        liveClose = close;
+        liveVolume = volume;
+        liveQuoteVolume = quoteVolume;
+        liveTradeCount = tradeCount;
+        liveTakerBuyBaseVolume = takerBuyBaseVolume;
+        liveTakerBuyQuoteVolume = takerBuyQuoteVolume;
+    }
+
+    /**
+     * Últimas {@code capacity} velas fechadas (visão sem cópia).
+     */
+    public CandleSeries closedSeries() {
+        return closed.build().tail(capacity);
+    }
+
+    /**
+     * Velas fechadas seguidas da vela em formação, se houver (cópia).
+     */
+    public CandleSeries seriesWithLive() {
+        CandleSeries closedSeries = closedSeries();
+        ArrayCandleSeries.Builder builder = CandleSeries.builder(closedSeries.size() + 1).addAll(closedSeries);
+        if (hasLive) {
+            builder.add(liveOpenTime, liveOpen, liveHigh, liveLow, liveClose, liveVolume, liveCloseTime,
+                    liveQuoteVolume, liveTradeCount, liveTakerBuyBaseVolume, liveTakerBuyQuoteVolume);
+        }
+        return builder.build();
+    }
+}
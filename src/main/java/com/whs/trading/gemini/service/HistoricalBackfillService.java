@@ -0,0 +1,154 @@
+package com.whs.trading.gemini.service;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClientException;
+
+import com.whs.trading.gemini.dto.ArrayCandleSeries;
+import com.whs.trading.gemini.dto.CandleSeries;
+import com.whs.trading.gemini.dto.KlineInterval;
+
+/**
+ * Backfill histórico paginado: divide [startTime, endTime] em páginas do tamanho máximo da API, busca as
+ * páginas em paralelo em threads virtuais (no máximo {@code maxConcurrentRequests} chamadas simultâneas, e
+ * sempre dentro do orçamento do {@link RequestWeightLimiter}) e entrega as velas ao chamador em ordem,
+ * sem duplicatas por horário de abertura, à medida que cada página fica pronta.
+ */
+@Service
+public class HistoricalBackfillService {
+
+    private static final Logger logger = LoggerFactory.getLogger(HistoricalBackfillService.class);
+    private static final int MAX_ATTEMPTS = 4;
+    private static final long RETRY_BACKOFF_MILLIS = 500L;
+
+    private final BinanceMarketDataService binanceMarketDataService;
+    private final int maxConcurrentRequests;
+    private final int pageSize;
+
+    @Autowired
+    public HistoricalBackfillService(BinanceMarketDataService binanceMarketDataService,
+                                     @Value("${binance.backfill.max-concurrent-requests:8}") int maxConcurrentRequests,
+                                     @Value("${binance.backfill.page-size:1000}") int pageSize) {
+        this.binanceMarketDataService = binanceMarketDataService;
+        this.maxConcurrentRequests = maxConcurrentRequests;
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Busca todas as velas com abertura em [startTime, endTime] e as entrega ao {@code sink} em blocos
+     * ordenados (um por página, sem sobreposição entre blocos).
+     *
+     * @return Número total de velas entregues.
+     * @throws IllegalArgumentException se {@code startTime > endTime}.
+     * @throws IllegalStateException se uma página falhar após as novas tentativas (blocos anteriores já foram entregues).
+     */
+    public long backfill(String symbol, String interval, long startTime, long endTime, Consumer<CandleSeries> sink)
+            throws InterruptedException {
+        if (startTime > endTime) {
+            throw new IllegalArgumentException("startTime posterior a endTime: " + startTime + " > " + endTime);
+        }
+        KlineInterval klineInterval = KlineInterval.fromCode(interval);
+        long pageSpan = klineInterval.getMillis() * pageSize;
+        int pageCount = (int) ((endTime - startTime) / pageSpan) + 1;
+        int prefetch = maxConcurrentRequests * 2;
+        Semaphore concurrentRequests = new Semaphore(maxConcurrentRequests);
+
+        logger.info("Backfilling {} {} from {} to {} in {} page(s)", symbol, interval, startTime, endTime, pageCount);
+        long lastEmittedOpenTime = Long.MIN_VALUE;
+        long emitted = 0;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Deque<Future<CandleSeries>> inFlight = new ArrayDeque<>();
+            try {
+                int nextPage = 0;
+                while (nextPage < pageCount || !inFlight.isEmpty()) {
+                    // Limita páginas prontas aguardando em memória enquanto a mais antiga não chega
+                    while (nextPage < pageCount && inFlight.size() < prefetch) {
+                        long pageStart = startTime + nextPage * pageSpan;
+                        long pageEnd = Math.min(endTime, pageStart + pageSpan - 1);
+                        inFlight.add(executor.submit(() -> fetchPage(symbol, interval, pageStart, pageEnd, concurrentRequests)));
+                        nextPage++;
+                    }
+                    CandleSeries page = await(inFlight.removeFirst(), symbol, interval);
+                    CandleSeries fresh = newCandles(page, lastEmittedOpenTime, endTime);
+                    if (!fresh.isEmpty()) {
+                        lastEmittedOpenTime = fresh.openTime(fresh.size() - 1);
+                        emitted += fresh.size();
+                        sink.accept(fresh);
+                    }
+                }
+            } finally {
+                // Falha de página ou do sink: o close() do executor não espera as páginas adiantadas
+                for (Future<CandleSeries> pending : inFlight) {
+                    pending.cancel(true);
+                }
+            }
+        }
+        logger.info("Backfill of {} {} delivered {} candles", symbol, interval, emitted);
+        return emitted;
+    }
+
+    /**
+     * Conveniência que acumula o backfill inteiro em uma única série.
+     */
+    public CandleSeries backfillSeries(String symbol, String interval, long startTime, long endTime)
+            throws InterruptedException {
+        ArrayCandleSeries.Builder builder = CandleSeries.builder(1024);
+        backfill(symbol, interval, startTime, endTime, builder::addAll);
+        return builder.build();
+    }
+
+    private CandleSeries fetchPage(String symbol, String interval, long pageStart, long pageEnd,
+                                   Semaphore concurrentRequests) throws InterruptedException {
+        for (int attempt = 1; ; attempt++) {
+            concurrentRequests.acquire();
+            try {
+                return binanceMarketDataService.fetchCandleSeriesPage(symbol, interval, pageSize, pageStart, pageEnd);
+            } catch (RestClientException e) {
+                if (attempt >= MAX_ATTEMPTS) {
+                    throw e;
+                }
+                logger.warn("Backfill page {} {} [{}, {}] failed (attempt {}): {}", symbol, interval, pageStart,
+                        pageEnd, attempt, e.getMessage());
+            } finally {
+                concurrentRequests.release();
+            }
+            Thread.sleep(RETRY_BACKOFF_MILLIS * attempt);
+        }
+    }
+
+    private static CandleSeries await(Future<CandleSeries> future, String symbol, String interval)
+            throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Falha no backfill de " + symbol + " " + interval, e.getCause());
+        }
+    }
+
+    /**
+     * Trecho da página posterior ao último horário já entregue e dentro do intervalo pedido (visão sem cópia).
+     */
+    private static CandleSeries newCandles(CandleSeries page, long lastEmittedOpenTime, long endTime) {
+        int from = 0;
+        while (from < page.size() && page.openTime(from) <= lastEmittedOpenTime) {
+            from++;
+        }
+        int to = page.size();
+        while (to > from && page.openTime(to - 1) > endTime) {
+            to--;
+        }
+        return page.slice(from, to);
+    }
+}
@@ -0,0 +1,258 @@
+package com.whs.trading.gemini.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.whs.trading.gemini.dto.CandleSeries;
+import com.whs.trading.gemini.dto.IndicatorResult;
+import com.whs.trading.gemini.indicator.CandleIndicator;
+import com.whs.trading.gemini.indicator.TechnicalIndicator;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Memoização de {@link TechnicalIndicator#analyze(CandleSeries, Map)} com cache LRU limitado.
+ * <p>
+ * A chave é o nome do indicador, uma impressão digital O(1) da série (tamanho, horários e OHLCV da primeira e
+ * da última vela) e os parâmetros em forma canônica (ordenados por chave, sem espaços nas pontas). A mesma
+ * consulta repetida entre dois fechamentos (ex: vários scans sobre a série do {@link CachingMarketDataService})
+ * não recalcula o indicador. Uma entrada cuja última vela ainda está aberta expira no fechamento dela; uma nova
+ * vela muda a impressão digital, então nunca reaproveita um resultado antigo. Cada chamada recebe uma cópia
+ * do resultado, que é mutável; a cópia compartilha os valores tipados, sem montar mapa nem texto. Exceções do
+ * indicador não são guardadas, nem os resultados de indicadores que não dependem só das velas (os que não são
+ * {@link CandleIndicator}), calculados a cada chamada.
+ * <p>
+ * Como todo cálculo do scanner passa por aqui, cada falta mede o indicador: {@code indicator.compute} (tempo) e
+ * {@code indicator.input.candles} (tamanho da série), com a tag {@code indicator}.
+ */
+@Service
+public class IndicatorResultCache implements MeterBinder {
+
+    private static final long NEVER = Long.MAX_VALUE;
+
+    private final int maxEntries;
+    private final LongSupplier clock;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<Key, Entry> entries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final Map<String, IndicatorMeters> indicatorMeters = new ConcurrentHashMap<>();
+    private volatile MeterRegistry meterRegistry;
+
+    @Autowired
+    public IndicatorResultCache(@Value("${indicator.cache.max-entries:10000}") int maxEntries) {
+        this(maxEntries, System::currentTimeMillis);
+    }
+
+    IndicatorResultCache(int maxEntries, LongSupplier clock) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("max-entries deve ser positivo: " + maxEntries);
+        }
+        this.maxEntries = maxEntries;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                if (size() > IndicatorResultCache.this.maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("indicator.cache.requests", hits, LongAdder::sum).tag("result", "hit").register(registry);
+        FunctionCounter.builder("indicator.cache.requests", misses, LongAdder::sum).tag("result", "miss").register(registry);
+        FunctionCounter.builder("indicator.cache.removals", expirations, LongAdder::sum).tag("cause", "expired").register(registry);
+        FunctionCounter.builder("indicator.cache.removals", evictions, LongAdder::sum).tag("cause", "evicted").register(registry);
+        Gauge.builder("indicator.cache.size", this, IndicatorResultCache::size).register(registry);
+        indicatorMeters.clear();
+        meterRegistry = registry;
+    }
+
+    public IndicatorResult analyze(TechnicalIndicator indicator, CandleSeries series, Map<String, String> params) {
+        if (series == null || series.isEmpty() || !(indicator instanceof CandleIndicator)) {
+            return indicator.analyze(series, params);
+        }
+        Key key = new Key(indicator.getName(), Fingerprint.of(series), canonical(params));
+        long now = clock.getAsLong();
+        IndicatorResult cached = lookup(key, now);
+        if (cached != null) {
+            hits.increment();
+            return cached.copy();
+        }
+        misses.increment();
+        long start = System.nanoTime();
+        IndicatorResult result = indicator.analyze(series, params);
+        recordCompute(key.indicatorName(), series.size(), System.nanoTime() - start);
+        store(key, new Entry(result.copy(), expiresAt(series, now)));
+        return result;
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Entradas descartadas porque a última vela da série fechou.
+     */
+    public long getExpirationCount() {
+        return expirations.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * Acertos sobre o total de consultas (0 sem consultas).
+     */
+    public double getHitRate() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void clear() {
+        lock.lock();
+        try {
+            entries.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Stats getStats() {
+        return new Stats(getHitCount(), getMissCount(), getHitRate(), getExpirationCount(), getEvictionCount(), size(),
+                maxEntries);
+    }
+
+    private IndicatorResult lookup(Key key, long now) {
+        lock.lock();
+        try {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (now >= entry.expiresAt()) {
+                entries.remove(key);
+                expirations.increment();
+                return null;
+            }
+            return entry.result();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void store(Key key, Entry entry) {
+        lock.lock();
+        try {
+            entries.put(key, entry);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void recordCompute(String indicatorName, int candles, long nanos) {
+        MeterRegistry registry = meterRegistry;
+        if (registry == null) {
+            return;
+        }
+        IndicatorMeters meters = indicatorMeters.computeIfAbsent(indicatorName, name -> new IndicatorMeters(
+                Timer.builder("indicator.compute")
+                        .description("Cálculo de um indicador (faltas do cache)")
+                        .tag("indicator", name)
+                        .register(registry),
+                DistributionSummary.builder("indicator.input.candles")
+                        .description("Velas na série de entrada do indicador")
+                        .baseUnit("candles")
+                        .tag("indicator", name)
+                        .register(registry)));
+        meters.compute().record(nanos, TimeUnit.NANOSECONDS);
+        meters.inputCandles().record(candles);
+    }
+
+    /**
+     * Fechamento da última vela se ela ainda está aberta; senão a série só tem velas fechadas e o resultado não muda.
+     */
+    private static long expiresAt(CandleSeries series, long now) {
+        long closesAt = series.closeTime(series.size() - 1) + 1;
+        return closesAt > now ? closesAt : NEVER;
+    }
+
+    private static String canonical(Map<String, String> params) {
+        if (params == null || params.isEmpty()) {
+            return "";
+        }
+        TreeMap<String, String> sorted = new TreeMap<>();
+        params.forEach((name, value) -> sorted.put(name.trim(), value == null ? "" : value.trim()));
+        StringBuilder canonical = new StringBuilder();
+        sorted.forEach((name, value) -> canonical.append(name).append('=').append(value).append('&'));
+        return canonical.toString();
+    }
+
+    /**
+     * Contadores expostos em {@code GET /api/scanner/indicator-cache}.
+     */
+    public record Stats(long hits, long misses, double hitRate, long expirations, long evictions, int size,
+                        int maxEntries) {
+    }
+
+    /**
+     * Impressão digital O(1) da série: tamanho e as duas pontas (a última vela pode estar em formação).
+     */
+    private record Fingerprint(int size, long firstOpenTime, long firstClose, long lastOpenTime, long lastCloseTime,
+                               long lastOpen, long lastHigh, long lastLow, long lastClose, long lastVolume) {
+
+        static Fingerprint of(CandleSeries series) {
+            int last = series.size() - 1;
+            return new Fingerprint(series.size(), series.openTime(0), Double.doubleToLongBits(series.close(0)),
+                    series.openTime(last), series.closeTime(last), Double.doubleToLongBits(series.open(last)),
+                    Double.doubleToLongBits(series.high(last)), Double.doubleToLongBits(series.low(last)),
+                    Double.doubleToLongBits(series.close(last)), Double.doubleToLongBits(series.volume(last)));
+        }
+    }
+
+    private record Key(String indicatorName, Fingerprint fingerprint, String params) {
+    }
+
+    private record Entry(IndicatorResult result, long expiresAt) {
+    }
+
+    private record IndicatorMeters(Timer compute, DistributionSummary inputCandles) {
+    }
+}
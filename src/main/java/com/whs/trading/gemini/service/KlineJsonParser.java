@@ -0,0 +1,268 @@
+package com.whs.trading.gemini.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.whs.trading.gemini.dto.ArrayCandleSeries;
+import com.whs.trading.gemini.dto.CandleSeries;
+import com.whs.trading.gemini.dto.CandlestickData;
+
+/**
+ * Parser em streaming (Jackson {@link JsonParser}) da resposta de /api/v3/klines.
+ * <p>
+ * Lê token a token e grava direto nas colunas primitivas de um {@link ArrayCandleSeries.Builder}: sem
+ * Object[][], sem Long/Integer, e os preços (strings na API) são decodificados do buffer de caracteres do
+ * parser sem criar String. BigDecimal só é criado em {@link #parseCandlesticks(InputStream)}.
+ * Linhas malformadas são ignoradas com log, como na conversão anterior.
+ */
+public final class KlineJsonParser {
+
+    private static final Logger logger = LoggerFactory.getLogger(KlineJsonParser.class);
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final int MIN_FIELDS = 7;
+    private static final int MAX_EXACT_FRACTION_DIGITS = 22;
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+    private static final double[] POWERS_OF_TEN = new double[MAX_EXACT_FRACTION_DIGITS + 1];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private KlineJsonParser() {
+    }
+
+    public static CandleSeries parseSeries(InputStream body) throws IOException {
+        ArrayCandleSeries.Builder builder = CandleSeries.builder(1000);
+        parseInto(body, builder);
+        return builder.build();
+    }
+
+    public static CandleSeries parseSeries(byte[] body) throws IOException {
+        ArrayCandleSeries.Builder builder = CandleSeries.builder(1000);
+        try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+            readRows(parser, builder, null);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Acrescenta ao builder as velas da resposta.
+     *
+     * @return Número de velas acrescentadas.
+     */
+    public static int parseInto(InputStream body, ArrayCandleSeries.Builder builder) throws IOException {
+        int before = builder.size();
+        try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+            readRows(parser, builder, null);
+        }
+        return builder.size() - before;
+    }
+
+    /**
+     * Modelo legado: preços como BigDecimal exatos (construídos do buffer de caracteres, sem String).
+     */
+    public static List<CandlestickData> parseCandlesticks(InputStream body) throws IOException {
+        List<CandlestickData> candles = new ArrayList<>(1000);
+        try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+            readRows(parser, null, candles);
+        }
+        return candles;
+    }
+
+    public static List<CandlestickData> parseCandlesticks(byte[] body) throws IOException {
+        List<CandlestickData> candles = new ArrayList<>(1000);
+        try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+            readRows(parser, null, candles);
+        }
+        return candles;
+    }
+
+    private static void readRows(JsonParser parser, ArrayCandleSeries.Builder builder, List<CandlestickData> candles)
+            throws IOException {
+        JsonToken token = parser.nextToken();
+        if (token == null) {
+            return;
+        }
+        if (token != JsonToken.START_ARRAY) {
+            throw new IOException("Resposta de klines não é um array JSON: " + token);
+        }
+        int row = 0;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (token == null) {
+                throw new IOException("Resposta de klines truncada na linha " + row);
+            }
+            if (token != JsonToken.START_ARRAY) {
+                logger.warn("Kline row {} is not an array ({}), skipping", row, token);
+                parser.skipChildren();
+            } else {
+                readRow(parser, row, builder, candles);
+            }
+            row++;
+        }
+    }
+
+    /**
+     * Lê uma linha (o parser está no START_ARRAY dela) e termina no END_ARRAY correspondente.
+     */
+    private static void readRow(JsonParser parser, int row, ArrayCandleSeries.Builder builder,
+                                List<CandlestickData> candles) throws IOException {
+        long openTime = 0;
+        long closeTime = 0;
+        long tradeCount = 0;
+        double open = 0, high = 0, low = 0, close = 0, volume = 0;
+        double quoteVolume = 0, takerBuyBaseVolume = 0, takerBuyQuoteVolume = 0;
+        BigDecimal openBd = null, highBd = null, lowBd = null, closeBd = null, volumeBd = null;
+        boolean decimals = candles != null;
+        String error = null;
+
+        int field = 0;
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (token == null) {
+                throw new IOException("Resposta de klines truncada na linha " + row);
+            }
+            if (error != null || field > 10) {
+                parser.skipChildren();
+                field++;
+                continue;
+            }
+            try {
+                switch (field) {
+                    case 0 -> openTime = longValue(parser, token);
+                    case 6 -> closeTime = longValue(parser, token);
+                    case 8 -> tradeCount = longValue(parser, token);
+                    case 1, 2, 3, 4, 5 -> {
+                        if (decimals) {
+                            BigDecimal exact = bigDecimalValue(parser, token);
+                            switch (field) {
+                                case 1 -> openBd = exact;
+                                case 2 -> highBd = exact;
+                                case 3 -> lowBd = exact;
+                                case 4 -> closeBd = exact;
+                                default -> volumeBd = exact;
+                            }
+                        } else {
+                            double value = decimalValue(parser, token);
+                            switch (field) {
+                                case 1 -> open = value;
+                                case 2 -> high = value;
+                                case 3 -> low = value;
+                                case 4 -> close = value;
+                                default -> volume = value;
+                            }
+                        }
+                    }
+                    case 7 -> quoteVolume = decimalValue(parser, token);
+                    case 9 -> takerBuyBaseVolume = decimalValue(parser, token);
+                    case 10 -> takerBuyQuoteVolume = decimalValue(parser, token);
+                    default -> parser.skipChildren();
+                }
+            } catch (NumberFormatException e) {
+                error = "field " + field + ": " + e.getMessage();
+                parser.skipChildren();
+            }
+            field++;
+        }
+
+        if (error != null) {
+            logger.error("Error parsing kline data field: {} in kline row {}", error, row);
+            return;
+        }
+        if (field < MIN_FIELDS) {
+            logger.warn("Kline data has insufficient fields: {} in row {}", field, row);
+            return;
+        }
+        if (decimals) {
+            candles.add(new CandlestickData(Instant.ofEpochMilli(openTime), openBd, highBd, lowBd, closeBd, volumeBd,
+                    Instant.ofEpochMilli(closeTime)));
+        } else {
+            builder.add(openTime, open, high, low, close, volume, closeTime, quoteVolume, tradeCount,
+                    takerBuyBaseVolume, takerBuyQuoteVolume);
+        }
+    }
+
+    private static long longValue(JsonParser parser, JsonToken token) throws IOException {
+        if (token != JsonToken.VALUE_NUMBER_INT) {
+            throw new NumberFormatException("esperado inteiro, recebido " + token);
+        }
+        return parser.getLongValue();
+    }
+
+    private static double decimalValue(JsonParser parser, JsonToken token) throws IOException {
+        if (token == JsonToken.VALUE_STRING) {
+            return parseDecimal(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+        }
+        if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT) {
+            return parser.getDoubleValue();
+        }
+        throw new NumberFormatException("esperado número, recebido " + token);
+    }
+
+    private static BigDecimal bigDecimalValue(JsonParser parser, JsonToken token) throws IOException {
+        if (token == JsonToken.VALUE_STRING) {
+            return new BigDecimal(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+        }
+        if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT) {
+            return parser.getDecimalValue();
+        }
+        throw new NumberFormatException("esperado número, recebido " + token);
+    }
+
+    /**
+     * Decimal simples ("-123.4500") sem alocação. Mantissa até 2^53 e até 22 casas são exatas em double,
+     * então uma única divisão dá o mesmo resultado arredondado de {@link Double#parseDouble(String)};
+     * qualquer outro formato recorre a ele.
+     */
+    public static double parseDecimal(char[] chars, int offset, int length) {
+        int end = offset + length;
+        int i = offset;
+        boolean negative = false;
+        if (i < end && (chars[i] == '-' || chars[i] == '+')) {
+            negative = chars[i] == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int fractionDigits = -1;
+        int digits = 0;
+        for (; i < end; i++) {
+            char c = chars[i];
+            if (c >= '0' && c <= '9') {
+                mantissa = mantissa * 10 + (c - '0');
+                if (fractionDigits >= 0) {
+                    fractionDigits++;
+                }
+                if (++digits > 18) {
+                    return Double.parseDouble(new String(chars, offset, length));
+                }
+            } else if (c == '.' && fractionDigits < 0) {
+                fractionDigits = 0;
+            } else {
+                return Double.parseDouble(new String(chars, offset, length));
+            }
+        }
+        if (digits == 0) {
+            throw new NumberFormatException("número vazio");
+        }
+        if (fractionDigits < 0) {
+            fractionDigits = 0;
+        }
+        if (mantissa > MAX_EXACT_MANTISSA || fractionDigits > MAX_EXACT_FRACTION_DIGITS) {
+            return Double.parseDouble(new String(chars, offset, length));
+        }
+        double value = mantissa / POWERS_OF_TEN[fractionDigits];
+        return negative ? -value : value;
+    }
+}
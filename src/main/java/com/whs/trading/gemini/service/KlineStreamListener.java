@@ -0,0 +1,15 @@
+package com.whs.trading.gemini.service;
+
+import com.whs.trading.gemini.dto.CandleSeries;
+
+/**
+ * Notificado a cada vela fechada recebida pelo stream (já com eventuais lacunas preenchidas).
+ */
+@FunctionalInterface
+public interface KlineStreamListener {
+
+    /**
+     * @param closedTail últimas velas fechadas do símbolo/intervalo; a nova vela é a última da série.
+     */
+    void onCandleClosed(String symbol, String interval, CandleSeries closedTail);
+}
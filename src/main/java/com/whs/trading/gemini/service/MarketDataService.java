@@ -2,6 +2,7 @@ package com.whs.trading.gemini.service;
 
 import java.util.List;
 
+import com.whs.trading.gemini.dto.CandleSeries;
 import com.whs.trading.gemini.dto.CandlestickData;
 
 public interface MarketDataService {
@@ -16,4 +17,15 @@ public interface MarketDataService {
      * @return Uma lista de CandlestickData.
      */
     List<CandlestickData> getHistoricalCandlesticks(String symbol, String interval, Integer limit, Long startTime, Long endTime);
-}
\ No newline at end of file
+
+    /**
+     * Mesma consulta de {@link #getHistoricalCandlesticks}, porém em formato colunar para o caminho
+     * quente dos indicadores. Implementações que recebem os campos extras da API (volume em moeda de
+     * cotação, nº de trades, volumes taker) devem sobrescrever este método para preservá-los.
+     *
+     * @return Uma CandleSeries ordenada da vela mais antiga para a mais recente.
+     */
+    default CandleSeries getCandleSeries(String symbol, String interval, Integer limit, Long startTime, Long endTime) {
+        return CandleSeries.of(getHistoricalCandlesticks(symbol, interval, limit, startTime, endTime));
+    }
+}
@@ -0,0 +1,179 @@
+package com.whs.trading.gemini.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Orçamento de "request weight" da Binance por janela de tempo (1 minuto, alinhada ao relógio como na API).
+ * <p>
+ * Antes de cada chamada o peso é reservado com {@link #acquire(int)}, que bloqueia até a próxima janela se o
+ * orçamento acabou. Depois da resposta, {@link #recordUsedWeight(long)} aplica o valor de
+ * {@code X-MBX-USED-WEIGHT-1M}, que é a contagem oficial (inclui chamadas de outros processos com o mesmo IP).
+ * Usa ReentrantLock em vez de synchronized para não fixar threads virtuais em espera; o cliente assíncrono usa
+ * {@link #acquireAsync(int)}, que não ocupa thread nenhuma durante a espera. Métricas: peso usado e
+ * limite da janela ({@code binance.weight.window}) e espera em {@link #acquire(int)} ({@code binance.weight.wait}).
+ */
+@Component
+public class RequestWeightLimiter implements MeterBinder {
+
+    private final long limitPerWindow;
+    private final long windowMillis;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition windowChanged = lock.newCondition();
+    private long windowStart;
+    private long used;
+    private volatile Timer waitTimer;
+
+    @Autowired
+    public RequestWeightLimiter(@Value("${binance.api.weight-limit-per-minute:5000}") long limitPerMinute) {
+        this(limitPerMinute, 60_000L);
+    }
+
+    public RequestWeightLimiter(long limitPerWindow, long windowMillis) {
+        if (limitPerWindow <= 0 || windowMillis <= 0) {
+            throw new IllegalArgumentException("Limite e janela devem ser positivos");
+        }
+        this.limitPerWindow = limitPerWindow;
+        this.windowMillis = windowMillis;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("binance.weight.window", this, RequestWeightLimiter::getUsedWeight)
+                .description("Peso da janela atual: usado e limite")
+                .tag("kind", "used")
+                .register(registry);
+        Gauge.builder("binance.weight.window", this, RequestWeightLimiter::getLimitPerWindow)
+                .description("Peso da janela atual: usado e limite")
+                .tag("kind", "limit")
+                .register(registry);
+        waitTimer = Timer.builder("binance.weight.wait")
+                .description("Espera por orçamento de peso antes de cada chamada")
+                .register(registry);
+    }
+
+    /**
+     * Reserva {@code weight} na janela atual, aguardando a próxima janela se necessário.
+     */
+    public void acquire(int weight) throws InterruptedException {
+        long start = System.nanoTime();
+        lock.lockInterruptibly();
+        try {
+            while (true) {
+                long now = System.currentTimeMillis();
+                rollWindow(now);
+                if (used + weight <= limitPerWindow || used == 0) {
+                    used += weight;
+                    Timer timer = waitTimer;
+                    if (timer != null) {
+                        timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                    }
+                    return;
+                }
+                long waitMillis = windowStart + windowMillis - now;
+                if (waitMillis > 0) {
+                    windowChanged.await(waitMillis, TimeUnit.MILLISECONDS);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Versão sem bloqueio de {@link #acquire(int)}: completa quando o peso for reservado, tentando de novo na
+     * virada da janela se o orçamento acabou.
+     */
+    public CompletableFuture<Void> acquireAsync(int weight) {
+        return acquireAsync(weight, System.nanoTime());
+    }
+
+    private CompletableFuture<Void> acquireAsync(int weight, long start) {
+        long waitMillis = tryAcquire(weight);
+        if (waitMillis == 0) {
+            Timer timer = waitTimer;
+            if (timer != null) {
+                timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+            return CompletableFuture.completedFuture(null);
+        }
+        return CompletableFuture.runAsync(() -> { }, CompletableFuture.delayedExecutor(waitMillis, TimeUnit.MILLISECONDS))
+                .thenCompose(ignored -> acquireAsync(weight, start));
+    }
+
+    /**
+     * Reserva {@code weight} se couber na janela atual.
+     *
+     * @return 0 se reservou; senão, milissegundos até a próxima janela (pelo menos 1).
+     */
+    private long tryAcquire(int weight) {
+        lock.lock();
+        try {
+            long now = System.currentTimeMillis();
+            rollWindow(now);
+            if (used + weight <= limitPerWindow || used == 0) {
+                used += weight;
+                return 0;
+            }
+            return Math.max(1, windowStart + windowMillis - now);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Aplica o peso usado informado pelo servidor (nunca reduz a contagem local da janela atual).
+     */
+    public void recordUsedWeight(long serverUsedWeight) {
+        lock.lock();
+        try {
+            rollWindow(System.currentTimeMillis());
+            if (serverUsedWeight > used) {
+                used = serverUsedWeight;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Bloqueia novas reservas até o fim da janela atual (ex: após HTTP 429).
+     */
+    public void exhaustWindow() {
+        recordUsedWeight(limitPerWindow);
+    }
+
+    public long getUsedWeight() {
+        lock.lock();
+        try {
+            rollWindow(System.currentTimeMillis());
+            return used;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getLimitPerWindow() {
+        return limitPerWindow;
+    }
+
+    private void rollWindow(long now) {
+        long currentWindow = now - Math.floorMod(now, windowMillis);
+        if (currentWindow != windowStart) {
+            windowStart = currentWindow;
+            used = 0;
+            windowChanged.signalAll();
+        }
+    }
+}
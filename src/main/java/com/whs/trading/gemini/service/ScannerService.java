@@ -0,0 +1,294 @@
+package com.whs.trading.gemini.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+
+import com.whs.trading.gemini.cluster.ClusterMember;
+import com.whs.trading.gemini.cluster.ShardingService;
+import com.whs.trading.gemini.dto.CandleSeries;
+import com.whs.trading.gemini.dto.ScanReport;
+import com.whs.trading.gemini.dto.ScanResult;
+import com.whs.trading.gemini.indicator.TechnicalIndicator;
+import com.whs.trading.gemini.store.CandleStore;
+
+/**
+ * Varre vários símbolos com todos os {@link TechnicalIndicator} registrados.
+ * <p>
+ * Cada símbolo roda em uma thread virtual: busca as velas (no máximo {@code maxConcurrentFetches} buscas
+ * simultâneas; o orçamento de peso da API continua valendo) e em seguida roda os indicadores sobre a mesma
+ * série colunar. Os indicadores levam microssegundos por símbolo, então não são subdivididos; o paralelismo
+ * de CPU vem dos vários símbolos ao mesmo tempo. Scans repetidos antes do fechamento da vela reaproveitam os
+ * resultados do {@link IndicatorResultCache}. Falhas ficam registradas no resultado do símbolo, sem
+ * interromper a varredura.
+ * <p>
+ * Com o {@link ShardingService} ligado, {@link #scanSharded} varre aqui só os símbolos desta instância e repassa
+ * os demais às instâncias donas, juntando os resultados num único relatório.
+ */
+@Service
+public class ScannerService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScannerService.class);
+    static final String MARKET_DATA_SOURCE = "marketData";
+    static final String SCAN_PATH = "/api/scanner/scan"; // Repasse às instâncias donas (ScannerController)
+
+    private final MarketDataService marketDataService;
+    private final BinanceMarketDataService binanceMarketDataService;
+    private final IndicatorResultCache resultCache;
+    private final List<TechnicalIndicator> indicators;
+    private final List<String> defaultSymbols;
+    private final String quoteAsset;
+    private final int universeSize;
+    private final int maxConcurrentFetches;
+    private final int candleLimit;
+    private final ShardingService sharding; // null: sem divisão entre instâncias
+
+    @Autowired
+    public ScannerService(MarketDataService marketDataService,
+                          BinanceMarketDataService binanceMarketDataService,
+                          IndicatorResultCache resultCache,
+                          List<TechnicalIndicator> indicators,
+                          ShardingService sharding,
+                          @Value("${scanner.symbols:}") String defaultSymbols,
+                          @Value("${scanner.quote-asset:USDT}") String quoteAsset,
+                          @Value("${scanner.universe-size:400}") int universeSize,
+                          @Value("${scanner.max-concurrent-fetches:32}") int maxConcurrentFetches,
+                          @Value("${scanner.candle-limit:500}") int candleLimit) {
+        this.marketDataService = marketDataService;
+        this.binanceMarketDataService = binanceMarketDataService;
+        this.resultCache = resultCache;
+        this.indicators = List.copyOf(indicators);
+        this.defaultSymbols = splitSymbols(defaultSymbols);
+        this.quoteAsset = quoteAsset;
+        this.universeSize = universeSize;
+        this.maxConcurrentFetches = maxConcurrentFetches;
+        this.candleLimit = candleLimit;
+        this.sharding = sharding;
+    }
+
+    public ScannerService(MarketDataService marketDataService,
+                          BinanceMarketDataService binanceMarketDataService,
+                          IndicatorResultCache resultCache,
+                          List<TechnicalIndicator> indicators,
+                          String defaultSymbols, String quoteAsset, int universeSize, int maxConcurrentFetches,
+                          int candleLimit) {
+        this(marketDataService, binanceMarketDataService, resultCache, indicators, null, defaultSymbols, quoteAsset,
+                universeSize, maxConcurrentFetches, candleLimit);
+    }
+
+    public List<String> getIndicatorNames() {
+        return indicators.stream().map(TechnicalIndicator::getName).toList();
+    }
+
+    /**
+     * Símbolos padrão: os de {@code scanner.symbols} ou, se vazio, os {@code scanner.universe-size} pares
+     * contra {@code scanner.quote-asset} com maior volume em 24h.
+     */
+    public List<String> getDefaultSymbols() {
+        if (!defaultSymbols.isEmpty()) {
+            return defaultSymbols;
+        }
+        return binanceMarketDataService.getTopSymbolsByQuoteVolume(quoteAsset, universeSize);
+    }
+
+    /**
+     * @param symbols        Símbolos a varrer (null ou vazio: {@link #getDefaultSymbols()}).
+     * @param indicatorNames Indicadores a rodar, pelo nome (null ou vazio: todos).
+     * @param params         Parâmetros repassados aos indicadores; "symbol" é preenchido por símbolo.
+     * @throws IllegalArgumentException se algum símbolo for inválido ({@link CandleStore#checkSymbol}).
+     */
+    public ScanReport scan(Collection<String> symbols, String interval, Integer limit, Collection<String> indicatorNames,
+                           Map<String, String> params) throws InterruptedException {
+        long start = System.nanoTime();
+        List<String> universe = symbols == null || symbols.isEmpty() ? getDefaultSymbols() : normalize(symbols);
+        List<TechnicalIndicator> selected = select(indicatorNames);
+        int candles = limit != null ? limit : candleLimit;
+        Semaphore fetches = new Semaphore(maxConcurrentFetches);
+
+        List<Future<ScanResult>> futures = new ArrayList<>(universe.size());
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (String symbol : universe) {
+                futures.add(executor.submit(() -> scanSymbol(symbol, interval, candles, selected, params, fetches)));
+            }
+        }
+
+        List<ScanResult> ranked = new ArrayList<>();
+        List<ScanResult> failed = new ArrayList<>();
+        for (int i = 0; i < futures.size(); i++) {
+            ScanResult result;
+            try {
+                result = futures.get(i).get();
+            } catch (ExecutionException e) {
+                result = new ScanResult(universe.get(i));
+                result.addError(MARKET_DATA_SOURCE, String.valueOf(e.getCause()));
+            }
+            (result.isFailed() ? failed : ranked).add(result);
+        }
+        ranked.sort(Comparator.comparingInt(ScanResult::getScore).reversed().thenComparing(ScanResult::getSymbol));
+
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        logger.info("Scanned {} symbols ({} failed) on {} with {} indicators in {} ms", universe.size(), failed.size(),
+                interval, selected.size(), elapsedMillis);
+        return new ScanReport(interval, universe.size(), elapsedMillis, ranked, failed);
+    }
+
+    /**
+     * Como {@link #scan}, dividindo o universo entre as instâncias do cluster: cada parte vai à instância dona
+     * (em paralelo, já com {@code details}) e a desta instância é varrida aqui. A parte de uma instância que não
+     * responde é varrida aqui mesmo, então o relatório sai completo enquanto o anel não percebe a saída dela.
+     */
+    public ScanReport scanSharded(Collection<String> symbols, String interval, Integer limit,
+                                  Collection<String> indicatorNames, Map<String, String> params, boolean details)
+            throws InterruptedException {
+        if (sharding == null || !sharding.isEnabled()) {
+            return scan(symbols, interval, limit, indicatorNames, params);
+        }
+        long start = System.nanoTime();
+        List<String> universe = symbols == null || symbols.isEmpty() ? getDefaultSymbols() : normalize(symbols);
+        select(indicatorNames); // Indicador desconhecido: 400 aqui, antes de repassar
+        Map<ClusterMember, List<String>> shards = sharding.partition(universe);
+        ClusterMember self = sharding.self();
+
+        Map<ClusterMember, Future<ScanReport>> remote = new HashMap<>();
+        ScanReport local = null;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Map.Entry<ClusterMember, List<String>> shard : shards.entrySet()) {
+                if (!shard.getKey().equals(self)) {
+                    MultiValueMap<String, String> query = query(shard.getValue(), interval, limit, indicatorNames,
+                            params, details);
+                    remote.put(shard.getKey(), executor.submit(
+                            () -> sharding.forward(shard.getKey(), SCAN_PATH, query, ScanReport.class)));
+                }
+            }
+            List<String> own = shards.get(self);
+            if (own != null) {
+                local = scan(own, interval, limit, indicatorNames, params);
+            }
+        }
+
+        List<ScanResult> ranked = new ArrayList<>();
+        List<ScanResult> failed = new ArrayList<>();
+        if (local != null) {
+            ranked.addAll(local.getRanked());
+            failed.addAll(local.getFailed());
+        }
+        for (Map.Entry<ClusterMember, Future<ScanReport>> shard : remote.entrySet()) {
+            ScanReport report;
+            try {
+                report = shard.getValue().get();
+            } catch (ExecutionException e) {
+                logger.warn("Instance {} did not answer the scan ({}); scanning its {} symbols locally",
+                        shard.getKey().id(), e.getCause().getMessage(), shards.get(shard.getKey()).size());
+                report = scan(shards.get(shard.getKey()), interval, limit, indicatorNames, params);
+            }
+            ranked.addAll(report.getRanked());
+            failed.addAll(report.getFailed());
+        }
+        ranked.sort(Comparator.comparingInt(ScanResult::getScore).reversed().thenComparing(ScanResult::getSymbol));
+
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        logger.info("Scanned {} symbols ({} failed) on {} across {} instances in {} ms", universe.size(), failed.size(),
+                interval, shards.size(), elapsedMillis);
+        return new ScanReport(interval, universe.size(), elapsedMillis, ranked, failed);
+    }
+
+    private static MultiValueMap<String, String> query(List<String> symbols, String interval, Integer limit,
+                                                       Collection<String> indicatorNames, Map<String, String> params,
+                                                       boolean details) {
+        MultiValueMap<String, String> query = new LinkedMultiValueMap<>();
+        params.forEach(query::add);
+        query.set("symbols", String.join(",", symbols));
+        query.set("interval", interval);
+        if (limit != null) {
+            query.set("limit", limit.toString());
+        }
+        if (indicatorNames != null && !indicatorNames.isEmpty()) {
+            query.set("indicators", String.join(",", indicatorNames));
+        }
+        query.set("details", String.valueOf(details));
+        return query;
+    }
+
+    private ScanResult scanSymbol(String symbol, String interval, int limit, List<TechnicalIndicator> selected,
+                                  Map<String, String> params, Semaphore fetches) throws InterruptedException {
+        ScanResult result = new ScanResult(symbol);
+        CandleSeries series;
+        fetches.acquire();
+        try {
+            series = marketDataService.getCandleSeries(symbol, interval, limit, null, null);
+        } catch (RuntimeException e) {
+            result.addError(MARKET_DATA_SOURCE, e.getMessage());
+            return result;
+        } finally {
+            fetches.release();
+        }
+        if (series.isEmpty()) {
+            result.addError(MARKET_DATA_SOURCE, "Nenhuma vela retornada para " + symbol + " " + interval);
+            return result;
+        }
+        result.setLastOpenTime(series.openTime(series.size() - 1));
+
+        Map<String, String> symbolParams = new HashMap<>(params);
+        symbolParams.put("symbol", symbol);
+        for (TechnicalIndicator indicator : selected) {
+            try {
+                result.addResult(resultCache.analyze(indicator, series, symbolParams));
+            } catch (RuntimeException e) {
+                // Ex: parâmetro inválido (NumberFormatException) afeta só este indicador
+                result.addError(indicator.getName(), e.getClass().getSimpleName() + ": " + e.getMessage());
+            }
+        }
+        return result;
+    }
+
+    private List<TechnicalIndicator> select(Collection<String> names) {
+        if (names == null || names.isEmpty()) {
+            return indicators;
+        }
+        Set<String> wanted = new LinkedHashSet<>();
+        for (String name : names) {
+            wanted.add(name.trim().toUpperCase(Locale.ROOT));
+        }
+        List<TechnicalIndicator> selected = indicators.stream()
+                .filter(indicator -> wanted.contains(indicator.getName().toUpperCase(Locale.ROOT)))
+                .toList();
+        if (selected.size() != wanted.size()) {
+            throw new IllegalArgumentException("Indicadores desconhecidos em " + names + "; disponíveis: " + getIndicatorNames());
+        }
+        return selected;
+    }
+
+    private static List<String> normalize(Collection<String> symbols) {
+        Set<String> unique = new LinkedHashSet<>();
+        for (String symbol : symbols) {
+            if (symbol != null && !symbol.isBlank()) {
+                unique.add(CandleStore.checkSymbol(symbol.trim()));
+            }
+        }
+        return List.copyOf(unique);
+    }
+
+    private static List<String> splitSymbols(String symbols) {
+        return symbols == null || symbols.isBlank() ? List.of() : normalize(Arrays.asList(symbols.split(",")));
+    }
+}
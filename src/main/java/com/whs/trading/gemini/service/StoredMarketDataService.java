@@ -0,0 +1,246 @@
+package com.whs.trading.gemini.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.whs.trading.gemini.dto.CandleSeries;
+import com.whs.trading.gemini.dto.CandlestickData;
+import com.whs.trading.gemini.dto.KlineInterval;
+import com.whs.trading.gemini.store.CandleStore;
+import com.whs.trading.gemini.store.MappedCandleFile;
+
+/**
+ * {@link MarketDataService} servido do {@link CandleStore} em disco.
+ * <p>
+ * Cada consulta é limitada à janela de velas fechadas que ela devolve (ex: {@code startTime} e {@code limit}
+ * dão no máximo {@code limit} velas a partir de {@code startTime}), e só as partes dessa janela fora dos
+ * trechos já cobertos pelo arquivo ({@link MappedCandleFile#missing}) são buscadas na Binance (via
+ * {@link HistoricalBackfillService}) e gravadas; o arquivo pode ter lacunas entre trechos que ninguém pediu.
+ * A vela em formação vem sempre da API e nunca é gravada. O resultado é uma visão sem cópia sobre o arquivo
+ * mapeado. O arquivo só é criado quando chega a primeira página de velas, e consultas que exigiriam um
+ * backfill maior que {@code candle.store.max-backfill-candles} vão direto para a Binance.
+ */
+@Service
+public class StoredMarketDataService implements MarketDataService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StoredMarketDataService.class);
+    private static final int DEFAULT_LIMIT = 500; // Mesmos padrão e máximo da API
+    private static final int MAX_LIMIT = 1000;
+    // Vezes que a janela dobra quando a fonte tem pausas e faltam velas para completar o 'limit'
+    private static final int MAX_WINDOW_GROWTH = 3;
+
+    private final BinanceMarketDataService binanceMarketDataService;
+    private final HistoricalBackfillService backfillService;
+    private final CandleStore store;
+    private final long maxBackfillCandles;
+    private final ConcurrentMap<String, ReentrantLock> refreshLocks = new ConcurrentHashMap<>();
+
+    @Autowired
+    public StoredMarketDataService(BinanceMarketDataService binanceMarketDataService,
+                                   HistoricalBackfillService backfillService,
+                                   CandleStore store,
+                                   @Value("${candle.store.max-backfill-candles:1000000}") long maxBackfillCandles) {
+        this.binanceMarketDataService = binanceMarketDataService;
+        this.backfillService = backfillService;
+        this.store = store;
+        this.maxBackfillCandles = maxBackfillCandles;
+    }
+
+    @Override
+    public List<CandlestickData> getHistoricalCandlesticks(String symbol, String interval, Integer limit, Long startTime, Long endTime) {
+        return getCandleSeries(symbol, interval, limit, startTime, endTime).toCandlestickDataList();
+    }
+
+    @Override
+    public CandleSeries getCandleSeries(String symbol, String interval, Integer limit, Long startTime, Long endTime) {
+        KlineInterval klineInterval;
+        try {
+            klineInterval = KlineInterval.fromCode(interval);
+        } catch (IllegalArgumentException e) {
+            return binanceMarketDataService.getCandleSeries(symbol, interval, limit, startTime, endTime);
+        }
+        int count = limit == null ? DEFAULT_LIMIT : Math.max(1, Math.min(limit, MAX_LIMIT));
+        long step = klineInterval.getMillis();
+        long now = System.currentTimeMillis();
+        long currentOpenTime = klineInterval.openTimeOf(now);
+        long to = endTime != null ? endTime : Long.MAX_VALUE;
+        long closedEnd = Math.min(to, currentOpenTime - 1);
+        boolean wantsLive = to >= currentOpenTime;
+
+        CandleSeries closed;
+        if (startTime != null) {
+            // As primeiras 'count' velas a partir de startTime
+            long firstOpenTime = klineInterval.openTimeOf(startTime) == startTime ? startTime
+                    : klineInterval.nextOpenTime(klineInterval.openTimeOf(startTime));
+            long windowEnd = Math.min(closedEnd, firstOpenTime + count * step - 1);
+            closed = stored(symbol, klineInterval, startTime, windowEnd);
+            for (int i = 0; i < MAX_WINDOW_GROWTH && closed != null && closed.size() < count && windowEnd < closedEnd; i++) {
+                windowEnd = Math.min(closedEnd, windowEnd + (windowEnd - startTime + 1));
+                closed = stored(symbol, klineInterval, startTime, windowEnd);
+            }
+            if (closed != null) {
+                closed = closed.slice(0, Math.min(closed.size(), count));
+                wantsLive &= closed.size() < count;
+            }
+        } else {
+            // Sem startTime, a API devolve as últimas 'count' velas até endTime (ou agora)
+            int wanted = wantsLive ? count - 1 : count;
+            long windowStart = klineInterval.openTimeOf(Math.min(to, now)) - (count - 1) * step;
+            closed = stored(symbol, klineInterval, windowStart, closedEnd);
+            for (int i = 0; i < MAX_WINDOW_GROWTH && closed != null && closed.size() < wanted; i++) {
+                windowStart -= closedEnd - windowStart + 1;
+                closed = stored(symbol, klineInterval, windowStart, closedEnd);
+            }
+            if (closed != null) {
+                closed = closed.tail(wanted);
+            }
+        }
+        if (closed == null) {
+            return binanceMarketDataService.getCandleSeries(symbol, interval, limit, startTime, endTime);
+        }
+        if (!wantsLive) {
+            return closed;
+        }
+        CandleSeries live = binanceMarketDataService.getCandleSeries(symbol, interval, 1, currentOpenTime, null);
+        return CandleSeries.concat(closed, live.slice(0, Math.min(live.size(), 1)));
+    }
+
+    /**
+     * Velas fechadas com abertura em [startTime, endTime], sem o limite de 1000 da API: o trecho que falta
+     * é buscado uma única vez e as leituras seguintes são visões sem cópia sobre o arquivo mapeado.
+     */
+    public CandleSeries getClosedCandleRange(String symbol, String interval, long startTime, long endTime) {
+        KlineInterval klineInterval = KlineInterval.fromCode(interval);
+        long closedEnd = Math.min(endTime, klineInterval.openTimeOf(System.currentTimeMillis()) - 1);
+        CandleSeries closed = stored(symbol, klineInterval, startTime, closedEnd);
+        if (closed != null) {
+            return closed;
+        }
+        try {
+            return backfillService.backfillSeries(symbol, interval, startTime, closedEnd);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("Interrupted while fetching {} {} range", symbol, interval);
+        } catch (RuntimeException e) {
+            logger.error("Failed to fetch {} {} range: {}", symbol, interval, e.getMessage(), e);
+        }
+        return CandleSeries.empty();
+    }
+
+    /**
+     * Velas gravadas com abertura em [from, to], buscando antes só as partes da janela que o arquivo não cobre.
+     *
+     * @return As velas, ou null se a consulta deve ir direto para a Binance (já registrado em log).
+     * @throws IllegalArgumentException se o símbolo for inválido para o armazenamento.
+     */
+    private CandleSeries stored(String symbol, KlineInterval interval, long from, long to) {
+        String upper = CandleStore.checkSymbol(symbol);
+        // Alinhada às velas: da primeira abertura >= from ao fim da vela que abre até 'to'
+        long first = interval.openTimeOf(from) == from ? from : interval.nextOpenTime(interval.openTimeOf(from));
+        long last = interval.nextOpenTime(interval.openTimeOf(to)) - 1;
+        if (first > to) {
+            return CandleSeries.empty();
+        }
+        MappedCandleFile file = ensureCovered(upper, interval, first, last);
+        return file == null ? null : file.range(first, to);
+    }
+
+    /**
+     * Garante que o arquivo cubra [from, to], buscando só as partes que faltam.
+     *
+     * @return O arquivo, ou null se a consulta deve ir direto para a Binance (já registrado em log).
+     */
+    private MappedCandleFile ensureCovered(String symbol, KlineInterval interval, long from, long to) {
+        ReentrantLock lock = refreshLocks.computeIfAbsent(symbol + "|" + interval.name(), key -> new ReentrantLock());
+        lock.lock();
+        try {
+            MappedCandleFile file = store.existing(symbol, interval);
+            List<MappedCandleFile.TimeRange> missing = file == null
+                    ? List.of(new MappedCandleFile.TimeRange(from, to)) : file.missing(from, to);
+            if (missing.isEmpty()) {
+                return file;
+            }
+            long candles = 0;
+            for (MappedCandleFile.TimeRange gap : missing) {
+                candles += (gap.endTime() - interval.openTimeOf(gap.startTime())) / interval.getMillis() + 1;
+            }
+            if (candles > maxBackfillCandles) {
+                logger.info("{} {} would need {} candles to cover [{}, {}]; bypassing the store", symbol,
+                        interval.getCode(), candles, from, to);
+                return null;
+            }
+            for (MappedCandleFile.TimeRange gap : missing) {
+                file = fill(symbol, interval, file, gap);
+            }
+            if (file == null) {
+                logger.info("No candles for {} {} in [{}, {}]; nothing stored", symbol, interval.getCode(), from, to);
+            }
+            return file;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("Interrupted while filling candle store for {} {}", symbol, interval.getCode());
+        } catch (IOException | RuntimeException e) {
+            logger.error("Failed to fill candle store for {} {}: {}", symbol, interval.getCode(), e.getMessage(), e);
+        } finally {
+            lock.unlock();
+        }
+        return null;
+    }
+
+    /**
+     * Busca e grava as velas de uma lacuna e a marca como coberta. Depois da última vela gravada, as páginas
+     * são acrescentadas (e marcadas) à medida que chegam, criando o arquivo só com a primeira página não vazia;
+     * antes dela, a lacuna inteira é inserida de uma vez.
+     *
+     * @param file O arquivo, ou null se ainda não existe.
+     * @return O arquivo, ou null se não existe e nada foi gravado.
+     */
+    private MappedCandleFile fill(String symbol, KlineInterval interval, MappedCandleFile file,
+                                  MappedCandleFile.TimeRange gap) throws InterruptedException, IOException {
+        long start = gap.startTime();
+        if (file != null && !file.isEmpty() && start <= file.lastOpenTime()) {
+            CandleSeries candles = backfillService.backfillSeries(symbol, interval.getCode(), start, gap.endTime());
+            int inserted = file.insert(candles);
+            file.markCovered(start, gap.endTime());
+            logger.info("Stored {} candles for {} {} in [{}, {}] ({} total)", inserted, symbol, interval.getCode(),
+                    start, gap.endTime(), file.size());
+            return file;
+        }
+        AtomicReference<MappedCandleFile> target = new AtomicReference<>(file);
+        long appended = backfillService.backfill(symbol, interval.getCode(), start, gap.endTime(), page -> {
+            if (page.isEmpty()) {
+                return;
+            }
+            MappedCandleFile written = target.get();
+            if (written == null) {
+                written = store.file(symbol, interval);
+                target.set(written);
+            }
+            try {
+                written.append(page);
+                // O backfill entrega em ordem a partir do início da lacuna: mesmo se falhar no meio, o que foi gravado é contíguo
+                written.markCovered(start, page.openTime(page.size() - 1));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        MappedCandleFile written = target.get();
+        if (written != null) {
+            written.markCovered(start, gap.endTime());
+            logger.info("Stored {} new candles for {} {} ({} total)", appended, symbol, interval.getCode(),
+                    written.size());
+        }
+        return written;
+    }
+}
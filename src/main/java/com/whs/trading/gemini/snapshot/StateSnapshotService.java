@@ -0,0 +1,220 @@
+package com.whs.trading.gemini.snapshot;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.whs.trading.gemini.alert.AlertEngine;
+import com.whs.trading.gemini.service.BinanceKlineStreamService;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Snapshots binários do estado em memória para reinício a quente: as caudas de velas do
+ * {@link BinanceKlineStreamService} e as regras e contextos incrementais do {@link AlertEngine} (EMAs do MACD,
+ * médias de Wilder do RSI, janelas das médias e bandas). Ao iniciar, o snapshot é lido antes de o stream assinar
+ * os símbolos, então cada cauda só busca no REST as velas fechadas desde a gravação e cada contexto de alerta só
+ * aplica essas velas, em vez de refazer o aquecimento com o histórico.
+ * <p>
+ * Formato ({@link DataOutputStream}, big-endian): magic, versão ({@value #VERSION}), horário da gravação e as
+ * seções do stream e dos alertas, nesta ordem. Um arquivo de outra versão é ignorado (partida a frio). A gravação
+ * vai para um arquivo temporário, sincronizado em disco e movido por cima do anterior, então uma queda no meio
+ * dela deixa o snapshot anterior intacto.
+ * <p>
+ * Grava a cada {@code snapshot.interval-seconds} numa thread própria, fora do consumo das mensagens do stream
+ * (que só espera enquanto a cauda ou o contexto do próprio símbolo são copiados), e uma última vez no desligamento.
+ */
+@Service
+public class StateSnapshotService implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(StateSnapshotService.class);
+    static final int MAGIC = 0x57485353; // "WHSS"
+    static final int VERSION = 1;
+
+    private final BinanceKlineStreamService streamService;
+    private final AlertEngine alertEngine;
+    private final Path path;
+    private final boolean enabled;
+    private final long intervalSeconds;
+    private final AtomicLong lastSnapshotBytes = new AtomicLong();
+    private volatile ScheduledExecutorService scheduler;
+    private volatile Timer writeTimer;
+
+    @Autowired
+    public StateSnapshotService(BinanceKlineStreamService streamService, AlertEngine alertEngine,
+                                @Value("${snapshot.path:data/state.snapshot}") String path,
+                                @Value("${snapshot.enabled:false}") boolean enabled,
+                                @Value("${snapshot.interval-seconds:60}") long intervalSeconds) {
+        this(streamService, alertEngine, Paths.get(path), enabled, intervalSeconds);
+    }
+
+    public StateSnapshotService(BinanceKlineStreamService streamService, AlertEngine alertEngine, Path path,
+                                boolean enabled, long intervalSeconds) {
+        if (intervalSeconds <= 0) {
+            throw new IllegalArgumentException("snapshot.interval-seconds deve ser positivo: " + intervalSeconds);
+        }
+        this.streamService = streamService;
+        this.alertEngine = alertEngine;
+        this.path = path;
+        this.enabled = enabled;
+        this.intervalSeconds = intervalSeconds;
+    }
+
+    @FunctionalInterface
+    private interface StateReader {
+        void readState(DataInput in) throws IOException;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("snapshot.size", lastSnapshotBytes, AtomicLong::get)
+                .description("Tamanho do último snapshot gravado")
+                .baseUnit("bytes")
+                .register(registry);
+        writeTimer = Timer.builder("snapshot.write")
+                .description("Cópia do estado e gravação do snapshot")
+                .register(registry);
+    }
+
+    /**
+     * Lê o snapshot existente e agenda as gravações periódicas.
+     */
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        restore();
+        scheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofVirtual().name("state-snapshot").factory());
+        scheduler.scheduleWithFixedDelay(this::writeQuietly, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+        logger.info("State snapshots every {}s to {}", intervalSeconds, path);
+    }
+
+    /**
+     * Para as gravações periódicas e grava o estado final, para o próximo início partir dele.
+     */
+    @PreDestroy
+    public void stop() {
+        ScheduledExecutorService running = scheduler;
+        if (running == null) {
+            return;
+        }
+        scheduler = null;
+        running.shutdown(); // uma gravação em andamento termina; as agendadas são canceladas
+        try {
+            running.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        writeQuietly();
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Entrega o snapshot ao stream e aos alertas.
+     *
+     * @return false se não houver snapshot, se ele for de outra versão ou se não puder ser lido (partida a frio;
+     * uma seção lida antes do erro continua valendo).
+     */
+    public boolean restore() {
+        if (!Files.exists(path)) {
+            logger.info("No state snapshot at {}, starting cold", path);
+            return false;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 1 << 16))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Arquivo de snapshot com formato desconhecido: " + path);
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                logger.warn("Ignoring state snapshot {} with version {} (expected {})", path, version, VERSION);
+                return false;
+            }
+            long takenAt = in.readLong();
+            read("kline tails", streamService::readState, in);
+            read("alerts", alertEngine::readState, in);
+            logger.info("Restored state snapshot taken at {}", Instant.ofEpochMilli(takenAt));
+            return true;
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Could not read state snapshot {}, starting cold: {}", path, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Grava o snapshot agora (também usado pelo agendamento).
+     */
+    public synchronized void write() throws IOException {
+        long start = System.nanoTime();
+        Path directory = path.toAbsolutePath().getParent();
+        if (directory != null) {
+            Files.createDirectories(directory);
+        }
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(System.currentTimeMillis());
+            streamService.writeState(out);
+            alertEngine.writeState(out);
+            out.flush();
+            channel.force(true);
+            lastSnapshotBytes.set(channel.size());
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        Timer timer = writeTimer;
+        if (timer != null) {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        logger.debug("State snapshot written to {} ({} bytes)", path, lastSnapshotBytes.get());
+    }
+
+    private void writeQuietly() {
+        try {
+            write();
+        } catch (IOException | RuntimeException e) {
+            logger.error("Could not write state snapshot {}: {}", path, e.getMessage(), e);
+        }
+    }
+
+    private static void read(String section, StateReader reader, DataInput in) throws IOException {
+        try {
+            reader.readState(in);
+        } catch (IOException e) {
+            throw new IOException("seção " + section + ": " + e.getMessage(), e);
+        }
+    }
+}
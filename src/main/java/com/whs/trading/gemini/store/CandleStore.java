@@ -0,0 +1,148 @@
+package com.whs.trading.gemini.store;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.whs.trading.gemini.dto.KlineInterval;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Diretório de arquivos de velas, um {@link MappedCandleFile} por símbolo/intervalo, abertos sob demanda
+ * e mantidos abertos até o desligamento.
+ * <p>
+ * Layout: {@code <diretório>/<SÍMBOLO>/<INTERVALO>.candles}, com o nome da constante de
+ * {@link KlineInterval} (ex: {@code ONE_MINUTE}), pois "1m" e "1M" colidem em sistemas de arquivos que
+ * não diferenciam maiúsculas. Símbolos fora de {@code [A-Z0-9]{1,20}} (após passar para maiúsculas) são
+ * rejeitados, para que nenhum valor vindo de uma requisição aponte para fora do diretório.
+ */
+@Component
+public class CandleStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(CandleStore.class);
+    private static final String FILE_EXTENSION = ".candles";
+    private static final Pattern SYMBOL = Pattern.compile("[A-Z0-9]{1,20}");
+
+    private final Path directory;
+    private final ConcurrentMap<String, MappedCandleFile> files = new ConcurrentHashMap<>();
+
+    @Autowired
+    public CandleStore(@Value("${candle.store.directory:data/candles}") String directory) {
+        this(Paths.get(directory));
+    }
+
+    public CandleStore(Path directory) {
+        this.directory = directory;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Símbolo em maiúsculas, validado para uso como nome de diretório.
+     *
+     * @throws IllegalArgumentException se o símbolo não for alfanumérico com 1 a 20 caracteres.
+     */
+    public static String checkSymbol(String symbol) {
+        String upper = symbol == null ? "" : symbol.toUpperCase(Locale.ROOT);
+        if (!SYMBOL.matcher(upper).matches()) {
+            throw new IllegalArgumentException("Símbolo inválido: " + symbol);
+        }
+        return upper;
+    }
+
+    /**
+     * Arquivo do símbolo/intervalo, criado se não existir.
+     *
+     * @throws IllegalArgumentException se o símbolo for inválido ({@link #checkSymbol}).
+     * @throws UncheckedIOException se o arquivo não puder ser aberto ou estiver em formato inválido.
+     */
+    public MappedCandleFile file(String symbol, KlineInterval interval) {
+        String upper = checkSymbol(symbol);
+        return files.computeIfAbsent(upper + "|" + interval.name(), key -> {
+            Path path = path(upper, interval);
+            try {
+                MappedCandleFile file = MappedCandleFile.open(path);
+                logger.info("Opened candle store {} ({} candles)", path, file.size());
+                return file;
+            } catch (IOException e) {
+                throw new UncheckedIOException("Falha ao abrir " + path, e);
+            }
+        });
+    }
+
+    /**
+     * Arquivo do símbolo/intervalo se já existir, ou null (sem criá-lo, ao contrário de {@link #file}).
+     *
+     * @throws IllegalArgumentException se o símbolo for inválido ({@link #checkSymbol}).
+     * @throws UncheckedIOException se o arquivo não puder ser aberto ou estiver em formato inválido.
+     */
+    public MappedCandleFile existing(String symbol, KlineInterval interval) {
+        return contains(symbol, interval) ? file(symbol, interval) : null;
+    }
+
+    /**
+     * Se o símbolo já tem arquivo do intervalo (sem criá-lo, ao contrário de {@link #file}).
+     *
+     * @throws IllegalArgumentException se o símbolo for inválido ({@link #checkSymbol}).
+     */
+    public boolean contains(String symbol, KlineInterval interval) {
+        String upper = checkSymbol(symbol);
+        return files.containsKey(upper + "|" + interval.name()) || Files.isRegularFile(path(upper, interval));
+    }
+
+    /**
+     * Símbolos com arquivo do intervalo no diretório, abertos ou não, em ordem alfabética.
+     */
+    public List<String> symbols(KlineInterval interval) {
+        List<String> symbols = new ArrayList<>();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory, Files::isDirectory)) {
+            for (Path entry : entries) {
+                String symbol = entry.getFileName().toString();
+                if (SYMBOL.matcher(symbol).matches() && Files.isRegularFile(path(symbol, interval))) {
+                    symbols.add(symbol);
+                }
+            }
+        } catch (NoSuchFileException e) {
+            return List.of();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao listar " + directory, e);
+        }
+        symbols.sort(null);
+        return symbols;
+    }
+
+    private Path path(String upperSymbol, KlineInterval interval) {
+        return directory.resolve(upperSymbol).resolve(interval.name() + FILE_EXTENSION);
+    }
+
+    @PreDestroy
+    public void close() {
+        for (MappedCandleFile file : files.values()) {
+            try {
+                file.close();
+            } catch (IOException e) {
+                logger.warn("Failed to close candle store {}: {}", file.getPath(), e.getMessage());
+            }
+        }
+        files.clear();
+    }
+}
@@ -0,0 +1,498 @@
+package com.whs.trading.gemini.store;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.whs.trading.gemini.dto.CandleSeries;
+
+/**
+ * Arquivo append-only de velas fechadas de um símbolo/intervalo, mapeado em memória.
+ * <p>
+ * Formato (little-endian): cabeçalho de {@value #HEADER_BYTES} bytes (magic, versão, tamanho do registro,
+ * quantidade de velas, início da cobertura) seguido de registros fixos de {@value #RECORD_BYTES} bytes em
+ * ordem crescente de abertura. Como os registros são ordenados e de tamanho fixo, a busca por horário é uma
+ * busca binária direta no arquivo, sem índice separado.
+ * <p>
+ * Leituras devolvem {@link MappedCandleSeries}, visões sem cópia sobre o mapeamento. A quantidade no
+ * cabeçalho só é gravada depois dos registros, e o arquivo só cresce (ao crescer, é remapeado; visões
+ * antigas continuam apontando para o mapeamento anterior, que segue válido), então visões já entregues
+ * nunca mudam. Velas anteriores à última gravada entram por {@link #insert}, que regrava o arquivo numa
+ * cópia e a troca pelo original. Escritas são serializadas; leituras não bloqueiam e veem mapeamento e
+ * quantidade de um mesmo instante ({@link Snapshot}).
+ * <p>
+ * O arquivo pode ter lacunas: os trechos de horário já buscados por completo ({@link #covered}) ficam num
+ * arquivo ao lado ({@code .covered}), regravado por troca atômica a cada {@link #markCovered}. Se o processo
+ * cair entre gravar velas e marcar o trecho, ele só é buscado de novo.
+ */
+public final class MappedCandleFile implements Closeable {
+
+    static final int MAGIC = 0x434E444C; // "CNDL"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 64;
+    static final int RECORD_BYTES = 88;
+
+    static final int OPEN_TIME = 0;
+    static final int CLOSE_TIME = 8;
+    static final int OPEN = 16;
+    static final int HIGH = 24;
+    static final int LOW = 32;
+    static final int CLOSE = 40;
+    static final int VOLUME = 48;
+    static final int QUOTE_VOLUME = 56;
+    static final int TRADE_COUNT = 64;
+    static final int TAKER_BUY_BASE_VOLUME = 72;
+    static final int TAKER_BUY_QUOTE_VOLUME = 80;
+
+    private static final int VERSION_OFFSET = 4;
+    private static final int RECORD_BYTES_OFFSET = 8;
+    private static final int COUNT_OFFSET = 16;
+    private static final int COVERED_FROM_OFFSET = 24;
+    private static final int MIN_GROWTH_RECORDS = 16_384;
+    // Um único MappedByteBuffer endereça até 2 GB: ~24 milhões de velas (45 anos de 1m)
+    private static final int MAX_RECORDS = (Integer.MAX_VALUE - HEADER_BYTES) / RECORD_BYTES;
+
+    private static final int COVERAGE_MAGIC = 0x434F5652; // "COVR"
+
+    private final Path path;
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private volatile FileChannel channel;
+    private volatile Snapshot snapshot;
+    private volatile long coveredFrom;
+    private volatile List<TimeRange> covered;
+
+    /**
+     * Trecho fechado de horários de abertura, [startTime, endTime].
+     */
+    public record TimeRange(long startTime, long endTime) {
+    }
+
+    /**
+     * Mapeamento e quantidade de velas publicados juntos: com o {@link #insert} os registros mudam de
+     * posição, então ler um sem o outro poderia misturar arquivos.
+     */
+    private record Snapshot(MappedByteBuffer buffer, int count) {
+
+        long openTime(int index) {
+            return buffer.getLong(HEADER_BYTES + index * RECORD_BYTES + OPEN_TIME);
+        }
+    }
+
+    private MappedCandleFile(Path path, FileChannel channel, MappedByteBuffer buffer, int count, long coveredFrom)
+            throws IOException {
+        this.path = path;
+        this.channel = channel;
+        this.snapshot = new Snapshot(buffer, count);
+        this.coveredFrom = coveredFrom;
+        this.covered = readCoverage();
+    }
+
+    /**
+     * Abre (ou cria) o arquivo, validando o cabeçalho.
+     */
+    public static MappedCandleFile open(Path path) throws IOException {
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            long fileSize = channel.size();
+            if (fileSize == 0) {
+                MappedByteBuffer buffer = map(channel, MIN_GROWTH_RECORDS);
+                buffer.putInt(0, MAGIC);
+                buffer.putInt(VERSION_OFFSET, VERSION);
+                buffer.putInt(RECORD_BYTES_OFFSET, RECORD_BYTES);
+                buffer.putLong(COUNT_OFFSET, 0L);
+                buffer.putLong(COVERED_FROM_OFFSET, Long.MAX_VALUE);
+                return new MappedCandleFile(path, channel, buffer, 0, Long.MAX_VALUE);
+            }
+            if (fileSize < HEADER_BYTES) {
+                throw new IOException("Arquivo de velas truncado: " + path);
+            }
+            int capacity = (int) Math.min(MAX_RECORDS, (fileSize - HEADER_BYTES) / RECORD_BYTES);
+            MappedByteBuffer buffer = map(channel, capacity);
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(VERSION_OFFSET) != VERSION
+                    || buffer.getInt(RECORD_BYTES_OFFSET) != RECORD_BYTES) {
+                throw new IOException("Arquivo de velas com formato desconhecido: " + path);
+            }
+            long count = buffer.getLong(COUNT_OFFSET);
+            if (count < 0 || count > capacity) {
+                throw new IOException("Arquivo de velas corrompido (" + count + " velas, capacidade " + capacity + "): " + path);
+            }
+            return new MappedCandleFile(path, channel, buffer, (int) count, buffer.getLong(COVERED_FROM_OFFSET));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public int size() {
+        return snapshot.count();
+    }
+
+    public boolean isEmpty() {
+        return snapshot.count() == 0;
+    }
+
+    /**
+     * Abertura da primeira vela gravada, ou {@link Long#MIN_VALUE} se vazio.
+     */
+    public long firstOpenTime() {
+        Snapshot current = snapshot;
+        return current.count() == 0 ? Long.MIN_VALUE : current.openTime(0);
+    }
+
+    /**
+     * Abertura da última vela gravada, ou {@link Long#MIN_VALUE} se vazio.
+     */
+    public long lastOpenTime() {
+        Snapshot current = snapshot;
+        return current.count() == 0 ? Long.MIN_VALUE : current.openTime(current.count() - 1);
+    }
+
+    /**
+     * Início do primeiro trecho coberto ({@link Long#MAX_VALUE} se nada foi marcado). Pode ser anterior à
+     * primeira vela quando a Binance não tem dados antes dela (ex: listagem do par).
+     */
+    public long coveredFrom() {
+        return coveredFrom;
+    }
+
+    /**
+     * Trechos já buscados por completo, ordenados e sem sobreposição: toda vela com abertura dentro deles está
+     * no arquivo (a falta de uma vela ali é uma pausa da própria fonte). Arquivos sem o {@code .covered} contam
+     * como cobertos do início marcado no cabeçalho (ou da primeira vela) até a última vela.
+     */
+    public List<TimeRange> covered() {
+        return covered;
+    }
+
+    /**
+     * Partes de [startTime, endTime] fora dos trechos cobertos, em ordem.
+     */
+    public List<TimeRange> missing(long startTime, long endTime) {
+        List<TimeRange> missing = new ArrayList<>();
+        long cursor = startTime;
+        for (TimeRange range : covered) {
+            if (cursor > endTime || range.startTime() > endTime) {
+                break;
+            }
+            if (range.endTime() < cursor) {
+                continue;
+            }
+            if (range.startTime() > cursor) {
+                missing.add(new TimeRange(cursor, range.startTime() - 1));
+            }
+            if (range.endTime() >= endTime) {
+                return missing;
+            }
+            cursor = range.endTime() + 1;
+        }
+        if (cursor <= endTime) {
+            missing.add(new TimeRange(cursor, endTime));
+        }
+        return missing;
+    }
+
+    /**
+     * Registra que todas as velas com abertura em [startTime, endTime] estão no arquivo, juntando o trecho aos
+     * vizinhos que ele toca.
+     */
+    public void markCovered(long startTime, long endTime) throws IOException {
+        if (startTime > endTime) {
+            return;
+        }
+        writeLock.lock();
+        try {
+            List<TimeRange> merged = new ArrayList<>(covered.size() + 1);
+            long start = startTime;
+            long end = endTime;
+            int i = 0;
+            while (i < covered.size() && covered.get(i).endTime() < start - 1) {
+                merged.add(covered.get(i++));
+            }
+            while (i < covered.size() && covered.get(i).startTime() - 1 <= end) {
+                start = Math.min(start, covered.get(i).startTime());
+                end = Math.max(end, covered.get(i).endTime());
+                i++;
+            }
+            merged.add(new TimeRange(start, end));
+            while (i < covered.size()) {
+                merged.add(covered.get(i++));
+            }
+            writeCoverage(merged);
+            covered = List.copyOf(merged);
+            if (merged.get(0).startTime() < coveredFrom) {
+                snapshot.buffer().putLong(COVERED_FROM_OFFSET, merged.get(0).startTime());
+                coveredFrom = merged.get(0).startTime();
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Acrescenta as velas da série com abertura posterior à última gravada (as demais são ignoradas).
+     *
+     * @return Número de velas gravadas.
+     */
+    public int append(CandleSeries series) throws IOException {
+        writeLock.lock();
+        try {
+            Snapshot current = snapshot;
+            int size = current.count();
+            long last = lastOpenTime();
+            MappedByteBuffer target = current.buffer();
+            for (int i = 0; i < series.size(); i++) {
+                long openTime = series.openTime(i);
+                if (openTime <= last) {
+                    continue;
+                }
+                if (HEADER_BYTES + (long) (size + 1) * RECORD_BYTES > target.capacity()) {
+                    target = grow(target, size + 1);
+                }
+                write(target, size, series, i);
+                last = openTime;
+                size++;
+            }
+            int appended = size - current.count();
+            if (appended > 0) {
+                target.putLong(COUNT_OFFSET, size);
+                snapshot = new Snapshot(target, size);
+            }
+            return appended;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Insere as velas da série que ainda não estão no arquivo, em qualquer posição (as já gravadas são
+     * ignoradas). Se todas vêm depois da última gravada, é um {@link #append}.
+     * <p>
+     * Fora isso, como os registros são posicionais, o arquivo é regravado numa cópia ao lado (as velas novas
+     * intercaladas com as existentes), que substitui o original com uma troca atômica de nome. Visões já
+     * entregues seguem no mapeamento anterior, válido mesmo depois de fechado o canal.
+     *
+     * @return Número de velas gravadas.
+     */
+    public int insert(CandleSeries series) throws IOException {
+        writeLock.lock();
+        try {
+            Snapshot current = snapshot;
+            if (current.count() == 0 || series.isEmpty()
+                    || series.openTime(0) > current.openTime(current.count() - 1)) {
+                return append(series);
+            }
+            int[] indexes = new int[series.size()];
+            int added = 0;
+            long last = Long.MIN_VALUE;
+            for (int i = 0; i < series.size(); i++) {
+                long openTime = series.openTime(i);
+                if (openTime > last && !contains(current, openTime)) {
+                    indexes[added++] = i;
+                    last = openTime;
+                }
+            }
+            if (added == 0) {
+                return 0;
+            }
+            int size = current.count() + added;
+            if (size > MAX_RECORDS) {
+                throw new IOException("Arquivo de velas excede o limite de " + MAX_RECORDS + " registros: " + path);
+            }
+            Path copy = path.resolveSibling(path.getFileName() + ".tmp");
+            FileChannel copyChannel = FileChannel.open(copy, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            MappedByteBuffer target;
+            try {
+                target = map(copyChannel, Math.max(MIN_GROWTH_RECORDS, size));
+                target.put(0, current.buffer(), 0, HEADER_BYTES);
+                // Intercala: cada vela nova vem depois do bloco de registros existentes anteriores a ela
+                int copied = 0;
+                for (int j = 0; j < added; j++) {
+                    int before = ceilingIndex(current, series.openTime(indexes[j]));
+                    copyRecords(current, copied, before, target, copied + j);
+                    copied = before;
+                    write(target, copied + j, series, indexes[j]);
+                }
+                copyRecords(current, copied, current.count(), target, copied + added);
+                target.putLong(COUNT_OFFSET, size);
+                target.force();
+                Files.move(copy, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException | RuntimeException e) {
+                copyChannel.close();
+                Files.deleteIfExists(copy);
+                throw e;
+            }
+            FileChannel previous = channel;
+            channel = copyChannel;
+            snapshot = new Snapshot(target, size);
+            previous.close();
+            return added;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Todas as velas gravadas até agora (visão sem cópia).
+     */
+    public CandleSeries series() {
+        Snapshot current = snapshot;
+        return current.count() == 0 ? CandleSeries.empty()
+                : new MappedCandleSeries(current.buffer(), 0, current.count());
+    }
+
+    /**
+     * Velas com abertura em [startTime, endTime] (visão sem cópia).
+     */
+    public CandleSeries range(long startTime, long endTime) {
+        Snapshot current = snapshot;
+        int size = current.count();
+        if (size == 0 || startTime > endTime) {
+            return CandleSeries.empty();
+        }
+        int from = ceilingIndex(current, startTime);
+        int to = endTime == Long.MAX_VALUE ? size : ceilingIndex(current, endTime + 1);
+        return from >= to ? CandleSeries.empty() : new MappedCandleSeries(current.buffer(), from, to - from);
+    }
+
+    /**
+     * Grava no disco as páginas alteradas (o SO já as grava por conta própria; isto só antecipa).
+     */
+    public void force() {
+        writeLock.lock();
+        try {
+            snapshot.buffer().force();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        force();
+        channel.close();
+    }
+
+    /**
+     * Primeiro índice com abertura maior ou igual a {@code openTime} (ou {@code size}).
+     */
+    private static int ceilingIndex(Snapshot snapshot, long openTime) {
+        int low = 0;
+        int high = snapshot.count();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (snapshot.openTime(mid) < openTime) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static boolean contains(Snapshot snapshot, long openTime) {
+        int index = ceilingIndex(snapshot, openTime);
+        return index < snapshot.count() && snapshot.openTime(index) == openTime;
+    }
+
+    /**
+     * Copia os registros [from, to) do snapshot para a posição {@code record} em diante.
+     */
+    private static void copyRecords(Snapshot source, int from, int to, MappedByteBuffer target, int record) {
+        if (to > from) {
+            target.put(HEADER_BYTES + record * RECORD_BYTES, source.buffer(), HEADER_BYTES + from * RECORD_BYTES,
+                    (to - from) * RECORD_BYTES);
+        }
+    }
+
+    private Path coveragePath() {
+        return path.resolveSibling(path.getFileName() + ".covered");
+    }
+
+    private List<TimeRange> readCoverage() throws IOException {
+        Path coverage = coveragePath();
+        if (!Files.exists(coverage)) {
+            Snapshot current = snapshot;
+            if (current.count() == 0) {
+                return List.of();
+            }
+            long last = current.buffer().getLong(HEADER_BYTES + (current.count() - 1) * RECORD_BYTES + CLOSE_TIME);
+            return List.of(new TimeRange(Math.min(coveredFrom, current.openTime(0)), last));
+        }
+        try (InputStream in = Files.newInputStream(coverage); DataInputStream data = new DataInputStream(in)) {
+            if (data.readInt() != COVERAGE_MAGIC) {
+                throw new IOException("Cobertura de velas com formato desconhecido: " + coverage);
+            }
+            int count = data.readInt();
+            List<TimeRange> ranges = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                ranges.add(new TimeRange(data.readLong(), data.readLong()));
+            }
+            return List.copyOf(ranges);
+        }
+    }
+
+    private void writeCoverage(List<TimeRange> ranges) throws IOException {
+        Path coverage = coveragePath();
+        Path copy = coverage.resolveSibling(coverage.getFileName() + ".tmp");
+        try (OutputStream out = Files.newOutputStream(copy); DataOutputStream data = new DataOutputStream(out)) {
+            data.writeInt(COVERAGE_MAGIC);
+            data.writeInt(ranges.size());
+            for (TimeRange range : ranges) {
+                data.writeLong(range.startTime());
+                data.writeLong(range.endTime());
+            }
+        }
+        Files.move(copy, coverage, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private MappedByteBuffer grow(MappedByteBuffer buffer, int minRecords) throws IOException {
+        if (minRecords > MAX_RECORDS) {
+            throw new IOException("Arquivo de velas excede o limite de " + MAX_RECORDS + " registros: " + path);
+        }
+        int current = (buffer.capacity() - HEADER_BYTES) / RECORD_BYTES;
+        int capacity = (int) Math.min(MAX_RECORDS, Math.max(minRecords, Math.max(MIN_GROWTH_RECORDS, 2L * current)));
+        return map(channel, capacity);
+    }
+
+    private static void write(MappedByteBuffer target, int record, CandleSeries series, int i) {
+        int position = HEADER_BYTES + record * RECORD_BYTES;
+        target.putLong(position + OPEN_TIME, series.openTime(i));
+        target.putLong(position + CLOSE_TIME, series.closeTime(i));
+        target.putDouble(position + OPEN, series.open(i));
+        target.putDouble(position + HIGH, series.high(i));
+        target.putDouble(position + LOW, series.low(i));
+        target.putDouble(position + CLOSE, series.close(i));
+        target.putDouble(position + VOLUME, series.volume(i));
+        target.putDouble(position + QUOTE_VOLUME, series.quoteVolume(i));
+        target.putLong(position + TRADE_COUNT, series.tradeCount(i));
+        target.putDouble(position + TAKER_BUY_BASE_VOLUME, series.takerBuyBaseVolume(i));
+        target.putDouble(position + TAKER_BUY_QUOTE_VOLUME, series.takerBuyQuoteVolume(i));
+    }
+
+    private static MappedByteBuffer map(FileChannel channel, int records) throws IOException {
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                HEADER_BYTES + (long) records * RECORD_BYTES);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        return buffer;
+    }
+}
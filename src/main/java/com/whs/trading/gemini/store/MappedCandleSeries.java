@@ -0,0 +1,89 @@
+package com.whs.trading.gemini.store;
+
+import static com.whs.trading.gemini.store.MappedCandleFile.CLOSE;
+import static com.whs.trading.gemini.store.MappedCandleFile.CLOSE_TIME;
+import static com.whs.trading.gemini.store.MappedCandleFile.HEADER_BYTES;
+import static com.whs.trading.gemini.store.MappedCandleFile.HIGH;
+import static com.whs.trading.gemini.store.MappedCandleFile.LOW;
+import static com.whs.trading.gemini.store.MappedCandleFile.OPEN;
+import static com.whs.trading.gemini.store.MappedCandleFile.OPEN_TIME;
+import static com.whs.trading.gemini.store.MappedCandleFile.QUOTE_VOLUME;
+import static com.whs.trading.gemini.store.MappedCandleFile.RECORD_BYTES;
+import static com.whs.trading.gemini.store.MappedCandleFile.TAKER_BUY_BASE_VOLUME;
+import static com.whs.trading.gemini.store.MappedCandleFile.TAKER_BUY_QUOTE_VOLUME;
+import static com.whs.trading.gemini.store.MappedCandleFile.TRADE_COUNT;
+import static com.whs.trading.gemini.store.MappedCandleFile.VOLUME;
+
+import java.nio.MappedByteBuffer;
+
+import com.whs.trading.gemini.dto.CandleSeries;
+
+/**
+ * {@link CandleSeries} lida direto do arquivo mapeado (leituras absolutas, sem cópia nem objetos por vela).
+ */
+final class MappedCandleSeries implements CandleSeries {
+
+    private final MappedByteBuffer buffer;
+    private final int offset;
+    private final int size;
+
+    MappedCandleSeries(MappedByteBuffer buffer, int offset, int size) {
+        this.buffer = buffer;
+        this.offset = offset;
+        this.size = size;
+    }
+
+    @Override
+    public int size() { return size; }
+
+    @Override
+    public long openTime(int index) { return buffer.getLong(position(index) + OPEN_TIME); }
+
+    @Override
+    public long closeTime(int index) { return buffer.getLong(position(index) + CLOSE_TIME); }
+
+    @Override
+    public double open(int index) { return buffer.getDouble(position(index) + OPEN); }
+
+    @Override
+    public double high(int index) { return buffer.getDouble(position(index) + HIGH); }
+
+    @Override
+    public double low(int index) { return buffer.getDouble(position(index) + LOW); }
+
+    @Override
+    public double close(int index) { return buffer.getDouble(position(index) + CLOSE); }
+
+    @Override
+    public double volume(int index) { return buffer.getDouble(position(index) + VOLUME); }
+
+    @Override
+    public double quoteVolume(int index) { return buffer.getDouble(position(index) + QUOTE_VOLUME); }
+
+    @Override
+    public long tradeCount(int index) { return buffer.getLong(position(index) + TRADE_COUNT); }
+
+    @Override
+    public double takerBuyBaseVolume(int index) { return buffer.getDouble(position(index) + TAKER_BUY_BASE_VOLUME); }
+
+    @Override
+    public double takerBuyQuoteVolume(int index) { return buffer.getDouble(position(index) + TAKER_BUY_QUOTE_VOLUME); }
+
+    @Override
+    public CandleSeries slice(int fromIndex, int toIndex) {
+        if (fromIndex < 0 || toIndex > size || fromIndex > toIndex) {
+            throw new IndexOutOfBoundsException("slice [" + fromIndex + ", " + toIndex + ") fora de [0, " + size + ")");
+        }
+        if (fromIndex == 0 && toIndex == size) {
+            return this;
+        }
+        return new MappedCandleSeries(buffer, offset + fromIndex, toIndex - fromIndex);
+    }
+
+    private int position(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("índice " + index + " fora de [0, " + size + ")");
+        }
+        return HEADER_BYTES + (offset + index) * RECORD_BYTES;
+    }
+}
@@ -1,6 +1,7 @@
 package com.whs.trading.util;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -53,18 +54,19 @@ public class SuporteResistencia {
 		}
 	}
 
-	// Método auxiliar para agrupar níveis próximos (evita duplicatas)
+	// Método auxiliar para agrupar níveis próximos (evita duplicatas): ordena e varre uma vez, O(n log n);
+	// cada grupo começa no menor nível livre e absorve os níveis até 'tolerancia' acima dele
 	private static List<Double> filtrarNiveisProximos(List<Double> niveis, double tolerancia) {
+		double[] ordenados = new double[niveis.size()];
+		for (int i = 0; i < ordenados.length; i++) {
+			ordenados[i] = niveis.get(i);
+		}
+		Arrays.sort(ordenados);
 		List<Double> filtrados = new ArrayList<>();
-		for (double nivel : niveis) {
-			boolean isNovo = true;
-			for (double existente : filtrados) {
-				if (Math.abs(nivel - existente) / existente <= tolerancia) {
-					isNovo = false;
-					break;
-				}
-			}
-			if (isNovo) {
+		double inicioGrupo = Double.NaN;
+		for (double nivel : ordenados) {
+			if (filtrados.isEmpty() || nivel > inicioGrupo * (1 + tolerancia)) {
+				inicioGrupo = nivel;
 				filtrados.add(nivel);
 			}
 		}
@@ -0,0 +1,150 @@
+package com.whs.trading.gemini.alert;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.whs.trading.gemini.alert.AlertBroadcaster.DropPolicy;
+
+class AlertBroadcasterTests {
+
+	@Test
+	void slowSubscriberDropsOldestWithoutDelayingOthers() throws Exception {
+		AlertBroadcaster broadcaster = new AlertBroadcaster(4, DropPolicy.DROP_OLDEST, 60);
+		RecordingSink fast = new RecordingSink(null);
+		CountDownLatch release = new CountDownLatch(1);
+		RecordingSink slow = new RecordingSink(release);
+		broadcaster.subscribe(Set.of(), Set.of(), fast);
+		broadcaster.subscribe(Set.of(), Set.of(), slow);
+		// Outro símbolo: não recebe nada
+		RecordingSink other = new RecordingSink(null);
+		broadcaster.subscribe(Set.of(), Set.of("ETHUSDT"), other);
+
+		broadcaster.publish(event(0));
+		assertThat(slow.sending.await(5, TimeUnit.SECONDS)).isTrue(); // Preso no envio do evento 0
+		for (int i = 1; i < 20; i++) {
+			broadcaster.publish(event(i));
+			// Acompanha o assinante rápido: só a fila do lento deve transbordar
+			fast.awaitCount(i + 1);
+		}
+		release.countDown();
+		slow.awaitCount(5);
+
+		assertThat(fast.openTimes()).hasSize(20);
+		// O evento em envio e os 4 mais recentes; os demais foram descartados
+		assertThat(slow.openTimes()).containsExactly(0L, 16L, 17L, 18L, 19L);
+		assertThat(broadcaster.getDroppedCount()).isEqualTo(15L);
+		assertThat(other.openTimes()).isEmpty();
+		broadcaster.shutdown();
+		assertThat(broadcaster.getSubscriberCount()).isZero();
+	}
+
+	@Test
+	void concurrentPublishersCountEveryDroppedEvent() throws Exception {
+		AlertBroadcaster broadcaster = new AlertBroadcaster(4, DropPolicy.DROP_OLDEST, 60);
+		CountDownLatch release = new CountDownLatch(1);
+		RecordingSink slow = new RecordingSink(release);
+		broadcaster.subscribe(Set.of(), Set.of(), slow);
+		broadcaster.publish(event(0));
+		assertThat(slow.sending.await(5, TimeUnit.SECONDS)).isTrue();
+
+		List<Thread> publishers = new ArrayList<>();
+		for (int t = 0; t < 8; t++) {
+			long base = 1 + t * 1_000L;
+			Thread publisher = new Thread(() -> {
+				for (int i = 0; i < 1_000; i++) {
+					broadcaster.publish(event(base + i));
+				}
+			});
+			publisher.start();
+			publishers.add(publisher);
+		}
+		for (Thread publisher : publishers) {
+			publisher.join();
+		}
+		release.countDown();
+		slow.awaitCount(5);
+
+		// O evento em envio e a fila cheia; cada um dos demais foi contado uma vez
+		assertThat(slow.openTimes()).hasSize(5);
+		assertThat(broadcaster.getDroppedCount()).isEqualTo(8_000L - 4);
+		broadcaster.shutdown();
+	}
+
+	@Test
+	void disconnectPolicyClosesSlowSubscriber() throws Exception {
+		AlertBroadcaster broadcaster = new AlertBroadcaster(8, DropPolicy.DROP_OLDEST, 60);
+		CountDownLatch release = new CountDownLatch(1);
+		RecordingSink slow = new RecordingSink(release);
+		AlertBroadcaster.Subscription subscription = broadcaster.subscribe(Set.of("rule-1"), Set.of(), slow, 2,
+				DropPolicy.DISCONNECT);
+
+		broadcaster.publish(event(0));
+		assertThat(slow.sending.await(5, TimeUnit.SECONDS)).isTrue();
+		for (int i = 1; i <= 3; i++) {
+			broadcaster.publish(event(i));
+		}
+
+		assertThat(subscription.isClosed()).isTrue();
+		assertThat(slow.closed.await(5, TimeUnit.SECONDS)).isTrue();
+		assertThat(broadcaster.getSubscriberCount()).isZero();
+		release.countDown();
+	}
+
+	private static AlertEvent event(long openTime) {
+		return new AlertEvent("rule-1", "BTCUSDT", "1m", "close > 1", openTime, openTime + 59_999, 2, Map.of("close", 2.0),
+				openTime);
+	}
+
+	private static final class RecordingSink implements AlertBroadcaster.AlertSink {
+		private final CountDownLatch release;
+		private final CountDownLatch sending = new CountDownLatch(1);
+		private final CountDownLatch closed = new CountDownLatch(1);
+		private final List<Long> received = new CopyOnWriteArrayList<>();
+
+		RecordingSink(CountDownLatch release) {
+			this.release = release;
+		}
+
+		@Override
+		public void send(AlertEvent event) {
+			sending.countDown();
+			if (release != null) {
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			received.add(event.openTime());
+		}
+
+		@Override
+		public void heartbeat() {
+		}
+
+		@Override
+		public void close() {
+			closed.countDown();
+		}
+
+		List<Long> openTimes() {
+			return received;
+		}
+
+		void awaitCount(int count) throws InterruptedException {
+			long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+			while (received.size() < count && System.nanoTime() < deadline) {
+				Thread.sleep(5);
+			}
+		}
+	}
+}
@@ -0,0 +1,179 @@
+package com.whs.trading.gemini.alert;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.whs.trading.gemini.dto.ArrayCandleSeries;
+import com.whs.trading.gemini.dto.CandleSeries;
+import com.whs.trading.gemini.indicator.streaming.StreamingBollingerBands;
+import com.whs.trading.gemini.indicator.streaming.StreamingMacd;
+import com.whs.trading.gemini.indicator.streaming.StreamingRsi;
+import com.whs.trading.gemini.service.BinanceKlineStreamService;
+
+class AlertEngineTests {
+
+	@Test
+	void compiledConditionMatchesIndicatorsOnEveryCandle() {
+		AlertCondition condition = AlertCondition.parse("rsi < 45 and close < bb_lower(20, 1.5) or not macd_hist(12,26,9) <= 0.2");
+		assertThat(condition.getOperands()).containsExactly("rsi(14)", "close", "bb_lower(20,1.5)", "macd_hist(12,26,9)");
+
+		AlertContext context = new AlertContext();
+		AlertCondition.Compiled compiled = condition.compile(context);
+		StreamingRsi rsi = new StreamingRsi(14);
+		StreamingBollingerBands bands = new StreamingBollingerBands(20, 1.5);
+		StreamingMacd macd = new StreamingMacd(12, 26, 9);
+		CandleSeries series = randomWalk(600, 3);
+		int matches = 0;
+		for (int i = 0; i < series.size(); i++) {
+			context.update(series, i);
+			rsi.update(series, i);
+			bands.update(series, i);
+			macd.update(series, i);
+			boolean ready = rsi.isReady() && bands.isReady() && macd.isReady();
+			boolean expected = ready && (rsi.value() < 45 && series.close(i) < bands.lowerBand() || !(macd.histogram() <= 0.2));
+			assertThat(compiled.test()).isEqualTo(expected);
+			matches += expected ? 1 : 0;
+		}
+		assertThat(matches).isGreaterThan(0);
+		assertThat(compiled.values().get("rsi(14)")).isEqualTo(rsi.value());
+	}
+
+	@Test
+	void rejectsInvalidConditions() {
+		assertThatThrownBy(() -> AlertCondition.parse("rsi(14) <")).isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> AlertCondition.parse("volume > 10")).isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> AlertCondition.parse("macd(26, 12) > 0")).isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> AlertCondition.parse("sma(2.5) > close")).isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> AlertCondition.parse("close > 1 and")).isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	void firesOnTransitionsForMatchingSymbolAndInterval() {
+		List<AlertEvent> events = new CopyOnWriteArrayList<>();
+		AlertEngine engine = new AlertEngine(null, events::add, () -> 42L);
+		AlertRule rule = engine.addRule(new AlertRule(null, "btcusdt", "1m", "close > 105"));
+		engine.addRule(new AlertRule(null, null, "1h", "close > 0"));
+		assertThat(rule.id()).isNotNull();
+		assertThat(rule.symbol()).isEqualTo("BTCUSDT");
+
+		CandleSeries series = closes(100, 104, 106, 107, 103, 108);
+		for (int n = 2; n <= series.size(); n++) {
+			if (n == 5) {
+				// Nova regra: o contexto é remontado sem repetir o disparo da regra que já estava verdadeira
+				engine.addRule(new AlertRule("low", null, "1m", "close < 100"));
+			}
+			engine.onCandleClosed("BTCUSDT", "1m", series.slice(0, n));
+			engine.onCandleClosed("ETHUSDT", "1m", series.slice(0, n));
+		}
+		// Notificação repetida da mesma vela não reavalia
+		engine.onCandleClosed("BTCUSDT", "1m", series);
+
+		assertThat(events.stream().map(AlertEvent::openTime).toList()).containsExactly(2 * 60_000L, 5 * 60_000L);
+		AlertEvent first = events.get(0);
+		assertThat(first.ruleId()).isEqualTo(rule.id());
+		assertThat(first.symbol()).isEqualTo("BTCUSDT");
+		assertThat(first.close()).isEqualTo(106.0);
+		assertThat(first.values().get("close")).isEqualTo(106.0);
+		assertThat(first.firedAt()).isEqualTo(42L);
+		assertThat(engine.getFiredCount()).isEqualTo(2L);
+
+		assertThat(engine.removeRule(rule.id())).isTrue();
+		assertThat(engine.removeRule(rule.id())).isFalse();
+		assertThat(engine.getRules().size()).isEqualTo(2);
+	}
+
+	@Test
+	void lastRuleOfASymbolAndIntervalReleasesItsStream() {
+		List<String> calls = new CopyOnWriteArrayList<>();
+		BinanceKlineStreamService stream = new BinanceKlineStreamService(null, new ObjectMapper(), "ws://localhost:1",
+				10, 200, false, List.of(), List.of(), List.of(), 10_000, null) {
+			@Override
+			public synchronized void subscribe(List<String> symbols, List<String> intervals) {
+				calls.add("+" + symbols + intervals);
+			}
+
+			@Override
+			public synchronized void unsubscribe(String symbol, String interval, Collection<String> stillWatched) {
+				calls.add("-" + symbol + " " + interval + " " + stillWatched);
+			}
+		};
+		AlertEngine engine = new AlertEngine(stream, event -> { }, () -> 0L);
+		AlertRule first = engine.addRule(new AlertRule(null, "btcusdt", "1m", "close > 1"));
+		AlertRule second = engine.addRule(new AlertRule(null, "BTCUSDT", "1m", "close < 1"));
+		AlertRule hourly = engine.addRule(new AlertRule(null, "BTCUSDT", "1h", "close > 1"));
+		engine.addRule(new AlertRule(null, null, "1m", "close > 1"));
+
+		engine.removeRule(first.id());
+		assertThat(calls).hasSize(3);
+		engine.removeRule(second.id());
+		engine.removeRule(hourly.id());
+
+		assertThat(calls).containsExactly("+[BTCUSDT][1m]", "+[BTCUSDT][1m]", "+[BTCUSDT][1h]", "-BTCUSDT 1m [1h]",
+				"-BTCUSDT 1h []");
+	}
+
+	@Test
+	void restoredStateContinuesWithoutTheWarmupHistory() throws IOException {
+		CandleSeries series = randomWalk(600, 5);
+		List<AlertEvent> expected = new CopyOnWriteArrayList<>();
+		AlertEngine uninterrupted = new AlertEngine(null, expected::add, () -> 42L);
+		uninterrupted.addRule(new AlertRule("oversold", "BTCUSDT", "1m", "rsi(14) < 40"));
+		uninterrupted.addRule(new AlertRule("cross", null, "1m", "macd_hist(12,26,9) > 0 and close > sma(50)"));
+		for (int n = 2; n <= 400; n++) {
+			uninterrupted.onCandleClosed("BTCUSDT", "1m", series.slice(0, n));
+		}
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		uninterrupted.writeState(new DataOutputStream(bytes));
+		expected.clear();
+
+		List<AlertEvent> events = new CopyOnWriteArrayList<>();
+		AlertEngine restored = new AlertEngine(null, events::add, () -> 42L);
+		restored.readState(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+		assertThat(restored.getRules().size()).isEqualTo(2);
+		// Depois do reinício, caudas curtas demais para aquecer MACD(12,26,9) e SMA(50); a primeira cobre duas velas novas
+		for (int n = 402; n <= series.size(); n++) {
+			uninterrupted.onCandleClosed("BTCUSDT", "1m", series.slice(0, n));
+			restored.onCandleClosed("BTCUSDT", "1m", series.slice(n - 30, n));
+		}
+
+		assertThat(restored.getRestoredStateCount()).isEqualTo(1L);
+		assertThat(expected).isNotEmpty();
+		assertThat(events.stream().map(event -> event.ruleId() + "@" + event.openTime() + event.values()).toList())
+				.isEqualTo(expected.stream().map(event -> event.ruleId() + "@" + event.openTime() + event.values()).toList());
+	}
+
+	private static CandleSeries closes(double... closes) {
+		ArrayCandleSeries.Builder builder = CandleSeries.builder(closes.length);
+		for (int i = 0; i < closes.length; i++) {
+			builder.add(i * 60_000L, closes[i], closes[i] + 1, closes[i] - 1, closes[i], 10, i * 60_000L + 59_999,
+					0, 0, 0, 0);
+		}
+		return builder.build();
+	}
+
+	private static CandleSeries randomWalk(int size, long seed) {
+		Random random = new Random(seed);
+		ArrayCandleSeries.Builder builder = CandleSeries.builder(size);
+		double price = 100;
+		for (int i = 0; i < size; i++) {
+			double open = price;
+			price = Math.max(1, price + random.nextGaussian());
+			builder.add(i * 60_000L, open, Math.max(open, price) + random.nextDouble(),
+					Math.min(open, price) - random.nextDouble(), price, 10, i * 60_000L + 59_999, 0, 0, 0, 0);
+		}
+		return builder.build();
+	}
+}
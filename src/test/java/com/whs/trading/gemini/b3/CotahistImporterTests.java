@@ -0,0 +1,220 @@
+package com.whs.trading.gemini.b3;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.whs.trading.gemini.dto.ArrayCandleSeries;
+import com.whs.trading.gemini.dto.CandleSeries;
+import com.whs.trading.gemini.dto.ScanResult;
+import com.whs.trading.gemini.indicator.SmaIndicator;
+import com.whs.trading.gemini.service.IndicatorResultCache;
+import com.whs.trading.gemini.store.CandleStore;
+
+class CotahistImporterTests {
+
+	@TempDir
+	Path directory;
+
+	private CotahistImporter importer;
+	private B3HistoryService history;
+
+	@AfterEach
+	void shutdown() {
+		if (importer != null) {
+			importer.shutdown();
+			history.close();
+		}
+	}
+
+	@Test
+	void decodesFixedWidthRecordsIntoDailyCandlesPerTicker() throws Exception {
+		Path file = directory.resolve("COTAHIST_D02012024.TXT");
+		try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.US_ASCII)) {
+			writer.write(header() + "\n");
+			writer.write(record(20240102, "PETR4", 10, 3701, 3755, 3688, 3742, 41_234, 52_000_100, 1_941_558_412_34L, 1) + "\n");
+			// Cotado por lote de mil ações
+			writer.write(record(20240102, "OLDS3", 10, 1_250_000, 1_300_000, 1_200_000, 1_280_000, 12, 3000, 3_840_00, 1000) + "\n");
+			// Fracionário (020), fora do padrão
+			writer.write(record(20240102, "PETR4F", 20, 3700, 3754, 3690, 3741, 900, 12_000, 448_920_00, 1) + "\n");
+			writer.write(record(20240102, "PET?4", 10, 1, 1, 1, 1, 1, 1, 1, 1) + "\n");
+			writer.write(record(20240103, "PETR4", 10, 3742, 3810, 3730, 3799, 38_100, 48_000_000, 1_812_345_678_90L, 1) + "\n");
+			writer.write(trailer());
+		}
+		importer = importer(List.of(10));
+
+		CotahistImportResult result = importer.importPaths(List.of(file));
+
+		assertThat(result.records()).isEqualTo(5);
+		assertThat(result.quotes()).isEqualTo(3);
+		assertThat(result.malformed()).isEqualTo(1);
+		assertThat(result.tickers()).isEqualTo(2);
+		assertThat(result.candlesWritten()).isEqualTo(3);
+		assertThat(history.getTickers()).containsExactly("OLDS3", "PETR4");
+
+		CandleSeries petr4 = history.getSeries("petr4");
+		assertThat(petr4.size()).isEqualTo(2);
+		assertThat(petr4.openTime(0)).isEqualTo(openTime(2024, 1, 2));
+		assertThat(petr4.closeTime(0)).isEqualTo(openTime(2024, 1, 3) - 1);
+		assertThat(petr4.open(0)).isEqualTo(37.01);
+		assertThat(petr4.high(0)).isEqualTo(37.55);
+		assertThat(petr4.low(0)).isEqualTo(36.88);
+		assertThat(petr4.close(1)).isEqualTo(37.99);
+		assertThat(petr4.volume(0)).isEqualTo(52_000_100);
+		assertThat(petr4.quoteVolume(0)).isEqualTo(1_941_558_412.34);
+		assertThat(petr4.tradeCount(1)).isEqualTo(38_100);
+
+		CandleSeries olds3 = history.getSeries("OLDS3");
+		assertThat(olds3.close(0)).isEqualTo(12.8);
+		assertThat(history.getSeries("PETR4F").isEmpty()).isTrue();
+	}
+
+	@Test
+	void importsYearsInTradeDateOrderAcrossChunksAndSkipsStoredCandles() throws Exception {
+		// Mais registros que um trecho: cada papel atravessa a fronteira entre trechos
+		int tickers = 300;
+		int days = CotahistImporter.CHUNK_RECORDS / tickers + 20;
+		Path later = writeYear(directory.resolve("COTAHIST_A2023.TXT"), 2023, days, tickers);
+		Path earlier = writeYear(directory.resolve("COTAHIST_A2022.TXT"), 2022, 5, tickers);
+		importer = importer(List.of(10));
+
+		CotahistImportResult result = importer.importFiles(List.of(later.getFileName().toString(), earlier.getFileName().toString()));
+
+		assertThat(result.files()).containsExactly("COTAHIST_A2022.TXT", "COTAHIST_A2023.TXT");
+		assertThat(result.quotes()).isEqualTo((long) (days + 5) * tickers);
+		assertThat(result.candlesWritten()).isEqualTo(result.quotes());
+		assertThat(result.tickers()).isEqualTo(tickers);
+		for (String ticker : List.of("TK03", "TK2993")) {
+			CandleSeries series = history.getSeries(ticker);
+			assertThat(series.size()).as(ticker).isEqualTo(days + 5);
+			assertThat(series.openTime(0)).isEqualTo(openTime(2022, 1, 1));
+			assertThat(series.openTime(5)).isEqualTo(openTime(2023, 1, 1));
+			for (int i = 1; i < series.size(); i++) {
+				assertThat(series.openTime(i)).isGreaterThan(series.openTime(i - 1));
+			}
+		}
+
+		// Reimportar um ano já gravado não duplica velas
+		CotahistImportResult again = importer.importFiles(List.of(earlier.getFileName().toString()));
+		assertThat(again.candlesWritten()).isZero();
+		assertThat(again.candlesSkipped()).isEqualTo(5L * tickers);
+
+		ScanResult analysis = history.analyze("TK03", 0, Long.MAX_VALUE, List.of("SMA"), Map.of("smaPeriod", "5"));
+		assertThat(analysis.getErrors()).isEmpty();
+		assertThat(analysis.getResults()).hasSize(1);
+		assertThat(history.analyze("XXXX3", 0, Long.MAX_VALUE, null, Map.of()).isFailed()).isTrue();
+	}
+
+	@Test
+	void orderedSortsOutOfOrderChunksAndKeepsFirstQuoteOfADay() {
+		CandleSeries first = series(100, 3, 1, 5);
+		CandleSeries second = series(200, 2, 4, 5);
+
+		CandleSeries merged = CotahistImporter.ordered(List.of(first, second));
+
+		assertThat(merged.size()).isEqualTo(5);
+		for (int i = 0; i < merged.size(); i++) {
+			assertThat(merged.openTime(i)).isEqualTo(openTime(2024, 1, i + 1));
+		}
+		// Dia 5 aparece nos dois trechos: fica o do primeiro (fechamento 105, não 205)
+		assertThat(merged.close(4)).isEqualTo(105);
+		assertThat(merged.close(1)).isEqualTo(202);
+	}
+
+	private CotahistImporter importer(List<Integer> marketTypes) {
+		history = new B3HistoryService(new CandleStore(directory.resolve("store")), List.of(new SmaIndicator()),
+				new IndicatorResultCache(100));
+		return new CotahistImporter(history, directory.toString(), marketTypes, 4);
+	}
+
+	/**
+	 * Velas dos dias de janeiro de 2024 dados, com fechamento {@code closeBase + dia}.
+	 */
+	private static CandleSeries series(int closeBase, int... days) {
+		ArrayCandleSeries.Builder builder = CandleSeries.builder(days.length);
+		for (int day : days) {
+			long openTime = openTime(2024, 1, day);
+			builder.add(openTime, 1, 1, 1, closeBase + day, 1, openTime + CotahistParser.DAY_MILLIS - 1, 1, 1, 0, 0);
+		}
+		return builder.build();
+	}
+
+	private static Path writeYear(Path file, int year, int days, int tickers) throws IOException {
+		try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.US_ASCII)) {
+			writer.write(header() + "\r\n");
+			LocalDate date = LocalDate.of(year, 1, 1);
+			for (int d = 0; d < days; d++, date = date.plusDays(1)) {
+				int yyyymmdd = date.getYear() * 10_000 + date.getMonthValue() * 100 + date.getDayOfMonth();
+				for (int t = 0; t < tickers; t++) {
+					writer.write(record(yyyymmdd, "TK" + t + "3", 10, 1000 + d, 1100 + d, 900 + d, 1050 + d, 10, 100, 105_000, 1));
+					writer.write("\r\n");
+				}
+			}
+			writer.write(trailer() + "\r\n");
+		}
+		return file;
+	}
+
+	private static long openTime(int year, int month, int day) {
+		return LocalDate.of(year, month, day).atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+	}
+
+	private static String header() {
+		return line("00COTAHIST.2024BOVESPA 20240104");
+	}
+
+	private static String trailer() {
+		return line("99COTAHIST.2024BOVESPA 20240104");
+	}
+
+	private static String record(int date, String ticker, int marketType, long open, long high, long low, long close,
+			long trades, long quantity, long volume, long factor) {
+		char[] line = line("01").toCharArray();
+		put(line, 2, 8, date);
+		put(line, 10, "02");
+		put(line, 12, ticker);
+		put(line, 24, 3, marketType);
+		put(line, 27, "PETROBRAS");
+		put(line, 39, "PN");
+		put(line, 56, 13, open);
+		put(line, 69, 13, high);
+		put(line, 82, 13, low);
+		put(line, 95, 13, (open + close) / 2);
+		put(line, 108, 13, close);
+		put(line, 147, 5, trades);
+		put(line, 152, 18, quantity);
+		put(line, 170, 18, volume);
+		put(line, 210, 7, factor);
+		put(line, 230, "BRPETRACNPR6");
+		return new String(line);
+	}
+
+	private static String line(String start) {
+		char[] line = new char[CotahistParser.RECORD_BYTES];
+		Arrays.fill(line, ' ');
+		put(line, 0, start);
+		return new String(line);
+	}
+
+	private static void put(char[] line, int position, String text) {
+		text.getChars(0, text.length(), line, position);
+	}
+
+	private static void put(char[] line, int position, int length, long value) {
+		String digits = String.format("%0" + length + "d", value);
+		put(line, position, digits);
+	}
+}
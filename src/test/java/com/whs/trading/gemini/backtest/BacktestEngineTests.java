@@ -0,0 +1,98 @@
+package com.whs.trading.gemini.backtest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.whs.trading.gemini.dto.ArrayCandleSeries;
+import com.whs.trading.gemini.dto.CandleSeries;
+import com.whs.trading.gemini.indicator.CandleIndicator;
+import com.whs.trading.gemini.indicator.MacdIndicator;
+import com.whs.trading.gemini.indicator.RsiIndicator;
+
+class BacktestEngineTests {
+
+	@Test
+	void fillsOnNextOpenWithFeesAndSlippage() {
+		double[] prices = {100, 100, 110, 120, 130, 125, 140, 150};
+		ArrayCandleSeries.Builder builder = CandleSeries.builder(prices.length);
+		for (int i = 0; i < prices.length; i++) {
+			builder.add(i * 60_000L, prices[i], prices[i], prices[i], prices[i], 1, i * 60_000L + 59_999, 0, 0, 0, 0);
+		}
+		BacktestConfig config = new BacktestConfig();
+		config.setFeeRate(0.001);
+		config.setSlippageRate(0.01);
+
+		// Compra sinalizada na vela 1 (executa na abertura da 2), venda na 4 (executa na 5)
+		BacktestResult result = BacktestEngine.simulate(builder.build(), new int[] {0, 1, 0, 0, -1, 0, 0, 0}, config);
+
+		assertThat(result.getTrades()).hasSize(1);
+		Trade trade = result.getTrades().get(0);
+		assertThat(trade.getEntryTime()).isEqualTo(2 * 60_000L);
+		assertThat(trade.getEntryPrice()).isCloseTo(111.1, within(1e-9));
+		assertThat(trade.getExitTime()).isEqualTo(5 * 60_000L);
+		assertThat(trade.getExitPrice()).isCloseTo(123.75, within(1e-9));
+		double quantity = 10_000 / (111.1 * 1.001);
+		double fees = quantity * 111.1 * 0.001 + quantity * 123.75 * 0.001;
+		assertThat(trade.getQuantity()).isCloseTo(quantity, within(1e-9));
+		assertThat(trade.getProfit()).isCloseTo(quantity * (123.75 - 111.1) - fees, within(1e-6));
+		assertThat(result.getStats().getFinalEquity()).isCloseTo(10_000 + trade.getProfit(), within(1e-6));
+		assertThat(result.getEquity()).hasSize(prices.length);
+		assertThat(result.getStats().getExposurePercentage()).isCloseTo(37.5, within(1e-9));
+	}
+
+	@Test
+	void liquidatesAnOpenPositionAtTheLastClose() {
+		double[] prices = {100, 100, 110, 120};
+		ArrayCandleSeries.Builder builder = CandleSeries.builder(prices.length);
+		for (int i = 0; i < prices.length; i++) {
+			builder.add(i * 60_000L, prices[i], prices[i], prices[i], prices[i], 1, i * 60_000L + 59_999, 0, 0, 0, 0);
+		}
+
+		// Compra na abertura da vela 2, ainda aberta ao final: sai no fechamento da 3
+		BacktestResult result = BacktestEngine.simulate(builder.build(), new int[] {0, 1, 0, 0}, new BacktestConfig());
+
+		assertThat(result.getTrades()).hasSize(1);
+		Trade last = result.getTrades().get(result.getTrades().size() - 1);
+		assertThat(last.getEntryTime()).isEqualTo(2 * 60_000L);
+		assertThat(last.getExitTime()).isEqualTo(3 * 60_000L + 59_999);
+		assertThat(last.getExitPrice()).isCloseTo(120 * (1 - 0.0005), within(1e-9));
+	}
+
+	@Test
+	void singlePassSignalsMatchAnalyzeOnEveryPrefix() {
+		CandleSeries series = randomWalk(300, 11);
+		List<CandleIndicator> indicators = List.of(new RsiIndicator(), new MacdIndicator());
+		int[] scores = new int[series.size()];
+		for (int i = 0; i < series.size(); i++) {
+			for (CandleIndicator indicator : indicators) {
+				scores[i] += BacktestEngine.score(indicator.analyze(series.slice(0, i + 1), Map.of()).getSignal());
+			}
+		}
+		BacktestConfig config = new BacktestConfig();
+		BacktestResult expected = BacktestEngine.simulate(series, scores, config);
+
+		BacktestResult actual = new BacktestEngine(indicators).run(series, List.of("RSI", "MACD"), Map.of(), config);
+
+		assertThat(actual.getTrades()).hasSameSizeAs(expected.getTrades()).isNotEmpty();
+		assertThat(actual.getEquity()).containsExactly(expected.getEquity());
+	}
+
+	private static CandleSeries randomWalk(int size, long seed) {
+		Random random = new Random(seed);
+		ArrayCandleSeries.Builder builder = CandleSeries.builder(size);
+		double price = 100;
+		for (int i = 0; i < size; i++) {
+			double open = price;
+			price = Math.max(1, price + 2 * random.nextGaussian());
+			builder.add(i * 60_000L, open, Math.max(open, price) + random.nextDouble(),
+					Math.min(open, price) - random.nextDouble(), price, 10, i * 60_000L + 59_999, 0, 0, 0, 0);
+		}
+		return builder.build();
+	}
+}
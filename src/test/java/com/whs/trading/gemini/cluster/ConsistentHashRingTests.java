@@ -0,0 +1,85 @@
+package com.whs.trading.gemini.cluster;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class ConsistentHashRingTests {
+
+	private static final ClusterMember A = new ClusterMember("a", "http://localhost:8081");
+	private static final ClusterMember B = new ClusterMember("b", "http://localhost:8082");
+	private static final ClusterMember C = new ClusterMember("c", "http://localhost:8083");
+	private static final ClusterMember D = new ClusterMember("d", "http://localhost:8084");
+
+	@Test
+	void ownersDependOnlyOnTheMembers() {
+		ConsistentHashRing ring = ConsistentHashRing.of(List.of(A, B, C), 128);
+		ConsistentHashRing shuffled = ConsistentHashRing.of(List.of(C, A, B), 128);
+
+		assertThat(shuffled.members()).containsExactly(A, B, C);
+		for (String symbol : symbols(1_000)) {
+			assertThat(shuffled.ownerOf(symbol)).isEqualTo(ring.ownerOf(symbol));
+		}
+	}
+
+	@Test
+	void spreadsTheUniverseEvenly() {
+		ConsistentHashRing ring = ConsistentHashRing.of(List.of(A, B, C, D), 128);
+
+		Map<ClusterMember, List<String>> shards = ring.partition(symbols(10_000));
+
+		assertThat(shards).containsOnlyKeys(A, B, C, D);
+		for (List<String> shard : shards.values()) {
+			assertThat(shard.size()).isBetween(1_800, 3_200);
+		}
+	}
+
+	@Test
+	void joiningAndLeavingMovesOnlyTheAffectedShare() {
+		List<String> symbols = symbols(10_000);
+		ConsistentHashRing three = ConsistentHashRing.of(List.of(A, B, C), 128);
+		ConsistentHashRing four = ConsistentHashRing.of(List.of(A, B, C, D), 128);
+
+		// Entrada de D: só se move o que vai para D, cerca de 1/4
+		int moved = 0;
+		for (String symbol : symbols) {
+			ClusterMember before = three.ownerOf(symbol);
+			ClusterMember after = four.ownerOf(symbol);
+			if (!before.equals(after)) {
+				assertThat(after).isEqualTo(D);
+				moved++;
+			}
+		}
+		assertThat(moved).isBetween(1_800, 3_200);
+
+		// Saída de B: só os símbolos de B mudam de dono
+		ConsistentHashRing withoutB = ConsistentHashRing.of(List.of(A, C, D), 128);
+		for (String symbol : symbols) {
+			if (!four.ownerOf(symbol).equals(B)) {
+				assertThat(withoutB.ownerOf(symbol)).isEqualTo(four.ownerOf(symbol));
+			}
+		}
+	}
+
+	@Test
+	void rejectsEmptyRingsAndRepeatedIds() {
+		assertThatThrownBy(() -> ConsistentHashRing.empty().ownerOf("BTCUSDT")).isInstanceOf(IllegalStateException.class);
+		assertThatThrownBy(() -> ConsistentHashRing.of(List.of(A, new ClusterMember("a", "http://other:9000")), 8))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> new ClusterMember("a/b", "http://localhost:8081"))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	private static List<String> symbols(int count) {
+		List<String> symbols = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			symbols.add("SYM" + i + "USDT");
+		}
+		return symbols;
+	}
+}
@@ -0,0 +1,279 @@
+package com.whs.trading.gemini.cluster;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.RestTemplate;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Duas instâncias no mesmo diretório de membros; as batidas são chamadas à mão (as agendadas ficam a um minuto).
+ */
+class ShardingServiceTests {
+
+	@TempDir
+	Path directory;
+
+	private final List<ShardingService> services = new ArrayList<>();
+	private final List<HttpServer> servers = new ArrayList<>();
+
+	@AfterEach
+	void stop() {
+		services.forEach(ShardingService::stop);
+		servers.forEach(server -> server.stop(0));
+	}
+
+	@Test
+	void instancesAgreeOnOwnersAndRebalanceWhenOneLeaves() {
+		ShardingService a = service("a", 10_000);
+		List<Integer> rebalances = new CopyOnWriteArrayList<>();
+		a.addListener((previous, current) -> rebalances.add(current.members().size()));
+		a.start();
+		ShardingService b = service("b", 10_000);
+		b.start();
+		a.beat();
+
+		assertThat(a.ring().members()).extracting(ClusterMember::id).containsExactly("a", "b");
+		assertThat(b.ring().members()).extracting(ClusterMember::id).containsExactly("a", "b");
+		assertThat(rebalances).containsExactly(2);
+		int local = 0;
+		for (int i = 0; i < 1_000; i++) {
+			String symbol = "sym" + i;
+			assertThat(a.ownerOf(symbol)).isEqualTo(b.ownerOf(symbol));
+			assertThat(a.isLocal(symbol)).isNotEqualTo(b.isLocal(symbol));
+			local += a.isLocal(symbol) ? 1 : 0;
+		}
+		assertThat(local).isBetween(350, 650);
+
+		// Saída ordenada: sem esperar o TTL, A assume tudo na batida seguinte
+		b.stop();
+		a.beat();
+		assertThat(a.ring().members()).extracting(ClusterMember::id).containsExactly("a");
+		assertThat(a.isLocal("sym1")).isTrue();
+		assertThat(rebalances).containsExactly(2, 1);
+		assertThat(a.getRebalanceCount()).isEqualTo(2L);
+
+		// Batidas sem mudança de membros não avisam
+		a.beat();
+		assertThat(rebalances).hasSize(2);
+	}
+
+	@Test
+	void instanceThatStopsBeatingDropsOutAfterTheTtl() throws IOException {
+		ShardingService a = service("a", 5_000);
+		a.start();
+		ShardingService b = service("b", 5_000);
+		b.start();
+		a.beat();
+		assertThat(a.ring().members()).hasSize(2);
+
+		// B caiu sem apagar o arquivo: a última batida foi há mais que o TTL
+		Files.setLastModifiedTime(directory.resolve("b.member"),
+				FileTime.fromMillis(System.currentTimeMillis() - 6_000));
+		a.beat();
+
+		assertThat(a.ring().members()).extracting(ClusterMember::id).containsExactly("a");
+	}
+
+	@Test
+	void disabledInstanceOwnsEverything() {
+		ShardingService disabled = new ShardingService(new RestTemplate(), false,
+				new ClusterMember("solo", "http://localhost:8080"), new FileClusterMembership(directory, 10_000), 60_000,
+				128);
+		disabled.start();
+
+		assertThat(disabled.isLocal("BTCUSDT")).isTrue();
+		assertThat(Files.exists(directory.resolve("solo.member"))).isFalse();
+		assertThat(ShardingService.idFromUrl("http://localhost:8081")).isEqualTo("localhost-8081");
+	}
+
+	@Test
+	void relaysCallsForForeignSymbolsToTheirOwnerOnceAndAsTheyCame() throws IOException {
+		HttpServer owner = server();
+		owner.createContext("/api/levels/", exchange -> {
+			String symbol = exchange.getRequestURI().getPath().substring("/api/levels/".length());
+			String requestBody = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+			String body = "{\"symbol\":\"" + symbol + "\",\"forwardedBy\":\""
+					+ exchange.getRequestHeaders().getFirst(ShardingService.FORWARDED_HEADER) + "\",\"query\":\""
+					+ exchange.getRequestURI().getRawQuery() + "\",\"body\":" + (requestBody.isEmpty() ? "null" : requestBody)
+					+ "}";
+			respond(exchange, symbol.equals("BAD") ? 400 : 200, body);
+		});
+		ShardingService sharding = member("local", owner);
+		String foreign = symbol(sharding, false);
+		String own = symbol(sharding, true);
+		MultiValueMap<String, String> params = new LinkedMultiValueMap<>();
+		params.add("interval", "1m");
+		params.add("indicators", "RSI");
+		params.add("indicators", "MACD");
+
+		ResponseEntity<byte[]> relayed = sharding.relayIfRemote(foreign, null, HttpMethod.GET, "/api/levels/" + foreign,
+				params, null);
+		assertThat(relayed.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(relayed.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_JSON);
+		assertThat(new String(relayed.getBody(), StandardCharsets.UTF_8)).isEqualTo("{\"symbol\":\"" + foreign
+				+ "\",\"forwardedBy\":\"local\",\"query\":\"interval=1m&indicators=RSI&indicators=MACD\",\"body\":null}");
+
+		// O corpo segue em JSON e a resposta de erro da dona chega como veio
+		relayed = sharding.relay(sharding.ownerOf(foreign), HttpMethod.POST, "/api/levels/BAD", new LinkedMultiValueMap<>(),
+				Map.of("top", 3));
+		assertThat(relayed.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+		assertThat(new String(relayed.getBody(), StandardCharsets.UTF_8)).endsWith("\"body\":{\"top\":3}}");
+
+		// Chamada já repassada, ou de símbolo próprio: atendida aqui
+		assertThat(sharding.relayIfRemote(foreign, "other", HttpMethod.GET, "/api/levels/" + foreign, params, null))
+				.isNull();
+		assertThat(sharding.relayIfRemote(own, null, HttpMethod.GET, "/api/levels/" + own, params, null)).isNull();
+
+		// Dona fora do ar (ainda no anel): atendida aqui
+		owner.stop(0);
+		assertThat(sharding.relayIfRemote(foreign, null, HttpMethod.GET, "/api/levels/" + foreign, params, null))
+				.isNull();
+	}
+
+	@Test
+	void relaysServerSentEventsUntilEitherSideCloses() throws Exception {
+		CountDownLatch disconnected = new CountDownLatch(1);
+		HttpServer owner = server();
+		owner.createContext("/api/alerts/stream", exchange -> {
+			assertThat(exchange.getRequestHeaders().getFirst(ShardingService.FORWARDED_HEADER)).isEqualTo("local");
+			exchange.getResponseHeaders().add("Content-Type", "text/event-stream");
+			exchange.sendResponseHeaders(200, 0);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(":heartbeat\n\nevent:alert\nid:r1:60000\ndata:{\"ruleId\":\"r1\",\ndata: \"close\":1.5}\n\nretry:5\n\n"
+						.getBytes(StandardCharsets.UTF_8));
+				out.flush();
+				if (exchange.getRequestURI().getRawQuery().contains("END")) {
+					return;
+				}
+				while (true) { // Heartbeats até o repasse fechar a conexão
+					Thread.sleep(20);
+					out.write(":heartbeat\n\n".getBytes(StandardCharsets.UTF_8));
+					out.flush();
+				}
+			} catch (IOException e) {
+				disconnected.countDown();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} finally {
+				exchange.close();
+			}
+		});
+		ShardingService sharding = member("local", owner);
+		ClusterMember remote = sharding.ownerOf(symbol(sharding, false));
+
+		// A dona encerra o stream: o ouvinte recebe tudo e o fim
+		List<String> received = new CopyOnWriteArrayList<>();
+		CountDownLatch ended = new CountDownLatch(1);
+		EventStreamRelay relay = sharding.relayEvents(remote, "/api/alerts/stream", query("END"), listener(received, ended));
+		assertThat(ended.await(5, TimeUnit.SECONDS)).isTrue();
+		assertThat(received).containsExactly("comment heartbeat", "alert r1:60000 {\"ruleId\":\"r1\",\n\"close\":1.5}");
+		assertThat(relay.isClosed()).isTrue();
+
+		// Fechado aqui: a conexão cai e o fim não é avisado
+		received.clear();
+		CountDownLatch notEnded = new CountDownLatch(1);
+		relay = sharding.relayEvents(remote, "/api/alerts/stream", query("OPEN"), listener(received, notEnded));
+		while (received.size() < 3) {
+			Thread.sleep(10);
+		}
+		relay.close();
+		assertThat(disconnected.await(5, TimeUnit.SECONDS)).isTrue();
+		assertThat(notEnded.await(200, TimeUnit.MILLISECONDS)).isFalse();
+		assertThat(received).startsWith("comment heartbeat", "alert r1:60000 {\"ruleId\":\"r1\",\n\"close\":1.5}");
+	}
+
+	private static MultiValueMap<String, String> query(String symbols) {
+		MultiValueMap<String, String> query = new LinkedMultiValueMap<>();
+		query.add("symbols", symbols);
+		return query;
+	}
+
+	private static EventStreamRelay.Listener listener(List<String> received, CountDownLatch ended) {
+		return new EventStreamRelay.Listener() {
+			@Override
+			public void onEvent(String name, String id, String data) {
+				received.add(name + " " + id + " " + data);
+			}
+
+			@Override
+			public void onComment(String comment) {
+				received.add("comment " + comment);
+			}
+
+			@Override
+			public void onEnd() {
+				ended.countDown();
+			}
+		};
+	}
+
+	/**
+	 * Instância habilitada num anel com a dona remota, que é o servidor dado.
+	 */
+	private ShardingService member(String id, HttpServer owner) throws IOException {
+		new FileClusterMembership(directory, 60_000)
+				.heartbeat(new ClusterMember("remote", "http://localhost:" + owner.getAddress().getPort()));
+		ShardingService sharding = service(id, 60_000);
+		sharding.start();
+		return sharding;
+	}
+
+	private static String symbol(ShardingService sharding, boolean local) {
+		for (int i = 0; ; i++) {
+			if (sharding.isLocal("S" + i) == local) {
+				return "S" + i;
+			}
+		}
+	}
+
+	private HttpServer server() throws IOException {
+		HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 16);
+		server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+		server.start();
+		servers.add(server);
+		return server;
+	}
+
+	private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+		byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().add("Content-Type", "application/json");
+		exchange.sendResponseHeaders(status, bytes.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(bytes);
+		}
+	}
+
+	private ShardingService service(String id, long ttlMillis) {
+		ShardingService service = new ShardingService(new RestTemplate(), true,
+				new ClusterMember(id, "http://localhost:" + (8080 + services.size())),
+				new FileClusterMembership(directory, ttlMillis), 60_000, 128);
+		services.add(service);
+		return service;
+	}
+}
@@ -0,0 +1,140 @@
+package com.whs.trading.gemini.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.RestTemplate;
+
+import com.sun.net.httpserver.HttpServer;
+import com.whs.trading.gemini.cluster.ClusterMember;
+import com.whs.trading.gemini.cluster.FileClusterMembership;
+import com.whs.trading.gemini.cluster.ShardingService;
+import com.whs.trading.gemini.dto.ArrayCandleSeries;
+import com.whs.trading.gemini.dto.CandleSeries;
+import com.whs.trading.gemini.dto.CandlestickData;
+import com.whs.trading.gemini.indicator.SupportResistanceLevels;
+import com.whs.trading.gemini.service.MarketDataService;
+
+/**
+ * Roteamento de {@code /api/levels/{symbol}} no cluster; a instância dona é um servidor HTTP local.
+ */
+class LevelsControllerTests {
+
+	@TempDir
+	Path directory;
+
+	private final List<String> fetched = new CopyOnWriteArrayList<>();
+	private final List<String> forwarded = new CopyOnWriteArrayList<>();
+	private HttpServer owner;
+	private ShardingService sharding;
+
+	private final MarketDataService upstream = new MarketDataService() {
+		@Override
+		public List<CandlestickData> getHistoricalCandlesticks(String symbol, String interval, Integer limit,
+				Long startTime, Long endTime) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public CandleSeries getCandleSeries(String symbol, String interval, Integer limit, Long startTime,
+				Long endTime) {
+			fetched.add(symbol);
+			return randomWalk(limit, symbol.hashCode());
+		}
+	};
+
+	@AfterEach
+	void stop() {
+		if (sharding != null) {
+			sharding.stop();
+		}
+		if (owner != null) {
+			owner.stop(0);
+		}
+	}
+
+	@Test
+	void foreignSymbolsGoToTheirOwnerAndForwardedCallsAreServedHere() throws IOException {
+		owner = HttpServer.create(new InetSocketAddress("localhost", 0), 16);
+		owner.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+		owner.createContext("/api/levels/", exchange -> {
+			forwarded.add(exchange.getRequestURI().getPath() + "?" + exchange.getRequestURI().getRawQuery() + " by "
+					+ exchange.getRequestHeaders().getFirst(ShardingService.FORWARDED_HEADER));
+			byte[] body = "{\"candleCount\":0}".getBytes(StandardCharsets.UTF_8);
+			exchange.getResponseHeaders().add("Content-Type", "application/json");
+			exchange.sendResponseHeaders(200, body.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(body);
+			}
+		});
+		owner.start();
+		FileClusterMembership membership = new FileClusterMembership(directory, 60_000);
+		membership.heartbeat(new ClusterMember("remote", "http://localhost:" + owner.getAddress().getPort()));
+		sharding = new ShardingService(new RestTemplate(), true, new ClusterMember("local", "http://localhost:1"),
+				membership, 60_000, 128);
+		sharding.start();
+		LevelsController controller = new LevelsController(upstream, null, sharding);
+		String foreign = symbol(false);
+		String own = symbol(true);
+
+		ResponseEntity<?> relayed = levels(controller, foreign, null);
+		assertThat(relayed.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(new String((byte[]) relayed.getBody(), StandardCharsets.UTF_8)).isEqualTo("{\"candleCount\":0}");
+		assertThat(forwarded).containsExactly("/api/levels/" + foreign + "?interval=1h&limit=200 by local");
+		assertThat(fetched).isEmpty();
+
+		// Chamada já repassada por outra instância: calculada aqui, sem novo repasse
+		ResponseEntity<?> served = levels(controller, foreign, "remote");
+		assertThat(served.getBody()).isInstanceOf(SupportResistanceLevels.Levels.class);
+		assertThat(((SupportResistanceLevels.Levels) served.getBody()).candleCount()).isEqualTo(200);
+		assertThat(levels(controller, own, null).getBody()).isInstanceOf(SupportResistanceLevels.Levels.class);
+		assertThat(forwarded).hasSize(1);
+		assertThat(fetched).containsExactly(foreign, own);
+	}
+
+	private static ResponseEntity<?> levels(LevelsController controller, String symbol, String forwardedBy) {
+		MultiValueMap<String, String> params = new LinkedMultiValueMap<>();
+		params.add("interval", "1h");
+		params.add("limit", "200");
+		return controller.levels(symbol, "1h", 200, null, null, SupportResistanceLevels.DEFAULT_SWING_WINDOW,
+				SupportResistanceLevels.DEFAULT_TOLERANCE, 10, params, forwardedBy);
+	}
+
+	private String symbol(boolean local) {
+		for (int i = 0; ; i++) {
+			if (sharding.isLocal("S" + i) == local) {
+				return "S" + i;
+			}
+		}
+	}
+
+	private static CandleSeries randomWalk(int size, long seed) {
+		Random random = new Random(seed);
+		ArrayCandleSeries.Builder builder = CandleSeries.builder(size);
+		double price = 100;
+		for (int i = 0; i < size; i++) {
+			double open = price;
+			price = Math.max(1, price + random.nextGaussian());
+			builder.add(i * 3_600_000L, open, Math.max(open, price) + random.nextDouble(),
+					Math.min(open, price) - random.nextDouble(), price, 10 + random.nextDouble(),
+					i * 3_600_000L + 3_599_999, 0, 0, 0, 0);
+		}
+		return builder.build();
+	}
+}
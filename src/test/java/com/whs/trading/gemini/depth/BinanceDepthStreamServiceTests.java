@@ -0,0 +1,205 @@
+package com.whs.trading.gemini.depth;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+
+class BinanceDepthStreamServiceTests {
+
+	private static final List<String> SYMBOLS = List.of("BTCUSDT", "ETHUSDT", "SOLUSDT");
+
+	@Test
+	void parsesCombinedStreamMessagesAndSnapshots() throws Exception {
+		DepthUpdate update = new DepthUpdate(1);
+		String message = "{\"stream\":\"btcusdt@depth@100ms\",\"data\":{\"e\":\"depthUpdate\",\"E\":1700000000123,"
+				+ "\"s\":\"BTCUSDT\",\"U\":157,\"u\":160,\"b\":[[\"0.0024\",\"10\"],[\"0.0023\",\"0.00000000\"]],"
+				+ "\"a\":[[\"0.0026\",\"100\"]]}}";
+
+		assertThat(DepthJsonParser.parse(message, update)).isEqualTo(DepthJsonParser.Kind.DIFF);
+		assertThat(update.symbol()).isEqualTo("BTCUSDT");
+		assertThat(update.eventTime()).isEqualTo(1700000000123L);
+		assertThat(update.firstUpdateId()).isEqualTo(157);
+		assertThat(update.finalUpdateId()).isEqualTo(160);
+		assertThat(update.bidCount()).isEqualTo(2);
+		assertThat(update.bidPrice(0)).isEqualTo(0.0024);
+		assertThat(update.bidQuantity(1)).isZero();
+		assertThat(update.askCount()).isEqualTo(1);
+		assertThat(update.askQuantity(0)).isEqualTo(100);
+
+		String snapshot = "{\"lastUpdateId\":1027024,\"bids\":[[\"4.00000000\",\"431.00000000\"]],\"asks\":[]}";
+		assertThat(DepthJsonParser.parse(snapshot, update)).isEqualTo(DepthJsonParser.Kind.SNAPSHOT);
+		assertThat(update.finalUpdateId()).isEqualTo(1027024);
+		assertThat(update.bidCount()).isEqualTo(1);
+		assertThat(update.askCount()).isZero();
+		assertThat(DepthJsonParser.parse("{\"result\":null,\"id\":1}", update)).isEqualTo(DepthJsonParser.Kind.OTHER);
+	}
+
+	@Test
+	void replayedSessionBuildsTheSameBooksAsTheRecording() throws Exception {
+		Recording recording = new Recording(7);
+		recording.run(400, -1);
+		DepthReplaySource replay = DepthReplaySource.of(recording.lines);
+		BinanceDepthStreamService service = service(replay);
+		for (String symbol : replay.getSymbols()) {
+			service.track(symbol);
+		}
+
+		assertThat(replay.replay(service::onMessage)).isEqualTo(400 * SYMBOLS.size());
+
+		for (String symbol : SYMBOLS) {
+			recording.assertMatches(service.getBook(symbol), symbol);
+		}
+		assertThat(service.getSnapshotCount()).isEqualTo(SYMBOLS.size());
+		assertThat(service.getGapCount()).isZero();
+		assertThat(service.getSyncedBookCount()).isEqualTo(SYMBOLS.size());
+	}
+
+	@Test
+	void droppedMessageTriggersResyncFromANewSnapshot() throws Exception {
+		Recording recording = new Recording(13);
+		recording.run(300, 150);
+		DepthReplaySource replay = DepthReplaySource.of(recording.lines);
+		BinanceDepthStreamService service = service(replay);
+		for (String symbol : SYMBOLS) {
+			service.track(symbol);
+		}
+
+		replay.replay(service::onMessage);
+
+		for (String symbol : SYMBOLS) {
+			recording.assertMatches(service.getBook(symbol), symbol);
+		}
+		assertThat(service.getGapCount()).isEqualTo(SYMBOLS.size());
+		assertThat(service.getSnapshotCount()).isEqualTo(2L * SYMBOLS.size());
+	}
+
+	private static BinanceDepthStreamService service(DepthReplaySource replay) {
+		return new BinanceDepthStreamService(replay, Runnable::run, 1000, "ws://localhost", "100ms", 200, false,
+				List.of(), 10_000);
+	}
+
+	/**
+	 * Sessão sintética gravada: diffs por símbolo, o livro de referência (TreeMap) e snapshots nos pontos em
+	 * que o serviço os pediria.
+	 */
+	private static final class Recording {
+		final List<String> lines = new ArrayList<>();
+		final Random random;
+		final Map<String, TreeMap<BigDecimal, BigDecimal>> bids = new TreeMap<>();
+		final Map<String, TreeMap<BigDecimal, BigDecimal>> asks = new TreeMap<>();
+		final Map<String, Long> updateIds = new TreeMap<>();
+
+		Recording(long seed) {
+			random = new Random(seed);
+			for (String symbol : SYMBOLS) {
+				bids.put(symbol, new TreeMap<>());
+				asks.put(symbol, new TreeMap<>());
+				updateIds.put(symbol, 1000L);
+			}
+		}
+
+		/**
+		 * @param dropAt Mensagem (por símbolo) perdida na "reconexão"; o snapshot seguinte é tirado depois dela.
+		 */
+		void run(int messagesPerSymbol, int dropAt) {
+			for (int m = 0; m < messagesPerSymbol; m++) {
+				for (String symbol : SYMBOLS) {
+					String message = nextDiff(symbol);
+					if (m == 1) {
+						// O serviço pede o snapshot no primeiro diff; ele chega com o livro já um pouco à frente
+						lines.add(snapshotLine(symbol));
+					}
+					if (m != dropAt) {
+						lines.add(message);
+					}
+					if (dropAt >= 0 && m == dropAt + 1) {
+						lines.add(snapshotLine(symbol));
+					}
+				}
+			}
+		}
+
+		String nextDiff(String symbol) {
+			long first = updateIds.get(symbol) + 1;
+			long last = first + random.nextInt(3);
+			updateIds.put(symbol, last);
+			StringBuilder json = new StringBuilder("{\"stream\":\"").append(symbol.toLowerCase(Locale.ROOT))
+					.append("@depth@100ms\",\"data\":{\"e\":\"depthUpdate\",\"E\":").append(first).append(",\"s\":\"")
+					.append(symbol).append("\",\"U\":").append(first).append(",\"u\":").append(last).append(",\"b\":");
+			levels(json, bids.get(symbol), true);
+			json.append(",\"a\":");
+			levels(json, asks.get(symbol), false);
+			return json.append("}}").toString();
+		}
+
+		void levels(StringBuilder json, TreeMap<BigDecimal, BigDecimal> side, boolean bid) {
+			json.append('[');
+			int count = 1 + random.nextInt(5);
+			for (int i = 0; i < count; i++) {
+				int offset = random.nextInt(10) < 8 ? random.nextInt(15) : random.nextInt(500);
+				BigDecimal price = BigDecimal.valueOf(bid ? 100_000 - offset : 100_001 + offset, 2);
+				BigDecimal quantity = random.nextInt(4) == 0 ? BigDecimal.ZERO
+						: BigDecimal.valueOf(1 + random.nextInt(100_000), 4);
+				if (quantity.signum() == 0) {
+					side.remove(price);
+				} else {
+					side.put(price, quantity);
+				}
+				if (i > 0) {
+					json.append(',');
+				}
+				json.append("[\"").append(price.toPlainString()).append("\",\"").append(quantity.toPlainString())
+						.append("\"]");
+			}
+			json.append(']');
+		}
+
+		String snapshotLine(String symbol) {
+			StringBuilder json = new StringBuilder("{\"symbol\":\"").append(symbol).append("\",\"lastUpdateId\":")
+					.append(updateIds.get(symbol)).append(",\"bids\":[");
+			appendAll(json, bids.get(symbol).descendingMap());
+			json.append("],\"asks\":[");
+			appendAll(json, asks.get(symbol));
+			return json.append("]}").toString();
+		}
+
+		static void appendAll(StringBuilder json, Map<BigDecimal, BigDecimal> levels) {
+			boolean first = true;
+			for (Map.Entry<BigDecimal, BigDecimal> level : levels.entrySet()) {
+				if (!first) {
+					json.append(',');
+				}
+				first = false;
+				json.append("[\"").append(level.getKey().toPlainString()).append("\",\"")
+						.append(level.getValue().toPlainString()).append("\"]");
+			}
+		}
+
+		void assertMatches(OrderBook book, String symbol) {
+			assertThat(book.isSynced()).as(symbol).isTrue();
+			assertThat(book.getLastUpdateId()).as(symbol).isEqualTo(updateIds.get(symbol));
+			OrderBookLevels levels = book.levels(Integer.MAX_VALUE);
+			assertSide(levels.bidPrices(), levels.bidQuantities(), bids.get(symbol).descendingMap(), symbol);
+			assertSide(levels.askPrices(), levels.askQuantities(), asks.get(symbol), symbol);
+		}
+
+		static void assertSide(double[] prices, double[] quantities, Map<BigDecimal, BigDecimal> expected,
+				String symbol) {
+			assertThat(prices).as(symbol).hasSize(expected.size());
+			int rank = 0;
+			for (Map.Entry<BigDecimal, BigDecimal> level : expected.entrySet()) {
+				assertThat(prices[rank]).as(symbol).isEqualTo(level.getKey().doubleValue());
+				assertThat(quantities[rank]).as(symbol).isEqualTo(level.getValue().doubleValue());
+				rank++;
+			}
+		}
+	}
+}
@@ -0,0 +1,138 @@
+package com.whs.trading.gemini.depth;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+
+class OrderBookTests {
+
+	@Test
+	void bookSideMatchesSortedMapUnderRandomUpdates() {
+		Random random = new Random(11);
+		BookSide bids = new BookSide(true, 4);
+		BookSide asks = new BookSide(false, 4);
+		TreeMap<Double, Double> bidReference = new TreeMap<>();
+		TreeMap<Double, Double> askReference = new TreeMap<>();
+		for (int i = 0; i < 50_000; i++) {
+			boolean bid = random.nextBoolean();
+			// Concentrado perto do topo, como num stream real, com alguns níveis distantes
+			int offset = random.nextInt(10) < 8 ? random.nextInt(20) : random.nextInt(2_000);
+			double price = bid ? (10_000 - offset) / 100.0 : (10_001 + offset) / 100.0;
+			double quantity = random.nextInt(4) == 0 ? 0 : (1 + random.nextInt(10_000)) / 1000.0;
+			(bid ? bids : asks).set(price, quantity);
+			TreeMap<Double, Double> reference = bid ? bidReference : askReference;
+			if (quantity == 0) {
+				reference.remove(price);
+			} else {
+				reference.put(price, quantity);
+			}
+		}
+
+		assertSameLevels(bids, bidReference.descendingMap());
+		assertSameLevels(asks, askReference);
+		assertThat(bids.bestPrice()).isEqualTo(bidReference.lastKey());
+		assertThat(asks.bestPrice()).isEqualTo(askReference.firstKey());
+		double topFive = askReference.values().stream().limit(5).mapToDouble(Double::doubleValue).sum();
+		assertThat(asks.totalQuantity(5)).isCloseTo(topFive, within(1e-9));
+		assertThat(asks.totalQuantity(Integer.MAX_VALUE)).isCloseTo(
+				askReference.values().stream().mapToDouble(Double::doubleValue).sum(), within(1e-6));
+	}
+
+	@Test
+	void appliesBufferedDiffsAfterSnapshotAndResyncsOnGap() {
+		OrderBook book = new OrderBook("BTCUSDT");
+
+		assertThat(book.apply(diff(101, 102, 100.0, 1, 101.0, 1))).isEqualTo(OrderBook.Result.SNAPSHOT_NEEDED);
+		assertThat(book.apply(diff(103, 104, 100.0, 2, 101.0, 0))).isEqualTo(OrderBook.Result.BUFFERED);
+		assertThat(book.apply(diff(105, 105, 99.5, 3, 101.5, 4))).isEqualTo(OrderBook.Result.BUFFERED);
+		assertThat(book.isSynced()).isFalse();
+
+		// Snapshot em 103: o primeiro diff já está coberto, o segundo começa antes e termina depois dele
+		DepthUpdate snapshot = snapshot(103, new double[] {100.0, 5, 99.0, 1}, new double[] {101.0, 7, 102.0, 1});
+		assertThat(book.applySnapshot(snapshot)).isEqualTo(OrderBook.Result.APPLIED);
+		assertThat(book.isSynced()).isTrue();
+		assertThat(book.getLastUpdateId()).isEqualTo(105);
+		assertThat(book.getPendingUpdateCount()).isZero();
+		OrderBookLevels levels = book.levels(10);
+		assertThat(levels.bidPrices()).containsExactly(100.0, 99.5, 99.0);
+		assertThat(levels.bidQuantities()).containsExactly(2, 3, 1);
+		assertThat(levels.askPrices()).containsExactly(101.5, 102.0);
+
+		assertThat(book.apply(diff(104, 105, 100.0, 9, 101.0, 9))).isEqualTo(OrderBook.Result.STALE);
+		assertThat(book.apply(diff(106, 106, 100.0, 4, 101.5, 1))).isEqualTo(OrderBook.Result.APPLIED);
+		assertThat(book.bestBid()).isEqualTo(100.0);
+
+		// 107 perdido: lacuna invalida o livro e guarda o diff para o próximo snapshot
+		assertThat(book.apply(diff(108, 108, 100.0, 1, 101.5, 1))).isEqualTo(OrderBook.Result.GAP);
+		assertThat(book.isSynced()).isFalse();
+		assertThat(book.getGapCount()).isEqualTo(1);
+		assertThat(book.bestBid()).isNaN();
+		assertThat(book.apply(diff(109, 109, 100.0, 1, 101.5, 1))).isEqualTo(OrderBook.Result.BUFFERED);
+
+		// Snapshot anterior ao primeiro diff guardado: continua inválido e pede outro
+		assertThat(book.applySnapshot(snapshot(106, new double[] {100.0, 1}, new double[] {101.5, 1})))
+				.isEqualTo(OrderBook.Result.SNAPSHOT_NEEDED);
+		assertThat(book.isSynced()).isFalse();
+		assertThat(book.getPendingUpdateCount()).isEqualTo(2);
+		assertThat(book.applySnapshot(snapshot(108, new double[] {100.0, 1}, new double[] {101.5, 1})))
+				.isEqualTo(OrderBook.Result.APPLIED);
+		assertThat(book.getLastUpdateId()).isEqualTo(109);
+	}
+
+	@Test
+	void statsComputeSpreadMicropriceAndImbalance() {
+		OrderBook book = new OrderBook("ETHUSDT");
+		book.applySnapshot(snapshot(1, new double[] {99.0, 3, 98.0, 5}, new double[] {101.0, 1, 102.0, 1}));
+
+		OrderBookStats top = book.stats(1);
+		assertThat(top.spread()).isEqualTo(2.0);
+		assertThat(top.midPrice()).isEqualTo(100.0);
+		assertThat(top.spreadBps()).isCloseTo(200.0, within(1e-9));
+		// Mais compra no topo: o microprice se aproxima da venda
+		assertThat(top.microprice()).isEqualTo((99.0 * 1 + 101.0 * 3) / 4);
+		assertThat(top.imbalance()).isEqualTo((3 - 1) / 4.0);
+
+		OrderBookStats deep = book.stats(10);
+		assertThat(deep.bidDepth()).isEqualTo(8);
+		assertThat(deep.askDepth()).isEqualTo(2);
+		assertThat(deep.imbalance()).isEqualTo(0.6);
+		assertThat(book.imbalance(10)).isEqualTo(0.6);
+	}
+
+	private static void assertSameLevels(BookSide side, Map<Double, Double> bestFirst) {
+		assertThat(side.size()).isEqualTo(bestFirst.size());
+		int rank = 0;
+		for (Map.Entry<Double, Double> level : bestFirst.entrySet()) {
+			assertThat(side.price(rank)).isEqualTo(level.getKey());
+			assertThat(side.quantity(rank)).isEqualTo(level.getValue());
+			rank++;
+		}
+	}
+
+	private static DepthUpdate diff(long first, long last, double bidPrice, double bidQuantity, double askPrice,
+			double askQuantity) {
+		DepthUpdate update = new DepthUpdate();
+		update.setSymbol("BTCUSDT");
+		update.setUpdateIds(first, last);
+		update.addBid(bidPrice, bidQuantity);
+		update.addAsk(askPrice, askQuantity);
+		return update;
+	}
+
+	private static DepthUpdate snapshot(long lastUpdateId, double[] bids, double[] asks) {
+		DepthUpdate update = new DepthUpdate();
+		update.setUpdateIds(lastUpdateId, lastUpdateId);
+		for (int i = 0; i < bids.length; i += 2) {
+			update.addBid(bids[i], bids[i + 1]);
+		}
+		for (int i = 0; i < asks.length; i += 2) {
+			update.addAsk(asks[i], asks[i + 1]);
+		}
+		return update;
+	}
+}
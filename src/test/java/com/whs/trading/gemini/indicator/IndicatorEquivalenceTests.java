@@ -0,0 +1,108 @@
+package com.whs.trading.gemini.indicator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.whs.trading.gemini.dto.ArrayCandleSeries;
+import com.whs.trading.gemini.dto.CandleSeries;
+import com.whs.trading.gemini.dto.CandlestickData;
+import com.whs.trading.gemini.dto.IndicatorResult;
+
+/**
+ * Caminho colunar (double, {@code analyze(CandleSeries, ...)}) contra o legado em BigDecimal
+ * ({@code analyze(List<CandlestickData>, ...)}) em cada prefixo dos mesmos passeios aleatórios: mesmos sinais e
+ * mesmos valores na escala em que cada um é reportado. Os preços têm centavos, então empates exatos (preço igual
+ * à média, a exatamente 1% de um nível, valores terminados em 5 na casa seguinte à reportada) acontecem.
+ */
+class IndicatorEquivalenceTests {
+
+	private static final int CANDLES = 300;
+	private static final long[] SEEDS = {17, 42, 7};
+
+	@Test
+	void smaMatchesLegacy() {
+		assertEquivalent(new SmaIndicator(), Map.of());
+		assertEquivalent(new SmaIndicator(), Map.of("smaPeriod", "7"));
+	}
+
+	@Test
+	void rsiMatchesLegacy() {
+		assertEquivalent(new RsiIndicator(), Map.of());
+		assertEquivalent(new RsiIndicator(), Map.of("rsiPeriod", "5"));
+	}
+
+	@Test
+	void macdMatchesLegacy() {
+		assertEquivalent(new MacdIndicator(), Map.of());
+	}
+
+	@Test
+	void bollingerBandsMatchLegacy() {
+		assertEquivalent(new BollingerBandsIndicator(), Map.of());
+	}
+
+	@Test
+	void supportResistanceMatchesLegacy() {
+		assertEquivalent(new SupportResistanceIndicator(), Map.of());
+	}
+
+	private static void assertEquivalent(TechnicalIndicator indicator, Map<String, String> params) {
+		for (long seed : SEEDS) {
+			CandleSeries series = tickWalk(CANDLES, seed);
+			List<CandlestickData> candles = series.toCandlestickDataList();
+			for (int size = 1; size <= CANDLES; size++) {
+				IndicatorResult legacy = indicator.analyze(candles.subList(0, size), params);
+				IndicatorResult columnar = indicator.analyze(series.slice(0, size), params);
+				String at = indicator.getName() + " " + params + " seed " + seed + " @ " + size;
+				assertThat(columnar.getSignal()).as(at).isEqualTo(legacy.getSignal());
+				assertSameValues(at, legacy.getValues(), columnar.getValues());
+			}
+		}
+	}
+
+	/**
+	 * Cada valor do legado aparece no colunar; números comparados na escala do legado (ex: preço atual da SMA,
+	 * reportado sem arredondar).
+	 */
+	private static void assertSameValues(String at, Map<String, Object> expected, Map<String, Object> actual) {
+		for (Map.Entry<String, Object> entry : expected.entrySet()) {
+			assertThat(actual).as(at).containsKey(entry.getKey());
+			Object value = actual.get(entry.getKey());
+			if (entry.getValue() instanceof BigDecimal legacyValue && value instanceof BigDecimal columnarValue) {
+				assertThat(columnarValue.setScale(legacyValue.scale(), RoundingMode.HALF_UP))
+						.as(at + " " + entry.getKey()).isEqualByComparingTo(legacyValue);
+			} else {
+				assertThat(value).as(at + " " + entry.getKey()).isEqualTo(entry.getValue());
+			}
+		}
+	}
+
+	/**
+	 * Passeio aleatório com preços em centavos, como os de um par negociado.
+	 */
+	private static CandleSeries tickWalk(int size, long seed) {
+		Random random = new Random(seed);
+		ArrayCandleSeries.Builder builder = CandleSeries.builder(size);
+		double price = 100;
+		for (int i = 0; i < size; i++) {
+			double open = price;
+			price = cents(Math.max(1, price + random.nextGaussian()));
+			double high = cents(Math.max(open, price) + random.nextDouble());
+			double low = cents(Math.min(open, price) - random.nextDouble());
+			builder.add(i * 60_000L, open, high, low, price, cents(10 + random.nextDouble()), i * 60_000L + 59_999,
+					0, 0, 0, 0);
+		}
+		return builder.build();
+	}
+
+	private static double cents(double value) {
+		return Math.round(value * 100) / 100.0;
+	}
+}
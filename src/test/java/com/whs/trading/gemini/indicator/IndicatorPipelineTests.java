@@ -0,0 +1,69 @@
+package com.whs.trading.gemini.indicator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.whs.trading.gemini.dto.CandleSeries;
+import com.whs.trading.gemini.dto.IndicatorResult;
+import com.whs.trading.gemini.dto.IndicatorSeries;
+
+class IndicatorPipelineTests {
+
+	private static final List<CandleIndicator> INDICATORS = List.of(new SmaIndicator(), new RsiIndicator(),
+			new MacdIndicator(), new BollingerBandsIndicator(), new SupportResistanceIndicator());
+
+	@Test
+	void resultsMatchStandaloneIndicators() {
+		CandleSeries series = StreamingIndicatorTests.randomWalk(1_500, 5);
+		for (Map<String, String> params : List.of(Map.<String, String>of(), Map.of("smaPeriod", "9", "bbPeriod", "9",
+				"macdShortPeriod", "9", "rsiPeriod", "5"), Map.of("macdShortPeriod", "30"), Map.of("srLookbackPeriod", "5000"))) {
+			List<IndicatorResult> results = IndicatorPipeline.of(INDICATORS, params).analyze(series);
+			for (int k = 0; k < INDICATORS.size(); k++) {
+				IndicatorResult expected = INDICATORS.get(k).analyze(series, params);
+				IndicatorResult actual = results.get(k);
+				assertThat(actual.getIndicatorName()).isEqualTo(expected.getIndicatorName());
+				assertThat(actual.getSignal()).as("%s %s", expected.getIndicatorName(), params).isEqualTo(expected.getSignal());
+				assertThat(actual.getValues()).isEqualTo(expected.getValues());
+				assertThat(actual.getDetails()).isEqualTo(expected.getDetails());
+			}
+		}
+	}
+
+	@Test
+	void seriesMatchStandaloneIndicators() {
+		CandleSeries series = StreamingIndicatorTests.randomWalk(800, 13);
+		List<IndicatorSeries> results = IndicatorPipeline.of(INDICATORS, Map.of()).analyzeSeries(series);
+		for (int k = 0; k < INDICATORS.size(); k++) {
+			IndicatorSeries expected = INDICATORS.get(k).analyzeSeries(series, Map.of());
+			IndicatorSeries actual = results.get(k);
+			assertThat(actual.getWarmupOffset()).isEqualTo(expected.getWarmupOffset());
+			assertThat(actual.getOpenTimes()).isEqualTo(expected.getOpenTimes());
+			assertThat(actual.getSignals()).isEqualTo(expected.getSignals());
+			assertThat(actual.getLines().keySet()).containsExactlyElementsOf(expected.getLines().keySet());
+			for (String line : expected.getLines().keySet()) {
+				assertThat(actual.line(line)).as("%s.%s", expected.getIndicatorName(), line).isEqualTo(expected.line(line));
+			}
+		}
+	}
+
+	@Test
+	void sharedNodesAreDeduplicated() {
+		// SMA(20) e a média de Bollinger(20) são a mesma janela; com períodos diferentes, duas janelas
+		assertThat(IndicatorPipeline.of(List.of(new SmaIndicator(), new BollingerBandsIndicator()), Map.of()).nodeCount())
+				.isEqualTo(1);
+		assertThat(IndicatorPipeline.of(List.of(new SmaIndicator(), new BollingerBandsIndicator()), Map.of("bbPeriod", "10"))
+				.nodeCount()).isEqualTo(2);
+		// Dois MACD com a mesma EMA curta: 12, 26 e 50
+		IndicatorPipeline macds = IndicatorPipeline.builder()
+				.add(new MacdIndicator(), Map.of())
+				.add(new MacdIndicator(), Map.of("macdLongPeriod", "50"))
+				.build();
+		assertThat(macds.nodeCount()).isEqualTo(3);
+		// Variação do fechamento compartilhada pelas médias de ganhos e perdas do RSI
+		assertThat(IndicatorPipeline.of(List.of(new RsiIndicator()), Map.of()).nodeCount()).isEqualTo(3);
+	}
+}
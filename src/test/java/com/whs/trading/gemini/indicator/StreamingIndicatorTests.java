@@ -0,0 +1,148 @@
+package com.whs.trading.gemini.indicator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.whs.trading.gemini.dto.ArrayCandleSeries;
+import com.whs.trading.gemini.dto.CandleSeries;
+import com.whs.trading.gemini.dto.IndicatorResult;
+import com.whs.trading.gemini.dto.IndicatorSeries;
+import com.whs.trading.gemini.indicator.streaming.StreamingIndicator;
+
+class StreamingIndicatorTests {
+
+	private static final List<CandleIndicator> INDICATORS = List.of(new SmaIndicator(), new RsiIndicator(),
+			new MacdIndicator(), new BollingerBandsIndicator(), new SupportResistanceIndicator());
+
+	static CandleSeries randomWalk(int size, long seed) {
+		Random random = new Random(seed);
+		ArrayCandleSeries.Builder builder = CandleSeries.builder(size);
+		double price = 100;
+		for (int i = 0; i < size; i++) {
+			double open = price;
+			price = Math.max(1, price + random.nextGaussian());
+			double high = Math.max(open, price) + random.nextDouble();
+			double low = Math.min(open, price) - random.nextDouble();
+			builder.add(i * 60_000L, open, high, low, price, 10 + random.nextDouble(), i * 60_000L + 59_999, 0, 0, 0, 0);
+		}
+		return builder.build();
+	}
+
+	@Test
+	void streamingMatchesBatchOnEveryPrefix() {
+		CandleSeries series = randomWalk(400, 42);
+		for (CandleIndicator indicator : INDICATORS) {
+			StreamingIndicator stream = indicator.newStream(Map.of());
+			for (int i = 0; i < series.size(); i++) {
+				stream.update(series, i);
+				IndicatorResult batch = indicator.analyze(series.slice(0, i + 1), Map.of());
+				if (!stream.isReady()) {
+					assertThat(i + 1).isLessThan(stream.warmupPeriod());
+					continue;
+				}
+				assertThat(stream.signal()).as("%s @ %d", indicator.getName(), i).isEqualTo(batch.getSignal());
+				assertThat(batch.getValues()).isNotEmpty();
+			}
+		}
+	}
+
+	@Test
+	void rsiAndMacdValuesAreBitIdentical() {
+		CandleSeries series = randomWalk(2_000, 7);
+		StreamingIndicator rsi = new RsiIndicator().newStream(Map.of("rsiPeriod", "9"));
+		StreamingIndicator macd = new MacdIndicator().newStream(Map.of());
+		for (int i = 0; i < series.size(); i++) {
+			rsi.update(series, i);
+			macd.update(series, i);
+		}
+		IndicatorResult rsiBatch = new RsiIndicator().analyze(series, Map.of("rsiPeriod", "9"));
+		IndicatorResult macdBatch = new MacdIndicator().analyze(series, Map.of());
+		assertThat(rsiBatch.getValues().get("rsiValue")).isEqualTo(scaled(rsi.value(), 2));
+		assertThat(macdBatch.getValues().get("macdLine")).isEqualTo(scaled(macd.value(), 2));
+	}
+
+	@Test
+	void restoredStateContinuesBitIdentical() throws IOException {
+		CandleSeries series = randomWalk(600, 11);
+		for (CandleIndicator indicator : INDICATORS) {
+			StreamingIndicator uninterrupted = indicator.newStream(Map.of());
+			for (int i = 0; i < 300; i++) {
+				uninterrupted.update(series, i);
+			}
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			uninterrupted.writeState(new DataOutputStream(bytes));
+			StreamingIndicator restored = indicator.newStream(Map.of());
+			restored.readState(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+			for (int i = 300; i < series.size(); i++) {
+				uninterrupted.update(series, i);
+				restored.update(series, i);
+				assertThat(Double.doubleToLongBits(restored.value())).as("%s @ %d", indicator.getName(), i)
+						.isEqualTo(Double.doubleToLongBits(uninterrupted.value()));
+				assertThat(restored.signal()).isEqualTo(uninterrupted.signal());
+			}
+		}
+	}
+
+	@Test
+	void supportResistanceUsesSlidingExtremes() {
+		CandleSeries series = randomWalk(500, 3);
+		StreamingIndicator sr = new SupportResistanceIndicator().newStream(Map.of("srLookbackPeriod", "30"));
+		for (int i = 0; i < series.size(); i++) {
+			sr.update(series, i);
+			if (i >= 29) {
+				double min = Double.POSITIVE_INFINITY;
+				for (int j = i - 29; j <= i; j++) {
+					min = Math.min(min, series.low(j));
+				}
+				assertThat(sr.value()).isEqualTo(min);
+			}
+		}
+	}
+
+	@Test
+	void seriesModeEndsWithBatchValue() {
+		CandleSeries series = randomWalk(300, 11);
+		IndicatorSeries macd = new MacdIndicator().analyzeSeries(series, Map.of());
+		IndicatorResult batch = new MacdIndicator().analyze(series, Map.of());
+		double[] macdLine = macd.line("macdLine");
+		assertThat(macd.size()).isEqualTo(series.size());
+		assertThat(macd.getWarmupOffset()).isEqualTo(26 + 9 - 1);
+		assertThat(macdLine[macd.getWarmupOffset() - 1 - 9]).isNaN();
+		assertThat(scaled(macdLine[series.size() - 1], 2)).isEqualTo(batch.getValues().get("macdLine"));
+		assertThat(macd.signalAt(series.size() - 1)).isEqualTo(batch.getSignal());
+	}
+
+	@Test
+	void typedResultsBuildMapAndDetailsOnDemand() {
+		CandleSeries series = randomWalk(300, 3);
+		for (CandleIndicator indicator : INDICATORS) {
+			IndicatorResult result = indicator.analyze(series, Map.of());
+			assertThat(result.getTypedValues()).isNotNull();
+			assertThat(result.getValues()).isEqualTo(result.getTypedValues().toMap());
+			assertThat(result.getDetails()).isEqualTo(result.getTypedValues().describe(result.getSignal()));
+
+			IndicatorResult copy = result.copy();
+			copy.addValue("extra", 1);
+			copy.omitDetails();
+			assertThat(copy.getDetails()).isNull();
+			assertThat(result.getValues().containsKey("extra")).isFalse();
+			assertThat(result.getDetails()).isNotNull();
+		}
+	}
+
+	private static BigDecimal scaled(double value, int scale) {
+		return BigDecimal.valueOf(value).setScale(9, RoundingMode.HALF_UP).setScale(scale, RoundingMode.HALF_UP);
+	}
+}
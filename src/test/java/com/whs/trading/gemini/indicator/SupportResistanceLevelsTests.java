@@ -0,0 +1,93 @@
+package com.whs.trading.gemini.indicator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.whs.trading.gemini.dto.ArrayCandleSeries;
+import com.whs.trading.gemini.dto.CandleSeries;
+import com.whs.trading.gemini.indicator.SupportResistanceLevels.Level;
+import com.whs.trading.gemini.indicator.SupportResistanceLevels.Levels;
+
+class SupportResistanceLevelsTests {
+
+	@Test
+	void pivotsMatchBruteForceWindows() {
+		CandleSeries series = StreamingIndicatorTests.randomWalk(5_000, 21);
+		int swingWindow = 4;
+		Levels levels = SupportResistanceLevels.find(series, swingWindow, 0);
+
+		// Tolerância zero: um nível por preço de pivô distinto
+		List<Double> lows = new ArrayList<>();
+		List<Double> highs = new ArrayList<>();
+		for (int c = swingWindow; c < series.size() - swingWindow; c++) {
+			double min = Double.POSITIVE_INFINITY;
+			double max = Double.NEGATIVE_INFINITY;
+			for (int j = c - swingWindow; j <= c + swingWindow; j++) {
+				min = Math.min(min, series.low(j));
+				max = Math.max(max, series.high(j));
+			}
+			if (series.low(c) == min && !lows.contains(min)) {
+				lows.add(min);
+			}
+			if (series.high(c) == max && !highs.contains(max)) {
+				highs.add(max);
+			}
+		}
+		lows.sort(null);
+		highs.sort(null);
+		assertThat(levels.supports().stream().map(Level::lowest).toList()).isEqualTo(lows);
+		assertThat(levels.resistances().stream().map(Level::highest).toList()).isEqualTo(highs);
+		assertThat(levels.candleCount()).isEqualTo(series.size());
+	}
+
+	@Test
+	void clustersNearbyPivotsWeightedByVolume() {
+		// Fundos em 100 (volume 1) e 101 (volume 3), separados por topos em 110
+		ArrayCandleSeries.Builder builder = CandleSeries.builder(16);
+		double[] lows = {105, 100, 105, 108, 105, 101, 105, 108, 105};
+		double[] volumes = {1, 1, 1, 1, 1, 3, 1, 1, 1};
+		for (int i = 0; i < lows.length; i++) {
+			builder.add(i * 60_000L, lows[i] + 1, lows[i] == 108 ? 110 : lows[i] + 2, lows[i], lows[i] + 1, volumes[i],
+					i * 60_000L + 59_999, 0, 0, 0, 0);
+		}
+		Levels levels = SupportResistanceLevels.find(builder.build(), 1, 0.02);
+
+		assertThat(levels.supports().size()).isEqualTo(1);
+		Level support = levels.supports().get(0);
+		assertThat(support.touches()).isEqualTo(2);
+		assertThat(support.volume()).isEqualTo(4.0);
+		assertThat(support.price()).isEqualTo((100 * 1 + 101 * 3) / 4.0);
+		assertThat(support.lowest()).isEqualTo(100.0);
+		assertThat(support.highest()).isEqualTo(101.0);
+		assertThat(support.lastTouchTime()).isEqualTo(5 * 60_000L);
+
+		assertThat(levels.resistances().size()).isEqualTo(1);
+		assertThat(levels.resistances().get(0).price()).isEqualTo(110.0);
+		assertThat(levels.nearestSupport(levels.lastClose())).isEqualTo(support);
+		assertThat(levels.nearestResistance(levels.lastClose()).price()).isEqualTo(110.0);
+	}
+
+	@Test
+	void clusterPricesStartsNewLevelBeyondTolerance() {
+		double[] starts = SupportResistanceLevels.clusterPrices(new double[] {10.4, 10.0, 11.0, 10.1, 10.6, 9.9}, 0.03);
+
+		assertThat(starts).isEqualTo(new double[] {9.9, 10.4, 11.0});
+	}
+
+	@Test
+	void strongestKeepsHighestVolumeLevelsInPriceOrder() {
+		Levels levels = SupportResistanceLevels.find(StreamingIndicatorTests.randomWalk(3_000, 8), 3, 0.01);
+		Levels strongest = levels.strongest(3);
+
+		assertThat(strongest.supports().size()).isEqualTo(3);
+		double minKept = strongest.supports().stream().mapToDouble(Level::volume).min().getAsDouble();
+		assertThat(levels.supports().stream().filter(l -> l.volume() > minKept).count()).isLessThanOrEqualTo(2L);
+		for (int i = 1; i < strongest.supports().size(); i++) {
+			assertThat(strongest.supports().get(i).price()).isGreaterThan(strongest.supports().get(i - 1).price());
+		}
+	}
+}
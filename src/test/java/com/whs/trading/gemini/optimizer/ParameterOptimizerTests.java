@@ -0,0 +1,86 @@
+package com.whs.trading.gemini.optimizer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.whs.trading.gemini.backtest.BacktestConfig;
+import com.whs.trading.gemini.backtest.BacktestEngine;
+import com.whs.trading.gemini.dto.ArrayCandleSeries;
+import com.whs.trading.gemini.dto.CandleSeries;
+import com.whs.trading.gemini.indicator.BollingerBandsIndicator;
+import com.whs.trading.gemini.indicator.MacdIndicator;
+import com.whs.trading.gemini.indicator.RsiIndicator;
+
+class ParameterOptimizerTests {
+
+	private final RsiIndicator rsi = new RsiIndicator();
+	private final MacdIndicator macd = new MacdIndicator();
+	private final BollingerBandsIndicator bollinger = new BollingerBandsIndicator();
+	private final ParameterOptimizer optimizer = new ParameterOptimizer(rsi, macd, bollinger, 4, 10_000);
+
+	@Test
+	void sharedComputationsMatchTheBacktestEngine() {
+		CandleSeries series = randomWalk(3_000, 5);
+		OptimizationRequest request = new OptimizationRequest()
+				.range("rsiPeriod", new ParameterRange(7, 21, 7))
+				.range("macdShortPeriod", ParameterRange.of(8, 12, 30))
+				.range("macdLongPeriod", ParameterRange.of(26))
+				.range("bbStdDevMult", new ParameterRange(1.5, 2.5, 0.5));
+		request.setWalkForwardFolds(0);
+		request.setObjective(Objective.TOTAL_RETURN);
+		request.setTop(100);
+
+		OptimizationResult result = optimizer.optimize(series, request);
+
+		// 3 x 2 (30 >= 26 descartado) x 3
+		assertThat(result.getCombinationCount()).isEqualTo(18);
+		assertThat(result.getRanked()).hasSize(18);
+		BacktestEngine engine = new BacktestEngine(List.of(rsi, macd, bollinger));
+		for (OptimizationRow row : result.getRanked()) {
+			double expected = engine.run(series, List.of("RSI", "MACD", "Bollinger Bands"), row.getParameters(),
+					new BacktestConfig()).getStats().getTotalReturnPercentage();
+			assertThat(row.getTrainObjective()).as(row.getParameters().toString()).isEqualTo(expected);
+		}
+		for (int i = 1; i < result.getRanked().size(); i++) {
+			assertThat(result.getRanked().get(i).getTrainObjective())
+					.isLessThanOrEqualTo(result.getRanked().get(i - 1).getTrainObjective());
+		}
+	}
+
+	@Test
+	void walkForwardPicksBestTrainingCombinationPerFold() {
+		CandleSeries series = randomWalk(5_000, 9);
+		OptimizationRequest request = new OptimizationRequest().range("rsiPeriod", new ParameterRange(5, 30, 5));
+		request.setIndicators(List.of("RSI"));
+		request.setWalkForwardFolds(3);
+
+		OptimizationResult result = optimizer.optimize(series, request);
+
+		assertThat(result.getWalkForward()).hasSize(3);
+		for (WalkForwardFold fold : result.getWalkForward()) {
+			assertThat(fold.getTestStart()).isGreaterThan(fold.getTrainEnd());
+			double best = result.getRanked().stream()
+					.mapToDouble(row -> row.getSegmentObjectives()[fold.getFold()])
+					.filter(value -> !Double.isNaN(value))
+					.max().orElse(Double.NaN);
+			assertThat(fold.getTrainObjective()).isEqualTo(best);
+		}
+	}
+
+	private static CandleSeries randomWalk(int size, long seed) {
+		Random random = new Random(seed);
+		ArrayCandleSeries.Builder builder = CandleSeries.builder(size);
+		double price = 100;
+		for (int i = 0; i < size; i++) {
+			double open = price;
+			price = Math.max(1, price + 2 * random.nextGaussian());
+			builder.add(i * 3_600_000L, open, Math.max(open, price) + random.nextDouble(),
+					Math.min(open, price) - random.nextDouble(), price, 10, i * 3_600_000L + 3_599_999, 0, 0, 0, 0);
+		}
+		return builder.build();
+	}
+}
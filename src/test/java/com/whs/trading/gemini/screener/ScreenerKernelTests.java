@@ -0,0 +1,207 @@
+package com.whs.trading.gemini.screener;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.IntToDoubleFunction;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.whs.trading.gemini.b3.B3HistoryService;
+import com.whs.trading.gemini.dto.ArrayCandleSeries;
+import com.whs.trading.gemini.dto.CandleSeries;
+import com.whs.trading.gemini.dto.KlineInterval;
+import com.whs.trading.gemini.service.IndicatorResultCache;
+import com.whs.trading.gemini.store.CandleStore;
+
+class ScreenerKernelTests {
+
+	private static final long DAY = 86_400_000L;
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void vectorKernelMatchesScalarKernelExactly() {
+		// Quantidade de papéis que não é múltiplo do vetor: a sobra passa pelo caminho escalar
+		CloseBlock block = randomBlock(1037, ScreenerRules.DEFAULT.window() + 7, 42);
+
+		ScreenerColumns scalar = ScreenerKernel.scalar().evaluate(block, ScreenerRules.DEFAULT);
+		ScreenerColumns vector = ScreenerKernel.vector().evaluate(block, ScreenerRules.DEFAULT);
+
+		assertThat(vector.price).containsExactly(scalar.price);
+		assertThat(vector.smaShort).containsExactly(scalar.smaShort);
+		assertThat(vector.smaMedium).containsExactly(scalar.smaMedium);
+		assertThat(vector.smaLong).containsExactly(scalar.smaLong);
+		assertThat(vector.rsi).containsExactly(scalar.rsi);
+		assertThat(vector.upperBand).containsExactly(scalar.upperBand);
+		assertThat(vector.lowerBand).containsExactly(scalar.lowerBand);
+		assertThat(vector.low).containsExactly(scalar.low);
+		assertThat(vector.high).containsExactly(scalar.high);
+		assertThat(vector.strongUptrend).containsExactly(scalar.strongUptrend);
+		assertThat(vector.strongDowntrend).containsExactly(scalar.strongDowntrend);
+		assertThat(vector.overbought).containsExactly(scalar.overbought);
+		assertThat(vector.oversold).containsExactly(scalar.oversold);
+		assertThat(vector.aboveUpperBand).containsExactly(scalar.aboveUpperBand);
+		assertThat(vector.belowLowerBand).containsExactly(scalar.belowLowerBand);
+		assertThat(vector.buy).containsExactly(scalar.buy);
+		assertThat(vector.partialSell).containsExactly(scalar.partialSell);
+	}
+
+	@Test
+	void recommendationsFollowTheSingleTickerRules() {
+		ScreenerRules rules = ScreenerRules.DEFAULT;
+		int window = rules.window();
+		CloseBlock block = randomBlock(301, window, 7);
+		ScreenerColumns columns = ScreenerKernel.vector().evaluate(block, rules);
+
+		int[] actions = new int[Recommendation.Action.values().length];
+		for (int column = 0; column < block.size(); column++) {
+			List<Double> closes = new ArrayList<>();
+			for (int row = 0; row < window; row++) {
+				closes.add(block.close(row, column));
+			}
+			Recommendation recommendation = columns.recommendation(block, column);
+			double price = closes.get(window - 1);
+			double sma5 = average(closes, 5);
+			double sma10 = average(closes, 10);
+			double sma20 = average(closes, 20);
+			double rsi = rsi(closes, 14);
+			double mean = average(closes, 20);
+			double deviation = Math.sqrt(closes.subList(window - 20, window).stream()
+					.mapToDouble(v -> Math.pow(v - mean, 2)).average().orElseThrow());
+
+			assertThat(recommendation.price()).isEqualTo(price);
+			assertThat(recommendation.smaShort()).isCloseTo(sma5, within(1e-9));
+			assertThat(recommendation.smaLong()).isCloseTo(sma20, within(1e-9));
+			assertThat(recommendation.rsi()).isCloseTo(rsi, within(1e-9));
+			assertThat(recommendation.upperBand()).isCloseTo(mean + 2 * deviation, within(1e-9));
+			assertThat(recommendation.lowerBand()).isCloseTo(mean - 2 * deviation, within(1e-9));
+
+			Recommendation.Action expected = sma5 > sma10 && rsi < 70 && price < mean + 2 * deviation
+					? Recommendation.Action.BUY
+					: sma5 < sma10 && rsi > 30 && price > mean - 2 * deviation ? Recommendation.Action.PARTIAL_SELL
+					: Recommendation.Action.WAIT;
+			assertThat(recommendation.action()).isEqualTo(expected);
+			Recommendation.Trend trend = sma5 > sma10 && sma10 > sma20 ? Recommendation.Trend.STRONG_UPTREND
+					: sma5 < sma10 && sma10 < sma20 ? Recommendation.Trend.STRONG_DOWNTREND
+					: Recommendation.Trend.SIDEWAYS;
+			assertThat(recommendation.trend()).isEqualTo(trend);
+			double low = closes.stream().mapToDouble(Double::doubleValue).min().orElseThrow();
+			double high = closes.stream().mapToDouble(Double::doubleValue).max().orElseThrow();
+			if (expected == Recommendation.Action.BUY) {
+				assertThat(recommendation.stopLoss()).isEqualTo(low);
+			} else if (expected == Recommendation.Action.PARTIAL_SELL) {
+				assertThat(recommendation.takeProfit()).isEqualTo(high);
+			}
+			actions[expected.ordinal()]++;
+		}
+		// O passeio aleatório precisa exercitar as três ações
+		assertThat(actions).doesNotContain(0);
+	}
+
+	@Test
+	void flatAndMonotonicSeriesHitTheRsiEdges() {
+		CloseBlock.Builder builder = CloseBlock.builder(ScreenerRules.DEFAULT.window());
+		builder.add("FLAT3", series(i -> 10.0, 30));
+		builder.add("DOWN3", series(i -> 100.0 - i, 30));
+		assertThat(builder.add("NEW3", series(i -> 10.0, 19))).isFalse();
+		CloseBlock block = builder.build();
+
+		ScreenerColumns columns = ScreenerKernel.vector().evaluate(block, ScreenerRules.DEFAULT);
+
+		Recommendation flat = columns.recommendation(block, 0);
+		// Sem perdas o RSI é 100, como na regra original
+		assertThat(flat.rsi()).isEqualTo(100);
+		assertThat(flat.trend()).isEqualTo(Recommendation.Trend.SIDEWAYS);
+		assertThat(flat.rsiZone()).isEqualTo(Recommendation.RsiZone.OVERBOUGHT);
+		assertThat(flat.action()).isEqualTo(Recommendation.Action.WAIT);
+		assertThat(flat.stopLoss()).isNaN();
+
+		Recommendation down = columns.recommendation(block, 1);
+		assertThat(down.rsi()).isZero();
+		assertThat(down.trend()).isEqualTo(Recommendation.Trend.STRONG_DOWNTREND);
+		assertThat(down.rsiZone()).isEqualTo(Recommendation.RsiZone.OVERSOLD);
+		assertThat(down.action()).isEqualTo(Recommendation.Action.WAIT);
+		assertThat(down.lastOpenTime()).isEqualTo(29 * DAY);
+	}
+
+	@Test
+	void serviceScreensImportedTickersAndFiltersByAction() throws Exception {
+		CandleStore store = new CandleStore(directory);
+		B3HistoryService history = new B3HistoryService(store, List.of(), new IndicatorResultCache(16));
+		try {
+			store.file("UP3", KlineInterval.ONE_DAY).append(series(i -> 10 + i + (i % 2 == 0 ? 0 : 3), 40));
+			store.file("DOWN3", KlineInterval.ONE_DAY).append(series(i -> 100.0 - i, 40));
+			store.file("NEW3", KlineInterval.ONE_DAY).append(series(i -> 10.0, 5));
+			ScreenerService service = new ScreenerService(history, ScreenerKernel.scalar());
+
+			ScreenerReport all = service.screen(null, ScreenerRules.DEFAULT, Set.of());
+			assertThat(all.kernel()).isEqualTo("scalar");
+			assertThat(all.tickers()).isEqualTo(2);
+			assertThat(all.insufficientHistory()).containsExactly("NEW3");
+			assertThat(all.recommendations()).extracting(Recommendation::ticker).containsExactly("DOWN3", "UP3");
+
+			ScreenerReport buys = service.screen(List.of("up3", "down3"), ScreenerRules.fromParams(Map.of("smaLong", "30")),
+					Set.of(Recommendation.Action.BUY));
+			assertThat(buys.window()).isEqualTo(30);
+			assertThat(buys.recommendations()).extracting(Recommendation::ticker).containsExactly("UP3");
+			assertThat(buys.recommendations().get(0).trend()).isEqualTo(Recommendation.Trend.STRONG_UPTREND);
+		} finally {
+			history.close();
+		}
+	}
+
+	private static CloseBlock randomBlock(int tickers, int window, long seed) {
+		Random random = new Random(seed);
+		CloseBlock.Builder builder = CloseBlock.builder(window);
+		for (int t = 0; t < tickers; t++) {
+			double start = 5 + random.nextDouble() * 100;
+			double drift = (random.nextDouble() - 0.5) * 0.02;
+			double[] closes = new double[window + 10];
+			closes[0] = start;
+			for (int i = 1; i < closes.length; i++) {
+				// Alguns dias sem variação, para o RSI cobrir variação zero
+				closes[i] = random.nextInt(10) == 0 ? closes[i - 1]
+						: closes[i - 1] * (1 + drift + random.nextGaussian() * 0.02);
+			}
+			builder.add("T" + t, series(i -> closes[i], closes.length));
+		}
+		return builder.build();
+	}
+
+	private static CandleSeries series(IntToDoubleFunction close, int size) {
+		ArrayCandleSeries.Builder builder = CandleSeries.builder(size);
+		for (int i = 0; i < size; i++) {
+			double value = close.applyAsDouble(i);
+			builder.add(i * DAY, value, value, value, value, 1, (i + 1) * DAY - 1, value, 1, 0, 0);
+		}
+		return builder.build();
+	}
+
+	private static double average(List<Double> closes, int period) {
+		return closes.subList(closes.size() - period, closes.size()).stream().mapToDouble(Double::doubleValue)
+				.average().orElseThrow();
+	}
+
+	/**
+	 * RSI de médias simples sobre as últimas {@code period} variações.
+	 */
+	private static double rsi(List<Double> closes, int period) {
+		double gains = 0;
+		double losses = 0;
+		for (int i = closes.size() - period; i < closes.size(); i++) {
+			double change = closes.get(i) - closes.get(i - 1);
+			gains += change > 0 ? change : 0;
+			losses += change < 0 ? -change : 0;
+		}
+		return losses == 0 ? 100 : 100 - 100 / (1 + gains / losses);
+	}
+}
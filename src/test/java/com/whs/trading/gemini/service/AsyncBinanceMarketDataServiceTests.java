@@ -0,0 +1,166 @@
+package com.whs.trading.gemini.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.HttpClientErrorException;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.whs.trading.gemini.dto.CandleSeries;
+import com.whs.trading.gemini.dto.KlineInterval;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Cliente assíncrono contra um servidor HTTP local que imita /api/v3/klines com latência, corpo em gzip e
+ * respostas 429 para o símbolo "LIMITED".
+ */
+class AsyncBinanceMarketDataServiceTests {
+
+	private static final long MINUTE = KlineInterval.ONE_MINUTE.getMillis();
+	private static final long T0 = KlineInterval.ONE_MINUTE.openTimeOf(1_600_000_000_000L);
+	private static final long LATENCY_MILLIS = 300;
+
+	private HttpServer server;
+	private AsyncBinanceMarketDataService service;
+	private final AtomicInteger requests = new AtomicInteger();
+	private final AtomicInteger gzipped = new AtomicInteger();
+	private final AtomicInteger active = new AtomicInteger();
+	private final AtomicInteger maxActive = new AtomicInteger();
+
+	@BeforeEach
+	void startServer() throws IOException {
+		server = HttpServer.create(new InetSocketAddress("localhost", 0), 1024);
+		server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+		server.createContext("/api/v3/klines", this::klines);
+		server.start();
+	}
+
+	@AfterEach
+	void stopServer() {
+		if (service != null) {
+			service.shutdown();
+		}
+		server.stop(0);
+	}
+
+	@Test
+	void keepsHundredsOfFetchesInFlightOnTwoThreads() throws Exception {
+		service = service(new RequestWeightLimiter(100_000, 60_000L), 2);
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		service.bindTo(registry);
+
+		int fetches = 300;
+		List<CompletableFuture<CandleSeries>> futures = new ArrayList<>();
+		for (int i = 0; i < fetches; i++) {
+			futures.add(service.getCandleSeriesAsync("SYM" + i, "1m", 50, T0, null));
+		}
+		CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(30, TimeUnit.SECONDS);
+
+		for (CompletableFuture<CandleSeries> future : futures) {
+			CandleSeries series = future.join();
+			assertThat(series.size()).isEqualTo(50);
+			assertThat(series.openTime(49)).isEqualTo(T0 + 49 * MINUTE);
+			assertThat(series.quoteVolume(0)).isEqualTo(15.0);
+		}
+		assertThat(requests.get()).isEqualTo(fetches);
+		assertThat(gzipped.get()).isEqualTo(fetches);
+		// Com duas threads, um cliente bloqueante teria no máximo duas chamadas abertas no servidor
+		assertThat(maxActive.get()).isGreaterThan(100);
+		assertThat(registry.get("binance.requests").tags("endpoint", "klines", "status", "200").timer().count())
+				.isEqualTo((long) fetches);
+		assertThat(registry.get("binance.klines.candles").summary().totalAmount()).isEqualTo(50.0 * fetches);
+	}
+
+	@Test
+	void rateLimitedResponseFailsThePageAndWaitsForTheNextWindow() throws Exception {
+		RequestWeightLimiter limiter = new RequestWeightLimiter(1_000, 1_000L);
+		service = service(limiter, 2);
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		service.bindTo(registry);
+
+		assertThatThrownBy(() -> service.fetchCandleSeriesPageAsync("LIMITED", "1m", 10, T0, null).get())
+				.isInstanceOf(ExecutionException.class)
+				.hasCauseInstanceOf(HttpClientErrorException.class);
+		assertThat(limiter.getUsedWeight()).isEqualTo(1_000L);
+
+		// Sem orçamento, a reserva espera a virada da janela sem ocupar as threads do cliente
+		CandleSeries series = service.getCandleSeriesAsync("BTCUSDT", "1m", 10, T0, null).get(5, TimeUnit.SECONDS);
+		assertThat(series.size()).isEqualTo(10);
+		assertThat(service.getHistoricalCandlesticksAsync("LIMITED", "1m", 10, T0, null).get(5, TimeUnit.SECONDS))
+				.isEmpty();
+		assertThat(registry.get("binance.requests").tags("endpoint", "klines", "status", "429").timer().count())
+				.isEqualTo(2L);
+		assertThat(registry.get("binance.requests").tags("endpoint", "klines", "status", "200").timer().count())
+				.isEqualTo(1L);
+	}
+
+	private AsyncBinanceMarketDataService service(RequestWeightLimiter limiter, int threads) {
+		return new AsyncBinanceMarketDataService(limiter, "http://localhost:" + server.getAddress().getPort(), threads,
+				5, 10);
+	}
+
+	private void klines(HttpExchange exchange) throws IOException {
+		int now = active.incrementAndGet();
+		maxActive.accumulateAndGet(now, Math::max);
+		try {
+			requests.incrementAndGet();
+			Thread.sleep(LATENCY_MILLIS);
+			String query = exchange.getRequestURI().getQuery();
+			if (query.contains("symbol=LIMITED")) {
+				exchange.getResponseHeaders().add("X-MBX-USED-WEIGHT-1M", "1000");
+				exchange.sendResponseHeaders(429, -1);
+				return;
+			}
+			int limit = Integer.parseInt(query.replaceAll(".*limit=(\\d+).*", "$1"));
+			StringBuilder json = new StringBuilder("[");
+			for (int i = 0; i < limit; i++) {
+				long t = T0 + i * MINUTE;
+				if (i > 0) {
+					json.append(',');
+				}
+				json.append(String.format(Locale.ROOT,
+						"[%d,\"1.0\",\"2.0\",\"0.5\",\"1.5\",\"10.0\",%d,\"15.0\",7,\"5.0\",\"7.5\",\"0\"]", t,
+						t + MINUTE - 1));
+			}
+			byte[] body = json.append(']').toString().getBytes(StandardCharsets.UTF_8);
+			String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+			if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+				gzipped.incrementAndGet();
+				exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+				exchange.sendResponseHeaders(200, 0);
+				try (OutputStream out = new GZIPOutputStream(exchange.getResponseBody())) {
+					out.write(body);
+				}
+			} else {
+				exchange.sendResponseHeaders(200, body.length);
+				try (OutputStream out = exchange.getResponseBody()) {
+					out.write(body);
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			active.decrementAndGet();
+			exchange.close();
+		}
+	}
+}
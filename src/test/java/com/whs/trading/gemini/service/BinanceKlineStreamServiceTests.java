@@ -0,0 +1,322 @@
+package com.whs.trading.gemini.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.catalina.Context;
+import org.apache.catalina.startup.Tomcat;
+import org.apache.tomcat.websocket.server.WsSci;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.web.client.RestTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.whs.trading.gemini.cluster.ClusterMember;
+import com.whs.trading.gemini.cluster.FileClusterMembership;
+import com.whs.trading.gemini.cluster.ShardingService;
+import com.whs.trading.gemini.dto.ArrayCandleSeries;
+import com.whs.trading.gemini.dto.CandleSeries;
+import com.whs.trading.gemini.dto.CandlestickData;
+import com.whs.trading.gemini.dto.KlineInterval;
+
+import jakarta.servlet.http.HttpServlet;
+import jakarta.websocket.CloseReason;
+import jakarta.websocket.Endpoint;
+import jakarta.websocket.EndpointConfig;
+import jakarta.websocket.Session;
+import jakarta.websocket.server.ServerContainer;
+import jakarta.websocket.server.ServerEndpointConfig;
+
+/**
+ * Testa o stream contra um servidor WebSocket local (Tomcat embarcado) que imita os streams combinados da Binance.
+ */
+class BinanceKlineStreamServiceTests {
+
+	private static final long MINUTE = KlineInterval.ONE_MINUTE.getMillis();
+	private static final long T0 = KlineInterval.ONE_MINUTE.openTimeOf(1_700_000_000_000L);
+
+	@TempDir
+	Path directory;
+
+	private Tomcat tomcat;
+	private BinanceKlineStreamService service;
+	private final AtomicInteger connections = new AtomicInteger();
+
+	@BeforeEach
+	void startServer() throws Exception {
+		tomcat = new Tomcat();
+		tomcat.setBaseDir(System.getProperty("java.io.tmpdir"));
+		tomcat.setPort(0);
+		tomcat.getConnector();
+		Context context = tomcat.addContext("", null);
+		context.addServletContainerInitializer(new WsSci(), null);
+		// O filtro de upgrade do WebSocket só atua em requisições mapeadas para algum servlet
+		Tomcat.addServlet(context, "default", new HttpServlet() {
+			private static final long serialVersionUID = 1L;
+		});
+		context.addServletMappingDecoded("/", "default");
+		tomcat.start();
+		ServerContainer container = (ServerContainer) context.getServletContext()
+				.getAttribute(ServerContainer.class.getName());
+		container.addEndpoint(ServerEndpointConfig.Builder.create(StandInEndpoint.class, "/stream")
+				.configurator(new ServerEndpointConfig.Configurator() {
+					@Override
+					public <T> T getEndpointInstance(Class<T> endpointClass) {
+						return endpointClass.cast(new StandInEndpoint(connections.incrementAndGet()));
+					}
+				}).build());
+	}
+
+	@AfterEach
+	void stopServer() throws Exception {
+		if (service != null) {
+			service.stop();
+		}
+		tomcat.stop();
+		tomcat.destroy();
+	}
+
+	@Test
+	void keepsOrderedTailAcrossGapsAndReconnects() throws Exception {
+		List<Long> restCalls = new CopyOnWriteArrayList<>();
+		MarketDataService rest = rest(restCalls);
+
+		CountDownLatch lastCandle = new CountDownLatch(1);
+		service = new BinanceKlineStreamService(rest, new ObjectMapper(),
+				"ws://localhost:" + tomcat.getConnector().getLocalPort(), 100, 200, true, List.of(), List.of(), List.of());
+		service.addListener((symbol, interval, tail) -> {
+			if (tail.openTime(tail.size() - 1) == T0 + 14 * MINUTE) {
+				lastCandle.countDown();
+			}
+		});
+		service.subscribe(List.of("btcusdt"), List.of("1m"));
+
+		assertThat(lastCandle.await(15, TimeUnit.SECONDS)).isTrue();
+		CandleSeries tail = service.getTail("BTCUSDT", "1m");
+		assertThat(tail.size()).isEqualTo(15);
+		for (int i = 0; i < tail.size(); i++) {
+			assertThat(tail.openTime(i)).isEqualTo(T0 + i * MINUTE);
+			assertThat(tail.close(i)).isEqualTo(price(i));
+		}
+		assertThat(service.getBackfilledCandleCount()).isEqualTo(2);
+		assertThat(service.getReconnectCount()).isGreaterThanOrEqualTo(1);
+		assertThat(restCalls).containsExactly(-1L, T0 + 11 * MINUTE);
+		assertThat(service.getCandleSeries("BTCUSDT", "1m", 5, null, null).openTime(0)).isEqualTo(T0 + 10 * MINUTE);
+	}
+
+	@Test
+	void fullQueueDropsTheConnectionAndBackfillsWhatWasLost() throws Exception {
+		List<Long> restCalls = new CopyOnWriteArrayList<>();
+		service = new BinanceKlineStreamService(rest(restCalls), new ObjectMapper(),
+				"ws://localhost:" + tomcat.getConnector().getLocalPort(), 100, 200, true, List.of(), List.of(),
+				List.of(), 1, null);
+		// O consumidor trava na primeira vela fechada: com fila de uma mensagem, a terceira já não cabe
+		CountDownLatch release = new CountDownLatch(1);
+		CountDownLatch lastCandle = new CountDownLatch(1);
+		service.addListener((symbol, interval, tail) -> {
+			long last = tail.openTime(tail.size() - 1);
+			if (last == T0 + 10 * MINUTE) {
+				try {
+					release.await(10, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			} else if (last == T0 + 14 * MINUTE) {
+				lastCandle.countDown();
+			}
+		});
+		service.subscribe(List.of("btcusdt"), List.of("1m"));
+
+		long deadline = System.currentTimeMillis() + 10_000;
+		while (service.getOverflowCount() == 0 && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		assertThat(service.getOverflowCount()).isGreaterThanOrEqualTo(1);
+		release.countDown();
+
+		assertThat(lastCandle.await(15, TimeUnit.SECONDS)).isTrue();
+		CandleSeries tail = service.getTail("BTCUSDT", "1m");
+		assertThat(tail.size()).isEqualTo(15);
+		for (int i = 0; i < tail.size(); i++) {
+			assertThat(tail.openTime(i)).isEqualTo(T0 + i * MINUTE);
+		}
+		// A vela 13 descartada volta pelo REST junto com a lacuna 11-12
+		assertThat(service.getBackfilledCandleCount()).isEqualTo(3);
+		assertThat(restCalls).containsExactly(-1L, T0 + 11 * MINUTE);
+	}
+
+	@Test
+	void subscribesOnlyOwnedSymbolsAndFollowsRebalances() throws Exception {
+		MarketDataService rest = new MarketDataService() {
+			@Override
+			public List<CandlestickData> getHistoricalCandlesticks(String symbol, String interval, Integer limit,
+					Long startTime, Long endTime) {
+				return getCandleSeries(symbol, interval, limit, startTime, endTime).toCandlestickDataList();
+			}
+
+			@Override
+			public CandleSeries getCandleSeries(String symbol, String interval, Integer limit, Long startTime,
+					Long endTime) {
+				return CandleSeries.builder(1).add(T0, 1, 1, 1, 1, 1, T0 + MINUTE - 1, 0, 0, 0, 0).build();
+			}
+		};
+		FileClusterMembership membership = new FileClusterMembership(directory, 60_000);
+		ShardingService self = new ShardingService(new RestTemplate(), true,
+				new ClusterMember("a", "http://localhost:8081"), membership, 60_000, 128);
+		ShardingService other = new ShardingService(new RestTemplate(), true,
+				new ClusterMember("b", "http://localhost:8082"), membership, 60_000, 128);
+		other.start();
+		self.start();
+		List<String> symbols = new ArrayList<>();
+		for (int i = 0; i < 40; i++) {
+			symbols.add("S" + i + "USDT");
+		}
+		// Porta fechada: as conexões só tentam reconectar; as caudas vêm do REST
+		service = new BinanceKlineStreamService(rest, new ObjectMapper(), "ws://localhost:1", 10, 200, true, symbols,
+				List.of("1m"), List.of(), BinanceKlineStreamService.DEFAULT_QUEUE_CAPACITY, self);
+		service.startIfEnabled();
+
+		int owned = 0;
+		for (String symbol : symbols) {
+			assertThat(service.getTail(symbol, "1m").isEmpty()).isEqualTo(!self.isLocal(symbol));
+			owned += self.isLocal(symbol) ? 1 : 0;
+		}
+		assertThat(owned).isBetween(5, 35);
+
+		// B sai: A assume os símbolos dela (a assinatura roda fora da thread de batidas)
+		other.stop();
+		self.beat();
+		long deadline = System.currentTimeMillis() + 5_000;
+		while (symbols.stream().anyMatch(symbol -> service.getTail(symbol, "1m").isEmpty())
+				&& System.currentTimeMillis() < deadline) {
+			Thread.sleep(20);
+		}
+		for (String symbol : symbols) {
+			assertThat(service.getTail(symbol, "1m").size()).isEqualTo(1);
+		}
+
+		// B volta: os símbolos dela saem desta instância
+		ShardingService back = new ShardingService(new RestTemplate(), true,
+				new ClusterMember("b", "http://localhost:8082"), membership, 60_000, 128);
+		back.start();
+		self.beat();
+		deadline = System.currentTimeMillis() + 5_000;
+		while (symbols.stream().anyMatch(symbol -> !self.isLocal(symbol) && !service.getTail(symbol, "1m").isEmpty())
+				&& System.currentTimeMillis() < deadline) {
+			Thread.sleep(20);
+		}
+		for (String symbol : symbols) {
+			assertThat(service.getTail(symbol, "1m").isEmpty()).isEqualTo(!self.isLocal(symbol));
+		}
+		back.stop();
+		self.stop();
+	}
+
+	@Test
+	void releasesAdHocStreamsButKeepsConfiguredAndStillWatchedIntervals() {
+		MarketDataService rest = new MarketDataService() {
+			@Override
+			public List<CandlestickData> getHistoricalCandlesticks(String symbol, String interval, Integer limit,
+					Long startTime, Long endTime) {
+				return getCandleSeries(symbol, interval, limit, startTime, endTime).toCandlestickDataList();
+			}
+
+			@Override
+			public CandleSeries getCandleSeries(String symbol, String interval, Integer limit, Long startTime,
+					Long endTime) {
+				return CandleSeries.builder(1).add(T0, 1, 1, 1, 1, 1, T0 + MINUTE - 1, 0, 0, 0, 0).build();
+			}
+		};
+		// Porta fechada: as conexões só tentam reconectar; as caudas vêm do REST
+		service = new BinanceKlineStreamService(rest, new ObjectMapper(), "ws://localhost:1", 10, 200, true,
+				List.of("ETHUSDT"), List.of("1m"), List.of());
+		service.subscribe(List.of("BTCUSDT", "ETHUSDT"), List.of("1m", "1h"));
+
+		service.unsubscribe("BTCUSDT", "1m", List.of("1h"));
+		service.unsubscribe("ETHUSDT", "1m", List.of());
+		assertThat(service.getTail("BTCUSDT", "1m").isEmpty()).isTrue();
+		assertThat(service.getTail("BTCUSDT", "1h").size()).isEqualTo(1);
+		assertThat(service.getTail("ETHUSDT", "1m").size()).isEqualTo(1);
+
+		service.unsubscribe("BTCUSDT", "1h", List.of());
+		service.unsubscribe("ETHUSDT", "1h", List.of());
+		assertThat(service.getTail("BTCUSDT", "1h").isEmpty()).isTrue();
+		assertThat(service.getTail("ETHUSDT", "1h").isEmpty()).isTrue();
+		assertThat(service.getTail("ETHUSDT", "1m").size()).isEqualTo(1);
+	}
+
+	private static MarketDataService rest(List<Long> restCalls) {
+		return new MarketDataService() {
+			@Override
+			public List<CandlestickData> getHistoricalCandlesticks(String symbol, String interval, Integer limit,
+					Long startTime, Long endTime) {
+				return getCandleSeries(symbol, interval, limit, startTime, endTime).toCandlestickDataList();
+			}
+
+			@Override
+			public CandleSeries getCandleSeries(String symbol, String interval, Integer limit, Long startTime,
+					Long endTime) {
+				restCalls.add(startTime == null ? -1L : startTime);
+				ArrayCandleSeries.Builder builder = CandleSeries.builder(16);
+				long from = startTime == null ? T0 : startTime;
+				long to = endTime == null ? T0 + 9 * MINUTE : endTime;
+				for (long t = from; t <= to; t += MINUTE) {
+					int i = (int) ((t - T0) / MINUTE);
+					builder.add(t, price(i), price(i) + 1, price(i) - 1, price(i), 1, t + MINUTE - 1, 0, 0, 0, 0);
+				}
+				return builder.build();
+			}
+		};
+	}
+
+	static double price(int index) {
+		return 100 + index;
+	}
+
+	static String kline(int index, boolean closed) {
+		long openTime = T0 + index * MINUTE;
+		return String.format(Locale.ROOT,
+				"{\"stream\":\"btcusdt@kline_1m\",\"data\":{\"e\":\"kline\",\"s\":\"BTCUSDT\",\"k\":{\"t\":%d,\"T\":%d,"
+						+ "\"s\":\"BTCUSDT\",\"i\":\"1m\",\"o\":\"%.2f\",\"c\":\"%.2f\",\"h\":\"%.2f\",\"l\":\"%.2f\","
+						+ "\"v\":\"1\",\"n\":10,\"x\":%b,\"q\":\"0\",\"V\":\"0\",\"Q\":\"0\"}}}",
+				openTime, openTime + MINUTE - 1, price(index), price(index), price(index) + 1, price(index) - 1, closed);
+	}
+
+	/**
+	 * Primeira conexão: vela 10, vela 11 em formação, vela 13 (lacuna 11-12) e queda. Segunda: vela 14.
+	 */
+	public static class StandInEndpoint extends Endpoint {
+		private final int connection;
+
+		public StandInEndpoint(int connection) {
+			this.connection = connection;
+		}
+
+		@Override
+		public void onOpen(Session session, EndpointConfig config) {
+			try {
+				if (connection == 1) {
+					session.getBasicRemote().sendText(kline(10, true));
+					session.getBasicRemote().sendText(kline(11, false));
+					session.getBasicRemote().sendText(kline(13, true));
+					session.close(new CloseReason(CloseReason.CloseCodes.GOING_AWAY, "stand-in restart"));
+				} else {
+					session.getBasicRemote().sendText(kline(14, true));
+				}
+			} catch (IOException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+	}
+}
@@ -0,0 +1,185 @@
+package com.whs.trading.gemini.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import com.whs.trading.gemini.dto.CandleSeries;
+import com.whs.trading.gemini.dto.CandlestickData;
+import com.whs.trading.gemini.dto.KlineInterval;
+
+class CachingMarketDataServiceTests {
+
+	private static final long HOUR = KlineInterval.ONE_HOUR.getMillis();
+	private static final long MINUTE = KlineInterval.ONE_MINUTE.getMillis();
+
+	private final AtomicInteger upstreamCalls = new AtomicInteger();
+	private final CountDownLatch release = new CountDownLatch(1);
+	private final AtomicLong now = new AtomicLong(1_600_000_000_000L - 1_600_000_000_000L % HOUR + 10 * 60_000L);
+
+	private final MarketDataService upstream = new MarketDataService() {
+		@Override
+		public List<CandlestickData> getHistoricalCandlesticks(String symbol, String interval, Integer limit,
+				Long startTime, Long endTime) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public CandleSeries getCandleSeries(String symbol, String interval, Integer limit, Long startTime,
+				Long endTime) {
+			upstreamCalls.incrementAndGet();
+			try {
+				release.await(5, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			if (symbol.equals("EMPTY")) {
+				return CandleSeries.empty();
+			}
+			if (symbol.equals("DOWN")) {
+				throw new IllegalStateException("upstream down");
+			}
+			return CandleSeries.builder(1).add(now.get(), 1, 2, 0.5, 1.5, 10, now.get() + HOUR - 1, 0, 0, 0, 0)
+					.build();
+		}
+	};
+
+	@Test
+	void coalescesConcurrentRequestsAndExpiresAtCandleClose() throws Exception {
+		CachingMarketDataService cache = new CachingMarketDataService(upstream, 100, now::get);
+
+		List<Future<CandleSeries>> results = new ArrayList<>();
+		try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			for (int i = 0; i < 10; i++) {
+				results.add(executor.submit(() -> cache.getCandleSeries("btcusdt", "1h", 500, null, null)));
+			}
+			while (cache.getCoalescedCount() < 9) {
+				Thread.sleep(5);
+			}
+			release.countDown();
+		}
+		for (Future<CandleSeries> result : results) {
+			assertThat(result.get().size()).isEqualTo(1);
+		}
+		assertThat(upstreamCalls.get()).isEqualTo(1);
+		assertThat(cache.getMissCount()).isEqualTo(1);
+		assertThat(cache.getCoalescedCount()).isEqualTo(9);
+
+		// Ainda na mesma vela de 1h: cache
+		now.addAndGet(40 * 60_000L);
+		cache.getCandleSeries("BTCUSDT", "1h", 500, null, null);
+		assertThat(cache.getHitCount()).isEqualTo(1);
+		assertThat(upstreamCalls.get()).isEqualTo(1);
+
+		// Vela fechou: nova busca
+		now.addAndGet(10 * 60_000L);
+		cache.getCandleSeries("BTCUSDT", "1h", 500, null, null);
+		assertThat(upstreamCalls.get()).isEqualTo(2);
+		assertThat(cache.getMissCount()).isEqualTo(2);
+	}
+
+	@Test
+	void evictsTheLeastRecentlyUsedEntryAtMaxEntries() {
+		release.countDown();
+		CachingMarketDataService cache = new CachingMarketDataService(upstream, 2, now::get);
+
+		cache.getCandleSeries("AAA", "1h", 10, null, null);
+		cache.getCandleSeries("BBB", "1h", 10, null, null);
+		cache.getCandleSeries("AAA", "1h", 10, null, null); // AAA passa a ser a mais recente
+		cache.getCandleSeries("CCC", "1h", 10, null, null);
+
+		assertThat(cache.size()).isEqualTo(2);
+		assertThat(cache.getEvictionCount()).isEqualTo(1);
+		assertThat(upstreamCalls.get()).isEqualTo(3);
+		cache.getCandleSeries("AAA", "1h", 10, null, null);
+		cache.getCandleSeries("CCC", "1h", 10, null, null);
+		assertThat(upstreamCalls.get()).isEqualTo(3);
+		cache.getCandleSeries("BBB", "1h", 10, null, null);
+		assertThat(upstreamCalls.get()).isEqualTo(4);
+	}
+
+	@Test
+	void queriesEndingBeforeTheCurrentCandleNeverExpire() {
+		release.countDown();
+		CachingMarketDataService cache = new CachingMarketDataService(upstream, 100, now::get);
+		long endTime = now.get() - 2 * HOUR;
+
+		cache.getCandleSeries("BTCUSDT", "1h", 10, null, endTime);
+		now.addAndGet(365 * 24 * HOUR);
+		cache.getCandleSeries("BTCUSDT", "1h", 10, null, endTime);
+
+		assertThat(upstreamCalls.get()).isEqualTo(1);
+		assertThat(cache.getHitCount()).isEqualTo(1);
+	}
+
+	@Test
+	void expiresExactlyWhenTheCandleCloses() {
+		release.countDown();
+		CachingMarketDataService cache = new CachingMarketDataService(upstream, 100, now::get);
+		long nextOpen = KlineInterval.ONE_MINUTE.nextOpenTime(KlineInterval.ONE_MINUTE.openTimeOf(now.get()));
+
+		cache.getCandleSeries("BTCUSDT", "1m", 10, null, null);
+		now.set(nextOpen - 1);
+		cache.getCandleSeries("BTCUSDT", "1m", 10, null, null);
+		assertThat(upstreamCalls.get()).isEqualTo(1);
+
+		now.set(nextOpen);
+		cache.getCandleSeries("BTCUSDT", "1m", 10, null, null);
+		assertThat(upstreamCalls.get()).isEqualTo(2);
+		// A nova entrada vale até o fechamento da vela seguinte
+		now.set(nextOpen + MINUTE - 1);
+		cache.getCandleSeries("BTCUSDT", "1m", 10, null, null);
+		assertThat(upstreamCalls.get()).isEqualTo(2);
+	}
+
+	@Test
+	void emptyResultsAreNotCached() {
+		release.countDown();
+		CachingMarketDataService cache = new CachingMarketDataService(upstream, 100, now::get);
+
+		assertThat(cache.getCandleSeries("EMPTY", "1h", 10, null, null).isEmpty()).isTrue();
+		assertThat(cache.getCandleSeries("EMPTY", "1h", 10, null, null).isEmpty()).isTrue();
+
+		assertThat(upstreamCalls.get()).isEqualTo(2);
+		assertThat(cache.size()).isZero();
+	}
+
+	@Test
+	void upstreamFailureReachesEveryCoalescedWaiterAndIsNotCached() throws Exception {
+		CachingMarketDataService cache = new CachingMarketDataService(upstream, 100, now::get);
+
+		List<Future<CandleSeries>> results = new ArrayList<>();
+		try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			for (int i = 0; i < 5; i++) {
+				results.add(executor.submit(() -> cache.getCandleSeries("DOWN", "1h", 10, null, null)));
+			}
+			while (cache.getCoalescedCount() < 4) {
+				Thread.sleep(5);
+			}
+			release.countDown();
+		}
+		for (Future<CandleSeries> result : results) {
+			assertThatThrownBy(result::get).isInstanceOf(ExecutionException.class)
+					.hasCauseInstanceOf(IllegalStateException.class);
+		}
+		assertThat(upstreamCalls.get()).isEqualTo(1);
+		assertThat(cache.size()).isZero();
+
+		// A falha não fica guardada: a próxima consulta vai de novo à origem
+		assertThatThrownBy(() -> cache.getCandleSeries("DOWN", "1h", 10, null, null))
+				.isInstanceOf(IllegalStateException.class);
+		assertThat(upstreamCalls.get()).isEqualTo(2);
+	}
+}
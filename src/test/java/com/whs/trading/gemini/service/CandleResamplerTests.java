@@ -0,0 +1,160 @@
+package com.whs.trading.gemini.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+
+import com.whs.trading.gemini.dto.ArrayCandleSeries;
+import com.whs.trading.gemini.dto.CandleSeries;
+import com.whs.trading.gemini.dto.KlineInterval;
+
+class CandleResamplerTests {
+
+	private static final long MINUTE = KlineInterval.ONE_MINUTE.getMillis();
+	private static final long FIVE_MINUTES = KlineInterval.FIVE_MINUTES.getMillis();
+	private static final long H0 = KlineInterval.ONE_HOUR.openTimeOf(1_700_000_000_000L);
+
+	@Test
+	void aggregatesBaseCandlesIntoAlignedBars() {
+		CandleSeries bars = CandleResampler.resample(base(0, 12), KlineInterval.FIVE_MINUTES);
+
+		assertThat(bars.size()).isEqualTo(3);
+		for (int b = 0; b < 2; b++) {
+			int first = b * 5;
+			assertThat(bars.openTime(b)).isEqualTo(H0 + b * FIVE_MINUTES);
+			assertThat(bars.closeTime(b)).isEqualTo(H0 + (b + 1) * FIVE_MINUTES - 1);
+			assertThat(bars.open(b)).isEqualTo(open(first));
+			assertThat(bars.high(b)).isEqualTo(high(first + 4));
+			assertThat(bars.low(b)).isEqualTo(low(first));
+			assertThat(bars.close(b)).isEqualTo(close(first + 4));
+			assertThat(bars.volume(b)).isEqualTo(5);
+			assertThat(bars.quoteVolume(b)).isEqualTo(50);
+			assertThat(bars.tradeCount(b)).isEqualTo(15);
+			assertThat(bars.takerBuyBaseVolume(b)).isEqualTo(2.5);
+		}
+		// Parcial: velas 10 e 11, fechamento no fim do período
+		assertThat(bars.openTime(2)).isEqualTo(H0 + 2 * FIVE_MINUTES);
+		assertThat(bars.closeTime(2)).isEqualTo(H0 + 3 * FIVE_MINUTES - 1);
+		assertThat(bars.close(2)).isEqualTo(close(11));
+		assertThat(bars.volume(2)).isEqualTo(2);
+	}
+
+	@Test
+	void partialBarIncludesLiveBaseCandle() {
+		CandleResampler resampler = new CandleResampler(KlineInterval.FIVE_MINUTES, 10);
+		assertThat(resampler.appendBase(base(0, 3))).isFalse();
+		resampler.updateBaseLive(H0 + 3 * MINUTE, 120, 130, 90, 125, 4, 40, 7, 2, 20);
+
+		CandleSeries partial = resampler.seriesWithPartial();
+		assertThat(resampler.closedSeries().isEmpty()).isTrue();
+		assertThat(partial.size()).isEqualTo(1);
+		assertThat(partial.open(0)).isEqualTo(open(0));
+		assertThat(partial.high(0)).isEqualTo(130);
+		assertThat(partial.low(0)).isEqualTo(90);
+		assertThat(partial.close(0)).isEqualTo(125);
+		assertThat(partial.volume(0)).isEqualTo(3 + 4);
+		assertThat(partial.tradeCount(0)).isEqualTo(3 * 3 + 7);
+
+		// A vela base fechada substitui a em formação
+		assertThat(resampler.appendBase(base(3, 1))).isFalse();
+		assertThat(resampler.seriesWithPartial().high(0)).isEqualTo(high(3));
+		assertThat(resampler.appendBase(base(4, 1))).isTrue();
+		assertThat(resampler.closedSeries().size()).isEqualTo(1);
+		assertThat(resampler.closedSeries().volume(0)).isEqualTo(5);
+
+		// Primeira vela base do período seguinte, ainda em formação
+		resampler.updateBaseLive(H0 + 5 * MINUTE, 200, 210, 190, 205, 1, 10, 1, 0, 0);
+		partial = resampler.seriesWithPartial();
+		assertThat(partial.size()).isEqualTo(2);
+		assertThat(partial.openTime(1)).isEqualTo(H0 + FIVE_MINUTES);
+		assertThat(partial.open(1)).isEqualTo(200);
+	}
+
+	@Test
+	void gapClosesFormingBar() {
+		CandleResampler resampler = new CandleResampler(KlineInterval.FIVE_MINUTES, 10);
+		resampler.appendBase(base(0, 2));
+
+		assertThat(resampler.appendBase(base(7, 1))).isTrue();
+		CandleSeries closed = resampler.closedSeries();
+		assertThat(closed.size()).isEqualTo(1);
+		assertThat(closed.closeTime(0)).isEqualTo(H0 + FIVE_MINUTES - 1);
+		assertThat(closed.close(0)).isEqualTo(close(1));
+		assertThat(closed.volume(0)).isEqualTo(2);
+		assertThat(resampler.seriesWithPartial().open(1)).isEqualTo(open(7));
+	}
+
+	@Test
+	void liveUpdateAfterGapKeepsFormingBarInPartialView() {
+		CandleResampler resampler = new CandleResampler(KlineInterval.FIVE_MINUTES, 10);
+		resampler.appendBase(base(0, 3));
+
+		// Velas 3 e 4 ainda não chegaram: a 6 em formação não substitui a vela do primeiro período
+		resampler.updateBaseLive(H0 + 6 * MINUTE, 200, 210, 190, 205, 1, 10, 1, 0, 0);
+		CandleSeries partial = resampler.seriesWithPartial();
+		assertThat(resampler.closedSeries().isEmpty()).isTrue();
+		assertThat(partial.size()).isEqualTo(1);
+		assertThat(partial.openTime(0)).isEqualTo(H0);
+		assertThat(partial.close(0)).isEqualTo(close(2));
+		assertThat(partial.volume(0)).isEqualTo(3);
+
+		// As velas que faltavam chegam fechadas (ex: via REST) e fecham o período inteiro
+		assertThat(resampler.appendBase(base(3, 3))).isTrue();
+		resampler.updateBaseLive(H0 + 6 * MINUTE, 200, 210, 190, 205, 1, 10, 1, 0, 0);
+		partial = resampler.seriesWithPartial();
+		assertThat(resampler.closedSeries().size()).isEqualTo(1);
+		assertThat(resampler.closedSeries().volume(0)).isEqualTo(5);
+		assertThat(partial.size()).isEqualTo(2);
+		assertThat(partial.openTime(1)).isEqualTo(H0 + FIVE_MINUTES);
+		assertThat(partial.open(1)).isEqualTo(open(5));
+		assertThat(partial.close(1)).isEqualTo(205);
+		assertThat(partial.volume(1)).isEqualTo(2);
+	}
+
+	@Test
+	void ignoresSeededPeriodsAndRepeatedBaseCandles() {
+		CandleResampler resampler = new CandleResampler(KlineInterval.FIVE_MINUTES, 10);
+		resampler.seedClosed(CandleResampler.resample(base(0, 5), KlineInterval.FIVE_MINUTES));
+
+		assertThat(resampler.appendBase(base(0, 7))).isFalse();
+		assertThat(resampler.appendBase(base(0, 7))).isFalse();
+		CandleSeries series = resampler.seriesWithPartial();
+		assertThat(series.size()).isEqualTo(2);
+		assertThat(series.volume(0)).isEqualTo(5);
+		assertThat(series.open(1)).isEqualTo(open(5));
+		assertThat(series.volume(1)).isEqualTo(2);
+		assertThat(resampler.lastBaseOpenTime()).isEqualTo(H0 + 6 * MINUTE);
+	}
+
+	@Test
+	void rejectsIntervalsNotAboveBase() {
+		assertThatThrownBy(() -> new CandleResampler(KlineInterval.ONE_MINUTE, 10))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	private static CandleSeries base(int from, int count) {
+		ArrayCandleSeries.Builder builder = CandleSeries.builder(count);
+		for (int i = from; i < from + count; i++) {
+			long openTime = H0 + i * MINUTE;
+			builder.add(openTime, open(i), high(i), low(i), close(i), 1, openTime + MINUTE - 1, 10, 3, 0.5, 5);
+		}
+		return builder.build();
+	}
+
+	private static double open(int i) {
+		return 100 + i;
+	}
+
+	private static double high(int i) {
+		return 102 + i;
+	}
+
+	private static double low(int i) {
+		return 99 + i;
+	}
+
+	private static double close(int i) {
+		return 101 + i;
+	}
+}
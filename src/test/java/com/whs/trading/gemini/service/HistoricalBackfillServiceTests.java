@@ -0,0 +1,189 @@
+package com.whs.trading.gemini.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestTemplate;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.whs.trading.gemini.dto.CandleSeries;
+import com.whs.trading.gemini.dto.KlineInterval;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Backfill contra um servidor HTTP local que imita /api/v3/klines (inclui uma vela sobreposta por página,
+ * cabeçalho de peso usado e uma falha transitória).
+ */
+class HistoricalBackfillServiceTests {
+
+	private static final long MINUTE = KlineInterval.ONE_MINUTE.getMillis();
+	private static final long T0 = KlineInterval.ONE_MINUTE.openTimeOf(1_600_000_000_000L);
+	private static final int PAGE_SIZE = 100;
+
+	private HttpServer server;
+	private final AtomicInteger requests = new AtomicInteger();
+	private final AtomicInteger active = new AtomicInteger();
+	private final AtomicInteger maxActive = new AtomicInteger();
+	private final AtomicBoolean failedOnce = new AtomicBoolean();
+
+	@BeforeEach
+	void startServer() throws IOException {
+		server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+		server.createContext("/api/v3/klines", this::klines);
+		server.start();
+	}
+
+	@AfterEach
+	void stopServer() {
+		server.stop(0);
+	}
+
+	@Test
+	void fetchesPagesConcurrentlyWithinWeightBudgetAndMergesInOrder() throws Exception {
+		// 20 de peso por janela de 1s = 10 chamadas/s
+		RequestWeightLimiter limiter = new RequestWeightLimiter(20, 1_000L);
+		BinanceMarketDataService binance = new BinanceMarketDataService(new RestTemplate(), limiter,
+				"http://localhost:" + server.getAddress().getPort());
+		HistoricalBackfillService backfill = new HistoricalBackfillService(binance, 4, PAGE_SIZE);
+
+		int candles = 2_450;
+		long start = System.nanoTime();
+		CandleSeries series = backfill.backfillSeries("BTCUSDT", "1m", T0, T0 + (candles - 1) * MINUTE);
+		long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+		assertThat(series.size()).isEqualTo(candles);
+		for (int i = 0; i < candles; i++) {
+			assertThat(series.openTime(i)).isEqualTo(T0 + i * MINUTE);
+		}
+		// 25 páginas + 1 nova tentativa, 10 por janela: pelo menos duas viradas de janela
+		assertThat(requests.get()).isEqualTo(26);
+		assertThat(elapsedMillis).isGreaterThanOrEqualTo(1_000L);
+		assertThat(maxActive.get()).isLessThanOrEqualTo(4);
+	}
+
+	@Test
+	void recordsRequestParseAndWeightMetrics() throws Exception {
+		RequestWeightLimiter limiter = new RequestWeightLimiter(1_000, 1_000L);
+		BinanceMarketDataService binance = new BinanceMarketDataService(new RestTemplate(), limiter,
+				"http://localhost:" + server.getAddress().getPort());
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		binance.bindTo(registry);
+		limiter.bindTo(registry);
+
+		CandleSeries series = new HistoricalBackfillService(binance, 4, PAGE_SIZE)
+				.backfillSeries("BTCUSDT", "1m", T0, T0 + 999 * MINUTE);
+
+		assertThat(series.size()).isEqualTo(1_000);
+		// 10 páginas + a nova tentativa da que falhou com 500
+		assertThat(registry.get("binance.requests").tags("endpoint", "klines", "status", "200").timer().count())
+				.isEqualTo(10L);
+		assertThat(registry.get("binance.requests").tags("endpoint", "klines", "status", "500").timer().count())
+				.isEqualTo(1L);
+		assertThat(registry.get("binance.klines.parse").timer().count()).isEqualTo(10L);
+		// Cada página depois da primeira repete a vela anterior ao início pedido
+		assertThat(registry.get("binance.klines.candles").summary().totalAmount()).isEqualTo(1_009.0);
+		assertThat(registry.get("binance.weight.used").summary().count()).isEqualTo(10L);
+		assertThat(registry.get("binance.weight.wait").timer().count()).isEqualTo(11L);
+		assertThat(registry.get("binance.weight.window").tag("kind", "limit").gauge().value()).isEqualTo(1_000.0);
+	}
+
+	@Test
+	void sinkFailureCancelsPrefetchedPages() {
+		CountDownLatch never = new CountDownLatch(1);
+		RequestWeightLimiter limiter = new RequestWeightLimiter(1_000, 1_000L);
+		BinanceMarketDataService binance = new BinanceMarketDataService(new RestTemplate(), limiter,
+				"http://localhost:" + server.getAddress().getPort()) {
+			@Override
+			public CandleSeries fetchCandleSeriesPage(String symbol, String interval, Integer limit, Long startTime,
+					Long endTime) throws InterruptedException {
+				if (startTime > T0) {
+					// Páginas seguintes só terminam em 30s, a menos que sejam canceladas
+					never.await(30, TimeUnit.SECONDS);
+				}
+				return super.fetchCandleSeriesPage(symbol, interval, limit, startTime, endTime);
+			}
+		};
+		HistoricalBackfillService backfill = new HistoricalBackfillService(binance, 16, PAGE_SIZE);
+
+		long start = System.nanoTime();
+		assertThatThrownBy(() -> backfill.backfill("BTCUSDT", "1m", T0, T0 + (10 * PAGE_SIZE - 1) * MINUTE, page -> {
+			throw new IllegalStateException("sink");
+		})).hasMessage("sink");
+
+		// As páginas adiantadas foram interrompidas, então o close() do executor não esperou por elas
+		assertThat((System.nanoTime() - start) / 1_000_000).isLessThan(10_000L);
+		assertThat(requests.get()).isEqualTo(1);
+	}
+
+	@Test
+	void rejectsStartAfterEnd() {
+		BinanceMarketDataService binance = new BinanceMarketDataService(new RestTemplate(),
+				new RequestWeightLimiter(1_000, 1_000L), "http://localhost:" + server.getAddress().getPort());
+
+		assertThatThrownBy(() -> new HistoricalBackfillService(binance, 4, PAGE_SIZE)
+				.backfill("BTCUSDT", "1m", T0 + MINUTE, T0, page -> { }))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThat(requests.get()).isZero();
+	}
+
+	private void klines(HttpExchange exchange) throws IOException {
+		int now = active.incrementAndGet();
+		maxActive.accumulateAndGet(now, Math::max);
+		try {
+			Map<String, String> query = new HashMap<>();
+			for (String pair : exchange.getRequestURI().getQuery().split("&")) {
+				String[] kv = pair.split("=", 2);
+				query.put(kv[0], kv[1]);
+			}
+			int used = requests.incrementAndGet() * 2;
+			long startTime = Long.parseLong(query.get("startTime"));
+			long endTime = Long.parseLong(query.get("endTime"));
+			int limit = Integer.parseInt(query.get("limit"));
+			if (startTime == T0 + 5 * PAGE_SIZE * MINUTE && failedOnce.compareAndSet(false, true)) {
+				exchange.sendResponseHeaders(500, -1);
+				return;
+			}
+			StringBuilder json = new StringBuilder("[");
+			// Devolve também a vela anterior ao início pedido, para exercitar a remoção de duplicatas
+			long first = startTime > T0 ? startTime - MINUTE : startTime;
+			int count = 0;
+			for (long t = first; t <= endTime && count <= limit; t += MINUTE, count++) {
+				if (json.length() > 1) {
+					json.append(',');
+				}
+				json.append(String.format(Locale.ROOT,
+						"[%d,\"1.0\",\"2.0\",\"0.5\",\"1.5\",\"10.0\",%d,\"15.0\",7,\"5.0\",\"7.5\",\"0\"]", t,
+						t + MINUTE - 1));
+			}
+			byte[] body = json.append(']').toString().getBytes(StandardCharsets.UTF_8);
+			exchange.getResponseHeaders().add("Content-Type", "application/json");
+			exchange.getResponseHeaders().add("X-MBX-USED-WEIGHT-1M", Integer.toString(used));
+			exchange.sendResponseHeaders(200, body.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(body);
+			}
+		} finally {
+			active.decrementAndGet();
+			exchange.close();
+		}
+	}
+}
@@ -0,0 +1,143 @@
+package com.whs.trading.gemini.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import com.whs.trading.gemini.dto.ArrayCandleSeries;
+import com.whs.trading.gemini.dto.CandleSeries;
+import com.whs.trading.gemini.dto.CandlestickData;
+import com.whs.trading.gemini.dto.IndicatorResult;
+import com.whs.trading.gemini.dto.KlineInterval;
+import com.whs.trading.gemini.dto.Signal;
+import com.whs.trading.gemini.indicator.RsiIndicator;
+import com.whs.trading.gemini.indicator.SmaIndicator;
+import com.whs.trading.gemini.indicator.TechnicalIndicator;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class IndicatorResultCacheTests {
+
+	private static final long HOUR = KlineInterval.ONE_HOUR.getMillis();
+	private static final long START = 1_600_000_000_000L - 1_600_000_000_000L % HOUR;
+
+	private final AtomicLong now = new AtomicLong();
+
+	@Test
+	void reusesResultUntilLastCandleCloses() {
+		IndicatorResultCache cache = new IndicatorResultCache(100, now::get);
+		CandleSeries series = hourly(50);
+		now.set(START + 49 * HOUR + 10 * 60_000L); // Última vela em formação
+
+		IndicatorResult first = cache.analyze(new RsiIndicator(), series, Map.of("rsiPeriod", "9", "symbol", "BTCUSDT"));
+		// Mesma série (outra instância) e parâmetros em outra ordem/com espaços: acerto
+		IndicatorResult second = cache.analyze(new RsiIndicator(), hourly(50),
+				new HashMap<>(Map.of("symbol", "BTCUSDT ", "rsiPeriod", " 9")));
+		assertThat(cache.getHitCount()).isEqualTo(1);
+		assertThat(second.getValues()).isEqualTo(first.getValues());
+		assertThat(second.getDetails()).isEqualTo(first.getDetails());
+
+		// Cada chamada recebe uma cópia
+		second.addValue("rsiValue", "alterado");
+		assertThat(cache.analyze(new RsiIndicator(), series, Map.of("rsiPeriod", "9", "symbol", "BTCUSDT"))
+				.getValues()).isEqualTo(first.getValues());
+		assertThat(cache.getHitRate()).isEqualTo(2 / 3d);
+
+		// A vela fechou: a entrada expira
+		now.set(START + 50 * HOUR);
+		cache.analyze(new RsiIndicator(), series, Map.of("rsiPeriod", "9", "symbol", "BTCUSDT"));
+		assertThat(cache.getExpirationCount()).isEqualTo(1);
+		assertThat(cache.getMissCount()).isEqualTo(2);
+	}
+
+	@Test
+	void distinguishesIndicatorsParamsAndSeries() {
+		IndicatorResultCache cache = new IndicatorResultCache(2, now::get);
+		now.set(START + 1_000 * HOUR); // Só velas fechadas
+
+		cache.analyze(new SmaIndicator(), hourly(50), Map.of());
+		cache.analyze(new SmaIndicator(), hourly(50), Map.of("smaPeriod", "10"));
+		cache.analyze(new RsiIndicator(), hourly(50), Map.of());
+		cache.analyze(new RsiIndicator(), hourly(51), Map.of());
+		assertThat(cache.getHitCount()).isZero();
+		assertThat(cache.getMissCount()).isEqualTo(4);
+		assertThat(cache.getEvictionCount()).isEqualTo(2);
+		assertThat(cache.size()).isEqualTo(2);
+
+		cache.analyze(new RsiIndicator(), hourly(51), Map.of());
+		assertThat(cache.getHitCount()).isEqualTo(1);
+		assertThat(cache.getStats().hitRate()).isEqualTo(0.2);
+	}
+
+	@Test
+	void measuresComputationOnMissesOnly() {
+		IndicatorResultCache cache = new IndicatorResultCache(10, now::get);
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		cache.bindTo(registry);
+		now.set(START + 1_000 * HOUR);
+
+		cache.analyze(new RsiIndicator(), hourly(50), Map.of());
+		cache.analyze(new RsiIndicator(), hourly(50), Map.of());
+		cache.analyze(new SmaIndicator(), hourly(60), Map.of());
+
+		assertThat(registry.get("indicator.compute").tag("indicator", new RsiIndicator().getName()).timer().count())
+				.isEqualTo(1L);
+		assertThat(registry.get("indicator.input.candles").tag("indicator", new SmaIndicator().getName()).summary()
+				.totalAmount()).isEqualTo(60.0);
+		assertThat(registry.get("indicator.cache.requests").tag("result", "hit").functionCounter().count())
+				.isEqualTo(1.0);
+		assertThat(registry.get("indicator.cache.requests").tag("result", "miss").functionCounter().count())
+				.isEqualTo(2.0);
+		assertThat(registry.get("indicator.cache.size").gauge().value()).isEqualTo(2.0);
+	}
+
+	@Test
+	void computesIndicatorsOverLiveStateOnEveryCall() {
+		IndicatorResultCache cache = new IndicatorResultCache(10, now::get);
+		now.set(START + 1_000 * HOUR);
+		AtomicInteger calls = new AtomicInteger();
+		// Só TechnicalIndicator, como o livro de ofertas: o resultado muda sem a série mudar
+		TechnicalIndicator live = new TechnicalIndicator() {
+			@Override
+			public String getName() {
+				return "LIVE";
+			}
+
+			@Override
+			public IndicatorResult analyze(List<CandlestickData> historicalData, Map<String, String> params) {
+				return analyze(CandleSeries.empty(), params);
+			}
+
+			@Override
+			public IndicatorResult analyze(CandleSeries series, Map<String, String> params) {
+				IndicatorResult result = new IndicatorResult(getName());
+				result.setSignal(Signal.NEUTRAL);
+				result.addValue("call", calls.incrementAndGet());
+				return result;
+			}
+		};
+
+		cache.analyze(live, hourly(50), Map.of());
+		IndicatorResult second = cache.analyze(live, hourly(50), Map.of());
+
+		assertThat(second.getValues()).containsEntry("call", 2);
+		assertThat(cache.getMissCount()).isZero();
+		assertThat(cache.size()).isZero();
+	}
+
+	private static CandleSeries hourly(int size) {
+		ArrayCandleSeries.Builder builder = CandleSeries.builder(size);
+		for (int i = 0; i < size; i++) {
+			double close = 100 + Math.sin(i / 3d) * 5;
+			builder.add(START + i * HOUR, close - 0.5, close + 1, close - 1, close, 10, START + (i + 1) * HOUR - 1,
+					0, 0, 0, 0);
+		}
+		return builder.build();
+	}
+}
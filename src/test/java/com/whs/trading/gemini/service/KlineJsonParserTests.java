@@ -0,0 +1,58 @@
+package com.whs.trading.gemini.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.whs.trading.gemini.dto.CandleSeries;
+import com.whs.trading.gemini.dto.CandlestickData;
+
+class KlineJsonParserTests {
+
+	private static final String PAYLOAD = "["
+			+ "[1600000000000,\"10900.01000000\",\"10950.5\",\"10880\",\"10920.99000000\",\"12.3456\",1600000059999,"
+			+ "\"134567.89\",321,\"6.5\",\"70000.1\",\"0\"],"
+			+ "[1600000060000,\"abc\",\"1\",\"1\",\"1\",\"1\",1600000119999],"
+			+ "[1600000120000,\"1\"],"
+			+ "\"lixo\","
+			+ "[1600000180000,\"0.00001234\",\"0.00001300\",\"0.00001200\",\"0.00001250\",\"1e3\",1600000239999]"
+			+ "]";
+
+	@Test
+	void parsesColumnsAndSkipsMalformedRows() throws Exception {
+		CandleSeries series = KlineJsonParser.parseSeries(PAYLOAD.getBytes(StandardCharsets.UTF_8));
+
+		assertThat(series.size()).isEqualTo(2);
+		assertThat(series.openTime(0)).isEqualTo(1600000000000L);
+		assertThat(series.open(0)).isEqualTo(10900.01);
+		assertThat(series.close(0)).isEqualTo(10920.99);
+		assertThat(series.quoteVolume(0)).isEqualTo(134567.89);
+		assertThat(series.tradeCount(0)).isEqualTo(321L);
+		assertThat(series.takerBuyQuoteVolume(0)).isEqualTo(70000.1);
+		assertThat(series.open(1)).isEqualTo(0.00001234);
+		assertThat(series.volume(1)).isEqualTo(1000d);
+		assertThat(series.tradeCount(1)).isZero();
+
+		List<CandlestickData> candles = KlineJsonParser.parseCandlesticks(PAYLOAD.getBytes(StandardCharsets.UTF_8));
+		assertThat(candles).hasSize(2);
+		assertThat(candles.get(0).getOpen()).isEqualTo(new BigDecimal("10900.01000000"));
+		assertThat(candles.get(1).getClose()).isEqualTo(new BigDecimal("0.00001250"));
+	}
+
+	@Test
+	void decimalParsingMatchesDoubleParseDouble() {
+		Random random = new Random(7);
+		for (int i = 0; i < 200_000; i++) {
+			int scale = random.nextInt(12);
+			String text = BigDecimal.valueOf(random.nextLong() % 100_000_000_000_000L, scale).toPlainString();
+			char[] chars = ("xx" + text + "yy").toCharArray();
+			assertThat(KlineJsonParser.parseDecimal(chars, 2, text.length())).as(text)
+					.isEqualTo(Double.parseDouble(text));
+		}
+	}
+}
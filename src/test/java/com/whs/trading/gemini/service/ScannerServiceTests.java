@@ -0,0 +1,199 @@
+package com.whs.trading.gemini.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.web.client.RestTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.whs.trading.gemini.cluster.ClusterMember;
+import com.whs.trading.gemini.cluster.FileClusterMembership;
+import com.whs.trading.gemini.cluster.ShardingService;
+import com.whs.trading.gemini.dto.ArrayCandleSeries;
+import com.whs.trading.gemini.dto.CandleSeries;
+import com.whs.trading.gemini.dto.CandlestickData;
+import com.whs.trading.gemini.dto.ScanReport;
+import com.whs.trading.gemini.dto.ScanResult;
+import com.whs.trading.gemini.indicator.BollingerBandsIndicator;
+import com.whs.trading.gemini.indicator.MacdIndicator;
+import com.whs.trading.gemini.indicator.RsiIndicator;
+import com.whs.trading.gemini.indicator.SmaIndicator;
+import com.whs.trading.gemini.indicator.SupportResistanceIndicator;
+
+class ScannerServiceTests {
+
+	@TempDir
+	Path directory;
+
+	private final AtomicInteger active = new AtomicInteger();
+	private final AtomicInteger maxActive = new AtomicInteger();
+
+	private final MarketDataService upstream = new MarketDataService() {
+		@Override
+		public List<CandlestickData> getHistoricalCandlesticks(String symbol, String interval, Integer limit,
+				Long startTime, Long endTime) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public CandleSeries getCandleSeries(String symbol, String interval, Integer limit, Long startTime,
+				Long endTime) {
+			maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+			try {
+				Thread.sleep(20);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} finally {
+				active.decrementAndGet();
+			}
+			if (symbol.equals("S13")) {
+				return CandleSeries.empty();
+			}
+			if (symbol.equals("S27")) {
+				throw new IllegalStateException("upstream down");
+			}
+			return randomWalk(limit, symbol.hashCode());
+		}
+	};
+
+	@Test
+	void scansAllSymbolsWithBoundedFetchesAndRanksByScore() throws Exception {
+		IndicatorResultCache resultCache = new IndicatorResultCache(1_000);
+		ScannerService scanner = new ScannerService(upstream, null, resultCache,
+				List.of(new SmaIndicator(), new RsiIndicator(), new MacdIndicator(), new BollingerBandsIndicator(),
+						new SupportResistanceIndicator()),
+				"", "USDT", 400, 8, 300);
+		List<String> symbols = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			symbols.add("S" + i);
+		}
+
+		ScanReport report = scanner.scan(symbols, "1h", null, null, Map.of("rsiPeriod", "x"));
+
+		assertThat(report.getSymbolCount()).isEqualTo(100);
+		assertThat(report.getFailed()).extracting(ScanResult::getSymbol).containsExactlyInAnyOrder("S13", "S27");
+		assertThat(report.getRanked()).hasSize(98);
+		assertThat(maxActive.get()).isLessThanOrEqualTo(8);
+		for (int i = 1; i < report.getRanked().size(); i++) {
+			assertThat(report.getRanked().get(i).getScore()).isLessThanOrEqualTo(report.getRanked().get(i - 1).getScore());
+		}
+		// Parâmetro inválido derruba só o RSI, os demais indicadores seguem
+		ScanResult first = report.getRanked().get(0);
+		assertThat(first.getResults()).hasSize(4);
+		assertThat(first.getErrors()).containsOnlyKeys("RSI");
+
+		// Mesmas séries e parâmetros: só o RSI (exceção, não guardada) roda de novo
+		ScanReport again = scanner.scan(symbols, "1h", null, null, Map.of("rsiPeriod", "x"));
+		assertThat(resultCache.getHitCount()).isEqualTo(4 * 98);
+		assertThat(resultCache.getMissCount()).isEqualTo(2 * 5 * 98 - 4 * 98);
+		assertThat(again.getRanked()).extracting(ScanResult::getSymbol)
+				.containsExactlyElementsOf(report.getRanked().stream().map(ScanResult::getSymbol).toList());
+	}
+
+	@Test
+	void shardedScanForwardsForeignSymbolsToTheirOwnerAndCoversThemWhenItIsDown() throws Exception {
+		// Instância remota: um servidor HTTP que varre com outro ScannerService e responde o relatório em JSON
+		ScannerService remote = scanner(null);
+		ObjectMapper objectMapper = new ObjectMapper();
+		List<String> forwarded = new CopyOnWriteArrayList<>();
+		HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 64);
+		server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+		server.createContext("/api/scanner/scan", exchange -> respond(exchange, remote, objectMapper, forwarded));
+		server.start();
+		FileClusterMembership membership = new FileClusterMembership(directory, 60_000);
+		membership.heartbeat(new ClusterMember("remote", "http://localhost:" + server.getAddress().getPort()));
+		ShardingService sharding = new ShardingService(new RestTemplate(), true,
+				new ClusterMember("local", "http://localhost:1"), membership, 60_000, 128);
+		sharding.start();
+		List<String> symbols = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			symbols.add("S" + i);
+		}
+		ScannerService scanner = scanner(sharding);
+		ScanReport unsharded = scanner.scan(symbols, "1h", 120, List.of("RSI", "MACD"), Map.of());
+
+		try {
+			ScanReport report = scanner.scanSharded(symbols, "1h", 120, List.of("RSI", "MACD"), Map.of(), false);
+
+			assertThat(forwarded).containsExactlyInAnyOrder(
+					symbols.stream().filter(symbol -> !sharding.isLocal(symbol)).toArray(String[]::new));
+			assertThat(forwarded.size()).isBetween(20, 80);
+			assertThat(report.getSymbolCount()).isEqualTo(100);
+			assertThat(report.getFailed()).extracting(ScanResult::getSymbol).containsExactlyInAnyOrder("S13", "S27");
+			assertThat(report.getRanked()).extracting(ScanResult::getSymbol)
+					.containsExactlyElementsOf(unsharded.getRanked().stream().map(ScanResult::getSymbol).toList());
+			assertThat(report.getRanked()).extracting(ScanResult::getScore)
+					.containsExactlyElementsOf(unsharded.getRanked().stream().map(ScanResult::getScore).toList());
+		} finally {
+			server.stop(0);
+		}
+
+		// Dona fora do ar (ainda no anel): a parte dela é varrida aqui
+		ScanReport fallback = scanner.scanSharded(symbols, "1h", 120, List.of("RSI", "MACD"), Map.of(), true);
+		assertThat(fallback.getRanked()).extracting(ScanResult::getSymbol)
+				.containsExactlyElementsOf(unsharded.getRanked().stream().map(ScanResult::getSymbol).toList());
+		assertThat(fallback.getFailed()).hasSize(2);
+		sharding.stop();
+		assertThat(Files.exists(directory.resolve("local.member"))).isFalse();
+	}
+
+	private ScannerService scanner(ShardingService sharding) {
+		return new ScannerService(upstream, null, new IndicatorResultCache(1_000),
+				List.of(new RsiIndicator(), new MacdIndicator()), sharding, "", "USDT", 400, 8, 300);
+	}
+
+	private static void respond(HttpExchange exchange, ScannerService remote, ObjectMapper objectMapper,
+			List<String> forwarded) throws IOException {
+		try {
+			assertThat(exchange.getRequestHeaders().getFirst(ShardingService.FORWARDED_HEADER)).isEqualTo("local");
+			String query = URLDecoder.decode(exchange.getRequestURI().getRawQuery(), StandardCharsets.UTF_8);
+			assertThat(query).contains("details=false");
+			List<String> symbols = Arrays.asList(query.replaceAll(".*symbols=([^&]*).*", "$1").split(","));
+			forwarded.addAll(symbols);
+			ScanReport report = remote.scan(symbols, "1h", 120, List.of("RSI", "MACD"), Map.of());
+			byte[] body = objectMapper.writeValueAsBytes(report);
+			exchange.getResponseHeaders().add("Content-Type", "application/json");
+			exchange.sendResponseHeaders(200, body.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(body);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			exchange.close();
+		}
+	}
+
+	private static CandleSeries randomWalk(int size, long seed) {
+		Random random = new Random(seed);
+		ArrayCandleSeries.Builder builder = CandleSeries.builder(size);
+		double price = 100;
+		for (int i = 0; i < size; i++) {
+			double open = price;
+			price = Math.max(1, price + random.nextGaussian());
+			builder.add(i * 3_600_000L, open, Math.max(open, price) + random.nextDouble(),
+					Math.min(open, price) - random.nextDouble(), price, 10 + random.nextDouble(),
+					i * 3_600_000L + 3_599_999, 0, 0, 0, 0);
+		}
+		return builder.build();
+	}
+}
@@ -0,0 +1,292 @@
+package com.whs.trading.gemini.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.web.client.RestTemplate;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.whs.trading.gemini.dto.CandleSeries;
+import com.whs.trading.gemini.dto.KlineInterval;
+import com.whs.trading.gemini.store.CandleStore;
+import com.whs.trading.gemini.store.MappedCandleFile;
+
+/**
+ * Armazenamento em disco contra um servidor local que imita /api/v3/klines: após reabrir o diretório,
+ * só a cauda que falta (e a vela em formação) é buscada de novo, consultas anteriores ao histórico gravado
+ * o estendem para trás e cada consulta busca só a própria janela.
+ */
+class StoredMarketDataServiceTests {
+
+	private static final long MINUTE = KlineInterval.ONE_MINUTE.getMillis();
+
+	@TempDir
+	Path directory;
+
+	private HttpServer server;
+	private final List<Long> requestedStartTimes = new CopyOnWriteArrayList<>();
+
+	@BeforeEach
+	void startServer() throws IOException {
+		server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+		server.createContext("/api/v3/klines", this::klines);
+		server.start();
+	}
+
+	@AfterEach
+	void stopServer() {
+		server.stop(0);
+	}
+
+	@Test
+	void fileAppendsInOrderAndKeepsEarlierViewsAcrossGrowth() throws IOException {
+		Path path = directory.resolve("file.candles");
+		long t0 = 1_600_000_020_000L - 1_600_000_020_000L % MINUTE;
+		CandleSeries before;
+		try (MappedCandleFile file = MappedCandleFile.open(path)) {
+			assertThat(file.append(candles(t0, 10))).isEqualTo(10);
+			before = file.series();
+			// Sobreposição ignorada; 40 mil velas forçam o remapeamento
+			assertThat(file.append(candles(t0 + 5 * MINUTE, 40_000))).isEqualTo(39_995);
+			assertThat(before.size()).isEqualTo(10);
+			assertThat(before.close(9)).isEqualTo(price(t0 + 9 * MINUTE));
+
+			CandleSeries range = file.range(t0 + 100 * MINUTE + 1, t0 + 200 * MINUTE);
+			assertThat(range.size()).isEqualTo(100);
+			assertThat(range.openTime(0)).isEqualTo(t0 + 101 * MINUTE);
+			assertThat(range.tradeCount(99)).isEqualTo(7L);
+		}
+		try (MappedCandleFile reopened = MappedCandleFile.open(path)) {
+			assertThat(reopened.size()).isEqualTo(40_005);
+			assertThat(reopened.lastOpenTime()).isEqualTo(t0 + 40_004 * MINUTE);
+			assertThat(reopened.series().high(40_004)).isEqualTo(price(t0 + 40_004 * MINUTE) + 1);
+		}
+	}
+
+	@Test
+	void fileInsertsCandlesAnywhereAndTracksCoveredRanges() throws IOException {
+		Path path = directory.resolve("file.candles");
+		long t0 = 1_600_000_020_000L - 1_600_000_020_000L % MINUTE;
+		try (MappedCandleFile file = MappedCandleFile.open(path)) {
+			file.append(candles(t0 + 100 * MINUTE, 50));
+			file.markCovered(t0 + 100 * MINUTE, t0 + 150 * MINUTE - 1);
+			file.append(candles(t0 + 300 * MINUTE, 10));
+			file.markCovered(t0 + 300 * MINUTE, t0 + 310 * MINUTE - 1);
+			CandleSeries before = file.series();
+
+			assertThat(file.missing(t0, t0 + 400 * MINUTE)).containsExactly(
+					new MappedCandleFile.TimeRange(t0, t0 + 100 * MINUTE - 1),
+					new MappedCandleFile.TimeRange(t0 + 150 * MINUTE, t0 + 300 * MINUTE - 1),
+					new MappedCandleFile.TimeRange(t0 + 310 * MINUTE, t0 + 400 * MINUTE));
+			assertThat(file.missing(t0 + 110 * MINUTE, t0 + 120 * MINUTE)).isEmpty();
+
+			// Antes da primeira e entre trechos; velas já gravadas são ignoradas
+			assertThat(file.insert(candles(t0, 120))).isEqualTo(100);
+			assertThat(file.insert(candles(t0 + 140 * MINUTE, 170))).isEqualTo(150);
+			assertThat(file.insert(candles(t0, 10))).isZero();
+			file.markCovered(t0, t0 + 100 * MINUTE - 1);
+			file.markCovered(t0 + 150 * MINUTE, t0 + 300 * MINUTE - 1);
+			assertThat(before.size()).isEqualTo(60);
+			assertThat(before.openTime(0)).isEqualTo(t0 + 100 * MINUTE);
+			assertThat(file.size()).isEqualTo(310);
+			assertThat(file.append(candles(t0 + 310 * MINUTE, 5))).isEqualTo(5);
+		}
+		try (MappedCandleFile reopened = MappedCandleFile.open(path)) {
+			assertThat(reopened.size()).isEqualTo(315);
+			assertThat(reopened.coveredFrom()).isEqualTo(t0);
+			assertThat(reopened.covered()).containsExactly(new MappedCandleFile.TimeRange(t0, t0 + 310 * MINUTE - 1));
+			CandleSeries series = reopened.series();
+			for (int i = 0; i < series.size(); i++) {
+				assertThat(series.openTime(i)).isEqualTo(t0 + i * MINUTE);
+				assertThat(series.close(i)).isEqualTo(price(t0 + i * MINUTE));
+			}
+		}
+		assertThat(Files.exists(directory.resolve("file.candles.tmp"))).isFalse();
+	}
+
+	@Test
+	void fillsOnlyTheRequestedWindowAndLeavesGapsBetweenWindows() {
+		CandleStore store = new CandleStore(directory);
+		StoredMarketDataService service = service(store);
+		long now = System.currentTimeMillis();
+		// 18 meses atrás: o store não busca nada além das 100 velas pedidas
+		long start = (now - 540L * 24 * 60 * MINUTE) / MINUTE * MINUTE;
+
+		CandleSeries old = service.getCandleSeries("BTCUSDT", "1m", 100, start, null);
+		assertThat(old.size()).isEqualTo(100);
+		assertThat(old.openTime(99)).isEqualTo(start + 99 * MINUTE);
+		assertThat(requestedStartTimes).containsExactly(start);
+
+		requestedStartTimes.clear();
+		CandleSeries recent = service.getCandleSeries("BTCUSDT", "1m", 50, null, null);
+		assertThat(recent.size()).isEqualTo(50);
+		assertThat(requestedStartTimes).allMatch(requested -> requested > now - 60 * MINUTE);
+		MappedCandleFile file = store.file("BTCUSDT", KlineInterval.ONE_MINUTE);
+		assertThat(file.covered()).hasSize(2);
+		assertThat(file.size()).isEqualTo(149);
+
+		// Janela que avança sobre a lacuna: só a parte descoberta é buscada e inserida no meio
+		requestedStartTimes.clear();
+		CandleSeries overlapping = service.getCandleSeries("BTCUSDT", "1m", 100, start + 50 * MINUTE, null);
+		assertThat(requestedStartTimes).containsExactly(start + 100 * MINUTE);
+		for (int i = 0; i < overlapping.size(); i++) {
+			assertThat(overlapping.openTime(i)).isEqualTo(start + (50 + i) * MINUTE);
+			assertThat(overlapping.close(i)).isEqualTo(price(start + (50 + i) * MINUTE));
+		}
+		assertThat(overlapping.size()).isEqualTo(100);
+		assertThat(file.size()).isEqualTo(199);
+		assertThat(file.covered()).hasSize(2);
+		store.close();
+	}
+
+	@Test
+	void rejectsInvalidSymbolsAndCreatesFilesOnlyWhenCandlesArrive() throws IOException {
+		CandleStore store = new CandleStore(directory);
+		StoredMarketDataService service = service(store);
+
+		assertThatThrownBy(() -> service.getCandleSeries("../../tmp/x", "1m", 10, null, null))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> service.getClosedCandleRange("BTC/USDT", "1m", 0, 1))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThat(service.getCandleSeries("EMPTYUSDT", "1m", 10, null, null).isEmpty()).isTrue();
+		store.close();
+
+		try (var entries = Files.list(directory)) {
+			assertThat(entries).isEmpty();
+		}
+	}
+
+	@Test
+	void extendsStoredHistoryBackward() {
+		CandleStore store = new CandleStore(directory);
+		StoredMarketDataService service = service(store);
+		CandleSeries recent = service.getCandleSeries("BTCUSDT", "1m", 100, null, null);
+		MappedCandleFile file = store.file("BTCUSDT", KlineInterval.ONE_MINUTE);
+		long coveredFrom = file.coveredFrom();
+		CandleSeries before = file.series();
+
+		requestedStartTimes.clear();
+		long start = coveredFrom - 400 * MINUTE;
+		CandleSeries earlier = service.getCandleSeries("BTCUSDT", "1m", 450, start, null);
+
+		assertThat(recent.size()).isEqualTo(100);
+		assertThat(earlier.size()).isEqualTo(450);
+		for (int i = 0; i < earlier.size(); i++) {
+			assertThat(earlier.openTime(i)).isEqualTo(start + i * MINUTE);
+			assertThat(earlier.close(i)).isEqualTo(price(start + i * MINUTE));
+		}
+		assertThat(file.coveredFrom()).isEqualTo(start);
+		assertThat(before.openTime(0)).isEqualTo(coveredFrom);
+		// Só o trecho anterior ao histórico gravado foi pedido (e talvez a cauda nova e a vela em formação)
+		assertThat(requestedStartTimes).contains(start)
+				.allMatch(requested -> requested < coveredFrom || requested > before.openTime(before.size() - 1));
+		store.close();
+	}
+
+	@Test
+	void servesFromDiskAndFetchesOnlyTheMissingTail() {
+		CandleStore store = new CandleStore(directory);
+		CandleSeries first = service(store).getCandleSeries("BTCUSDT", "1m", 300, null, null);
+		store.close();
+
+		assertThat(first.size()).isEqualTo(300);
+		long lastClosed = first.openTime(298);
+		for (int i = 1; i < first.size(); i++) {
+			assertThat(first.openTime(i) - first.openTime(i - 1)).isEqualTo(MINUTE);
+			assertThat(first.close(i)).isEqualTo(price(first.openTime(i)));
+		}
+
+		// "Reinício": novo store sobre o mesmo diretório
+		requestedStartTimes.clear();
+		CandleStore reopened = new CandleStore(directory);
+		CandleSeries second = service(reopened).getCandleSeries("BTCUSDT", "1m", 200, null, null);
+		reopened.close();
+
+		assertThat(second.size()).isEqualTo(200);
+		assertThat(second.openTime(199)).isGreaterThanOrEqualTo(first.openTime(299));
+		// Só a cauda após a última vela gravada (e a vela em formação) foi pedida
+		assertThat(requestedStartTimes).isNotEmpty().allMatch(start -> start > lastClosed);
+	}
+
+	private StoredMarketDataService service(CandleStore store) {
+		BinanceMarketDataService binance = new BinanceMarketDataService(new RestTemplate(),
+				new RequestWeightLimiter(1_000), "http://localhost:" + server.getAddress().getPort());
+		return new StoredMarketDataService(binance, new HistoricalBackfillService(binance, 4, 100), store, 10_000);
+	}
+
+	private static CandleSeries candles(long start, int count) {
+		var builder = CandleSeries.builder(count);
+		for (int i = 0; i < count; i++) {
+			long t = start + i * MINUTE;
+			builder.add(t, price(t), price(t) + 1, price(t) - 1, price(t), 10, t + MINUTE - 1, 15, 7, 5, 7.5);
+		}
+		return builder.build();
+	}
+
+	private static double price(long openTime) {
+		return 100 + (openTime / MINUTE) % 1000;
+	}
+
+	private void klines(HttpExchange exchange) throws IOException {
+		try {
+			Map<String, String> query = new HashMap<>();
+			for (String pair : exchange.getRequestURI().getQuery().split("&")) {
+				String[] kv = pair.split("=", 2);
+				query.put(kv[0], kv[1]);
+			}
+			long now = System.currentTimeMillis();
+			long currentOpen = now - now % MINUTE;
+			if (query.get("symbol").equals("EMPTYUSDT")) {
+				// Par sem velas no período
+				currentOpen = Long.MIN_VALUE;
+			}
+			int limit = Integer.parseInt(query.getOrDefault("limit", "500"));
+			long endTime = query.containsKey("endTime") ? Long.parseLong(query.get("endTime")) : now;
+			long first;
+			if (query.containsKey("startTime")) {
+				long startTime = Long.parseLong(query.get("startTime"));
+				requestedStartTimes.add(startTime);
+				first = (startTime + MINUTE - 1) / MINUTE * MINUTE;
+			} else {
+				first = Math.min(endTime, currentOpen) / MINUTE * MINUTE - (limit - 1) * MINUTE;
+			}
+			StringBuilder json = new StringBuilder("[");
+			int count = 0;
+			for (long t = first; t <= Math.min(endTime, currentOpen) && count < limit; t += MINUTE, count++) {
+				if (json.length() > 1) {
+					json.append(',');
+				}
+				json.append(String.format(Locale.ROOT,
+						"[%d,\"%s\",\"%s\",\"%s\",\"%s\",\"10.0\",%d,\"15.0\",7,\"5.0\",\"7.5\",\"0\"]", t,
+						price(t), price(t) + 1, price(t) - 1, price(t), t + MINUTE - 1));
+			}
+			byte[] body = json.append(']').toString().getBytes(StandardCharsets.UTF_8);
+			exchange.getResponseHeaders().add("Content-Type", "application/json");
+			exchange.sendResponseHeaders(200, body.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(body);
+			}
+		} finally {
+			exchange.close();
+		}
+	}
+}
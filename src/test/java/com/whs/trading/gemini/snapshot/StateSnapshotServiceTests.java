@@ -0,0 +1,129 @@
+package com.whs.trading.gemini.snapshot;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.web.client.RestTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.whs.trading.gemini.alert.AlertBroadcaster;
+import com.whs.trading.gemini.alert.AlertEngine;
+import com.whs.trading.gemini.alert.AlertRule;
+import com.whs.trading.gemini.dto.ArrayCandleSeries;
+import com.whs.trading.gemini.dto.CandleSeries;
+import com.whs.trading.gemini.dto.KlineInterval;
+import com.whs.trading.gemini.service.BinanceKlineStreamService;
+import com.whs.trading.gemini.service.BinanceMarketDataService;
+import com.whs.trading.gemini.service.RequestWeightLimiter;
+
+/**
+ * Reinício a quente: o primeiro processo grava caudas e alertas, o segundo parte do arquivo. O REST de cada um
+ * é um stub com velas até um horário fixo (o stream aponta para uma porta fechada e só tenta reconectar).
+ */
+class StateSnapshotServiceTests {
+
+	private static final long MINUTE = KlineInterval.ONE_MINUTE.getMillis();
+
+	@TempDir
+	Path directory;
+
+	private final AlertBroadcaster broadcaster = new AlertBroadcaster(16, AlertBroadcaster.DropPolicy.DROP_OLDEST, 30);
+	private final List<BinanceKlineStreamService> streams = new ArrayList<>();
+
+	@AfterEach
+	void stop() {
+		streams.forEach(BinanceKlineStreamService::stop);
+		broadcaster.shutdown();
+	}
+
+	@Test
+	void warmRestartFetchesOnlyTheCandlesClosedSinceTheSnapshot() throws IOException {
+		long current = KlineInterval.ONE_MINUTE.openTimeOf(System.currentTimeMillis());
+		Path path = directory.resolve("state.snapshot");
+
+		// Primeiro processo: última vela fechada há 5 minutos
+		List<Long> firstRun = new CopyOnWriteArrayList<>();
+		BinanceKlineStreamService before = stream(rest(current - 5 * MINUTE, firstRun));
+		AlertEngine engineBefore = new AlertEngine(before, broadcaster);
+		engineBefore.addRule(new AlertRule("oversold", "BTCUSDT", "1m", "rsi(14) < 40"));
+		CandleSeries saved = before.getTail("BTCUSDT", "1m");
+		engineBefore.onCandleClosed("BTCUSDT", "1m", saved);
+		new StateSnapshotService(before, engineBefore, path, true, 60).write();
+		assertThat(firstRun).containsExactly(-1L);
+		assertThat(Files.exists(path)).isTrue();
+
+		// Segundo processo: a regra gravada assina o símbolo, que parte da cauda gravada
+		List<Long> secondRun = new CopyOnWriteArrayList<>();
+		BinanceKlineStreamService after = stream(rest(current, secondRun));
+		AlertEngine engineAfter = new AlertEngine(after, broadcaster);
+		assertThat(new StateSnapshotService(after, engineAfter, path, true, 60).restore()).isTrue();
+
+		long savedLast = saved.openTime(saved.size() - 1);
+		assertThat(secondRun).containsExactly(savedLast + MINUTE);
+		assertThat(after.getRestoredCandleCount()).isEqualTo((long) saved.size());
+		CandleSeries tail = after.getTail("BTCUSDT", "1m");
+		assertThat(tail.size()).isEqualTo(60);
+		assertThat(tail.openTime(tail.size() - 1)).isGreaterThanOrEqualTo(savedLast + 4 * MINUTE);
+		for (int i = 0; i < tail.size(); i++) {
+			assertThat(tail.openTime(i)).isEqualTo(tail.openTime(0) + i * MINUTE);
+		}
+
+		assertThat(engineAfter.getRules().get(0).condition()).isEqualTo("rsi(14) < 40");
+		engineAfter.onCandleClosed("BTCUSDT", "1m", tail);
+		assertThat(engineAfter.getRestoredStateCount()).isEqualTo(1L);
+	}
+
+	@Test
+	void startsColdFromAnotherVersion() throws IOException {
+		Path path = directory.resolve("state.snapshot");
+		try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(path))) {
+			out.writeInt(StateSnapshotService.MAGIC);
+			out.writeInt(StateSnapshotService.VERSION + 1);
+			out.writeLong(System.currentTimeMillis());
+		}
+		BinanceKlineStreamService stream = stream(rest(System.currentTimeMillis(), new ArrayList<>()));
+		AlertEngine engine = new AlertEngine(stream, broadcaster);
+
+		assertThat(new StateSnapshotService(stream, engine, path, true, 60).restore()).isFalse();
+		assertThat(new StateSnapshotService(stream, engine, directory.resolve("missing"), true, 60).restore()).isFalse();
+		assertThat(engine.getRules().size()).isEqualTo(0);
+	}
+
+	private BinanceKlineStreamService stream(BinanceMarketDataService rest) {
+		BinanceKlineStreamService stream = new BinanceKlineStreamService(rest, new ObjectMapper(), "ws://localhost:1",
+				60, 200, false, List.of(), List.of("1m"), List.of(), 10_000, null);
+		streams.add(stream);
+		return stream;
+	}
+
+	/**
+	 * Velas de 1m até {@code latest} (inclusive), como se {@code latest} fosse a última vela fechada ou em formação.
+	 */
+	private static BinanceMarketDataService rest(long latest, List<Long> startTimes) {
+		return new BinanceMarketDataService(new RestTemplate(), new RequestWeightLimiter(6_000, 60_000L),
+				"http://localhost:1") {
+			@Override
+			public CandleSeries getCandleSeries(String symbol, String interval, Integer limit, Long startTime,
+					Long endTime) {
+				startTimes.add(startTime == null ? -1L : startTime);
+				long from = startTime != null ? startTime : latest - (limit - 1) * MINUTE;
+				ArrayCandleSeries.Builder builder = CandleSeries.builder(limit);
+				for (long t = from; t <= latest && builder.size() < limit; t += MINUTE) {
+					double price = 100 + 5 * Math.sin(t / MINUTE * 0.3);
+					builder.add(t, price, price + 1, price - 1, price, 10, t + MINUTE - 1, 0, 0, 0, 0);
+				}
+				return builder.build();
+			}
+		};
+	}
+}